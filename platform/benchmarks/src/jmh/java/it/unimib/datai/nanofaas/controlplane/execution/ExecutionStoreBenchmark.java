@@ -0,0 +1,100 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionStoreProperties;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of {@link ExecutionStore} operations on a store holding {@code storedExecutions} live
+ * executions. {@code putAndRemove} stores and drops a spare record so the size stays constant;
+ * {@code evictExpired} is a janitor sweep with nothing due, its steady-state cost. The store's
+ * own janitor is effectively disabled so it does not run concurrently with the measurement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExecutionStoreBenchmark {
+    private static final int SPARE_RECORDS = 1024;
+
+    @Param({"10000", "100000"})
+    int storedExecutions;
+
+    private final AtomicInteger nextSpare = new AtomicInteger();
+    private ExecutionStore store;
+    private String[] storedIds;
+    private ExecutionRecord[] spares;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new ExecutionStore(new ExecutionStoreProperties(
+                null, null, null, null, Duration.ofDays(1)));
+        storedIds = new String[storedExecutions];
+        for (int i = 0; i < storedExecutions; i++) {
+            ExecutionRecord record = record("exec-" + i);
+            store.put(record);
+            storedIds[i] = record.executionId();
+        }
+        spares = new ExecutionRecord[SPARE_RECORDS];
+        for (int i = 0; i < SPARE_RECORDS; i++) {
+            spares[i] = record("spare-" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.shutdown();
+    }
+
+    @Benchmark
+    public ExecutionRecord getOrNull() {
+        return store.getOrNull(storedIds[ThreadLocalRandom.current().nextInt(storedExecutions)]);
+    }
+
+    @Benchmark
+    public void putAndRemove() {
+        ExecutionRecord spare = spares[nextSpare.getAndIncrement() & (SPARE_RECORDS - 1)];
+        store.put(spare);
+        store.remove(spare.executionId());
+    }
+
+    @Benchmark
+    public void evictExpired() {
+        store.evictExpired();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ExecutionRecord getOrNullContended() {
+        return getOrNull();
+    }
+
+    private static ExecutionRecord record(String executionId) {
+        InvocationTask task = new InvocationTask(executionId, "bench", null,
+                new InvocationRequest("payload", Map.of()), null, null, Instant.now(), 1);
+        return new ExecutionRecord(executionId, task);
+    }
+}
@@ -0,0 +1,76 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of {@link IdempotencyStore#acquireOrGet} on a store holding {@code storedKeys} published
+ * keys: a hit on one of them, a duplicate of a key whose claim is still pending, and a claim of
+ * an unseen key that is then abandoned so the store keeps its size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IdempotencyStoreBenchmark {
+    private static final String FUNCTION = "bench";
+
+    @Param("100000")
+    int storedKeys;
+
+    private final AtomicLong newKeys = new AtomicLong();
+    private IdempotencyStore store;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new IdempotencyStore();
+        keys = new String[storedKeys];
+        for (int i = 0; i < storedKeys; i++) {
+            keys[i] = "key-" + i;
+            store.put(FUNCTION, keys[i], "exec-" + i);
+        }
+        store.acquireOrGet(FUNCTION, "pending");
+    }
+
+    @Benchmark
+    public IdempotencyStore.AcquireResult acquireExisting() {
+        return store.acquireOrGet(FUNCTION, keys[ThreadLocalRandom.current().nextInt(storedKeys)]);
+    }
+
+    @Benchmark
+    public IdempotencyStore.AcquireResult acquirePending() {
+        return store.acquireOrGet(FUNCTION, "pending");
+    }
+
+    @Benchmark
+    public IdempotencyStore.AcquireResult acquireNewAndAbandon() {
+        String key = "new-" + newKeys.incrementAndGet();
+        IdempotencyStore.AcquireResult claim = store.acquireOrGet(FUNCTION, key);
+        store.abandonClaim(FUNCTION, key, claim.executionIdOrToken());
+        return claim;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public IdempotencyStore.AcquireResult acquireExistingContended() {
+        return acquireExisting();
+    }
+}
@@ -0,0 +1,92 @@
+package it.unimib.datai.nanofaas.controlplane.service;
+
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionStoreProperties;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
+import it.unimib.datai.nanofaas.controlplane.service.InvocationExecutionFactory.ExecutionLookup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of admitting an invocation through {@link InvocationExecutionFactory}: without an
+ * idempotency key, with a key seen for the first time, and with a key replayed while its
+ * execution is still stored. New executions are abandoned right after creation, as a rejected
+ * admission would, so the store does not grow across iterations; their cost includes that
+ * removal.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvocationExecutionFactoryBenchmark {
+    private static final String FUNCTION = "bench";
+
+    private final AtomicLong keys = new AtomicLong();
+    private ExecutionStore executionStore;
+    private InvocationExecutionFactory factory;
+    private FunctionSpec spec;
+    private InvocationRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executionStore = new ExecutionStore(new ExecutionStoreProperties(null, null, null));
+        factory = new InvocationExecutionFactory(executionStore, new IdempotencyStore());
+        spec = new FunctionSpec(FUNCTION, "image:latest", List.of(), Map.of(), null,
+                30000, 4, 100, 3, null, ExecutionMode.LOCAL, null, null, null);
+        request = new InvocationRequest("payload", Map.of());
+        factory.createOrReuseExecution(FUNCTION, spec, request, "replayed", null).publishAdmission();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executionStore.shutdown();
+    }
+
+    @Benchmark
+    public ExecutionLookup withoutIdempotencyKey() {
+        return abandoned(factory.createOrReuseExecution(FUNCTION, spec, request, null, null));
+    }
+
+    @Benchmark
+    public ExecutionLookup withNewIdempotencyKey() {
+        String key = Long.toString(keys.incrementAndGet());
+        return abandoned(factory.createOrReuseExecution(FUNCTION, spec, request, key, null));
+    }
+
+    @Benchmark
+    public ExecutionLookup withReplayedIdempotencyKey() {
+        return factory.createOrReuseExecution(FUNCTION, spec, request, "replayed", null);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public ExecutionLookup withoutIdempotencyKeyContended() {
+        return withoutIdempotencyKey();
+    }
+
+    private static ExecutionLookup abandoned(ExecutionLookup lookup) {
+        lookup.abandonAdmission();
+        return lookup;
+    }
+}
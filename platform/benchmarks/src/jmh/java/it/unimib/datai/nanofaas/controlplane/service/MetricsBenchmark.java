@@ -0,0 +1,101 @@
+package it.unimib.datai.nanofaas.controlplane.service;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-invocation {@link Metrics} calls against the Prometheus registry the control
+ * plane runs with, spread over a handful of registered functions. Counters are incremented both
+ * by function name, which looks the function's meters up, and through the
+ * {@link Metrics.FunctionMeters} handle an execution carries, each with 1, 8 and 64 threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+    private static final String[] FUNCTIONS = {"fn-0", "fn-1", "fn-2", "fn-3", "fn-4", "fn-5", "fn-6", "fn-7"};
+
+    private Metrics metrics;
+    private Metrics.FunctionMeters[] handles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        metrics = new Metrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        handles = new Metrics.FunctionMeters[FUNCTIONS.length];
+        for (int i = 0; i < FUNCTIONS.length; i++) {
+            metrics.registerFunction(FUNCTIONS[i]);
+            handles[i] = metrics.meters(FUNCTIONS[i]);
+        }
+    }
+
+    @Benchmark
+    public void enqueue() {
+        metrics.enqueue(FUNCTIONS[function()]);
+    }
+
+    @Benchmark
+    public void success() {
+        metrics.success(FUNCTIONS[function()]);
+    }
+
+    @Benchmark
+    public void recordLatency() {
+        metrics.latency(FUNCTIONS[function()]).record(5, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public void dispatchByName1() {
+        metrics.dispatch(FUNCTIONS[function()]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void dispatchByName8() {
+        dispatchByName1();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void dispatchByName64() {
+        dispatchByName1();
+    }
+
+    @Benchmark
+    public void dispatchByHandle1() {
+        handles[function()].dispatch();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void dispatchByHandle8() {
+        dispatchByHandle1();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void dispatchByHandle64() {
+        dispatchByHandle1();
+    }
+
+    private static int function() {
+        return ThreadLocalRandom.current().nextInt(FUNCTIONS.length);
+    }
+}
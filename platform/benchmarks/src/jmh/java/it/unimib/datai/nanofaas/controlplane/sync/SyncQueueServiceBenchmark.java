@@ -0,0 +1,116 @@
+package it.unimib.datai.nanofaas.controlplane.sync;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionStoreProperties;
+import it.unimib.datai.nanofaas.controlplane.config.SyncQueueProperties;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Cost of the {@link SyncQueueService} admission and scheduler paths with a standing backlog of
+ * {@code backlog} items spread over {@code functions} functions. {@code enqueueAndDispatch}
+ * admits one task and dispatches one, so the backlog stays constant; {@code findReadyMatching}
+ * is the scheduler looking for dispatchable work without taking it. Admission always computes
+ * the wait estimate; rejecting on it is off so the standing backlog is never refused. Tasks carry
+ * caller budgets that vary by up to a second, so {@code EDF} lanes do reorder them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SyncQueueServiceBenchmark {
+    private static final Predicate<InvocationTask> ANY = task -> true;
+
+    @Param({"1", "64"})
+    int functions;
+
+    @Param("1000")
+    int backlog;
+
+    @Param({"FIFO", "EDF"})
+    SyncQueueOrdering ordering;
+
+    private ExecutionStore executionStore;
+    private SyncQueueService queue;
+    private InvocationTask[] tasks;
+    private Duration[] budgets;
+    private int next;
+    private int nextBudget;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, backlog * 2, Duration.ofDays(1), Duration.ofDays(1), 2, Duration.ofSeconds(30), 3,
+                null, null, ordering);
+        executionStore = new ExecutionStore(new ExecutionStoreProperties(null, null, null));
+        queue = new SyncQueueService(props, executionStore,
+                new SyncQueueMetrics(new SimpleMeterRegistry()),
+                SyncQueueConfigSource.fixed(props.runtimeDefaults()));
+        tasks = new InvocationTask[functions];
+        for (int i = 0; i < functions; i++) {
+            tasks[i] = new InvocationTask("exec-" + i, "fn-" + i, null,
+                    new InvocationRequest("payload", Map.of()), null, null, Instant.now(), 1);
+        }
+        budgets = new Duration[64];
+        for (int i = 0; i < budgets.length; i++) {
+            budgets[i] = Duration.ofHours(1).plusMillis((i * 379L) % 1000);
+        }
+        for (int i = 0; i < backlog; i++) {
+            queue.enqueueOrThrow(nextTask(), nextBudget());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executionStore.shutdown();
+    }
+
+    @Benchmark
+    public SyncQueueItem enqueueAndDispatch() {
+        queue.enqueueOrThrow(nextTask(), nextBudget());
+        Instant now = Instant.now();
+        SyncQueueItem item = queue.findReadyMatching(now, ANY);
+        queue.removeReady(item, now);
+        queue.recordDispatched(item, now);
+        return item;
+    }
+
+    @Benchmark
+    public SyncQueueItem findReadyMatching() {
+        return queue.findReadyMatching(Instant.now(), ANY);
+    }
+
+    private InvocationTask nextTask() {
+        InvocationTask task = tasks[next];
+        next = (next + 1) % functions;
+        return task;
+    }
+
+    private Duration nextBudget() {
+        Duration budget = budgets[nextBudget];
+        nextBudget = (nextBudget + 1) % budgets.length;
+        return budget;
+    }
+}
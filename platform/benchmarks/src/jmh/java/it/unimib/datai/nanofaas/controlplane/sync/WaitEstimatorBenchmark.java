@@ -0,0 +1,74 @@
+package it.unimib.datai.nanofaas.controlplane.sync;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of {@link WaitEstimator} at a sustained 50k dispatches/s spread over a handful of
+ * functions, with the throughput window already full. Time is simulated: every recorded
+ * dispatch advances the clock by {@code 1s / dispatchesPerSecond}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitEstimatorBenchmark {
+    private static final String[] FUNCTIONS = {"fn-0", "fn-1", "fn-2", "fn-3", "fn-4", "fn-5", "fn-6", "fn-7"};
+
+    @Param({"SLIDING_WINDOW", "EWMA"})
+    WaitEstimatorMode mode;
+
+    @Param("50000")
+    int dispatchesPerSecond;
+
+    @Param("30")
+    int windowSeconds;
+
+    private WaitEstimator estimator;
+    private long stepNanos;
+    private final AtomicLong clock = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        estimator = new WaitEstimator(Duration.ofSeconds(windowSeconds), Duration.ofSeconds(1), 50, mode);
+        stepNanos = 1_000_000_000L / dispatchesPerSecond;
+        long dispatches = (long) dispatchesPerSecond * windowSeconds;
+        for (long i = 0; i < dispatches; i++) {
+            estimator.recordDispatch(FUNCTIONS[(int) (i & 7)], clock.addAndGet(stepNanos));
+        }
+    }
+
+    @Benchmark
+    public void recordDispatch() {
+        long now = clock.addAndGet(stepNanos);
+        estimator.recordDispatch(FUNCTIONS[(int) (now / stepNanos) & 7], now);
+    }
+
+    @Benchmark
+    public double estimateWaitSeconds() {
+        return estimator.estimateWaitSeconds(FUNCTIONS[3], 100, clock.get());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordDispatchContended() {
+        recordDispatch();
+    }
+}
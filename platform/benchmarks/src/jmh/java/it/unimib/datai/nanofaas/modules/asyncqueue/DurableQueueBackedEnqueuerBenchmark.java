@@ -0,0 +1,109 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tasks per second accepted by {@link DurableQueueBackedEnqueuer} per fsync policy, with 1 and 8
+ * enqueuing threads; concurrent enqueues are what {@code GROUP} batches into one force. Each
+ * operation logs and queues a task of {@code payloadBytes} and takes one back off the queue, and
+ * the task has no stored execution, so its record is marked done at once and segments are
+ * compacted as they fill, as in a steady state. The log lives in a temporary directory, so the
+ * numbers depend on the disk behind {@code java.io.tmpdir}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DurableQueueBackedEnqueuerBenchmark {
+    private static final String FUNCTION = "bench";
+
+    @Param({"ALWAYS", "GROUP", "PERIODIC"})
+    DurableQueueProperties.Fsync fsync;
+
+    @Param("512")
+    int payloadBytes;
+
+    private Path directory;
+    private ExecutionStore executionStore;
+    private QueueManager queueManager;
+    private FunctionQueueState state;
+    private DurableQueueBackedEnqueuer enqueuer;
+    private InvocationTask task;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("nanofaas-task-log-bench");
+        executionStore = new ExecutionStore();
+        queueManager = new QueueManager(new SimpleMeterRegistry());
+        FunctionSpec spec = new FunctionSpec(FUNCTION, "image:latest", List.of(), Map.of(), null,
+                30000, 4, 100_000, 3, null, ExecutionMode.DEPLOYMENT, null, null, null);
+        state = queueManager.getOrCreate(spec);
+        enqueuer = new DurableQueueBackedEnqueuer(queueManager,
+                new DurableQueueProperties(true, directory, DataSize.ofMegabytes(16), fsync, Duration.ofMillis(100)),
+                new ObjectMapper().registerModule(new JavaTimeModule()),
+                executionStore, new IdempotencyStore(), new ExecutionPayloadStore(), new SimpleMeterRegistry());
+        task = new InvocationTask("exec", FUNCTION, spec,
+                new InvocationRequest(Map.of("data", "x".repeat(payloadBytes)), Map.of()),
+                null, null, Instant.now(), 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        enqueuer.close();
+        executionStore.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public InvocationTask enqueue1() {
+        enqueuer.enqueue(task);
+        return state.poll();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public InvocationTask enqueue8() {
+        return enqueue1();
+    }
+}
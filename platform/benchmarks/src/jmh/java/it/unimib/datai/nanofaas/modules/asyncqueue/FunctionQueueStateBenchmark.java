@@ -0,0 +1,141 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enqueue throughput of {@link FunctionQueueState} per {@link QueueStrategy} with 1, 8 and 64
+ * request threads offering while one scheduler thread polls, as in production.
+ *
+ * <p>Once producers outrun the poller the queue stays full and most offers are rejected, so the
+ * primary score mixes cheap rejections with real hand-offs. The {@code accepted},
+ * {@code rejected}, {@code polled} and {@code empty} counters break it down; {@code accepted}
+ * is the hand-off throughput to compare across strategies.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class FunctionQueueStateBenchmark {
+
+    @Param({"LOCKING", "MPSC_RING"})
+    QueueStrategy strategy;
+
+    @Param("1024")
+    int queueSize;
+
+    private FunctionQueueState state;
+    private InvocationTask task;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class OfferCounters {
+        public long accepted;
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            accepted = 0;
+            rejected = 0;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PollCounters {
+        public long polled;
+        public long empty;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            polled = 0;
+            empty = 0;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        state = new FunctionQueueState("bench", queueSize, 1, strategy);
+        task = new InvocationTask("exec", "bench", null, new InvocationRequest("payload", Map.of()),
+                null, null, Instant.now(), 1);
+    }
+
+    @Benchmark
+    @Group("producers1")
+    @GroupThreads(1)
+    public void offer1(OfferCounters counters) {
+        offer(counters);
+    }
+
+    @Benchmark
+    @Group("producers1")
+    @GroupThreads(1)
+    public void poll1(PollCounters counters) {
+        poll(counters);
+    }
+
+    @Benchmark
+    @Group("producers8")
+    @GroupThreads(8)
+    public void offer8(OfferCounters counters) {
+        offer(counters);
+    }
+
+    @Benchmark
+    @Group("producers8")
+    @GroupThreads(1)
+    public void poll8(PollCounters counters) {
+        poll(counters);
+    }
+
+    @Benchmark
+    @Group("producers64")
+    @GroupThreads(64)
+    public void offer64(OfferCounters counters) {
+        offer(counters);
+    }
+
+    @Benchmark
+    @Group("producers64")
+    @GroupThreads(1)
+    public void poll64(PollCounters counters) {
+        poll(counters);
+    }
+
+    private void offer(OfferCounters counters) {
+        if (state.offer(task)) {
+            counters.accepted++;
+        } else {
+            counters.rejected++;
+        }
+    }
+
+    private void poll(PollCounters counters) {
+        if (state.poll() != null) {
+            counters.polled++;
+        } else {
+            counters.empty++;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package it.unimib.datai.nanofaas.common.model;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Opt-in micro-batching for queued (async) invocations.
+ *
+ * <p>Up to {@code maxBatchSize} queued invocations are sent to the function in a single
+ * {@code /invoke-batch} request. A partial batch is held back for at most {@code maxLingerMs}
+ * (measured from the oldest queued invocation) waiting for more work.</p>
+ */
+public record BatchConfig(
+        @Min(1) Integer maxBatchSize,
+        @Min(0) Integer maxLingerMs
+) {
+    public boolean enabled() {
+        return maxBatchSize != null && maxBatchSize > 1;
+    }
+}
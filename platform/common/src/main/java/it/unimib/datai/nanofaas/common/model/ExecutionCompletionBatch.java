@@ -0,0 +1,19 @@
+package it.unimib.datai.nanofaas.common.model;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /v1/internal/executions:complete-batch}: results of several executions,
+ * each applied exactly like its own {@code /v1/internal/executions/{id}:complete} callback.
+ */
+public record ExecutionCompletionBatch(
+        List<Item> completions
+) {
+    public record Item(
+            String executionId,
+            String traceId,
+            Integer attempt,
+            InvocationResult result
+    ) {
+    }
+}
@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.common.model;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
@@ -20,8 +21,86 @@ public record FunctionSpec(
         RuntimeMode runtimeMode,
         String runtimeCommand,
         ScalingConfig scalingConfig,
-        List<String> imagePullSecrets
+        List<String> imagePullSecrets,
+        @Valid BatchConfig batchConfig,
+        @Valid RateLimitConfig rateLimit
 ) {
+    public FunctionSpec(
+            String name,
+            String image,
+            List<String> command,
+            Map<String, String> env,
+            ResourceSpec resources,
+            Integer timeoutMs,
+            Integer concurrency,
+            Integer queueSize,
+            Integer maxRetries,
+            String endpointUrl,
+            ExecutionMode executionMode,
+            RuntimeMode runtimeMode,
+            String runtimeCommand,
+            ScalingConfig scalingConfig,
+            List<String> imagePullSecrets,
+            BatchConfig batchConfig
+    ) {
+        this(
+                name,
+                image,
+                command,
+                env,
+                resources,
+                timeoutMs,
+                concurrency,
+                queueSize,
+                maxRetries,
+                endpointUrl,
+                executionMode,
+                runtimeMode,
+                runtimeCommand,
+                scalingConfig,
+                imagePullSecrets,
+                batchConfig,
+                null
+        );
+    }
+
+    public FunctionSpec(
+            String name,
+            String image,
+            List<String> command,
+            Map<String, String> env,
+            ResourceSpec resources,
+            Integer timeoutMs,
+            Integer concurrency,
+            Integer queueSize,
+            Integer maxRetries,
+            String endpointUrl,
+            ExecutionMode executionMode,
+            RuntimeMode runtimeMode,
+            String runtimeCommand,
+            ScalingConfig scalingConfig,
+            List<String> imagePullSecrets
+    ) {
+        this(
+                name,
+                image,
+                command,
+                env,
+                resources,
+                timeoutMs,
+                concurrency,
+                queueSize,
+                maxRetries,
+                endpointUrl,
+                executionMode,
+                runtimeMode,
+                runtimeCommand,
+                scalingConfig,
+                imagePullSecrets,
+                null
+        );
+    }
+
     public FunctionSpec(
             String name,
             String image,
@@ -0,0 +1,18 @@
+package it.unimib.datai.nanofaas.common.model;
+
+import java.util.List;
+
+/**
+ * Body of {@code POST /invoke-batch}: several independent executions of the same function.
+ */
+public record InvocationBatchRequest(
+        List<Item> items
+) {
+    public record Item(
+            String executionId,
+            String traceId,
+            Integer attempt,
+            InvocationRequest request
+    ) {
+    }
+}
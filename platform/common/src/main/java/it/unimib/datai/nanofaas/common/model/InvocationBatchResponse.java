@@ -0,0 +1,16 @@
+package it.unimib.datai.nanofaas.common.model;
+
+import java.util.List;
+
+/**
+ * Reply to {@code POST /invoke-batch}, one result per execution id of the request.
+ */
+public record InvocationBatchResponse(
+        List<Item> results
+) {
+    public record Item(
+            String executionId,
+            InvocationResult result
+    ) {
+    }
+}
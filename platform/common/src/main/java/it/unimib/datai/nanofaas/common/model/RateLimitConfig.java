@@ -0,0 +1,18 @@
+package it.unimib.datai.nanofaas.common.model;
+
+import jakarta.validation.constraints.Min;
+
+/**
+ * Optional per-function invocation rate limit, enforced in addition to the global one.
+ *
+ * <p>{@code maxPerSecond} is the sustained rate; {@code burst} is how many invocations may be
+ * admitted at once after an idle period (defaults to {@code maxPerSecond}).</p>
+ */
+public record RateLimitConfig(
+        @Min(1) Integer maxPerSecond,
+        @Min(1) Integer burst
+) {
+    public boolean enabled() {
+        return maxPerSecond != null && maxPerSecond > 0;
+    }
+}
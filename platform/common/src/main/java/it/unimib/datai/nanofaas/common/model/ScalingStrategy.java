@@ -3,5 +3,7 @@ package it.unimib.datai.nanofaas.common.model;
 public enum ScalingStrategy {
     HPA,
     INTERNAL,
+    /** INTERNAL scaling that also adds replicas for the load forecast one cold start ahead. */
+    PREDICTIVE,
     NONE
 }
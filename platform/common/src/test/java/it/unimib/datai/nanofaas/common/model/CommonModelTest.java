@@ -115,9 +115,10 @@ class CommonModelTest {
 
     @Test
     void scalingStrategy_values() {
-        assertEquals(3, ScalingStrategy.values().length);
+        assertEquals(4, ScalingStrategy.values().length);
         assertNotNull(ScalingStrategy.valueOf("HPA"));
         assertNotNull(ScalingStrategy.valueOf("INTERNAL"));
+        assertNotNull(ScalingStrategy.valueOf("PREDICTIVE"));
         assertNotNull(ScalingStrategy.valueOf("NONE"));
     }
 
@@ -1,8 +1,10 @@
 package it.unimib.datai.nanofaas.controlplane.api;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import it.unimib.datai.nanofaas.common.model.BatchConfig;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.RateLimitConfig;
 import it.unimib.datai.nanofaas.common.model.ResourceSpec;
 import it.unimib.datai.nanofaas.common.model.RuntimeMode;
 import it.unimib.datai.nanofaas.common.model.ScalingConfig;
@@ -30,7 +32,9 @@ public record FunctionResponse(
         RuntimeMode runtimeMode,
         String runtimeCommand,
         ScalingConfig scalingConfig,
-        List<String> imagePullSecrets
+        List<String> imagePullSecrets,
+        BatchConfig batchConfig,
+        RateLimitConfig rateLimit
 ) {
     public static FunctionResponse from(FunctionSpec spec,
                                         ExecutionMode requestedExecutionMode,
@@ -56,7 +60,9 @@ public record FunctionResponse(
                 spec.runtimeMode(),
                 spec.runtimeCommand(),
                 spec.scalingConfig(),
-                spec.imagePullSecrets()
+                spec.imagePullSecrets(),
+                spec.batchConfig(),
+                spec.rateLimit()
         );
     }
 
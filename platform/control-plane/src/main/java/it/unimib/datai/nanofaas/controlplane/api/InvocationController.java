@@ -1,9 +1,11 @@
 package it.unimib.datai.nanofaas.controlplane.api;
 
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import it.unimib.datai.nanofaas.common.model.ExecutionStatus;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.model.InvocationResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.registry.FunctionNotFoundException;
 import it.unimib.datai.nanofaas.controlplane.service.AsyncQueueUnavailableException;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationService;
@@ -23,6 +25,9 @@ import reactor.core.scheduler.Schedulers;
 @RequestMapping("/v1")
 @Validated
 public class InvocationController {
+    /** Header that keys the per-caller rate limit ({@code nanofaas.rate.per-caller-max-per-second}). */
+    private static final String CALLER_HEADER = "${nanofaas.rate.caller-header:X-Caller-Id}";
+
     private final InvocationService invocationService;
 
     public InvocationController(InvocationService invocationService) {
@@ -35,9 +40,11 @@ public class InvocationController {
             @RequestBody @Valid InvocationRequest request,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestHeader(value = "X-Trace-Id", required = false) String traceId,
-            @RequestHeader(value = "X-Timeout-Ms", required = false) Integer timeoutMs) {
+            @RequestHeader(value = "X-Timeout-Ms", required = false) Integer timeoutMs,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
         // defer: a synchronously thrown service exception must flow through onErrorResume
-        return Mono.defer(() -> invocationService.invokeSyncReactive(name, request, idempotencyKey, traceId, timeoutMs))
+        return Mono.defer(() -> invocationService.invokeSyncReactive(name, request, idempotencyKey, traceId, timeoutMs, caller))
+                .flatMap(InvocationController::withLoadedOutput)
                 .map(response -> ResponseEntity.ok()
                         .header("X-Execution-Id", response.executionId())
                         .body(response))
@@ -56,8 +63,9 @@ public class InvocationController {
             @PathVariable @NotBlank(message = "Function name is required") String name,
             @RequestBody @Valid InvocationRequest request,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
-            @RequestHeader(value = "X-Trace-Id", required = false) String traceId) {
-        return Mono.fromCallable(() -> invocationService.invokeAsync(name, request, idempotencyKey, traceId))
+            @RequestHeader(value = "X-Trace-Id", required = false) String traceId,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
+        return Mono.fromCallable(() -> invocationService.invokeAsync(name, request, idempotencyKey, traceId, caller))
                 .subscribeOn(Schedulers.boundedElastic())
                 .map(response -> ResponseEntity.status(HttpStatus.ACCEPTED).body(response))
                 .onErrorResume(FunctionNotFoundException.class, ex ->
@@ -71,11 +79,12 @@ public class InvocationController {
     }
 
     @GetMapping("/executions/{executionId}")
-    public ResponseEntity<ExecutionStatus> getExecution(
+    public Mono<ResponseEntity<ExecutionStatus>> getExecution(
             @PathVariable @NotBlank(message = "Execution ID is required") String executionId) {
-        return invocationService.getStatus(executionId)
+        return Mono.justOrEmpty(invocationService.getStatus(executionId))
+                .flatMap(InvocationController::withLoadedOutput)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/internal/executions/{executionId}:complete")
@@ -92,6 +101,35 @@ public class InvocationController {
         return ResponseEntity.noContent().build();
     }
 
+    /** Bulk form of {@link #completeExecution}, used by runtimes that coalesce their callbacks. */
+    @PostMapping("/internal/executions:complete-batch")
+    public ResponseEntity<Void> completeExecutions(@RequestBody ExecutionCompletionBatch batch) {
+        if (batch.completions() != null) {
+            invocationService.completeExecutions(batch.completions());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /** Reads a spilled compact output on boundedElastic so that serializing the body does no file I/O. */
+    private static Mono<InvocationResponse> withLoadedOutput(InvocationResponse response) {
+        if (!ExecutionPayloadStore.isSpilled(response.output())) {
+            return Mono.just(response);
+        }
+        return Mono.fromCallable(() -> new InvocationResponse(response.executionId(), response.status(),
+                        ExecutionPayloadStore.load(response.output()), response.error()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Mono<ExecutionStatus> withLoadedOutput(ExecutionStatus status) {
+        if (!ExecutionPayloadStore.isSpilled(status.output())) {
+            return Mono.just(status);
+        }
+        return Mono.fromCallable(() -> new ExecutionStatus(status.executionId(), status.status(), status.startedAt(),
+                        status.finishedAt(), ExecutionPayloadStore.load(status.output()), status.error(),
+                        status.coldStart(), status.initDurationMs()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
     private static Integer parseDispatchAttempt(String dispatchAttemptHeader) {
         if (dispatchAttemptHeader == null || dispatchAttemptHeader.isBlank()) {
             return null;
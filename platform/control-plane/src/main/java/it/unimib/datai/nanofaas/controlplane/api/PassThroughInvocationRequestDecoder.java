@@ -0,0 +1,91 @@
+package it.unimib.datai.nanofaas.controlplane.api;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.execution.RawJson;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractDataBufferDecoder;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Decodes {@link InvocationRequest} bodies without building an object graph for {@code input}.
+ *
+ * <p>The body is scanned with a streaming parser: {@code input} is kept as a {@link RawJson}
+ * slice of the received bytes, {@code metadata} is bound normally and unknown fields are
+ * skipped. A JSON {@code null} input stays {@code null} so bean validation still rejects it.</p>
+ */
+public class PassThroughInvocationRequestDecoder extends AbstractDataBufferDecoder<InvocationRequest> {
+    private static final TypeReference<Map<String, String>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    public PassThroughInvocationRequestDecoder(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        // Exact type match keeps this a typed reader, ordered ahead of the generic Jackson one.
+        return elementType.toClass() == InvocationRequest.class && super.canDecode(elementType, mimeType);
+    }
+
+    @Override
+    public InvocationRequest decode(DataBuffer dataBuffer, ResolvableType targetType,
+                                    MimeType mimeType, Map<String, Object> hints) {
+        byte[] bytes;
+        try {
+            bytes = new byte[dataBuffer.readableByteCount()];
+            dataBuffer.read(bytes);
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+        try {
+            return decode(bytes);
+        } catch (IOException ex) {
+            throw new DecodingException("JSON decoding error: " + ex.getMessage(), ex);
+        }
+    }
+
+    InvocationRequest decode(byte[] bytes) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(bytes)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodingException("Invocation request must be a JSON object");
+            }
+            Object input = null;
+            Map<String, String> metadata = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("input".equals(field)) {
+                    input = value == JsonToken.VALUE_NULL ? null : slice(parser, bytes);
+                } else if ("metadata".equals(field)) {
+                    metadata = value == JsonToken.VALUE_NULL ? null : parser.readValueAs(METADATA_TYPE);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new InvocationRequest(input, metadata);
+        }
+    }
+
+    private static RawJson slice(JsonParser parser, byte[] bytes) throws IOException {
+        int start = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        // Scalars are parsed lazily; finishing the token moves the location past its last byte.
+        parser.finishToken();
+        int end = (int) parser.currentLocation().getByteOffset();
+        return RawJson.of(bytes, start, end - start);
+    }
+}
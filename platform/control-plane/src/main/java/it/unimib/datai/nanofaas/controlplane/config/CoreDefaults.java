@@ -4,6 +4,7 @@ import it.unimib.datai.nanofaas.controlplane.registry.ImageValidator;
 import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistrationListener;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationEnqueuer;
 import it.unimib.datai.nanofaas.controlplane.service.Metrics;
+import it.unimib.datai.nanofaas.controlplane.service.RateLimiter;
 import it.unimib.datai.nanofaas.controlplane.service.ScalingMetricsSource;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueConfigSource;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueGateway;
@@ -14,7 +15,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Fallback;
 
 @Configuration
-@EnableConfigurationProperties(ExecutionStoreProperties.class)
+@EnableConfigurationProperties({ExecutionStoreProperties.class, ExecutionPayloadProperties.class})
 public class CoreDefaults {
 
     @Bean
@@ -55,7 +56,7 @@ public class CoreDefaults {
     }
 
     @Bean
-    public FunctionRegistrationListener metricsLifecycleListener(Metrics metrics) {
+    public FunctionRegistrationListener metricsLifecycleListener(Metrics metrics, RateLimiter rateLimiter) {
         return new FunctionRegistrationListener() {
             @Override
             public void onRegister(it.unimib.datai.nanofaas.common.model.FunctionSpec spec) {
@@ -65,6 +66,7 @@ public class CoreDefaults {
             @Override
             public void onRemove(String functionName) {
                 metrics.removeFunction(functionName);
+                rateLimiter.removeFunction(functionName);
             }
         };
     }
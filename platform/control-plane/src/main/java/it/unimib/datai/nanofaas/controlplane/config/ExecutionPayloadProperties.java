@@ -0,0 +1,54 @@
+package it.unimib.datai.nanofaas.controlplane.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Storage of request/response payloads held by execution records.
+ *
+ * <p>{@code mode}: {@code OBJECT} keeps the deserialized object graphs (default);
+ * {@code COMPACT} keeps payloads as serialized JSON bytes that are written back verbatim.
+ * {@code residentBudget}: heap bytes compact payloads may use before the least recently
+ * used ones are spilled to disk.
+ * {@code spillDirectory}: where spill segments are created.
+ * {@code spillSegmentSize}: size after which a new spill segment is started; a segment
+ * is deleted once none of its payloads is referenced anymore.
+ * {@code passThrough}: keep invocation inputs and function replies as the raw JSON bytes
+ * received instead of decoding them into object graphs; they are forwarded verbatim.</p>
+ */
+@ConfigurationProperties(prefix = "nanofaas.execution-store.payload")
+public record ExecutionPayloadProperties(
+        Mode mode,
+        DataSize residentBudget,
+        Path spillDirectory,
+        DataSize spillSegmentSize,
+        boolean passThrough
+) {
+    public enum Mode {
+        OBJECT,
+        COMPACT
+    }
+
+    public ExecutionPayloadProperties(Mode mode, DataSize residentBudget, Path spillDirectory, DataSize spillSegmentSize) {
+        this(mode, residentBudget, spillDirectory, spillSegmentSize, false);
+    }
+
+    @ConstructorBinding
+    public ExecutionPayloadProperties {
+        if (mode == null) {
+            mode = Mode.OBJECT;
+        }
+        if (residentBudget == null || residentBudget.isNegative()) {
+            residentBudget = DataSize.ofMegabytes(256);
+        }
+        if (spillDirectory == null) {
+            spillDirectory = Path.of(System.getProperty("java.io.tmpdir"), "nanofaas-payload-spill");
+        }
+        if (spillSegmentSize == null || spillSegmentSize.toBytes() <= 0) {
+            spillSegmentSize = DataSize.ofMegabytes(64);
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package it.unimib.datai.nanofaas.controlplane.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
 import java.time.Duration;
 
 /**
- * TTLs for the in-memory execution store.
+ * TTLs and layout of the in-memory execution store.
  *
  * <p>{@code ttl}: retention of terminal executions (status queryable window).
  * {@code cleanupTtl}: when heavy payloads of terminal executions are released.
  * {@code maxLifetime}: absolute cap after which even non-terminal (stuck) executions
- * are evicted to prevent unbounded growth.</p>
+ * are evicted to prevent unbounded growth.
+ * {@code shards}: number of independent store shards (rounded up to a power of two,
+ * defaults to the number of available processors).
+ * {@code sweepInterval}: how often the janitor drains expiry deadlines that have come due.</p>
  */
 @ConfigurationProperties(prefix = "nanofaas.execution-store")
 public record ExecutionStoreProperties(
         Duration ttl,
         Duration cleanupTtl,
-        Duration maxLifetime
+        Duration maxLifetime,
+        Integer shards,
+        Duration sweepInterval
 ) {
+    private static final int MAX_SHARDS = 1 << 12;
+
+    @ConstructorBinding
     public ExecutionStoreProperties {
         if (ttl == null || ttl.isNegative() || ttl.isZero()) {
             ttl = Duration.ofMinutes(5);
@@ -28,5 +37,17 @@ public record ExecutionStoreProperties(
         if (maxLifetime == null || maxLifetime.isNegative() || maxLifetime.isZero()) {
             maxLifetime = Duration.ofMinutes(30);
         }
+        if (shards == null || shards <= 0) {
+            shards = Runtime.getRuntime().availableProcessors();
+        }
+        shards = Math.min(shards, MAX_SHARDS);
+        shards = Integer.highestOneBit(shards) == shards ? shards : Integer.highestOneBit(shards) << 1;
+        if (sweepInterval == null || sweepInterval.isNegative() || sweepInterval.isZero()) {
+            sweepInterval = Duration.ofSeconds(1);
+        }
+    }
+
+    public ExecutionStoreProperties(Duration ttl, Duration cleanupTtl, Duration maxLifetime) {
+        this(ttl, cleanupTtl, maxLifetime, null, null);
     }
 }
@@ -6,21 +6,44 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
 /**
  * Configuration for HTTP clients used by dispatchers.
  * Provides properly configured WebClient bean with timeouts.
+ *
+ * <p>Requests share one {@link ConnectionProvider}, which keeps a separate pool per remote
+ * address, so every function pod gets its own bounded set of kept-alive connections instead of
+ * a connection per request. With {@code h2c} enabled each of those connections multiplexes
+ * concurrent invocations as HTTP/2 streams.</p>
  */
 @Configuration
 @EnableConfigurationProperties(HttpClientProperties.class)
 public class HttpClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider functionConnectionProvider(HttpClientProperties properties) {
+        return ConnectionProvider.builder("function-endpoints")
+                .maxConnections(properties.maxConnectionsPerEndpoint())
+                .pendingAcquireMaxCount(properties.pendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(properties.pendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(properties.maxIdleTimeMs()))
+                .maxLifeTime(Duration.ofMillis(properties.maxLifeTimeMs()))
+                .evictInBackground(Duration.ofMillis(properties.evictInBackgroundMs()))
+                .metrics(properties.poolMetrics())
+                .build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder, HttpClientProperties properties) {
-        HttpClient httpClient = HttpClient.create()
+    public WebClient webClient(WebClient.Builder builder, HttpClientProperties properties,
+                               ConnectionProvider functionConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(functionConnectionProvider)
+                .protocol(properties.h2c() ? HttpProtocol.H2C : HttpProtocol.HTTP11)
+                .keepAlive(true)
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, properties.connectTimeoutMs())
                 .responseTimeout(Duration.ofMillis(properties.readTimeoutMs()));
 
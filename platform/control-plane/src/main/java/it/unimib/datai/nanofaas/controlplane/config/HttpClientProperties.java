@@ -1,19 +1,44 @@
 package it.unimib.datai.nanofaas.controlplane.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
 /**
  * Configuration properties for HTTP client settings.
  *
  * <p>Defaults: connect timeout 5000 ms, read (response) timeout 30000 ms,
  * max in-memory codec buffer size 16 MB.
+ *
+ * <p>Connections to function endpoints are pooled per remote address.
+ * {@code maxConnectionsPerEndpoint}: connections (HTTP/2: multiplexed connections) per pod, default 64.
+ * {@code pendingAcquireMaxCount}: requests allowed to wait for a pooled connection per pod, default 1024.
+ * {@code pendingAcquireTimeoutMs}: how long a request waits for a connection, default 5000 ms.
+ * {@code maxIdleTimeMs}: idle connections are closed after this long, default 30000 ms.
+ * {@code maxLifeTimeMs}: connections are retired after this long, default 300000 ms.
+ * {@code evictInBackgroundMs}: interval of the background idle/lifetime sweep, default 30000 ms.
+ * {@code h2c}: talk cleartext HTTP/2 with prior knowledge; only enable when every runtime
+ * behind POOL/DEPLOYMENT functions serves h2c, default false.
+ * {@code poolMetrics}: export {@code reactor.netty.connection.provider.*} pool meters, default true.
  */
 @ConfigurationProperties(prefix = "nanofaas.http-client")
 public record HttpClientProperties(
         Integer connectTimeoutMs,
         Integer readTimeoutMs,
-        Integer maxInMemorySizeMb
+        Integer maxInMemorySizeMb,
+        Integer maxConnectionsPerEndpoint,
+        Integer pendingAcquireMaxCount,
+        Integer pendingAcquireTimeoutMs,
+        Integer maxIdleTimeMs,
+        Integer maxLifeTimeMs,
+        Integer evictInBackgroundMs,
+        Boolean h2c,
+        Boolean poolMetrics
 ) {
+    public HttpClientProperties(Integer connectTimeoutMs, Integer readTimeoutMs, Integer maxInMemorySizeMb) {
+        this(connectTimeoutMs, readTimeoutMs, maxInMemorySizeMb, null, null, null, null, null, null, null, null);
+    }
+
+    @ConstructorBinding
     public HttpClientProperties {
         if (connectTimeoutMs == null || connectTimeoutMs <= 0) {
             connectTimeoutMs = 5000;
@@ -24,5 +49,29 @@ public record HttpClientProperties(
         if (maxInMemorySizeMb == null || maxInMemorySizeMb <= 0) {
             maxInMemorySizeMb = 16;
         }
+        if (maxConnectionsPerEndpoint == null || maxConnectionsPerEndpoint <= 0) {
+            maxConnectionsPerEndpoint = 64;
+        }
+        if (pendingAcquireMaxCount == null || pendingAcquireMaxCount <= 0) {
+            pendingAcquireMaxCount = 1024;
+        }
+        if (pendingAcquireTimeoutMs == null || pendingAcquireTimeoutMs <= 0) {
+            pendingAcquireTimeoutMs = 5000;
+        }
+        if (maxIdleTimeMs == null || maxIdleTimeMs <= 0) {
+            maxIdleTimeMs = 30000;
+        }
+        if (maxLifeTimeMs == null || maxLifeTimeMs <= 0) {
+            maxLifeTimeMs = 300000;
+        }
+        if (evictInBackgroundMs == null || evictInBackgroundMs <= 0) {
+            evictInBackgroundMs = 30000;
+        }
+        if (h2c == null) {
+            h2c = false;
+        }
+        if (poolMetrics == null) {
+            poolMetrics = true;
+        }
     }
 }
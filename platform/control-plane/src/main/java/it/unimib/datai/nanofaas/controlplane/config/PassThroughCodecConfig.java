@@ -0,0 +1,23 @@
+package it.unimib.datai.nanofaas.controlplane.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.controlplane.api.PassThroughInvocationRequestDecoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the raw-bytes invocation request decoder when
+ * {@code nanofaas.execution-store.payload.pass-through=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "nanofaas.execution-store.payload", name = "pass-through", havingValue = "true")
+public class PassThroughCodecConfig {
+
+    @Bean
+    public CodecCustomizer passThroughInvocationRequestCodec(ObjectMapper objectMapper) {
+        return configurer -> configurer.customCodecs()
+                .registerWithDefaultConfig(new PassThroughInvocationRequestDecoder(objectMapper));
+    }
+}
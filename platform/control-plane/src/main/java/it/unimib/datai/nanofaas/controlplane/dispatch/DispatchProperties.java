@@ -0,0 +1,20 @@
+package it.unimib.datai.nanofaas.controlplane.dispatch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Dispatch settings.
+ *
+ * <p>{@code loadBalancing}: replica selection when the deployment backend publishes per-pod
+ * endpoints, default {@link LoadBalancingPolicy#LEAST_OUTSTANDING}.</p>
+ */
+@ConfigurationProperties(prefix = "nanofaas.dispatch")
+public record DispatchProperties(
+        LoadBalancingPolicy loadBalancing
+) {
+    public DispatchProperties {
+        if (loadBalancing == null) {
+            loadBalancing = LoadBalancingPolicy.LEAST_OUTSTANDING;
+        }
+    }
+}
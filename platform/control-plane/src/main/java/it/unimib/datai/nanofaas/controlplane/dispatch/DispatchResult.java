@@ -2,11 +2,21 @@ package it.unimib.datai.nanofaas.controlplane.dispatch;
 
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 
+/**
+ * Outcome of one dispatch. {@code callbackSkipped} is set when the runtime acknowledged the
+ * response-completes mode for a successful result, i.e. this response is the only completion
+ * the control plane will receive.
+ */
 public record DispatchResult(
         InvocationResult result,
         boolean coldStart,
-        Long initDurationMs
+        Long initDurationMs,
+        boolean callbackSkipped
 ) {
+    public DispatchResult(InvocationResult result, boolean coldStart, Long initDurationMs) {
+        this(result, coldStart, initDurationMs, false);
+    }
+
     public static DispatchResult warm(InvocationResult result) {
         return new DispatchResult(result, false, null);
     }
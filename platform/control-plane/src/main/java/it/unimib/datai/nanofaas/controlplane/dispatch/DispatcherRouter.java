@@ -3,6 +3,7 @@ package it.unimib.datai.nanofaas.controlplane.dispatch;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Component
@@ -23,4 +24,8 @@ public class DispatcherRouter {
     public CompletableFuture<DispatchResult> dispatchPool(InvocationTask task) {
         return poolDispatcher.dispatch(task);
     }
+
+    public CompletableFuture<List<DispatchResult>> dispatchPoolBatch(List<InvocationTask> tasks) {
+        return poolDispatcher.dispatchBatch(tasks);
+    }
 }
@@ -0,0 +1,254 @@
+package it.unimib.datai.nanofaas.controlplane.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routes DEPLOYMENT dispatches straight to a replica instead of through the function's Service.
+ *
+ * <p>kube-proxy spreads Service traffic at random and cannot see how busy a pod is, so a slow
+ * replica keeps receiving its share. Here every dispatch holds a {@link Lease} on the chosen
+ * replica until the response arrives, which gives an exact outstanding-request count per pod,
+ * and the lease's duration feeds a per-pod latency average used to break ties.</p>
+ *
+ * <p>Without an {@link EndpointResolver}, or while it has no endpoints for a function, no lease
+ * is handed out and the dispatcher keeps using the spec's {@code endpointUrl}.</p>
+ */
+@Component
+public class EndpointBalancer {
+    /** Weight of the newest sample in the per-pod latency average. */
+    private static final double LATENCY_ALPHA = 0.2;
+
+    private final EndpointResolver resolver;
+    private final LoadBalancingPolicy policy;
+    private final MeterRegistry registry;
+    private final Map<String, FunctionPods> functions = new ConcurrentHashMap<>();
+
+    public EndpointBalancer(@Autowired(required = false) EndpointResolver resolver,
+                            DispatchProperties properties,
+                            MeterRegistry registry) {
+        this.resolver = resolver;
+        this.policy = properties == null ? LoadBalancingPolicy.LEAST_OUTSTANDING : properties.loadBalancing();
+        this.registry = registry;
+    }
+
+    /**
+     * Picks a replica for {@code spec} and counts the dispatch against it, or returns
+     * {@code null} when the Service URL should be used. The lease must be released once.
+     */
+    public Lease acquire(FunctionSpec spec) {
+        if (resolver == null || spec.executionMode() != ExecutionMode.DEPLOYMENT) {
+            return null;
+        }
+        String function = spec.name();
+        List<PodEndpoint> endpoints = resolver.endpoints(function);
+        if (endpoints == null || endpoints.isEmpty()) {
+            FunctionPods stale = functions.remove(function);
+            if (stale != null) {
+                stale.retire(registry);
+            }
+            return null;
+        }
+        PodState[] pods = functions.computeIfAbsent(function, FunctionPods::new).refresh(endpoints, registry);
+        PodState pod = policy == LoadBalancingPolicy.POWER_OF_TWO_CHOICES
+                ? powerOfTwoChoices(pods)
+                : leastOutstanding(pods);
+        pod.inFlight.incrementAndGet();
+        return new Lease(pod, System.nanoTime());
+    }
+
+    /** Outstanding dispatches on {@code pod}, or -1 when the balancer does not track it. */
+    int inFlight(String function, String pod) {
+        FunctionPods state = functions.get(function);
+        PodState podState = state == null ? null : state.find(pod);
+        return podState == null ? -1 : podState.inFlight.get();
+    }
+
+    private static PodState leastOutstanding(PodState[] pods) {
+        // Start at a random replica so ties do not all land on the first one.
+        int n = pods.length;
+        int start = n == 1 ? 0 : ThreadLocalRandom.current().nextInt(n);
+        PodState best = pods[start];
+        for (int i = 1; i < n; i++) {
+            PodState candidate = pods[(start + i) % n];
+            if (lessLoaded(candidate, best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static PodState powerOfTwoChoices(PodState[] pods) {
+        int n = pods.length;
+        if (n == 1) {
+            return pods[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(n);
+        int second = random.nextInt(n - 1);
+        if (second >= first) {
+            second++;
+        }
+        return lessLoaded(pods[second], pods[first]) ? pods[second] : pods[first];
+    }
+
+    private static boolean lessLoaded(PodState candidate, PodState current) {
+        int candidateLoad = candidate.inFlight.get();
+        int currentLoad = current.inFlight.get();
+        if (candidateLoad != currentLoad) {
+            return candidateLoad < currentLoad;
+        }
+        return candidate.latencyMs() < current.latencyMs();
+    }
+
+    /** One dispatch's claim on a replica. */
+    public static final class Lease {
+        private final PodState pod;
+        private final long startNanos;
+
+        private Lease(PodState pod, long startNanos) {
+            this.pod = pod;
+            this.startNanos = startNanos;
+        }
+
+        public String invokeUrl() {
+            return pod.endpoint.invokeUrl();
+        }
+
+        public String pod() {
+            return pod.endpoint.pod();
+        }
+
+        public void release() {
+            pod.inFlight.decrementAndGet();
+            pod.recordLatency((System.nanoTime() - startNanos) / 1_000_000.0);
+        }
+    }
+
+    private static final class PodState {
+        private final PodEndpoint endpoint;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        /** Bits of the latency average in ms; NaN until the first sample. */
+        private final AtomicLong latencyBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private List<Meter.Id> meterIds = List.of();
+
+        private PodState(PodEndpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /** Unmeasured replicas sort first so new pods get traffic right away. */
+        double latencyMs() {
+            double value = Double.longBitsToDouble(latencyBits.get());
+            return Double.isNaN(value) ? 0.0 : value;
+        }
+
+        double latencyGauge() {
+            return Double.longBitsToDouble(latencyBits.get());
+        }
+
+        void recordLatency(double sampleMs) {
+            while (true) {
+                long bits = latencyBits.get();
+                double current = Double.longBitsToDouble(bits);
+                double next = Double.isNaN(current) ? sampleMs : current + LATENCY_ALPHA * (sampleMs - current);
+                if (latencyBits.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                    return;
+                }
+            }
+        }
+
+        void register(String function, MeterRegistry registry) {
+            if (registry == null) {
+                return;
+            }
+            Gauge inFlightGauge = Gauge.builder("function_pod_inflight", inFlight, AtomicInteger::get)
+                    .tag("function", function)
+                    .tag("pod", endpoint.pod())
+                    .register(registry);
+            Gauge latencyGauge = Gauge.builder("function_pod_latency_ms", this, PodState::latencyGauge)
+                    .tag("function", function)
+                    .tag("pod", endpoint.pod())
+                    .register(registry);
+            meterIds = List.of(inFlightGauge.getId(), latencyGauge.getId());
+        }
+
+        void unregister(MeterRegistry registry) {
+            if (registry != null) {
+                meterIds.forEach(registry::remove);
+            }
+        }
+    }
+
+    private static final class FunctionPods {
+        private final String function;
+        private volatile List<PodEndpoint> source;
+        private volatile PodState[] pods = new PodState[0];
+
+        private FunctionPods(String function) {
+            this.function = function;
+        }
+
+        PodState[] refresh(List<PodEndpoint> endpoints, MeterRegistry registry) {
+            if (endpoints == source) {
+                return pods;
+            }
+            synchronized (this) {
+                if (endpoints == source) {
+                    return pods;
+                }
+                // Keep the state of replicas that are still there, so their in-flight counts survive.
+                Map<PodEndpoint, PodState> previous = new HashMap<>();
+                for (PodState pod : pods) {
+                    previous.put(pod.endpoint, pod);
+                }
+                PodState[] next = new PodState[endpoints.size()];
+                List<PodState> added = new ArrayList<>();
+                for (int i = 0; i < next.length; i++) {
+                    PodState pod = previous.remove(endpoints.get(i));
+                    if (pod == null) {
+                        pod = new PodState(endpoints.get(i));
+                        added.add(pod);
+                    }
+                    next[i] = pod;
+                }
+                // Unregister first: a pod that only changed address reuses its meter ids.
+                previous.values().forEach(pod -> pod.unregister(registry));
+                added.forEach(pod -> pod.register(function, registry));
+                pods = next;
+                source = endpoints;
+                return next;
+            }
+        }
+
+        PodState find(String pod) {
+            for (PodState state : pods) {
+                if (state.endpoint.pod().equals(pod)) {
+                    return state;
+                }
+            }
+            return null;
+        }
+
+        synchronized void retire(MeterRegistry registry) {
+            for (PodState pod : pods) {
+                pod.unregister(registry);
+            }
+            pods = new PodState[0];
+            source = null;
+        }
+    }
+}
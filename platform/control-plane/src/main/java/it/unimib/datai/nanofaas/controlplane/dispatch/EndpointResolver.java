@@ -0,0 +1,15 @@
+package it.unimib.datai.nanofaas.controlplane.dispatch;
+
+import java.util.List;
+
+/**
+ * Live replica endpoints of DEPLOYMENT functions, provided by the deployment backend.
+ *
+ * <p>Called on every dispatch, so implementations return a cached snapshot. The same list
+ * instance must be returned until the endpoints change; {@link EndpointBalancer} only rebuilds
+ * its per-pod state when it sees a new instance. An empty list sends the dispatch to the
+ * function's {@code endpointUrl} as before.</p>
+ */
+public interface EndpointResolver {
+    List<PodEndpoint> endpoints(String functionName);
+}
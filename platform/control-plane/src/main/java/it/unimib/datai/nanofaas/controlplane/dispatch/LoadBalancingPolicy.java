@@ -0,0 +1,11 @@
+package it.unimib.datai.nanofaas.controlplane.dispatch;
+
+/**
+ * How {@link EndpointBalancer} picks a replica.
+ */
+public enum LoadBalancingPolicy {
+    /** Scans every replica and takes the one with the fewest outstanding requests. */
+    LEAST_OUTSTANDING,
+    /** Samples two replicas at random and takes the less loaded one; O(1) for large deployments. */
+    POWER_OF_TWO_CHOICES
+}
@@ -0,0 +1,8 @@
+package it.unimib.datai.nanofaas.controlplane.dispatch;
+
+/**
+ * One ready replica of a function: {@code pod} identifies it in metrics, {@code invokeUrl} is
+ * the replica's own {@code /invoke} URL, bypassing the function's Service.
+ */
+public record PodEndpoint(String pod, String invokeUrl) {
+}
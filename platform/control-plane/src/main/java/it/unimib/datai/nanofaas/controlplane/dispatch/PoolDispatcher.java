@@ -1,26 +1,80 @@
 package it.unimib.datai.nanofaas.controlplane.dispatch;
 
+import it.unimib.datai.nanofaas.common.model.InvocationBatchRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
+import it.unimib.datai.nanofaas.controlplane.execution.RawJson;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
+/**
+ * Dispatches to a function's HTTP endpoint and completes the execution from the response.
+ *
+ * <p>Every request offers the response-completes mode ({@code X-Completion-Mode: response}).
+ * A runtime that echoes the header back has not sent, and will not send, a callback for the
+ * successful results in that response, so the response is the single completion. Runtimes that
+ * ignore the header keep calling back and the second completion is discarded as before. Errors
+ * are always called back, because the callback carries the precise error code.</p>
+ *
+ * <p>When the {@link EndpointBalancer} knows the replicas of a DEPLOYMENT function, the request
+ * goes to the chosen pod directly and the pod's lease is released when the response arrives.</p>
+ */
 @Component
 public class PoolDispatcher implements Dispatcher {
+    static final String COMPLETION_MODE_HEADER = "X-Completion-Mode";
+    static final String RESPONSE_COMPLETES = "response";
+
     private final WebClient webClient;
+    private final boolean passThrough;
+    private final EndpointBalancer balancer;
 
     public PoolDispatcher(WebClient webClient) {
+        this(webClient, false, null);
+    }
+
+    public PoolDispatcher(WebClient webClient, ExecutionPayloadProperties payloadProperties) {
+        this(webClient, payloadProperties.passThrough(), null);
+    }
+
+    @Autowired
+    public PoolDispatcher(WebClient webClient, ExecutionPayloadProperties payloadProperties,
+                          EndpointBalancer balancer) {
+        this(webClient, payloadProperties.passThrough(), balancer);
+    }
+
+    PoolDispatcher(WebClient webClient, boolean passThrough) {
+        this(webClient, passThrough, null);
+    }
+
+    PoolDispatcher(WebClient webClient, boolean passThrough, EndpointBalancer balancer) {
         this.webClient = webClient;
+        this.passThrough = passThrough;
+        this.balancer = balancer;
     }
 
     @Override
     public CompletableFuture<DispatchResult> dispatch(InvocationTask task) {
-        String endpoint = task.functionSpec().endpointUrl();
+        EndpointBalancer.Lease lease = balancer == null ? null : balancer.acquire(task.functionSpec());
+        if (lease == null) {
+            return send(task, task.functionSpec().endpointUrl());
+        }
+        return send(task, lease.invokeUrl()).whenComplete((result, error) -> lease.release());
+    }
+
+    private CompletableFuture<DispatchResult> send(InvocationTask task, String endpoint) {
         if (endpoint == null || endpoint.isBlank()) {
             return CompletableFuture.completedFuture(
                     DispatchResult.warm(InvocationResult.error("POOL_ENDPOINT_MISSING", "endpointUrl is required for POOL mode")));
@@ -31,7 +85,8 @@ public class PoolDispatcher implements Dispatcher {
         WebClient.RequestBodySpec request = webClient.post()
                 .uri(endpoint)
                 .header("X-Execution-Id", task.executionId())
-                .header("X-Dispatch-Attempt", String.valueOf(task.attempt()));
+                .header("X-Dispatch-Attempt", String.valueOf(task.attempt()))
+                .header(COMPLETION_MODE_HEADER, RESPONSE_COMPLETES);
 
         if (task.traceId() != null) {
             request.header("X-Trace-Id", task.traceId());
@@ -51,16 +106,22 @@ public class PoolDispatcher implements Dispatcher {
                             response.headers().asHttpHeaders().getFirst("X-Cold-Start"));
                     Long initMs = parseInitDuration(
                             response.headers().asHttpHeaders().getFirst("X-Init-Duration-Ms"));
+                    boolean skipped = responseCompletes(response);
 
                     if (response.statusCode().is2xxSuccessful()) {
                         MediaType contentType = response.headers().contentType()
                                 .orElse(MediaType.APPLICATION_JSON);
                         if (MediaType.TEXT_PLAIN.isCompatibleWith(contentType)) {
                             return response.bodyToMono(String.class)
-                                    .map(body -> new DispatchResult(InvocationResult.success(body), isCold, initMs));
+                                    .map(body -> new DispatchResult(InvocationResult.success(body), isCold, initMs, skipped));
+                        }
+                        if (passThrough && isJson(contentType)) {
+                            // Kept as received and written back verbatim, no object graph in between.
+                            return response.bodyToMono(byte[].class)
+                                    .map(body -> new DispatchResult(InvocationResult.success(RawJson.of(body)), isCold, initMs, skipped));
                         }
                         return response.bodyToMono(Object.class)
-                                .map(body -> new DispatchResult(InvocationResult.success(body), isCold, initMs));
+                                .map(body -> new DispatchResult(InvocationResult.success(body), isCold, initMs, skipped));
                     }
                     return response.bodyToMono(String.class)
                             .defaultIfEmpty(response.statusCode().toString())
@@ -74,6 +135,116 @@ public class PoolDispatcher implements Dispatcher {
                 .toFuture();
     }
 
+    /**
+     * Sends tasks of the same function in a single {@code /invoke-batch} request.
+     *
+     * <p>The returned results are aligned with {@code tasks}. A timeout, transport failure or
+     * non-2xx reply fails every item; an item missing from the reply fails on its own.</p>
+     */
+    public CompletableFuture<List<DispatchResult>> dispatchBatch(List<InvocationTask> tasks) {
+        EndpointBalancer.Lease lease = balancer == null ? null : balancer.acquire(tasks.get(0).functionSpec());
+        if (lease == null) {
+            return sendBatch(tasks, tasks.get(0).functionSpec().endpointUrl());
+        }
+        return sendBatch(tasks, lease.invokeUrl()).whenComplete((results, error) -> lease.release());
+    }
+
+    private CompletableFuture<List<DispatchResult>> sendBatch(List<InvocationTask> tasks, String endpoint) {
+        InvocationTask first = tasks.get(0);
+        if (endpoint == null || endpoint.isBlank()) {
+            return CompletableFuture.completedFuture(allFailed(tasks,
+                    InvocationResult.error("POOL_ENDPOINT_MISSING", "endpointUrl is required for POOL mode"), false, null));
+        }
+
+        long timeoutMs = first.functionSpec().timeoutMs();
+        List<InvocationBatchRequest.Item> items = new ArrayList<>(tasks.size());
+        for (InvocationTask task : tasks) {
+            items.add(new InvocationBatchRequest.Item(task.executionId(), task.traceId(), task.attempt(), task.request()));
+        }
+
+        WebClient.RequestBodySpec request = webClient.post()
+                .uri(batchEndpoint(endpoint))
+                .header("X-Batch-Size", String.valueOf(tasks.size()))
+                .header(COMPLETION_MODE_HEADER, RESPONSE_COMPLETES);
+        request.httpRequest(clientHttpRequest -> {
+            reactor.netty.http.client.HttpClientRequest reactorRequest = clientHttpRequest.getNativeRequest();
+            reactorRequest.responseTimeout(Duration.ofMillis(timeoutMs));
+        });
+
+        return request.bodyValue(new InvocationBatchRequest(items))
+                .exchangeToMono(response -> {
+                    boolean isCold = "true".equalsIgnoreCase(
+                            response.headers().asHttpHeaders().getFirst("X-Cold-Start"));
+                    Long initMs = parseInitDuration(
+                            response.headers().asHttpHeaders().getFirst("X-Init-Duration-Ms"));
+                    boolean skipped = responseCompletes(response);
+
+                    if (response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToMono(InvocationBatchResponse.class)
+                                .defaultIfEmpty(new InvocationBatchResponse(List.of()))
+                                .map(reply -> fanOut(tasks, reply, isCold, initMs, skipped));
+                    }
+                    return response.bodyToMono(String.class)
+                            .defaultIfEmpty(response.statusCode().toString())
+                            .map(msg -> allFailed(tasks, InvocationResult.error("POOL_ERROR", msg), isCold, initMs));
+                })
+                .timeout(Duration.ofMillis(timeoutMs))
+                .onErrorResume(TimeoutException.class, ex -> reactor.core.publisher.Mono.just(allFailed(tasks,
+                        InvocationResult.error("POOL_TIMEOUT", "Pool request timed out after " + timeoutMs + "ms"), false, null)))
+                .onErrorResume(ex -> reactor.core.publisher.Mono.just(allFailed(tasks,
+                        InvocationResult.error("POOL_ERROR", ex.getMessage()), false, null)))
+                .toFuture();
+    }
+
+    static String batchEndpoint(String endpoint) {
+        String base = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        return base.endsWith("/invoke") ? base + "-batch" : base + "/invoke-batch";
+    }
+
+    private static List<DispatchResult> fanOut(List<InvocationTask> tasks, InvocationBatchResponse reply,
+                                               boolean isCold, Long initMs, boolean skipped) {
+        Map<String, InvocationResult> byExecutionId = new HashMap<>();
+        if (reply.results() != null) {
+            for (InvocationBatchResponse.Item item : reply.results()) {
+                if (item != null && item.executionId() != null && item.result() != null) {
+                    byExecutionId.put(item.executionId(), item.result());
+                }
+            }
+        }
+        List<DispatchResult> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            String executionId = tasks.get(i).executionId();
+            InvocationResult result = byExecutionId.get(executionId);
+            if (result == null) {
+                result = InvocationResult.error("POOL_BATCH_RESULT_MISSING", "No result for execution " + executionId);
+            }
+            // One container start serves the whole batch: attribute it to the first item only.
+            boolean callbackSkipped = skipped && result.success();
+            results.add(i == 0
+                    ? new DispatchResult(result, isCold, initMs, callbackSkipped)
+                    : new DispatchResult(result, false, null, callbackSkipped));
+        }
+        return results;
+    }
+
+    private static List<DispatchResult> allFailed(List<InvocationTask> tasks, InvocationResult error,
+                                                  boolean isCold, Long initMs) {
+        List<DispatchResult> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            results.add(i == 0 ? new DispatchResult(error, isCold, initMs) : DispatchResult.warm(error));
+        }
+        return results;
+    }
+
+    private static boolean responseCompletes(ClientResponse response) {
+        return RESPONSE_COMPLETES.equalsIgnoreCase(
+                response.headers().asHttpHeaders().getFirst(COMPLETION_MODE_HEADER));
+    }
+
+    private static boolean isJson(MediaType contentType) {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(contentType) || "json".equals(contentType.getSubtypeSuffix());
+    }
+
     private static Long parseInitDuration(String header) {
         if (header == null) {
             return null;
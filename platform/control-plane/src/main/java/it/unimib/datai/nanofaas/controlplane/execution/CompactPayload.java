@@ -0,0 +1,161 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request input or response output kept as serialized JSON bytes instead of an object graph.
+ *
+ * <p>The bytes are either resident on heap or spilled to a {@link PayloadSpillSegment}.
+ * Serializing the payload with Jackson writes the stored JSON verbatim, so returning it
+ * to a client or forwarding it to a runtime never materializes the object graph;
+ * {@link #decode()} is only needed by code that must inspect the value.</p>
+ */
+public final class CompactPayload implements JsonSerializable {
+    private final ExecutionPayloadStore store;
+    private final int length;
+
+    // Guarded by 'this'
+    private byte[] resident;
+    private PayloadSpillSegment segment;
+    private long spillOffset;
+    private boolean released;
+
+    // Second-chance bit for the store's approximate LRU; racy updates are harmless.
+    volatile boolean referenced;
+
+    CompactPayload(ExecutionPayloadStore store, byte[] bytes) {
+        this.store = store;
+        this.length = bytes.length;
+        this.resident = bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public synchronized boolean isResident() {
+        return resident != null;
+    }
+
+    public synchronized boolean isReleased() {
+        return released;
+    }
+
+    /** True while the bytes live in a spill segment, i.e. reading them is file I/O. */
+    public synchronized boolean isSpilled() {
+        return !released && resident == null;
+    }
+
+    /**
+     * Returns the serialized JSON, or {@code null} once the payload has been released.
+     */
+    public byte[] bytes() {
+        referenced = true;
+        PayloadSpillSegment spilledIn;
+        long offset;
+        synchronized (this) {
+            if (released) {
+                return null;
+            }
+            if (resident != null) {
+                return resident;
+            }
+            spilledIn = segment;
+            offset = spillOffset;
+        }
+        try {
+            return spilledIn.read(offset, length);
+        } catch (IOException ex) {
+            if (isReleased()) {
+                // Released (and its segment possibly deleted) while we were reading.
+                return null;
+            }
+            throw new UncheckedIOException("Failed to read spilled payload", ex);
+        }
+    }
+
+    /**
+     * Materializes the payload as a Jackson object graph.
+     */
+    public Object decode() {
+        byte[] bytes = bytes();
+        return bytes == null ? null : store.decode(bytes);
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        byte[] bytes = bytes();
+        if (bytes == null) {
+            gen.writeNull();
+        } else {
+            RawJson.writeRaw(gen, bytes);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    /**
+     * Moves the bytes to the given segment. Returns false when the payload is no longer
+     * resident (already spilled or released).
+     */
+    boolean spillTo(PayloadSpillSegment target) throws IOException {
+        byte[] bytes;
+        synchronized (this) {
+            if (released || resident == null) {
+                return false;
+            }
+            bytes = resident;
+        }
+        long offset = target.append(bytes);
+        synchronized (this) {
+            if (released) {
+                target.release();
+                return false;
+            }
+            this.segment = target;
+            this.spillOffset = offset;
+            this.resident = null;
+            return true;
+        }
+    }
+
+    /**
+     * Drops the bytes. Subsequent reads return {@code null}.
+     */
+    void release() {
+        boolean wasResident;
+        PayloadSpillSegment spilledIn;
+        synchronized (this) {
+            if (released) {
+                return;
+            }
+            released = true;
+            wasResident = resident != null;
+            spilledIn = segment;
+            resident = null;
+            segment = null;
+        }
+        if (wasResident) {
+            store.onResidentReleased(length);
+        } else if (spilledIn != null) {
+            spilledIn.release();
+        }
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = bytes();
+        return bytes == null ? "null" : new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,310 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts execution payloads to {@link CompactPayload}s when
+ * {@code nanofaas.execution-store.payload.mode=COMPACT}; a pass-through otherwise.
+ *
+ * <p>Resident bytes are bounded by {@code residentBudget}. When an insertion pushes the total
+ * over budget, a spill pass is scheduled on a dedicated thread (callers may be on the Netty
+ * event loop); it moves the least recently used payloads (second-chance approximation) to
+ * the current spill segment. Payloads released while resident stay in the LRU queue until the
+ * same thread purges them, which happens once they make up half of it.</p>
+ *
+ * <p>Reading a spilled payload is file I/O: code on an event loop should go through
+ * {@link #isSpilled} and {@link #load} on a blocking-friendly scheduler before serializing.</p>
+ */
+@Component
+public class ExecutionPayloadStore {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionPayloadStore.class);
+    /** Released entries tolerated in the LRU queue regardless of its size. */
+    private static final int MIN_RELEASED_BEFORE_PURGE = 1024;
+
+    private final boolean compact;
+    private final ObjectMapper objectMapper;
+    private final long residentBudget;
+    private final Path spillDirectory;
+    private final long spillSegmentSize;
+    private final ConcurrentLinkedQueue<CompactPayload> residentQueue = new ConcurrentLinkedQueue<>();
+    /** Entries in {@code residentQueue}; its own size() walks the whole queue. */
+    private final AtomicInteger queuedEntries = new AtomicInteger();
+    /** Entries released while queued and not purged yet; may briefly overcount. */
+    private final AtomicInteger releasedEntries = new AtomicInteger();
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicLong spilledPayloads = new AtomicLong();
+    private final AtomicBoolean spilling = new AtomicBoolean();
+    private final AtomicLong segmentSequence = new AtomicLong();
+    private final Set<PayloadSpillSegment> segments = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService spillExecutor;
+
+    // Only touched by the spill thread
+    private PayloadSpillSegment currentSegment;
+
+    /**
+     * Pass-through store that keeps payloads as object graphs.
+     */
+    public ExecutionPayloadStore() {
+        this(new ExecutionPayloadProperties(null, null, null, null), null);
+    }
+
+    @Autowired
+    public ExecutionPayloadStore(ExecutionPayloadProperties properties, ObjectMapper objectMapper) {
+        this.compact = properties.mode() == ExecutionPayloadProperties.Mode.COMPACT;
+        if (compact && objectMapper == null) {
+            throw new IllegalArgumentException("COMPACT payload mode requires an ObjectMapper");
+        }
+        this.objectMapper = objectMapper;
+        this.residentBudget = properties.residentBudget().toBytes();
+        this.spillDirectory = properties.spillDirectory();
+        this.spillSegmentSize = properties.spillSegmentSize().toBytes();
+        this.spillExecutor = compact ? Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "execution-payload-spill");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    /**
+     * Returns the request with its input stored compactly (or unchanged in OBJECT mode).
+     */
+    public InvocationRequest compactRequest(InvocationRequest request) {
+        if (!compact || request == null || request.input() == null || request.input() instanceof CompactPayload) {
+            return request;
+        }
+        return new InvocationRequest(compactValue(request.input()), request.metadata());
+    }
+
+    /**
+     * Returns a successful result with its output stored compactly (or unchanged in OBJECT mode).
+     */
+    public InvocationResult compactResult(InvocationResult result) {
+        if (!compact || result == null || !result.success()
+                || result.output() == null || result.output() instanceof CompactPayload) {
+            return result;
+        }
+        return new InvocationResult(true, compactValue(result.output()), result.error());
+    }
+
+    /**
+     * Drops the bytes of a value previously returned by this store; no-op for plain objects.
+     */
+    public static void release(Object value) {
+        if (value instanceof CompactPayload payload) {
+            payload.release();
+        }
+    }
+
+    /**
+     * True when serializing {@code value} would read it back from a spill segment.
+     */
+    public static boolean isSpilled(Object value) {
+        return value instanceof CompactPayload payload && payload.isSpilled();
+    }
+
+    /**
+     * Returns {@code value} with a spilled payload read back into a {@link RawJson} (or
+     * {@code null} once released); other values are returned unchanged. Blocks on file I/O.
+     */
+    public static Object load(Object value) {
+        if (value instanceof CompactPayload payload) {
+            byte[] bytes = payload.bytes();
+            return bytes == null ? null : RawJson.of(bytes);
+        }
+        return value;
+    }
+
+    public long residentBytes() {
+        return residentBytes.get();
+    }
+
+    public long spilledPayloads() {
+        return spilledPayloads.get();
+    }
+
+    // Package-private for deterministic testing.
+    long openSpillSegments() {
+        return segments.stream().filter(segment -> !segment.isDeleted()).count();
+    }
+
+    Object decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, Object.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to decode compact payload", ex);
+        }
+    }
+
+    int queuedEntries() {
+        return queuedEntries.get();
+    }
+
+    void onResidentReleased(int length) {
+        residentBytes.addAndGet(-length);
+        releasedEntries.incrementAndGet();
+        if (purgeDue()) {
+            scheduleMaintenance();
+        }
+    }
+
+    private Object compactValue(Object value) {
+        byte[] bytes;
+        if (value instanceof RawJson raw) {
+            // Already serialized on the pass-through path.
+            bytes = raw.bytes();
+        } else {
+            try {
+                bytes = objectMapper.writeValueAsBytes(value);
+            } catch (JsonProcessingException ex) {
+                log.warn("Keeping payload as object graph, serialization failed: {}", ex.getMessage());
+                return value;
+            }
+        }
+        CompactPayload payload = new CompactPayload(this, bytes);
+        residentQueue.add(payload);
+        queuedEntries.incrementAndGet();
+        if (residentBytes.addAndGet(bytes.length) > residentBudget) {
+            scheduleMaintenance();
+        }
+        return payload;
+    }
+
+    private boolean purgeDue() {
+        int released = releasedEntries.get();
+        return released >= MIN_RELEASED_BEFORE_PURGE && released * 2 >= queuedEntries.get();
+    }
+
+    private void scheduleMaintenance() {
+        if (spillExecutor == null || !spilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            spillExecutor.execute(this::maintain);
+        } catch (RejectedExecutionException ex) {
+            spilling.set(false);
+        }
+    }
+
+    // Runs on the spill thread with 'spilling' held.
+    private void maintain() {
+        try {
+            if (purgeDue()) {
+                purgeReleased();
+            }
+            spillOverBudget();
+        } finally {
+            spilling.set(false);
+        }
+        // A release or insertion that lost the race for 'spilling' may still need a pass.
+        if (purgeDue() || residentBytes.get() > residentBudget) {
+            scheduleMaintenance();
+        }
+    }
+
+    private void purgeReleased() {
+        releasedEntries.set(0);
+        int before = queuedEntries.get();
+        residentQueue.removeIf(payload -> {
+            if (payload.isResident()) {
+                return false;
+            }
+            queuedEntries.decrementAndGet();
+            return true;
+        });
+        log.debug("Purged {} released payloads from the resident queue", before - queuedEntries.get());
+    }
+
+    private void spillOverBudget() {
+        int secondChances = queuedEntries.get();
+        CompactPayload candidate;
+        while (residentBytes.get() > residentBudget && (candidate = residentQueue.poll()) != null) {
+            queuedEntries.decrementAndGet();
+            if (!candidate.isResident()) {
+                continue;
+            }
+            if (candidate.referenced && secondChances-- > 0) {
+                candidate.referenced = false;
+                requeue(candidate);
+                continue;
+            }
+            if (!spill(candidate)) {
+                requeue(candidate);
+                return;
+            }
+        }
+    }
+
+    private void requeue(CompactPayload payload) {
+        residentQueue.add(payload);
+        queuedEntries.incrementAndGet();
+    }
+
+    private boolean spill(CompactPayload payload) {
+        try {
+            PayloadSpillSegment segment = segmentFor(payload.length());
+            if (payload.spillTo(segment)) {
+                residentBytes.addAndGet(-payload.length());
+                spilledPayloads.incrementAndGet();
+            }
+            return true;
+        } catch (IOException ex) {
+            log.warn("Payload spill to {} failed, keeping payloads resident: {}", spillDirectory, ex.getMessage());
+            return false;
+        }
+    }
+
+    private PayloadSpillSegment segmentFor(int length) throws IOException {
+        if (currentSegment != null && currentSegment.hasRoom(length)) {
+            return currentSegment;
+        }
+        segments.removeIf(PayloadSpillSegment::isDeleted);
+        Files.createDirectories(spillDirectory);
+        Path path = spillDirectory.resolve("payload-" + ProcessHandle.current().pid()
+                + "-" + segmentSequence.incrementAndGet() + ".spill");
+        PayloadSpillSegment next = new PayloadSpillSegment(path, spillSegmentSize);
+        segments.add(next);
+        if (currentSegment != null) {
+            currentSegment.seal();
+        }
+        currentSegment = next;
+        return next;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (spillExecutor != null) {
+            spillExecutor.shutdownNow();
+        }
+        segments.forEach(PayloadSpillSegment::delete);
+        segments.clear();
+        currentSegment = null;
+    }
+}
@@ -3,6 +3,7 @@ package it.unimib.datai.nanofaas.controlplane.execution;
 import it.unimib.datai.nanofaas.common.model.ErrorInfo;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import it.unimib.datai.nanofaas.controlplane.service.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +36,8 @@ public class ExecutionRecord {
     private Long initDurationMs;
     private boolean cleaned;
     private final Set<Integer> releasedDispatchAttempts = new HashSet<>();
+    /** Resolved on first use by {@link Metrics#meters(ExecutionRecord)}; not guarded by 'this'. */
+    private volatile Metrics.FunctionMeters functionMeters;
 
     public ExecutionRecord(String executionId, InvocationTask task) {
         this.executionId = executionId;
@@ -154,14 +157,21 @@ public class ExecutionRecord {
     /**
      * Releases heavy payloads (request input and response output) to save memory.
      * Should be called after the result has been consumed or is no longer needed.
+     * A compact output is kept: it is shared with the completed result, which replays and
+     * status reads keep serving until {@link #releasePayloads()} runs on eviction.
      */
     public synchronized void cleanup() {
         if (this.cleaned) {
             return;
         }
         this.cleaned = true;
-        this.output = null;
+        if (!(this.output instanceof CompactPayload)) {
+            this.output = null;
+        }
         if (this.task != null) {
+            if (task.request() != null) {
+                ExecutionPayloadStore.release(task.request().input());
+            }
             // Replace task with one that has no request payload
             this.task = new InvocationTask(
                     task.executionId(),
@@ -176,6 +186,16 @@ public class ExecutionRecord {
         }
     }
 
+    /**
+     * Cleans up and gives back the bytes of a compact output as well; called when the record
+     * leaves the store.
+     */
+    public synchronized void releasePayloads() {
+        cleanup();
+        ExecutionPayloadStore.release(this.output);
+        this.output = null;
+    }
+
     /**
      * Resets the execution for a retry attempt.
      */
@@ -195,6 +215,17 @@ public class ExecutionRecord {
         this.cleaned = false;
     }
 
+    /**
+     * Swaps the task of an execution that has not finished, keeping its state. Used when the
+     * function is registered again with new settings before the task was dispatched.
+     */
+    public synchronized void replaceTask(InvocationTask task) {
+        if (isTerminalState(state)) {
+            return;
+        }
+        this.task = task;
+    }
+
     /**
      * Records that the dispatch slot for the given attempt has been released.
      * @return true the first time this attempt is released, false on duplicates
@@ -203,6 +234,15 @@ public class ExecutionRecord {
         return releasedDispatchAttempts.add(attempt);
     }
 
+    /** Meters of this execution's function, or null until {@link Metrics#meters(ExecutionRecord)} resolved them. */
+    public Metrics.FunctionMeters functionMeters() {
+        return functionMeters;
+    }
+
+    public void attachFunctionMeters(Metrics.FunctionMeters functionMeters) {
+        this.functionMeters = functionMeters;
+    }
+
     // Legacy accessors - kept for backward compatibility but prefer snapshot() for reads
 
     public synchronized InvocationTask task() {
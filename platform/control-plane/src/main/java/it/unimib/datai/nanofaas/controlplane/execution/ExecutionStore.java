@@ -1,97 +1,102 @@
 package it.unimib.datai.nanofaas.controlplane.execution;
 
 import it.unimib.datai.nanofaas.controlplane.config.ExecutionStoreProperties;
+import it.unimib.datai.nanofaas.controlplane.service.Metrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import jakarta.annotation.PreDestroy;
 
+/**
+ * In-memory execution store, sharded by execution id.
+ *
+ * <p>Each {@link ExecutionStoreShard} keeps its own expiry index, so the periodic janitor
+ * only touches executions whose cleanup/TTL/max-lifetime deadline has come due.</p>
+ */
 @Component
 public class ExecutionStore {
-    private final Map<String, StoredExecution> executions = new ConcurrentHashMap<>();
+    private final ExecutionStoreShard[] shards;
+    private final int shardMask;
     private final ScheduledExecutorService janitor;
-    private final Duration cleanupTtl;
-    private final Duration ttl;
-    private final Duration maxLifetime;
 
     public ExecutionStore() {
         this(new ExecutionStoreProperties(null, null, null));
     }
 
-    // @Autowired is required: with two constructors Spring would otherwise pick the
+    public ExecutionStore(ExecutionStoreProperties properties) {
+        this(properties, null);
+    }
+
+    // @Autowired is required: with several constructors Spring would otherwise pick the
     // no-arg one and silently ignore the configured properties.
     @Autowired
-    public ExecutionStore(ExecutionStoreProperties properties) {
-        this.ttl = properties.ttl();
-        this.cleanupTtl = properties.cleanupTtl();
-        this.maxLifetime = properties.maxLifetime();
+    public ExecutionStore(ExecutionStoreProperties properties, Metrics metrics) {
+        this.shards = new ExecutionStoreShard[properties.shards()];
+        this.shardMask = shards.length - 1;
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ExecutionStoreShard(
+                    properties.ttl().toMillis(),
+                    properties.cleanupTtl().toMillis(),
+                    properties.maxLifetime().toMillis());
+            if (metrics != null) {
+                metrics.registerExecutionStoreShard(i, shards[i],
+                        ExecutionStoreShard::size,
+                        ExecutionStoreShard::expiredEvictions,
+                        ExecutionStoreShard::lifetimeEvictions);
+            }
+        }
         this.janitor = Executors.newSingleThreadScheduledExecutor(r -> {
             Thread t = new Thread(r, "execution-store-janitor");
             t.setDaemon(true);
             return t;
         });
-        janitor.scheduleAtFixedRate(this::evictExpired, 1, 1, TimeUnit.MINUTES);
+        long sweepMillis = properties.sweepInterval().toMillis();
+        janitor.scheduleAtFixedRate(this::evictExpired, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
     }
 
     public void put(ExecutionRecord record) {
-        executions.put(record.executionId(), new StoredExecution(record, Instant.now()));
+        shardFor(record.executionId()).put(record, System.currentTimeMillis());
     }
 
     public Optional<ExecutionRecord> get(String executionId) {
-        StoredExecution stored = executions.get(executionId);
-        if (stored == null) {
-            return Optional.empty();
-        }
-        return Optional.of(stored.record());
+        return Optional.ofNullable(getOrNull(executionId));
     }
 
     /**
      * Hot-path lookup without Optional allocation.
      */
     public ExecutionRecord getOrNull(String executionId) {
-        StoredExecution stored = executions.get(executionId);
+        ExecutionStoreShard.StoredExecution stored = shardFor(executionId).get(executionId);
         return stored == null ? null : stored.record();
     }
 
     public void remove(String executionId) {
-        executions.remove(executionId);
+        shardFor(executionId).remove(executionId);
+    }
+
+    public int size() {
+        int size = 0;
+        for (ExecutionStoreShard shard : shards) {
+            size += shard.size();
+        }
+        return size;
     }
 
     // Package-private for deterministic testing.
     void evictExpired() {
-        Instant now = Instant.now();
-        Instant cutoff = now.minus(ttl);
-        Instant cleanupCutoff = now.minus(cleanupTtl);
-        Instant lifetimeCutoff = now.minus(maxLifetime);
-
-        executions.entrySet().removeIf(entry -> {
-            StoredExecution stored = entry.getValue();
-            ExecutionRecord record = stored.record();
-            Instant created = stored.createdAt();
-            if (!record.isTerminal()) {
-                // Stuck executions (lost dispatch, missing callback) must not leak forever.
-                return created.isBefore(lifetimeCutoff);
-            }
-
-            Instant completedAt = record.finishedAt();
-            Instant retentionAnchor = completedAt == null ? created : completedAt;
+        long now = System.currentTimeMillis();
+        for (ExecutionStoreShard shard : shards) {
+            shard.evictDue(now);
+        }
+    }
 
-            if (retentionAnchor.isBefore(cutoff)) {
-                return true;
-            }
-            if (retentionAnchor.isBefore(cleanupCutoff)) {
-                record.cleanup();
-            }
-            return false;
-        });
+    // Package-private for deterministic testing.
+    int shardCount() {
+        return shards.length;
     }
 
     @PreDestroy
@@ -99,6 +104,9 @@ public class ExecutionStore {
         janitor.shutdownNow();
     }
 
-    private record StoredExecution(ExecutionRecord record, Instant createdAt) {
+    private ExecutionStoreShard shardFor(String executionId) {
+        int h = executionId.hashCode();
+        // Spread the high bits like ConcurrentHashMap: ids often share long common prefixes.
+        return shards[(h ^ (h >>> 16)) & shardMask];
     }
 }
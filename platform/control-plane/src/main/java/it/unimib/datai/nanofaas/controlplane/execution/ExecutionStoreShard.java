@@ -0,0 +1,156 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One partition of the {@link ExecutionStore}.
+ *
+ * <p>Besides the id -> execution map, every shard keeps a lock-free expiry index ordered by
+ * the next instant at which an entry must be re-examined. A sweep only pops the deadlines
+ * that have come due, so its cost is proportional to the entries that expire (or need a
+ * cleanup) rather than to the whole shard.</p>
+ *
+ * <p>Records do not notify the store when they finish, so a non-terminal entry is
+ * re-examined every {@code cleanupTtl} (bounded by its max lifetime). Once terminal, its
+ * next deadlines are anchored on {@link ExecutionRecord#finishedAt()}: cleanup at
+ * {@code finishedAt + cleanupTtl}, eviction at {@code finishedAt + ttl}.</p>
+ */
+final class ExecutionStoreShard {
+    private final Map<String, StoredExecution> executions = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Expiry> expiries = new ConcurrentSkipListSet<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder lifetimeEvictions = new LongAdder();
+    private final long ttlMillis;
+    private final long cleanupTtlMillis;
+    private final long maxLifetimeMillis;
+
+    ExecutionStoreShard(long ttlMillis, long cleanupTtlMillis, long maxLifetimeMillis) {
+        this.ttlMillis = ttlMillis;
+        this.cleanupTtlMillis = cleanupTtlMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    void put(ExecutionRecord record, long nowMillis) {
+        StoredExecution stored = new StoredExecution(record, nowMillis);
+        StoredExecution replaced = executions.put(record.executionId(), stored);
+        if (replaced != null && replaced.record() != record) {
+            replaced.record().releasePayloads();
+        }
+        schedule(stored, nextDeadline(stored, nowMillis));
+    }
+
+    StoredExecution get(String executionId) {
+        return executions.get(executionId);
+    }
+
+    void remove(String executionId) {
+        // The expiry entry is left behind and discarded lazily when it comes due.
+        StoredExecution removed = executions.remove(executionId);
+        if (removed != null) {
+            removed.record().releasePayloads();
+        }
+    }
+
+    /**
+     * Pops every expiry deadline that is due at {@code nowMillis} and evicts, cleans up or
+     * reschedules the corresponding execution.
+     */
+    void evictDue(long nowMillis) {
+        Expiry head;
+        while ((head = expiries.pollFirst()) != null) {
+            if (head.deadlineMillis() > nowMillis) {
+                expiries.add(head);
+                return;
+            }
+            StoredExecution stored = head.stored();
+            if (executions.get(stored.record().executionId()) != stored) {
+                // Removed or replaced since it was scheduled.
+                continue;
+            }
+            examine(stored, nowMillis);
+        }
+    }
+
+    int size() {
+        return executions.size();
+    }
+
+    long expiredEvictions() {
+        return expiredEvictions.sum();
+    }
+
+    long lifetimeEvictions() {
+        return lifetimeEvictions.sum();
+    }
+
+    private void examine(StoredExecution stored, long nowMillis) {
+        ExecutionRecord record = stored.record();
+        if (!record.isTerminal()) {
+            // Stuck executions (lost dispatch, missing callback) must not leak forever.
+            if (stored.createdAtMillis() + maxLifetimeMillis < nowMillis) {
+                evict(stored, lifetimeEvictions);
+            } else {
+                schedule(stored, nextDeadline(stored, nowMillis));
+            }
+            return;
+        }
+
+        long anchor = retentionAnchor(stored, record);
+        if (anchor + ttlMillis < nowMillis) {
+            evict(stored, expiredEvictions);
+            return;
+        }
+        if (anchor + cleanupTtlMillis < nowMillis) {
+            record.cleanup();
+        }
+        schedule(stored, nextDeadline(stored, nowMillis));
+    }
+
+    private long nextDeadline(StoredExecution stored, long nowMillis) {
+        ExecutionRecord record = stored.record();
+        long deadline;
+        if (!record.isTerminal()) {
+            deadline = Math.min(stored.createdAtMillis() + maxLifetimeMillis, nowMillis + cleanupTtlMillis);
+        } else {
+            long anchor = retentionAnchor(stored, record);
+            long cleanupAt = anchor + cleanupTtlMillis;
+            deadline = cleanupAt >= nowMillis ? Math.min(cleanupAt, anchor + ttlMillis) : anchor + ttlMillis;
+        }
+        // Deadlines are exclusive: an entry is due strictly after its threshold has passed.
+        return Math.max(deadline + 1, nowMillis + 1);
+    }
+
+    private static long retentionAnchor(StoredExecution stored, ExecutionRecord record) {
+        Instant finishedAt = record.finishedAt();
+        return finishedAt == null ? stored.createdAtMillis() : finishedAt.toEpochMilli();
+    }
+
+    private void schedule(StoredExecution stored, long deadlineMillis) {
+        expiries.add(new Expiry(deadlineMillis, sequence.incrementAndGet(), stored));
+    }
+
+    private void evict(StoredExecution stored, LongAdder counter) {
+        if (executions.remove(stored.record().executionId(), stored)) {
+            // Compact outputs survive cleanup and must give their bytes back here.
+            stored.record().releasePayloads();
+            counter.increment();
+        }
+    }
+
+    record StoredExecution(ExecutionRecord record, long createdAtMillis) {
+    }
+
+    private record Expiry(long deadlineMillis, long sequence, StoredExecution stored) implements Comparable<Expiry> {
+        @Override
+        public int compareTo(Expiry other) {
+            int byDeadline = Long.compare(deadlineMillis, other.deadlineMillis);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -2,18 +2,30 @@ package it.unimib.datai.nanofaas.controlplane.execution;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import com.github.benmanes.caffeine.cache.Ticker;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maps {@code (function, idempotency key)} to the execution that owns it. A key is first claimed
+ * as pending by the invocation creating the execution and then published or abandoned; callers
+ * that find it pending get a stage that completes once the claim settles, so they can wait for
+ * the winner instead of polling.
+ */
 @Component
 public class IdempotencyStore {
-    private final Cache<String, StoredKey> cache;
-    private final ConcurrentMap<String, StoredKey> keys;
+    private final Cache<Key, StoredKey> cache;
+    private final ConcurrentMap<Key, StoredKey> keys;
+    private final AtomicLong claimTokens = new AtomicLong();
 
     public IdempotencyStore() {
         this(Duration.ofMinutes(5));
@@ -24,15 +36,28 @@ public class IdempotencyStore {
     }
 
     IdempotencyStore(Duration ttl, Ticker ticker) {
+        this(ttl, ticker, Scheduler.systemScheduler());
+    }
+
+    IdempotencyStore(Duration ttl, Ticker ticker, Scheduler scheduler) {
         this.cache = Caffeine.newBuilder()
                 .expireAfterWrite(ttl)
                 .ticker(ticker)
+                // Caffeine otherwise only expires entries when the cache is touched, and a
+                // pending claim nobody settles must not strand its waiters until then.
+                .scheduler(scheduler)
+                // An expired pending claim must still release whoever waits on it.
+                .evictionListener((Key key, StoredKey stored, RemovalCause cause) -> {
+                    if (stored != null) {
+                        stored.settle();
+                    }
+                })
                 .build();
         this.keys = cache.asMap();
     }
 
     public Optional<String> getExecutionId(String functionName, String key) {
-        StoredKey stored = keys.get(compose(functionName, key));
+        StoredKey stored = keys.get(new Key(functionName, key));
         if (stored == null || stored.pending()) {
             return Optional.empty();
         }
@@ -40,11 +65,14 @@ public class IdempotencyStore {
     }
 
     public void put(String functionName, String key, String executionId) {
-        keys.put(compose(functionName, key), StoredKey.published(executionId, Instant.now()));
+        StoredKey previous = keys.put(new Key(functionName, key), StoredKey.published(executionId, Instant.now()));
+        if (previous != null) {
+            previous.settle();
+        }
     }
 
     public AcquireResult acquireOrGet(String functionName, String key) {
-        String composed = compose(functionName, key);
+        Key composed = new Key(functionName, key);
         while (true) {
             StoredKey existing = keys.get(composed);
             if (existing == null) {
@@ -56,21 +84,21 @@ public class IdempotencyStore {
                 continue;
             }
             if (existing.pending()) {
-                return AcquireResult.pending();
+                return AcquireResult.pending(existing.settled());
             }
             return AcquireResult.existing(existing.executionId());
         }
     }
 
     public AcquireResult claimIfMatches(String functionName, String key, String expectedExecutionId) {
-        String composed = compose(functionName, key);
+        Key composed = new Key(functionName, key);
         while (true) {
             StoredKey existing = keys.get(composed);
             if (existing == null) {
                 return AcquireResult.missing();
             }
             if (existing.pending()) {
-                return AcquireResult.pending();
+                return AcquireResult.pending(existing.settled());
             }
             if (!existing.executionId().equals(expectedExecutionId)) {
                 return AcquireResult.existing(existing.executionId());
@@ -84,24 +112,26 @@ public class IdempotencyStore {
     }
 
     public void publishClaim(String functionName, String key, String claimToken, String executionId) {
-        String composed = compose(functionName, key);
+        Key composed = new Key(functionName, key);
         while (true) {
             StoredKey existing = keys.get(composed);
             if (existing == null || !existing.pending() || !existing.executionId().equals(claimToken)) {
-                throw new IllegalStateException("Missing idempotency claim for " + composed);
+                throw new IllegalStateException("Missing idempotency claim for " + functionName + ":" + key);
             }
             StoredKey published = StoredKey.published(executionId, Instant.now());
             if (keys.replace(composed, existing, published)) {
+                existing.settle();
                 return;
             }
         }
     }
 
     public void abandonClaim(String functionName, String key, String claimToken) {
-        String composed = compose(functionName, key);
+        Key composed = new Key(functionName, key);
         StoredKey existing = keys.get(composed);
-        if (existing != null && existing.pending() && existing.executionId().equals(claimToken)) {
-            keys.remove(composed, existing);
+        if (existing != null && existing.pending() && existing.executionId().equals(claimToken)
+                && keys.remove(composed, existing)) {
+            existing.settle();
         }
     }
 
@@ -110,15 +140,20 @@ public class IdempotencyStore {
         return keys.size();
     }
 
-    private String compose(String functionName, String key) {
-        return functionName + ":" + key;
-    }
-
     private String pendingToken() {
-        return "pending:" + Instant.now().toEpochMilli() + ":" + System.nanoTime();
+        return "pending:" + claimTokens.incrementAndGet();
     }
 
-    public record AcquireResult(State state, String executionIdOrToken) {
+    /**
+     * Outcome of an acquire. {@code pendingClaim} is set only for {@link State#PENDING} and
+     * completes, always normally, once that claim is published, abandoned or expires; the
+     * caller should then acquire again.
+     */
+    public record AcquireResult(State state, String executionIdOrToken, CompletionStage<Void> pendingClaim) {
+        public AcquireResult(State state, String executionIdOrToken) {
+            this(state, executionIdOrToken, null);
+        }
+
         static AcquireResult claimed(String token) {
             return new AcquireResult(State.CLAIMED, token);
         }
@@ -127,8 +162,8 @@ public class IdempotencyStore {
             return new AcquireResult(State.EXISTING, executionId);
         }
 
-        static AcquireResult pending() {
-            return new AcquireResult(State.PENDING, null);
+        static AcquireResult pending(CompletionStage<Void> pendingClaim) {
+            return new AcquireResult(State.PENDING, null, pendingClaim);
         }
 
         static AcquireResult missing() {
@@ -143,13 +178,22 @@ public class IdempotencyStore {
         }
     }
 
-    private record StoredKey(String executionId, Instant storedAt, boolean pending) {
+    private record Key(String functionName, String key) {
+    }
+
+    private record StoredKey(String executionId, Instant storedAt, boolean pending, CompletableFuture<Void> settled) {
         static StoredKey pending(String claimToken, Instant storedAt) {
-            return new StoredKey(claimToken, storedAt, true);
+            return new StoredKey(claimToken, storedAt, true, new CompletableFuture<>());
         }
 
         static StoredKey published(String executionId, Instant storedAt) {
-            return new StoredKey(executionId, storedAt, false);
+            return new StoredKey(executionId, storedAt, false, null);
+        }
+
+        void settle() {
+            if (settled != null) {
+                settled.complete(null);
+            }
         }
     }
 }
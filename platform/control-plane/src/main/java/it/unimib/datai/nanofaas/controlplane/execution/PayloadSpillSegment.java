@@ -0,0 +1,109 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only spill file for {@link CompactPayload} bytes.
+ *
+ * <p>Appends come from the single thread running a spill pass; reads use positional I/O and
+ * may run concurrently. The segment is deleted once it has been sealed (a newer segment
+ * took over) and every payload written to it has been released. Files are opened with
+ * {@code DELETE_ON_CLOSE}, so a crashed control plane does not leave spill files behind.</p>
+ */
+final class PayloadSpillSegment {
+    private static final Logger log = LoggerFactory.getLogger(PayloadSpillSegment.class);
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long capacity;
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicBoolean deleted = new AtomicBoolean();
+    private volatile boolean sealed;
+    private long writePosition;
+
+    PayloadSpillSegment(Path path, long capacity) throws IOException {
+        this.path = path;
+        this.capacity = capacity;
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * An empty segment accepts any payload so that oversized payloads can still be spilled.
+     */
+    boolean hasRoom(int length) {
+        return writePosition == 0 || writePosition + length <= capacity;
+    }
+
+    long append(byte[] bytes) throws IOException {
+        long offset = writePosition;
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        writePosition = position;
+        live.incrementAndGet();
+        return offset;
+    }
+
+    byte[] read(long offset, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of spill segment " + path);
+            }
+            position += read;
+        }
+        return bytes;
+    }
+
+    void release() {
+        if (live.decrementAndGet() == 0 && sealed) {
+            delete();
+        }
+    }
+
+    void seal() {
+        sealed = true;
+        if (live.get() == 0) {
+            delete();
+        }
+    }
+
+    long writtenBytes() {
+        return writePosition;
+    }
+
+    boolean isDeleted() {
+        return deleted.get();
+    }
+
+    void delete() {
+        if (!deleted.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete payload spill segment {}: {}", path, ex.getMessage());
+        }
+    }
+}
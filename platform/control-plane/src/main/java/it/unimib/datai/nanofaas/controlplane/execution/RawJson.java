@@ -0,0 +1,157 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An opaque JSON value kept exactly as received (UTF-8 bytes) on the pass-through invocation path.
+ *
+ * <p>Serializing it with Jackson copies the bytes into the output unchanged; with the UTF-8
+ * generators used for HTTP bodies no intermediate {@code String} is created.</p>
+ */
+public final class RawJson implements JsonSerializable {
+    private final byte[] bytes;
+
+    private RawJson(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Wraps the given bytes without copying; the caller must not modify them afterwards.
+     */
+    public static RawJson of(byte[] bytes) {
+        return new RawJson(bytes);
+    }
+
+    public static RawJson of(byte[] source, int offset, int length) {
+        return new RawJson(Arrays.copyOfRange(source, offset, offset + length));
+    }
+
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        writeRaw(gen, bytes);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeRaw(JsonGenerator gen, byte[] utf8Json) throws IOException {
+        gen.writeRawValue(new RawUtf8(utf8Json));
+    }
+
+    /**
+     * Raw-value adapter: UTF-8 generators only ask for the unquoted bytes; the remaining
+     * methods fall back to a decoded string for other generator types.
+     */
+    private static final class RawUtf8 implements SerializableString {
+        private final byte[] utf8;
+        private SerializedString decoded;
+
+        private RawUtf8(byte[] utf8) {
+            this.utf8 = utf8;
+        }
+
+        private SerializedString decoded() {
+            if (decoded == null) {
+                decoded = new SerializedString(new String(utf8, StandardCharsets.UTF_8));
+            }
+            return decoded;
+        }
+
+        @Override
+        public String getValue() {
+            return decoded().getValue();
+        }
+
+        @Override
+        public int charLength() {
+            return decoded().charLength();
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return decoded().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return utf8;
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return decoded().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return decoded().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return decoded().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + utf8.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+            return utf8.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return decoded().appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return decoded().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(utf8);
+            return utf8.length;
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return decoded().putQuotedUTF8(buffer);
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) throws IOException {
+            if (utf8.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(utf8);
+            return utf8.length;
+        }
+    }
+}
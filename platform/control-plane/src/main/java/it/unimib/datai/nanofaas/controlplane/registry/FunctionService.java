@@ -173,7 +173,9 @@ public class FunctionService {
                 spec.runtimeMode(),
                 spec.runtimeCommand(),
                 spec.scalingConfig(),
-                spec.imagePullSecrets()
+                spec.imagePullSecrets(),
+                spec.batchConfig(),
+                spec.rateLimit()
         );
     }
 
@@ -1,9 +1,11 @@
 package it.unimib.datai.nanofaas.controlplane.registry;
 
+import it.unimib.datai.nanofaas.common.model.BatchConfig;
 import it.unimib.datai.nanofaas.common.model.ConcurrencyControlConfig;
 import it.unimib.datai.nanofaas.common.model.ConcurrencyControlMode;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.RateLimitConfig;
 import it.unimib.datai.nanofaas.common.model.RuntimeMode;
 import it.unimib.datai.nanofaas.common.model.ScalingConfig;
 import it.unimib.datai.nanofaas.common.model.ScalingMetric;
@@ -48,7 +50,29 @@ public class FunctionSpecResolver {
                 Optional.ofNullable(spec.runtimeMode()).orElse(RuntimeMode.HTTP),
                 spec.runtimeCommand(),
                 scaling,
-                spec.imagePullSecrets()
+                spec.imagePullSecrets(),
+                resolveBatchConfig(spec.batchConfig()),
+                resolveRateLimit(spec.rateLimit())
+        );
+    }
+
+    private BatchConfig resolveBatchConfig(BatchConfig config) {
+        if (config == null) {
+            return null;
+        }
+        return new BatchConfig(
+                Math.max(1, Optional.ofNullable(config.maxBatchSize()).orElse(1)),
+                Math.max(0, Optional.ofNullable(config.maxLingerMs()).orElse(0))
+        );
+    }
+
+    private RateLimitConfig resolveRateLimit(RateLimitConfig config) {
+        if (config == null || !config.enabled()) {
+            return null;
+        }
+        return new RateLimitConfig(
+                config.maxPerSecond(),
+                Optional.ofNullable(config.burst()).filter(burst -> burst > 0).orElse(config.maxPerSecond())
         );
     }
 
@@ -68,7 +92,7 @@ public class FunctionSpecResolver {
         ScalingStrategy strategy = Optional.ofNullable(config.strategy()).orElse(ScalingStrategy.INTERNAL);
         List<ScalingMetric> metrics = Optional.ofNullable(config.metrics()).filter(m -> !m.isEmpty())
                 .orElseGet(() -> List.of(new ScalingMetric("queue_depth", "5", null)));
-        if (strategy == ScalingStrategy.INTERNAL) {
+        if (strategy == ScalingStrategy.INTERNAL || strategy == ScalingStrategy.PREDICTIVE) {
             validateInternalScalingMetrics(metrics);
         }
         int minReplicas = Optional.ofNullable(config.minReplicas()).orElse(1);
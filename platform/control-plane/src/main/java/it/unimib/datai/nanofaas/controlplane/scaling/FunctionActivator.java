@@ -0,0 +1,24 @@
+package it.unimib.datai.nanofaas.controlplane.scaling;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Brings functions that were scaled to zero back before their work is dispatched.
+ *
+ * <p>Dispatch paths ask before sending anything to a function. While the returned future is not
+ * done the function has no ready replica: queued work stays queued and the caller reacts to the
+ * future's completion instead of polling. Asking for an inactive function starts its activation;
+ * concurrent callers share the same future.</p>
+ */
+public interface FunctionActivator {
+
+    /**
+     * Returns a completed future when {@code functionName} can be dispatched now, otherwise one
+     * that completes once its first replica is ready (or activation gave up).
+     */
+    CompletableFuture<Void> activate(String functionName);
+
+    static FunctionActivator alwaysActive() {
+        return NoOpFunctionActivator.INSTANCE;
+    }
+}
@@ -0,0 +1,14 @@
+package it.unimib.datai.nanofaas.controlplane.scaling;
+
+import java.util.concurrent.CompletableFuture;
+
+enum NoOpFunctionActivator implements FunctionActivator {
+    INSTANCE;
+
+    private static final CompletableFuture<Void> ACTIVE = CompletableFuture.completedFuture(null);
+
+    @Override
+    public CompletableFuture<Void> activate(String functionName) {
+        return ACTIVE;
+    }
+}
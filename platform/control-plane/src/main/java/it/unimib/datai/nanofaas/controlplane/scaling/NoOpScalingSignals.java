@@ -0,0 +1,20 @@
+package it.unimib.datai.nanofaas.controlplane.scaling;
+
+enum NoOpScalingSignals implements ScalingSignals {
+    INSTANCE;
+
+    @Override
+    public void queueDepthChanged(String functionName, int queueDepth) {
+        // no-op
+    }
+
+    @Override
+    public void inFlightChanged(String functionName, int inFlight) {
+        // no-op
+    }
+
+    @Override
+    public void backlogWaiting(String functionName) {
+        // no-op
+    }
+}
@@ -0,0 +1,28 @@
+package it.unimib.datai.nanofaas.controlplane.scaling;
+
+/**
+ * Load changes reported by the queues as they happen, so the autoscaler can react to a function
+ * without waiting for its next periodic sweep.
+ *
+ * <p>Reporters call these on their hot paths: implementations must be cheap and must not block,
+ * and should only hand the function over for evaluation when the value crosses a level they
+ * care about.</p>
+ */
+public interface ScalingSignals {
+
+    /** The async queue of {@code functionName} now holds {@code queueDepth} invocations. */
+    void queueDepthChanged(String functionName, int queueDepth);
+
+    /** {@code functionName} now has {@code inFlight} dispatches holding a slot. */
+    void inFlightChanged(String functionName, int inFlight);
+
+    /**
+     * Work for {@code functionName} is waiting where the scaling metrics do not see it, such as
+     * sync invocations parked because every dispatch slot is taken.
+     */
+    void backlogWaiting(String functionName);
+
+    static ScalingSignals noOp() {
+        return NoOpScalingSignals.INSTANCE;
+    }
+}
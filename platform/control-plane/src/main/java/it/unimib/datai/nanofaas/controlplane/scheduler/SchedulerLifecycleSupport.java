@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class SchedulerLifecycleSupport {
     private SchedulerLifecycleSupport() {
@@ -18,6 +19,15 @@ public final class SchedulerLifecycleSupport {
         });
     }
 
+    public static ExecutorService newFixedThreadExecutor(String threadNamePrefix, int threads) {
+        AtomicInteger index = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, threadNamePrefix + "-" + index.getAndIncrement());
+            t.setDaemon(false);
+            return t;
+        });
+    }
+
     public static void shutdownExecutor(ExecutorService executor, Logger log, String componentName) {
         if (executor == null) {
             return;
@@ -4,16 +4,21 @@ import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.controlplane.dispatch.DispatchResult;
 import it.unimib.datai.nanofaas.controlplane.dispatch.DispatcherRouter;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
 import it.unimib.datai.nanofaas.controlplane.queue.QueueFullException;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -31,31 +36,96 @@ public class ExecutionCompletionHandler {
     private final InvocationEnqueuer enqueuer;
     private final DispatcherRouter dispatcherRouter;
     private final Metrics metrics;
+    private final ExecutionPayloadStore payloadStore;
 
     public ExecutionCompletionHandler(ExecutionStore executionStore,
                                       @Nullable InvocationEnqueuer enqueuer,
                                       DispatcherRouter dispatcherRouter,
                                       Metrics metrics) {
+        this(executionStore, enqueuer, dispatcherRouter, metrics, new ExecutionPayloadStore());
+    }
+
+    @Autowired
+    public ExecutionCompletionHandler(ExecutionStore executionStore,
+                                      @Nullable InvocationEnqueuer enqueuer,
+                                      DispatcherRouter dispatcherRouter,
+                                      Metrics metrics,
+                                      ExecutionPayloadStore payloadStore) {
         this.executionStore = executionStore;
         this.enqueuer = enqueuer == null ? InvocationEnqueuer.noOp() : enqueuer;
         this.dispatcherRouter = dispatcherRouter;
         this.metrics = metrics;
+        this.payloadStore = payloadStore;
     }
 
     public void dispatch(InvocationTask task) {
+        if (beginDispatch(task)) {
+            send(task);
+        }
+    }
+
+    /**
+     * Dispatches queued tasks of one function together. POOL/DEPLOYMENT functions get a single
+     * {@code /invoke-batch} request whose per-item results complete each execution on its own,
+     * exactly as if it had been dispatched alone.
+     */
+    public void dispatchBatch(List<InvocationTask> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        if (tasks.get(0).functionSpec().executionMode() == ExecutionMode.LOCAL) {
+            tasks.forEach(this::dispatch);
+            return;
+        }
+        List<InvocationTask> started = new ArrayList<>(tasks.size());
+        for (InvocationTask task : tasks) {
+            if (beginDispatch(task)) {
+                started.add(task);
+            }
+        }
+        if (started.size() <= 1) {
+            started.forEach(this::send);
+            return;
+        }
+
+        String errorCode = started.get(0).functionSpec().executionMode().name() + "_ERROR";
+        CompletableFuture<List<DispatchResult>> future;
+        try {
+            future = dispatcherRouter.dispatchPoolBatch(started);
+        } catch (Exception ex) {
+            failAll(started, InvocationResult.error(errorCode, ex.getMessage()));
+            return;
+        }
+
+        future.whenComplete((results, error) -> {
+            if (error != null) {
+                failAll(started, InvocationResult.error(errorCode, error.getMessage()));
+                return;
+            }
+            for (int i = 0; i < started.size(); i++) {
+                InvocationTask task = started.get(i);
+                completeExecution(task.executionId(), results.get(i), task.attempt());
+            }
+        });
+    }
+
+    private boolean beginDispatch(InvocationTask task) {
         ExecutionRecord record = executionStore.getOrNull(task.executionId());
         if (record == null) {
             releaseDispatchSlot(task.functionName());
-            return;
+            return false;
         }
 
         record.markRunning();
         record.markDispatchedAt();
-        metrics.dispatch(task.functionName());
+        metrics.meters(record).dispatch();
+        return true;
+    }
 
+    private void send(InvocationTask task) {
         ExecutionMode mode = task.functionSpec().executionMode();
         int attemptAtDispatch = task.attempt();
-        java.util.concurrent.CompletableFuture<DispatchResult> future;
+        CompletableFuture<DispatchResult> future;
         try {
             future = switch (mode) {
                 case LOCAL -> dispatcherRouter.dispatchLocal(task);
@@ -79,6 +149,12 @@ public class ExecutionCompletionHandler {
         });
     }
 
+    private void failAll(List<InvocationTask> tasks, InvocationResult error) {
+        for (InvocationTask task : tasks) {
+            completeExecution(task.executionId(), DispatchResult.warm(error), task.attempt());
+        }
+    }
+
     public void completeExecution(String executionId, DispatchResult dispatchResult) {
         ExecutionRecord record = executionStore.getOrNull(executionId);
         if (record == null) {
@@ -98,6 +174,9 @@ public class ExecutionCompletionHandler {
     }
 
     private void completeExecution(ExecutionRecord record, DispatchResult dispatchResult, Integer completedAttempt) {
+        if (dispatchResult.callbackSkipped()) {
+            metrics.meters(record).callbackAvoided();
+        }
         FinalCompletion completion;
         synchronized (record) {
             completion = completeUnderLock(record, dispatchResult, completedAttempt);
@@ -131,7 +210,7 @@ public class ExecutionCompletionHandler {
                 && currentTask.attempt() < currentTask.functionSpec().maxRetries();
 
         if (shouldRetry) {
-            metrics.retry(functionName);
+            metrics.meters(record).retry();
             InvocationTask retryTask = new InvocationTask(
                     record.executionId(),
                     functionName,
@@ -149,13 +228,15 @@ public class ExecutionCompletionHandler {
             } catch (QueueFullException ex) {
                 log.warn("Retry queue full for execution {}, completing with error", record.executionId());
                 record.markError(result.error());
-                return FinalCompletion.retryExhausted(functionName, result);
+                return FinalCompletion.retryExhausted(result);
             }
         }
 
         Instant enqueuedAt = currentTask.enqueuedAt();
         Instant startedAt = record.startedAt();
         if (result.success()) {
+            // The completed future keeps the result for the record's lifetime: store it compactly.
+            result = payloadStore.compactResult(result);
             record.markSuccess(result.output());
         } else {
             record.markError(result.error());
@@ -171,7 +252,7 @@ public class ExecutionCompletionHandler {
                 ? startedAt.toEpochMilli() - enqueuedAt.toEpochMilli() : null;
         Long e2eMs = (enqueuedAt != null && finishedAt != null)
                 ? finishedAt.toEpochMilli() - enqueuedAt.toEpochMilli() : null;
-        return new FinalCompletion(functionName, result, latencyMs, queueWaitMs, e2eMs,
+        return new FinalCompletion(result, latencyMs, queueWaitMs, e2eMs,
                 dispatchResult.coldStart(), dispatchResult.initDurationMs(), false);
     }
 
@@ -179,16 +260,16 @@ public class ExecutionCompletionHandler {
         if (completion == null) {
             return;
         }
-        String functionName = completion.functionName();
+        Metrics.FunctionMeters meters = metrics.meters(record);
         if (!completion.retryExhausted()) {
-            Metrics.FunctionTimers timers = metrics.timers(functionName);
+            Metrics.FunctionTimers timers = meters.timers();
             if (completion.coldStart()) {
-                metrics.coldStart(functionName);
+                meters.coldStart();
                 if (completion.initDurationMs() != null) {
                     timers.initDuration().record(completion.initDurationMs(), TimeUnit.MILLISECONDS);
                 }
             } else {
-                metrics.warmStart(functionName);
+                meters.warmStart();
             }
             if (completion.latencyMs() != null) {
                 timers.latency().record(completion.latencyMs(), TimeUnit.MILLISECONDS);
@@ -201,23 +282,22 @@ public class ExecutionCompletionHandler {
             }
         }
         if (completion.result().success()) {
-            metrics.success(functionName);
+            meters.success();
         } else {
-            metrics.error(functionName);
+            meters.error();
         }
         record.completion().complete(completion.result());
     }
 
-    private record FinalCompletion(String functionName,
-                                   InvocationResult result,
+    private record FinalCompletion(InvocationResult result,
                                    Long latencyMs,
                                    Long queueWaitMs,
                                    Long e2eMs,
                                    boolean coldStart,
                                    Long initDurationMs,
                                    boolean retryExhausted) {
-        static FinalCompletion retryExhausted(String functionName, InvocationResult result) {
-            return new FinalCompletion(functionName, result, null, null, null, false, null, true);
+        static FinalCompletion retryExhausted(InvocationResult result) {
+            return new FinalCompletion(result, null, null, null, false, null, true);
         }
     }
 
@@ -11,10 +11,10 @@ final class InvocationEnqueueSupport {
     static void enqueueOrThrow(InvocationEnqueuer enqueuer, Metrics metrics, ExecutionRecord record) {
         boolean enqueued = enqueuer.enqueue(record.task());
         if (!enqueued) {
-            metrics.queueRejected(record.task().functionName());
+            metrics.meters(record).queueRejected();
             throw new QueueFullException();
         }
-        metrics.enqueue(record.task().functionName());
+        metrics.meters(record).enqueue();
     }
 
     /**
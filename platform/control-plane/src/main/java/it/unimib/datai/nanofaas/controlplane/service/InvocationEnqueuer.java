@@ -2,6 +2,8 @@ package it.unimib.datai.nanofaas.controlplane.service;
 
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 
+import java.util.function.Consumer;
+
 public interface InvocationEnqueuer {
 
     boolean enqueue(InvocationTask task);
@@ -19,6 +21,16 @@ public interface InvocationEnqueuer {
     default void releaseDispatchSlot(String functionName) {
     }
 
+    /**
+     * Registers a callback invoked with the function name each time {@link #releaseDispatchSlot}
+     * frees a slot, so slot-aware schedulers can wake up instead of polling.
+     *
+     * @return {@code false} if this enqueuer does not report slot releases
+     */
+    default boolean addDispatchSlotListener(Consumer<String> listener) {
+        return false;
+    }
+
     static InvocationEnqueuer noOp() {
         return NoOpInvocationEnqueuer.INSTANCE;
     }
@@ -2,15 +2,21 @@ package it.unimib.datai.nanofaas.controlplane.service;
 
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
 import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
 import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore.AcquireResult;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Instant;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.UUID;
 
@@ -18,59 +24,109 @@ import java.util.UUID;
 public final class InvocationExecutionFactory {
     private final ExecutionStore executionStore;
     private final IdempotencyStore idempotencyStore;
+    private final ExecutionPayloadStore payloadStore;
 
     public InvocationExecutionFactory(ExecutionStore executionStore, IdempotencyStore idempotencyStore) {
+        this(executionStore, idempotencyStore, new ExecutionPayloadStore());
+    }
+
+    @Autowired
+    public InvocationExecutionFactory(ExecutionStore executionStore,
+                                      IdempotencyStore idempotencyStore,
+                                      ExecutionPayloadStore payloadStore) {
         this.executionStore = executionStore;
         this.idempotencyStore = idempotencyStore;
+        this.payloadStore = payloadStore;
     }
 
+    /**
+     * Creates the execution for an invocation, or returns the one already owning its idempotency
+     * key. A duplicate arriving while the key is still being claimed blocks the calling thread
+     * until the claim settles; reactive callers use {@link #createOrReuseExecutionReactive}.
+     */
     public ExecutionLookup createOrReuseExecution(String functionName,
                                                   FunctionSpec spec,
                                                   InvocationRequest request,
                                                   String idempotencyKey,
                                                   String traceId) {
+        while (true) {
+            Attempt attempt = attempt(functionName, spec, request, idempotencyKey, traceId);
+            if (attempt.lookup() != null) {
+                return attempt.lookup();
+            }
+            awaitPendingClaim(attempt.pendingClaim());
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #createOrReuseExecution}: a duplicate of a pending claim
+     * subscribes to the claim's settlement and retries when it fires, so it is safe to call from
+     * an event-loop thread. Waiters resume on {@link Schedulers#parallel()}, not on the thread that
+     * settled the claim (the winning request or the idempotency store's eviction executor).
+     */
+    public Mono<ExecutionLookup> createOrReuseExecutionReactive(String functionName,
+                                                                FunctionSpec spec,
+                                                                InvocationRequest request,
+                                                                String idempotencyKey,
+                                                                String traceId) {
+        return Mono.defer(() -> {
+            Attempt attempt = attempt(functionName, spec, request, idempotencyKey, traceId);
+            if (attempt.lookup() != null) {
+                return Mono.just(attempt.lookup());
+            }
+            // suppressCancel: the settlement is shared with every other waiter on the key.
+            return Mono.fromFuture(attempt.pendingClaim().toCompletableFuture(), true)
+                    .publishOn(Schedulers.parallel())
+                    .then(createOrReuseExecutionReactive(functionName, spec, request, idempotencyKey, traceId));
+        });
+    }
+
+    private Attempt attempt(String functionName,
+                            FunctionSpec spec,
+                            InvocationRequest request,
+                            String idempotencyKey,
+                            String traceId) {
         if (idempotencyKey == null || idempotencyKey.isBlank()) {
             ExecutionRecord record = newExecutionRecord(functionName, spec, request, null, traceId);
             executionStore.put(record);
-            return ExecutionLookup.newUnclaimed(record, executionStore);
+            return Attempt.resolved(ExecutionLookup.newUnclaimed(record, executionStore));
         }
 
         while (true) {
             AcquireResult acquire = idempotencyStore.acquireOrGet(functionName, idempotencyKey);
             if (acquire.state() == AcquireResult.State.CLAIMED) {
-                return createClaimedRecord(
+                return Attempt.resolved(createClaimedRecord(
                         functionName,
                         spec,
                         request,
                         idempotencyKey,
                         traceId,
                         acquire.executionIdOrToken()
-                );
+                ));
             }
             if (acquire.state() == AcquireResult.State.PENDING) {
-                parkPendingClaim();
-                continue;
+                return Attempt.waitFor(acquire.pendingClaim());
             }
 
             String existingExecutionId = acquire.executionIdOrToken();
             ExecutionRecord existing = executionStore.getOrNull(existingExecutionId);
             if (existing != null) {
-                return ExecutionLookup.existing(existing);
+                return Attempt.resolved(ExecutionLookup.existing(existing));
             }
 
             AcquireResult staleClaim = idempotencyStore.claimIfMatches(functionName, idempotencyKey, existingExecutionId);
             if (staleClaim.state() == AcquireResult.State.CLAIMED) {
-                return createClaimedRecord(
+                return Attempt.resolved(createClaimedRecord(
                         functionName,
                         spec,
                         request,
                         idempotencyKey,
                         traceId,
                         staleClaim.executionIdOrToken()
-                );
+                ));
             }
             if (staleClaim.state() == AcquireResult.State.PENDING) {
-                parkPendingClaim();
+                return Attempt.waitFor(staleClaim.pendingClaim());
             }
         }
     }
@@ -99,7 +155,7 @@ public final class InvocationExecutionFactory {
         }
     }
 
-    private static ExecutionRecord newExecutionRecord(String functionName,
+    private ExecutionRecord newExecutionRecord(String functionName,
                                                       FunctionSpec spec,
                                                       InvocationRequest request,
                                                       String idempotencyKey,
@@ -109,7 +165,7 @@ public final class InvocationExecutionFactory {
                 executionId,
                 functionName,
                 spec,
-                request,
+                payloadStore.compactRequest(request),
                 idempotencyKey,
                 traceId,
                 Instant.now(),
@@ -130,11 +186,25 @@ public final class InvocationExecutionFactory {
         return new UUID(msb, lsb).toString();
     }
 
-    private static void parkPendingClaim() {
-        java.util.concurrent.locks.LockSupport.parkNanos(java.time.Duration.ofMillis(1).toNanos());
-        if (Thread.currentThread().isInterrupted()) {
+    private static void awaitPendingClaim(CompletionStage<Void> pendingClaim) {
+        try {
+            pendingClaim.toCompletableFuture().get();
+        } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             throw new CancellationException("Interrupted while waiting for idempotency claim");
+        } catch (ExecutionException ex) {
+            // Claims only ever settle normally; retrying re-reads the key either way.
+        }
+    }
+
+    /** Either the resolved lookup, or the pending claim to wait for before retrying. */
+    private record Attempt(ExecutionLookup lookup, CompletionStage<Void> pendingClaim) {
+        static Attempt resolved(ExecutionLookup lookup) {
+            return new Attempt(lookup, null);
+        }
+
+        static Attempt waitFor(CompletionStage<Void> pendingClaim) {
+            return new Attempt(null, pendingClaim);
         }
     }
 
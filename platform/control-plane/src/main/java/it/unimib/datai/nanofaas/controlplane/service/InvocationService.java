@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import it.unimib.datai.nanofaas.common.model.ExecutionStatus;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
@@ -17,8 +18,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -81,26 +82,39 @@ public class InvocationService {
                                                         String idempotencyKey,
                                                         String traceId,
                                                         Integer timeoutOverrideMs) {
-        record Prepared(FunctionSpec spec, InvocationExecutionFactory.ExecutionLookup lookup) {}
-        return Mono.fromCallable(() -> {
-                    enforceRateLimit();
-                    FunctionSpec spec = functionService.get(functionName).orElseThrow(FunctionNotFoundException::new);
-                    // createOrReuseExecution may spin briefly on contended idempotency
-                    // claims; it must never run on the Netty event loop.
-                    return new Prepared(spec,
-                            executionFactory.createOrReuseExecution(functionName, spec, request, idempotencyKey, traceId));
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMap(prepared -> reactiveCoordinator.invoke(prepared.lookup(), prepared.spec(), timeoutOverrideMs));
+        return invokeSyncReactive(functionName, request, idempotencyKey, traceId, timeoutOverrideMs, null);
+    }
+
+    public Mono<InvocationResponse> invokeSyncReactive(String functionName,
+                                                        InvocationRequest request,
+                                                        String idempotencyKey,
+                                                        String traceId,
+                                                        Integer timeoutOverrideMs,
+                                                        String caller) {
+        return Mono.defer(() -> {
+            FunctionSpec spec = functionService.get(functionName).orElseThrow(FunctionNotFoundException::new);
+            enforceRateLimits(spec, caller);
+            // Duplicates of an idempotency key still being claimed wait on the claim's
+            // settlement without blocking, so admission can stay on the calling event loop.
+            return executionFactory.createOrReuseExecutionReactive(functionName, spec, request, idempotencyKey, traceId)
+                    .flatMap(lookup -> reactiveCoordinator.invoke(lookup, spec, timeoutOverrideMs));
+        });
     }
 
     public InvocationResponse invokeAsync(String functionName,
                                           InvocationRequest request,
                                           String idempotencyKey,
                                           String traceId) {
-        enforceRateLimit();
+        return invokeAsync(functionName, request, idempotencyKey, traceId, null);
+    }
 
+    public InvocationResponse invokeAsync(String functionName,
+                                          InvocationRequest request,
+                                          String idempotencyKey,
+                                          String traceId,
+                                          String caller) {
         FunctionSpec spec = functionService.get(functionName).orElseThrow(FunctionNotFoundException::new);
+        enforceRateLimits(spec, caller);
         if (!enqueuer.enabled()) {
             throw new AsyncQueueUnavailableException();
         }
@@ -121,6 +135,10 @@ public class InvocationService {
         completionHandler.dispatch(task);
     }
 
+    public void dispatchBatch(List<InvocationTask> tasks) {
+        completionHandler.dispatchBatch(tasks);
+    }
+
     public void completeExecution(String executionId, DispatchResult dispatchResult) {
         completionHandler.completeExecution(executionId, dispatchResult);
     }
@@ -137,8 +155,33 @@ public class InvocationService {
         completionHandler.completeExecution(executionId, result, completedAttempt);
     }
 
-    private void enforceRateLimit() {
-        if (!rateLimiter.allow()) {
+    /**
+     * Applies a batch of runtime callbacks in one pass, each exactly like its own
+     * {@link #completeExecution} call. Items without an execution id or result are ignored,
+     * and a missing or non-positive attempt means "the current attempt".
+     */
+    public void completeExecutions(List<ExecutionCompletionBatch.Item> completions) {
+        for (ExecutionCompletionBatch.Item item : completions) {
+            if (item == null || item.executionId() == null || item.executionId().isBlank() || item.result() == null) {
+                continue;
+            }
+            Integer attempt = item.attempt();
+            if (attempt != null && attempt > 0) {
+                completionHandler.completeExecution(item.executionId(), item.result(), attempt);
+            } else {
+                completionHandler.completeExecution(item.executionId(), item.result());
+            }
+        }
+    }
+
+    /**
+     * Narrowest limit first, so a caller or function over its own limit does not use up
+     * tokens of the global one.
+     */
+    private void enforceRateLimits(FunctionSpec spec, String caller) {
+        if (!rateLimiter.allowCaller(caller)
+                || !rateLimiter.allowFunction(spec.name(), spec.rateLimit())
+                || !rateLimiter.allow()) {
             throw new RateLimitException();
         }
     }
@@ -1,24 +1,35 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToDoubleFunction;
 
+/**
+ * Per-function invocation meters.
+ *
+ * <p>The meters of a function are resolved once into a {@link FunctionMeters} handle, which hot
+ * paths keep and record through; {@link #meters(ExecutionRecord)} caches it on the execution.
+ * Lookups by name read a concurrent map and take no lock. Removing a function replaces its
+ * handle with a tombstone and retires the old one: a retired handle resolves the function again
+ * on every use, so invocations in flight record nothing while the function is removed and record
+ * into the new meters once it is registered again.</p>
+ */
 @Component
 public class Metrics {
     private final MeterRegistry registry;
-    private final Map<String, FunctionMeters> meters = new ConcurrentHashMap<>();
-    private final Set<String> removedFunctions = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, FunctionMeters> meters = new ConcurrentHashMap<>();
     private final FunctionTimers removedFunctionTimers;
-    private final Object functionStateMonitor = new Object();
 
     public Metrics(MeterRegistry registry) {
         this.registry = registry;
@@ -31,67 +42,61 @@ public class Metrics {
         );
     }
 
-    public void enqueue(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.enqueue().increment();
+    /** Handle on the meters of {@code function}; a tombstone that records nothing while it is removed. */
+    public FunctionMeters meters(String function) {
+        FunctionMeters current = meters.get(function);
+        return current != null ? current : meters.computeIfAbsent(function, this::registerMeters);
+    }
+
+    /** Handle on the meters of the function of {@code record}, resolved once per execution. */
+    public FunctionMeters meters(ExecutionRecord record) {
+        FunctionMeters cached = record.functionMeters();
+        if (cached == null) {
+            cached = meters(record.task().functionName());
+            record.attachFunctionMeters(cached);
         }
+        return cached;
+    }
+
+    public void enqueue(String function) {
+        meters(function).enqueue();
     }
 
     public void dispatch(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.dispatch().increment();
-        }
+        meters(function).dispatch();
     }
 
     public void success(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.success().increment();
-        }
+        meters(function).success();
     }
 
     public void error(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.error().increment();
-        }
+        meters(function).error();
     }
 
     public void retry(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.retry().increment();
-        }
+        meters(function).retry();
     }
 
     public void timeout(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.timeout().increment();
-        }
+        meters(function).timeout();
     }
 
     public void queueRejected(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.queueRejected().increment();
-        }
+        meters(function).queueRejected();
     }
 
     public void coldStart(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.coldStart().increment();
-        }
+        meters(function).coldStart();
     }
 
     public void warmStart(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters != null) {
-            meters.warmStart().increment();
-        }
+        meters(function).warmStart();
+    }
+
+    /** The runtime completed the execution through its response and sent no callback. */
+    public void callbackAvoided(String function) {
+        meters(function).callbackAvoided();
     }
 
     public Timer latency(String function) {
@@ -111,36 +116,46 @@ public class Metrics {
     }
 
     FunctionTimers timers(String function) {
-        FunctionMeters meters = metersOrNull(function);
-        if (meters == null) {
-            return removedFunctionTimers;
-        }
-        return meters.timers();
+        return meters(function).timers();
     }
 
-    public void registerFunction(String function) {
-        synchronized (functionStateMonitor) {
-            removedFunctions.remove(function);
-        }
+    /**
+     * Binds size and eviction meters for one execution store shard. The meters are
+     * function-independent and live as long as the registry.
+     */
+    public <T> void registerExecutionStoreShard(int shard, T state,
+                                                ToDoubleFunction<T> size,
+                                                ToDoubleFunction<T> expiredEvictions,
+                                                ToDoubleFunction<T> lifetimeEvictions) {
+        String shardTag = Integer.toString(shard);
+        Gauge.builder("execution_store_size", state, size)
+                .tag("shard", shardTag)
+                .register(registry);
+        FunctionCounter.builder("execution_store_evictions_total", state, expiredEvictions)
+                .tag("shard", shardTag)
+                .tag("reason", "ttl")
+                .register(registry);
+        FunctionCounter.builder("execution_store_evictions_total", state, lifetimeEvictions)
+                .tag("shard", shardTag)
+                .tag("reason", "max_lifetime")
+                .register(registry);
     }
 
-    public void removeFunction(String function) {
-        synchronized (functionStateMonitor) {
-            removedFunctions.add(function);
-            FunctionMeters removed = meters.remove(function);
-            if (removed != null) {
-                removed.meterIds().forEach(registry::remove);
-            }
-        }
+    /** Lets a removed function record again; its meters are registered on first use. */
+    public void registerFunction(String function) {
+        meters.computeIfPresent(function, (name, current) -> current.retired ? null : current);
     }
 
-    private FunctionMeters metersOrNull(String function) {
-        synchronized (functionStateMonitor) {
-            if (removedFunctions.contains(function)) {
-                return null;
+    public void removeFunction(String function) {
+        // Unregistering inside compute keeps a concurrent first use from re-registering the
+        // same meter ids before they are gone.
+        meters.compute(function, (name, previous) -> {
+            if (previous != null && !previous.retired) {
+                previous.retired = true;
+                previous.meterIds.forEach(registry::remove);
             }
-            return meters.computeIfAbsent(function, this::registerMeters);
-        }
+            return FunctionMeters.tombstone(this, name);
+        });
     }
 
     private FunctionMeters registerMeters(String function) {
@@ -153,11 +168,14 @@ public class Metrics {
         Counter queueRejected = counter("function_queue_rejected_total", function);
         Counter coldStart = counter("function_cold_start_total", function);
         Counter warmStart = counter("function_warm_start_total", function);
+        Counter callbackAvoided = counter("function_callbacks_avoided_total", function);
         Timer latency = timer("function_latency_ms", function);
         Timer initDuration = timer("function_init_duration_ms", function);
         Timer queueWait = timer("function_queue_wait_ms", function);
         Timer e2eLatency = timer("function_e2e_latency_ms", function);
         return new FunctionMeters(
+                this,
+                function,
                 enqueue,
                 dispatch,
                 success,
@@ -167,6 +185,7 @@ public class Metrics {
                 queueRejected,
                 coldStart,
                 warmStart,
+                callbackAvoided,
                 new FunctionTimers(latency, initDuration, queueWait, e2eLatency),
                 List.of(
                         enqueue.getId(),
@@ -178,6 +197,7 @@ public class Metrics {
                         queueRejected.getId(),
                         coldStart.getId(),
                         warmStart.getId(),
+                        callbackAvoided.getId(),
                         latency.getId(),
                         initDuration.getId(),
                         queueWait.getId(),
@@ -197,10 +217,139 @@ public class Metrics {
                 .register(registry);
     }
 
-    record FunctionMeters(Counter enqueue, Counter dispatch, Counter success, Counter error,
-                          Counter retry, Counter timeout, Counter queueRejected,
-                          Counter coldStart, Counter warmStart, FunctionTimers timers,
-                          List<Meter.Id> meterIds) {
+    /**
+     * Meters of one function. Recording through a live handle touches only its own meters;
+     * once retired by {@link #removeFunction} it forwards to the function's current handle.
+     */
+    public static final class FunctionMeters {
+        private final Metrics owner;
+        private final String function;
+        private final Counter enqueue;
+        private final Counter dispatch;
+        private final Counter success;
+        private final Counter error;
+        private final Counter retry;
+        private final Counter timeout;
+        private final Counter queueRejected;
+        private final Counter coldStart;
+        private final Counter warmStart;
+        private final Counter callbackAvoided;
+        private final FunctionTimers timers;
+        private final List<Meter.Id> meterIds;
+        private volatile boolean retired;
+
+        private FunctionMeters(Metrics owner, String function,
+                               Counter enqueue, Counter dispatch, Counter success, Counter error,
+                               Counter retry, Counter timeout, Counter queueRejected,
+                               Counter coldStart, Counter warmStart, Counter callbackAvoided,
+                               FunctionTimers timers, List<Meter.Id> meterIds) {
+            this.owner = owner;
+            this.function = function;
+            this.enqueue = enqueue;
+            this.dispatch = dispatch;
+            this.success = success;
+            this.error = error;
+            this.retry = retry;
+            this.timeout = timeout;
+            this.queueRejected = queueRejected;
+            this.coldStart = coldStart;
+            this.warmStart = warmStart;
+            this.callbackAvoided = callbackAvoided;
+            this.timers = timers;
+            this.meterIds = meterIds;
+        }
+
+        private static FunctionMeters tombstone(Metrics owner, String function) {
+            FunctionMeters tombstone = new FunctionMeters(owner, function,
+                    null, null, null, null, null, null, null, null, null, null,
+                    owner.removedFunctionTimers, List.of());
+            tombstone.retired = true;
+            return tombstone;
+        }
+
+        public void enqueue() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.enqueue.increment();
+            }
+        }
+
+        public void dispatch() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.dispatch.increment();
+            }
+        }
+
+        public void success() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.success.increment();
+            }
+        }
+
+        public void error() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.error.increment();
+            }
+        }
+
+        public void retry() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.retry.increment();
+            }
+        }
+
+        public void timeout() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.timeout.increment();
+            }
+        }
+
+        public void queueRejected() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.queueRejected.increment();
+            }
+        }
+
+        public void coldStart() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.coldStart.increment();
+            }
+        }
+
+        public void warmStart() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.warmStart.increment();
+            }
+        }
+
+        public void callbackAvoided() {
+            FunctionMeters live = live();
+            if (live != null) {
+                live.callbackAvoided.increment();
+            }
+        }
+
+        FunctionTimers timers() {
+            FunctionMeters live = live();
+            return live == null ? owner.removedFunctionTimers : live.timers;
+        }
+
+        /** This handle, the function's current one if this was retired, or null while it is removed. */
+        private FunctionMeters live() {
+            if (!retired) {
+                return this;
+            }
+            FunctionMeters current = owner.meters(function);
+            return current.retired ? null : current;
+        }
     }
 
     record FunctionTimers(Timer latency, Timer initDuration, Timer queueWait, Timer e2eLatency) {
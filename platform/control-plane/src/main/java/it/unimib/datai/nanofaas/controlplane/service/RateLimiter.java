@@ -1,36 +1,176 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import it.unimib.datai.nanofaas.common.model.RateLimitConfig;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
+/**
+ * Token-bucket admission limits for invocations.
+ *
+ * <p>Three independent limits exist: the global one ({@code maxPerSecond}, {@code burst}),
+ * an optional one per function taken from {@link RateLimitConfig}, and an optional one per
+ * caller ({@code perCallerMaxPerSecond}) keyed by the caller header. Every bucket is a
+ * {@link StripedTokenBucket}, so request threads do not all contend on one counter.</p>
+ *
+ * <p>At most {@code maxTrackedCallers} callers get a bucket of their own. Once the table is
+ * full, idle callers are dropped at most once per second; callers that still find no room share
+ * a single overflow bucket with the per-caller limit.</p>
+ *
+ * <p>Changing a limit replaces the bucket, which starts full.</p>
+ */
 @Component
 @ConfigurationProperties(prefix = "nanofaas.rate")
 public class RateLimiter {
+    /** A per-caller bucket (burst = rate) is full again after one idle second. */
+    private static final long CALLER_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final LongSupplier nanoTime;
+    private final Map<String, StripedTokenBucket> functionBuckets = new ConcurrentHashMap<>();
+    private final Map<String, StripedTokenBucket> callerBuckets = new ConcurrentHashMap<>();
+    private final AtomicReference<StripedTokenBucket> callerOverflow = new AtomicReference<>();
+    private final AtomicLong nextCallerSweep;
     private volatile int maxPerSecond = 1_000_000;
-    private final AtomicLong windowStartSecond = new AtomicLong(Instant.now().getEpochSecond());
-    private final AtomicInteger windowCount = new AtomicInteger();
+    /** Global burst; {@code 0} means one second worth of {@code maxPerSecond}. */
+    private volatile int burst;
+    /** Per-caller limit; {@code 0} disables it. */
+    private volatile int perCallerMaxPerSecond;
+    private volatile int maxTrackedCallers = 10_000;
+    /** {@code null} while {@code maxPerSecond <= 0}, which rejects everything. */
+    private volatile StripedTokenBucket global;
+
+    public RateLimiter() {
+        this(System::nanoTime);
+    }
+
+    RateLimiter(LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.nextCallerSweep = new AtomicLong(nanoTime.getAsLong());
+        rebuildGlobal();
+    }
+
+    public boolean allow() {
+        StripedTokenBucket bucket = global;
+        return bucket != null && bucket.tryAcquire(nanoTime.getAsLong());
+    }
 
     /**
-     * Thread-safe rate limiting using atomics and a per-second window.
+     * Applies the limit of {@code config} to {@code functionName}; always allows when the
+     * function declares none.
      */
-    public boolean allow() {
-        long now = Instant.now().getEpochSecond();
-        long currentWindow = windowStartSecond.get();
-        if (now > currentWindow && windowStartSecond.compareAndSet(currentWindow, now)) {
-            windowCount.set(0);
+    public boolean allowFunction(String functionName, RateLimitConfig config) {
+        if (config == null || !config.enabled()) {
+            return true;
         }
-        return windowCount.incrementAndGet() <= maxPerSecond;
+        int rate = config.maxPerSecond();
+        int functionBurst = config.burst() != null && config.burst() > 0 ? config.burst() : rate;
+        long now = nanoTime.getAsLong();
+        StripedTokenBucket bucket = functionBuckets.get(functionName);
+        if (bucket == null || !bucket.hasSettings(rate, functionBurst)) {
+            bucket = functionBuckets.compute(functionName, (ignored, current) ->
+                    current != null && current.hasSettings(rate, functionBurst)
+                            ? current
+                            : new StripedTokenBucket(rate, functionBurst, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /** Forgets the bucket of a removed function, so a later registration starts full. */
+    public void removeFunction(String functionName) {
+        functionBuckets.remove(functionName);
+    }
+
+    /**
+     * Applies the per-caller limit to {@code caller}; always allows when that limit is off or
+     * the request carries no caller.
+     */
+    public boolean allowCaller(String caller) {
+        int rate = perCallerMaxPerSecond;
+        if (rate <= 0 || caller == null || caller.isEmpty()) {
+            return true;
+        }
+        long now = nanoTime.getAsLong();
+        StripedTokenBucket bucket = callerBuckets.get(caller);
+        if (bucket == null || !bucket.hasSettings(rate, rate)) {
+            if (bucket == null && !reserveCallerSlot(now)) {
+                return overflowBucket(rate, now).tryAcquire(now);
+            }
+            bucket = callerBuckets.compute(caller, (ignored, current) ->
+                    current != null && current.hasSettings(rate, rate)
+                            ? current
+                            : new StripedTokenBucket(rate, rate, now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Makes room for one more caller bucket by dropping the ones that have refilled, since a
+     * full bucket behaves exactly like a new one. Only one thread sweeps, at most once per
+     * {@link #CALLER_SWEEP_INTERVAL_NANOS}; the others go to the overflow bucket meanwhile.
+     */
+    private boolean reserveCallerSlot(long now) {
+        if (callerBuckets.size() < maxTrackedCallers) {
+            return true;
+        }
+        long due = nextCallerSweep.get();
+        if (now - due < 0 || !nextCallerSweep.compareAndSet(due, now + CALLER_SWEEP_INTERVAL_NANOS)) {
+            return false;
+        }
+        callerBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        return callerBuckets.size() < maxTrackedCallers;
+    }
+
+    private StripedTokenBucket overflowBucket(int rate, long now) {
+        StripedTokenBucket bucket = callerOverflow.get();
+        if (bucket != null && bucket.hasSettings(rate, rate)) {
+            return bucket;
+        }
+        return callerOverflow.updateAndGet(current -> current != null && current.hasSettings(rate, rate)
+                ? current
+                : new StripedTokenBucket(rate, rate, now));
+    }
+
+    private void rebuildGlobal() {
+        int rate = maxPerSecond;
+        global = rate > 0 ? new StripedTokenBucket(rate, burst > 0 ? burst : rate, nanoTime.getAsLong()) : null;
     }
 
     public int getMaxPerSecond() {
         return maxPerSecond;
     }
 
-    public void setMaxPerSecond(int maxPerSecond) {
+    public synchronized void setMaxPerSecond(int maxPerSecond) {
         this.maxPerSecond = maxPerSecond;
+        rebuildGlobal();
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public synchronized void setBurst(int burst) {
+        this.burst = burst;
+        rebuildGlobal();
+    }
+
+    public int getPerCallerMaxPerSecond() {
+        return perCallerMaxPerSecond;
+    }
+
+    public void setPerCallerMaxPerSecond(int perCallerMaxPerSecond) {
+        this.perCallerMaxPerSecond = perCallerMaxPerSecond;
+    }
+
+    public int getMaxTrackedCallers() {
+        return maxTrackedCallers;
+    }
+
+    public void setMaxTrackedCallers(int maxTrackedCallers) {
+        this.maxTrackedCallers = maxTrackedCallers;
     }
 }
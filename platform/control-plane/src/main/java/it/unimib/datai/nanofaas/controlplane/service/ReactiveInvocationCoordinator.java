@@ -4,16 +4,19 @@ import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
+import it.unimib.datai.nanofaas.controlplane.scaling.FunctionActivator;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueGateway;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueRejectReason;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueRejectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public final class ReactiveInvocationCoordinator {
@@ -24,17 +27,29 @@ public final class ReactiveInvocationCoordinator {
     private final SyncQueueGateway syncQueueGateway;
     private final ExecutionCompletionHandler completionHandler;
     private final InvocationResponseMapper responseMapper;
+    private final FunctionActivator activator;
 
     public ReactiveInvocationCoordinator(@Nullable InvocationEnqueuer enqueuer,
                                          Metrics metrics,
                                          @Nullable SyncQueueGateway syncQueueGateway,
                                          ExecutionCompletionHandler completionHandler,
                                          InvocationResponseMapper responseMapper) {
+        this(enqueuer, metrics, syncQueueGateway, completionHandler, responseMapper, null);
+    }
+
+    @Autowired
+    public ReactiveInvocationCoordinator(@Nullable InvocationEnqueuer enqueuer,
+                                         Metrics metrics,
+                                         @Nullable SyncQueueGateway syncQueueGateway,
+                                         ExecutionCompletionHandler completionHandler,
+                                         InvocationResponseMapper responseMapper,
+                                         @Autowired(required = false) @Nullable FunctionActivator activator) {
         this.enqueuer = enqueuer == null ? InvocationEnqueuer.noOp() : enqueuer;
         this.metrics = metrics;
         this.syncQueueGateway = syncQueueGateway == null ? SyncQueueGateway.noOp() : syncQueueGateway;
         this.completionHandler = completionHandler;
         this.responseMapper = responseMapper;
+        this.activator = activator == null ? FunctionActivator.alwaysActive() : activator;
     }
 
     public Mono<InvocationResponse> invoke(InvocationExecutionFactory.ExecutionLookup lookup,
@@ -46,21 +61,21 @@ public final class ReactiveInvocationCoordinator {
             return Mono.just(replay);
         }
 
+        int timeoutMs = timeoutOverrideMs == null ? spec.timeoutMs() : timeoutOverrideMs;
         try {
             InvocationEnqueueSupport.admitIfNew(lookup, () -> {
                 if (syncQueueGateway.enabled()) {
-                    syncQueueGateway.enqueueOrThrow(record.task());
+                    syncQueueGateway.enqueueOrThrow(record.task(), Duration.ofMillis(timeoutMs));
                 } else if (enqueuer.enabled()) {
                     InvocationEnqueueSupport.enqueueOrThrow(enqueuer, metrics, record);
                 } else {
-                    completionHandler.dispatch(record.task());
+                    dispatchWhenActive(record);
                 }
             });
         } catch (RuntimeException ex) {
             return Mono.error(ex);
         }
 
-        int timeoutMs = timeoutOverrideMs == null ? spec.timeoutMs() : timeoutOverrideMs;
         // suppressCancel=true: a single subscriber's timeout/disconnect must not cancel
         // the shared completion future other idempotent waiters depend on.
         return Mono.fromFuture(record.completion(), true)
@@ -73,7 +88,7 @@ public final class ReactiveInvocationCoordinator {
                 })
                 .onErrorResume(java.util.concurrent.TimeoutException.class, ex -> {
                     record.markTimeout();
-                    metrics.timeout(record.task().functionName());
+                    metrics.meters(record).timeout();
                     return Mono.just(responseMapper.timeoutResponse(record));
                 })
                 .onErrorResume(ex -> !(ex instanceof SyncQueueRejectedException), ex -> {
@@ -81,8 +96,18 @@ public final class ReactiveInvocationCoordinator {
                     String message = ex.getMessage() != null ? ex.getMessage() : ex.toString();
                     InvocationResult failure = InvocationResult.error("EXECUTION_FAILED", message);
                     record.markError(failure.error());
-                    metrics.error(record.task().functionName());
+                    metrics.meters(record).error();
                     return Mono.just(responseMapper.toResponse(record, failure));
                 });
     }
+
+    /** Without a queue, the task of a scaled-to-zero function waits here for its first replica. */
+    private void dispatchWhenActive(ExecutionRecord record) {
+        CompletableFuture<Void> activation = activator.activate(record.task().functionName());
+        if (activation.isDone()) {
+            completionHandler.dispatch(record.task());
+            return;
+        }
+        activation.whenComplete((ignored, error) -> completionHandler.dispatch(record.task()));
+    }
 }
@@ -0,0 +1,118 @@
+package it.unimib.datai.nanofaas.controlplane.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Token bucket split into independent stripes so concurrent callers rarely touch the same
+ * cache line.
+ *
+ * <p>Rate and burst are divided across the stripes (remainders go to the first ones), so the
+ * stripes together admit exactly {@code permitsPerSecond} with at most {@code burst} at once.
+ * Each stripe is a GCRA cell: a single "theoretical arrival time" advanced by one interval
+ * per permit with a CAS, and a permit is refused while it runs more than the burst ahead of
+ * now. The bucket therefore refills continuously instead of resetting at window boundaries.
+ * A thread starts at its own stripe and only walks the others when that one is empty, so a
+ * rejection means every stripe is empty.</p>
+ */
+final class StripedTokenBucket {
+    private static final int MAX_STRIPES = 64;
+    /**
+     * Smallest rate and burst a stripe is given. Below it stripes would refill in coarse steps,
+     * and low limits see too little traffic to contend anyway.
+     */
+    private static final int MIN_PERMITS_PER_STRIPE = 64;
+    /** Longs per stripe, so adjacent cells sit on different cache lines. */
+    private static final int PAD = 8;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final int permitsPerSecond;
+    private final int burst;
+    private final int mask;
+    /** Per stripe: nanos between permits. */
+    private final long[] intervals;
+    /** Per stripe: how far the arrival time may run ahead of now, {@code (burst - 1) * interval}. */
+    private final long[] tolerances;
+    private final AtomicLongArray arrivals;
+
+    StripedTokenBucket(int permitsPerSecond, int burst, long nowNanos) {
+        this(permitsPerSecond, burst, Runtime.getRuntime().availableProcessors(), nowNanos);
+    }
+
+    StripedTokenBucket(int permitsPerSecond, int burst, int parallelism, long nowNanos) {
+        if (permitsPerSecond < 1 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be >= 1");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        int stripes = Math.min(Math.min(MAX_STRIPES, powerOfTwoAtLeast(parallelism)),
+                Integer.highestOneBit(Math.max(1, Math.min(permitsPerSecond, burst) / MIN_PERMITS_PER_STRIPE)));
+        this.mask = stripes - 1;
+        this.intervals = new long[stripes];
+        this.tolerances = new long[stripes];
+        this.arrivals = new AtomicLongArray(stripes * PAD);
+        for (int i = 0; i < stripes; i++) {
+            int stripeRate = permitsPerSecond / stripes + (i < permitsPerSecond % stripes ? 1 : 0);
+            int stripeBurst = burst / stripes + (i < burst % stripes ? 1 : 0);
+            intervals[i] = Math.max(1, NANOS_PER_SECOND / stripeRate);
+            tolerances[i] = (stripeBurst - 1) * intervals[i];
+            // An arrival time of "now" is a full stripe.
+            arrivals.set(i * PAD, nowNanos);
+        }
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        int home = stripeFor(Thread.currentThread());
+        for (int i = 0; i <= mask; i++) {
+            if (tryAcquire((home + i) & mask, nowNanos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** True once every stripe has refilled, i.e. nothing was taken for a full burst's worth of time. */
+    boolean isFull(long nowNanos) {
+        for (int i = 0; i <= mask; i++) {
+            if (arrivals.get(i * PAD) > nowNanos) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean hasSettings(int permitsPerSecond, int burst) {
+        return this.permitsPerSecond == permitsPerSecond && this.burst == burst;
+    }
+
+    int stripes() {
+        return mask + 1;
+    }
+
+    private boolean tryAcquire(int stripe, long nowNanos) {
+        int index = stripe * PAD;
+        long interval = intervals[stripe];
+        long tolerance = tolerances[stripe];
+        while (true) {
+            long arrival = arrivals.get(index);
+            long due = Math.max(arrival, nowNanos);
+            if (due - nowNanos > tolerance) {
+                return false;
+            }
+            if (arrivals.compareAndSet(index, arrival, due + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private int stripeFor(Thread thread) {
+        long id = thread.threadId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int powerOfTwoAtLeast(int value) {
+        int n = Math.max(1, value);
+        int highest = Integer.highestOneBit(n);
+        return highest == n ? n : highest << 1;
+    }
+}
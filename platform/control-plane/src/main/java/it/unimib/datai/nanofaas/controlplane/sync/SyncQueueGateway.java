@@ -2,6 +2,8 @@ package it.unimib.datai.nanofaas.controlplane.sync;
 
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 
+import java.time.Duration;
+
 /**
  * Core abstraction for optional sync-queue module integration.
  */
@@ -9,6 +11,14 @@ public interface SyncQueueGateway {
 
     void enqueueOrThrow(InvocationTask task);
 
+    /**
+     * Enqueues {@code task} for a caller that gives up after {@code budget}; implementations may
+     * use the resulting deadline to order and drop queued work. A {@code null} budget means none.
+     */
+    default void enqueueOrThrow(InvocationTask task, Duration budget) {
+        enqueueOrThrow(task);
+    }
+
     boolean enabled();
 
     int retryAfterSeconds();
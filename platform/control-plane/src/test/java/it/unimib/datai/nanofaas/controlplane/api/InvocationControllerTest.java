@@ -1,9 +1,12 @@
 package it.unimib.datai.nanofaas.controlplane.api;
 
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import it.unimib.datai.nanofaas.common.model.ExecutionStatus;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.model.InvocationResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.queue.QueueFullException;
 import it.unimib.datai.nanofaas.controlplane.registry.FunctionNotFoundException;
 import it.unimib.datai.nanofaas.controlplane.registry.FunctionService;
@@ -12,18 +15,25 @@ import it.unimib.datai.nanofaas.controlplane.service.InvocationService;
 import it.unimib.datai.nanofaas.controlplane.service.RateLimitException;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueRejectReason;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueRejectedException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.util.unit.DataSize;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -46,7 +56,7 @@ class InvocationControllerTest {
     void invokeSync_success_returnsExecutionHeaderAndBody() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
         InvocationResponse response = new InvocationResponse("exec-1", "success", "out", null);
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenReturn(Mono.just(response));
 
         webClient.post()
@@ -65,7 +75,7 @@ class InvocationControllerTest {
     @Test
     void invokeSync_syncQueueRejectedFromMono_mapsTo429WithHeaders() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenReturn(Mono.error(new SyncQueueRejectedException(SyncQueueRejectReason.EST_WAIT, 7)));
 
         webClient.post()
@@ -81,7 +91,7 @@ class InvocationControllerTest {
     @Test
     void invokeSync_syncQueueRejectedThrownSynchronously_mapsTo429WithHeaders() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenThrow(new SyncQueueRejectedException(SyncQueueRejectReason.DEPTH, 3));
 
         webClient.post()
@@ -97,7 +107,7 @@ class InvocationControllerTest {
     @Test
     void invokeSync_rateLimited_returns429() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenThrow(new RateLimitException());
 
         webClient.post()
@@ -111,7 +121,7 @@ class InvocationControllerTest {
     @Test
     void invokeSync_rateLimitedFromMono_returns429() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenReturn(Mono.error(new RateLimitException()));
 
         webClient.post()
@@ -125,7 +135,7 @@ class InvocationControllerTest {
     @Test
     void invokeSync_queueFull_returns429() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenThrow(new QueueFullException());
 
         webClient.post()
@@ -139,7 +149,7 @@ class InvocationControllerTest {
     @Test
     void invokeSync_queueFullFromReactiveCoordinator_returns429() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null)))
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
                 .thenReturn(Mono.error(new QueueFullException()));
 
         webClient.post()
@@ -154,7 +164,7 @@ class InvocationControllerTest {
     void invokeAsync_success_returns202AndDelegatesHeaders() {
         InvocationRequest request = new InvocationRequest("payload", Map.of("x", "y"));
         InvocationResponse response = new InvocationResponse("exec-2", "queued", null, null);
-        when(invocationService.invokeAsync("echo", request, "idem-1", "trace-1")).thenReturn(response);
+        when(invocationService.invokeAsync("echo", request, "idem-1", "trace-1", null)).thenReturn(response);
 
         webClient.post()
                 .uri("/v1/functions/echo:enqueue")
@@ -169,10 +179,27 @@ class InvocationControllerTest {
                 .jsonPath("$.status").isEqualTo("queued");
     }
 
+    @Test
+    void invokeAsync_passesCallerHeaderToService() {
+        InvocationRequest request = new InvocationRequest("payload", Map.of());
+        InvocationResponse response = new InvocationResponse("exec-3", "queued", null, null);
+        when(invocationService.invokeAsync("echo", request, null, null, "tenant-a")).thenReturn(response);
+
+        webClient.post()
+                .uri("/v1/functions/echo:enqueue")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Caller-Id", "tenant-a")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody()
+                .jsonPath("$.executionId").isEqualTo("exec-3");
+    }
+
     @Test
     void invokeAsync_functionNotFound_returns404() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeAsync(eq("missing"), any(), eq(null), eq(null)))
+        when(invocationService.invokeAsync(eq("missing"), any(), eq(null), eq(null), eq(null)))
                 .thenThrow(new FunctionNotFoundException("missing"));
 
         webClient.post()
@@ -186,7 +213,7 @@ class InvocationControllerTest {
     @Test
     void invokeAsync_whenAsyncQueueUnavailable_returns501() {
         InvocationRequest request = new InvocationRequest("payload", Map.of());
-        when(invocationService.invokeAsync(eq("echo"), any(), eq(null), eq(null)))
+        when(invocationService.invokeAsync(eq("echo"), any(), eq(null), eq(null), eq(null)))
                 .thenThrow(new AsyncQueueUnavailableException());
 
         webClient.post()
@@ -221,6 +248,28 @@ class InvocationControllerTest {
                 .jsonPath("$.status").isEqualTo("queued");
     }
 
+    @Test
+    void getExecution_servesSpilledCompactOutput(@TempDir Path spillDir) {
+        ExecutionPayloadStore payloadStore = new ExecutionPayloadStore(new ExecutionPayloadProperties(
+                ExecutionPayloadProperties.Mode.COMPACT, DataSize.ofBytes(0), spillDir, DataSize.ofKilobytes(1)),
+                new ObjectMapper());
+        try {
+            Object output = payloadStore.compactResult(InvocationResult.success(Map.of("words", 3))).output();
+            await().atMost(Duration.ofSeconds(2)).until(() -> ExecutionPayloadStore.isSpilled(output));
+            when(invocationService.getStatus("exec-spilled"))
+                    .thenReturn(Optional.of(new ExecutionStatus("exec-spilled", "success", null, null, output, null, false, null)));
+
+            webClient.get()
+                    .uri("/v1/executions/exec-spilled")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.output.words").isEqualTo(3);
+        } finally {
+            payloadStore.shutdown();
+        }
+    }
+
     @Test
     void completeExecution_returns204AndCallsService() {
         InvocationResult result = InvocationResult.success("ok");
@@ -235,6 +284,22 @@ class InvocationControllerTest {
         verify(invocationService).completeExecution("exec-4", result);
     }
 
+    @Test
+    void completeExecutions_returns204AndAppliesTheBatch() {
+        ExecutionCompletionBatch batch = new ExecutionCompletionBatch(List.of(
+                new ExecutionCompletionBatch.Item("exec-1", "trace-1", 2, InvocationResult.success("ok")),
+                new ExecutionCompletionBatch.Item("exec-2", null, null, InvocationResult.error("HANDLER_ERROR", "boom"))));
+
+        webClient.post()
+                .uri("/v1/internal/executions:complete-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(invocationService).completeExecutions(batch.completions());
+    }
+
     @Test
     void completeExecution_withDispatchAttemptHeader_passesAttemptToService() {
         InvocationResult result = InvocationResult.success("ok");
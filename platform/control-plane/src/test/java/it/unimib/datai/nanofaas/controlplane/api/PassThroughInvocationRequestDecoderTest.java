@@ -0,0 +1,95 @@
+package it.unimib.datai.nanofaas.controlplane.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationResponse;
+import it.unimib.datai.nanofaas.controlplane.config.PassThroughCodecConfig;
+import it.unimib.datai.nanofaas.controlplane.execution.RawJson;
+import it.unimib.datai.nanofaas.controlplane.registry.FunctionService;
+import it.unimib.datai.nanofaas.controlplane.service.InvocationService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = {InvocationController.class, FunctionController.class},
+        properties = "nanofaas.execution-store.payload.pass-through=true")
+@Import({GlobalExceptionHandler.class, PassThroughCodecConfig.class})
+class PassThroughInvocationRequestDecoderTest {
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @MockitoBean
+    private InvocationService invocationService;
+
+    @MockitoBean
+    private FunctionService functionService;
+
+    @Test
+    void invokeSync_keepsInputAsReceivedBytes() {
+        RawJson output = RawJson.of("{\"echo\" : [1, 2.50]}".getBytes());
+        when(invocationService.invokeSyncReactive(eq("echo"), any(), eq(null), eq(null), eq(null), eq(null)))
+                .thenReturn(Mono.just(new InvocationResponse("exec-1", "success", output, null)));
+
+        webClient.post()
+                .uri("/v1/functions/echo:invoke")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"extra\":{\"x\":[1]},\"input\" : {\"echo\" : [1, 2.50]},\"metadata\":{\"k\":\"v\"}}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .json("{\"executionId\":\"exec-1\",\"output\":{\"echo\":[1,2.50]}}");
+
+        ArgumentCaptor<InvocationRequest> captor = ArgumentCaptor.forClass(InvocationRequest.class);
+        verify(invocationService).invokeSyncReactive(eq("echo"), captor.capture(), eq(null), eq(null), eq(null), eq(null));
+        assertThat(captor.getValue().input()).isInstanceOf(RawJson.class);
+        assertThat(captor.getValue().input().toString()).isEqualTo("{\"echo\" : [1, 2.50]}");
+        assertThat(captor.getValue().metadata()).isEqualTo(Map.of("k", "v"));
+    }
+
+    @Test
+    void decode_scalarInputIsSlicedExactly() throws Exception {
+        PassThroughInvocationRequestDecoder decoder = new PassThroughInvocationRequestDecoder(new ObjectMapper());
+
+        assertThat(decoder.decode("{\"input\":-1.5e3}".getBytes()).input().toString()).isEqualTo("-1.5e3");
+        assertThat(decoder.decode("{\"input\":\"a\\\"b\"}".getBytes()).input().toString()).isEqualTo("\"a\\\"b\"");
+        assertThat(decoder.decode("{\"input\":true,\"metadata\":null}".getBytes()).input().toString()).isEqualTo("true");
+    }
+
+    @Test
+    void invokeSync_nullInputIsStillRejected() {
+        webClient.post()
+                .uri("/v1/functions/echo:invoke")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"input\":null}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(invocationService, never()).invokeSyncReactive(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void invokeSync_malformedBodyReturns400() {
+        webClient.post()
+                .uri("/v1/functions/echo:invoke")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[1,2]")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
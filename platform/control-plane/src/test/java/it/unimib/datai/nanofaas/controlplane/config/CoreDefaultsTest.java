@@ -6,6 +6,7 @@ import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistrationListen
 import it.unimib.datai.nanofaas.controlplane.registry.ImageValidator;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationEnqueuer;
 import it.unimib.datai.nanofaas.controlplane.service.Metrics;
+import it.unimib.datai.nanofaas.controlplane.service.RateLimiter;
 import it.unimib.datai.nanofaas.controlplane.service.ScalingMetricsSource;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueGateway;
 import org.junit.jupiter.api.Test;
@@ -16,8 +17,8 @@ import static org.assertj.core.api.Assertions.assertThatCode;
 
 class CoreDefaultsTest {
 
-    // CoreDefaults.metricsLifecycleListener requires a Metrics bean, so the context
-    // must provide one before CoreDefaults can refresh.
+    // CoreDefaults.metricsLifecycleListener requires Metrics and RateLimiter beans, so the
+    // context must provide them before CoreDefaults can refresh.
     private static Metrics metricsBean() {
         return new Metrics(new SimpleMeterRegistry());
     }
@@ -26,6 +27,7 @@ class CoreDefaultsTest {
     void registersNoOpBeansWhenMissing() {
         try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
             context.registerBean(Metrics.class, CoreDefaultsTest::metricsBean);
+            context.registerBean(RateLimiter.class, RateLimiter::new);
             context.register(CoreDefaults.class);
             context.refresh();
 
@@ -92,6 +94,7 @@ class CoreDefaultsTest {
 
         try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
             context.registerBean(Metrics.class, CoreDefaultsTest::metricsBean);
+            context.registerBean(RateLimiter.class, RateLimiter::new);
             context.registerBean(InvocationEnqueuer.class, () -> customInvocationEnqueuer);
             context.registerBean(ScalingMetricsSource.class, () -> customScalingMetricsSource);
             context.registerBean(SyncQueueGateway.class, () -> customSyncQueueGateway);
@@ -111,7 +114,7 @@ class CoreDefaultsTest {
         SimpleMeterRegistry registry = new SimpleMeterRegistry();
         Metrics metrics = new Metrics(registry);
         CoreDefaults defaults = new CoreDefaults();
-        FunctionRegistrationListener listener = defaults.metricsLifecycleListener(metrics);
+        FunctionRegistrationListener listener = defaults.metricsLifecycleListener(metrics, new RateLimiter());
 
         metrics.dispatch("echo");
         assertThat(registry.find("function_dispatch_total").tag("function", "echo").counter()).isNotNull();
@@ -128,4 +131,19 @@ class CoreDefaultsTest {
 
         assertThat(registry.find("function_dispatch_total").tag("function", "echo").counter()).isNotNull();
     }
+
+    @Test
+    void metricsLifecycleListener_dropsTheRateLimitBucketOfARemovedFunction() {
+        RateLimiter rateLimiter = new RateLimiter();
+        FunctionRegistrationListener listener = new CoreDefaults()
+                .metricsLifecycleListener(new Metrics(new SimpleMeterRegistry()), rateLimiter);
+        it.unimib.datai.nanofaas.common.model.RateLimitConfig config =
+                new it.unimib.datai.nanofaas.common.model.RateLimitConfig(1, null);
+        assertThat(rateLimiter.allowFunction("echo", config)).isTrue();
+        assertThat(rateLimiter.allowFunction("echo", config)).isFalse();
+
+        listener.onRemove("echo");
+
+        assertThat(rateLimiter.allowFunction("echo", config)).isTrue();
+    }
 }
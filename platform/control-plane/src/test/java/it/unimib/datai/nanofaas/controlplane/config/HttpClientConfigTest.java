@@ -0,0 +1,66 @@
+package it.unimib.datai.nanofaas.controlplane.config;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HttpClientConfigTest {
+
+    private final HttpClientConfig config = new HttpClientConfig();
+    private MockWebServer server;
+    private ConnectionProvider provider;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (provider != null) {
+            provider.dispose();
+        }
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    void connectionProvider_usesPerEndpointLimit() {
+        provider = config.functionConnectionProvider(properties(7, false));
+
+        assertThat(provider.maxConnections()).isEqualTo(7);
+    }
+
+    @Test
+    void webClient_withH2c_speaksHttp2PriorKnowledge() throws Exception {
+        server = new MockWebServer();
+        server.setProtocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        server.enqueue(new MockResponse().setBody("ok"));
+        server.start();
+        HttpClientProperties properties = properties(4, true);
+        provider = config.functionConnectionProvider(properties);
+        WebClient client = config.webClient(WebClient.builder(), properties, provider);
+
+        // A prior-knowledge server only answers HTTP/2 frames, so any reply proves h2c was used.
+        assertThat(post(client)).isEqualTo("ok");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    private String post(WebClient client) {
+        return client.post()
+                .uri(server.url("/invoke").toString())
+                .bodyValue("{}")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static HttpClientProperties properties(int maxConnections, boolean h2c) {
+        return new HttpClientProperties(null, null, null, maxConnections, null, null, null, null, null, h2c, false);
+    }
+}
@@ -32,4 +32,18 @@ class HttpClientPropertiesTest {
         assertThat(properties.readTimeoutMs()).isEqualTo(4200);
         assertThat(properties.maxInMemorySizeMb()).isEqualTo(8);
     }
+
+    @Test
+    void constructor_withNullPoolValues_appliesPoolDefaults() {
+        HttpClientProperties properties = new HttpClientProperties(null, null, null);
+
+        assertThat(properties.maxConnectionsPerEndpoint()).isEqualTo(64);
+        assertThat(properties.pendingAcquireMaxCount()).isEqualTo(1024);
+        assertThat(properties.pendingAcquireTimeoutMs()).isEqualTo(5000);
+        assertThat(properties.maxIdleTimeMs()).isEqualTo(30000);
+        assertThat(properties.maxLifeTimeMs()).isEqualTo(300000);
+        assertThat(properties.evictInBackgroundMs()).isEqualTo(30000);
+        assertThat(properties.h2c()).isFalse();
+        assertThat(properties.poolMetrics()).isTrue();
+    }
 }
@@ -0,0 +1,118 @@
+package it.unimib.datai.nanofaas.controlplane.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointBalancerTest {
+    private static final PodEndpoint POD_A = new PodEndpoint("fn-echo-a", "http://10.0.0.1:8080/invoke");
+    private static final PodEndpoint POD_B = new PodEndpoint("fn-echo-b", "http://10.0.0.2:8080/invoke");
+    private static final PodEndpoint POD_C = new PodEndpoint("fn-echo-c", "http://10.0.0.3:8080/invoke");
+
+    private final Map<String, List<PodEndpoint>> endpoints = new HashMap<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_withoutEndpoints_fallsBackToServiceUrl() {
+        EndpointBalancer balancer = balancer(LoadBalancingPolicy.LEAST_OUTSTANDING);
+
+        assertThat(balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT))).isNull();
+        assertThat(new EndpointBalancer(null, null, registry).acquire(spec("echo", ExecutionMode.DEPLOYMENT))).isNull();
+    }
+
+    @Test
+    void acquire_forPoolFunction_neverConsultsEndpoints() {
+        endpoints.put("echo", List.of(POD_A));
+        EndpointBalancer balancer = balancer(LoadBalancingPolicy.LEAST_OUTSTANDING);
+
+        assertThat(balancer.acquire(spec("echo", ExecutionMode.POOL))).isNull();
+    }
+
+    @Test
+    void leastOutstanding_spreadsConcurrentDispatchesEvenly() {
+        endpoints.put("echo", List.of(POD_A, POD_B, POD_C));
+        EndpointBalancer balancer = balancer(LoadBalancingPolicy.LEAST_OUTSTANDING);
+
+        List<EndpointBalancer.Lease> leases = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            leases.add(balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT)));
+        }
+
+        assertThat(balancer.inFlight("echo", "fn-echo-a")).isEqualTo(2);
+        assertThat(balancer.inFlight("echo", "fn-echo-b")).isEqualTo(2);
+        assertThat(balancer.inFlight("echo", "fn-echo-c")).isEqualTo(2);
+
+        leases.forEach(EndpointBalancer.Lease::release);
+        assertThat(balancer.inFlight("echo", "fn-echo-a")).isZero();
+    }
+
+    @Test
+    void leastOutstanding_avoidsBusyPod() {
+        endpoints.put("echo", List.of(POD_A, POD_B));
+        EndpointBalancer balancer = balancer(LoadBalancingPolicy.LEAST_OUTSTANDING);
+        EndpointBalancer.Lease first = balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT));
+
+        for (int i = 0; i < 10; i++) {
+            EndpointBalancer.Lease next = balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT));
+            assertThat(next.pod()).isNotEqualTo(first.pod());
+            next.release();
+        }
+    }
+
+    @Test
+    void powerOfTwoChoices_withTwoPods_picksTheLessLoaded() {
+        endpoints.put("echo", List.of(POD_A, POD_B));
+        EndpointBalancer balancer = balancer(LoadBalancingPolicy.POWER_OF_TWO_CHOICES);
+        EndpointBalancer.Lease busy = balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT));
+
+        for (int i = 0; i < 10; i++) {
+            EndpointBalancer.Lease next = balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT));
+            assertThat(next.pod()).isNotEqualTo(busy.pod());
+            next.release();
+        }
+    }
+
+    @Test
+    void perPodGauges_followTheEndpointSet() {
+        endpoints.put("echo", List.of(POD_A, POD_B));
+        EndpointBalancer balancer = balancer(LoadBalancingPolicy.LEAST_OUTSTANDING);
+        EndpointBalancer.Lease lease = balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT));
+
+        Gauge inFlight = registry.find("function_pod_inflight").tags("function", "echo", "pod", lease.pod()).gauge();
+        assertThat(inFlight).isNotNull();
+        assertThat(inFlight.value()).isEqualTo(1.0);
+        lease.release();
+        assertThat(inFlight.value()).isZero();
+        assertThat(registry.find("function_pod_latency_ms").tags("pod", lease.pod()).gauge().value()).isNotNaN();
+
+        endpoints.put("echo", List.of(POD_C));
+        balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT)).release();
+
+        assertThat(registry.find("function_pod_inflight").gauges())
+                .extracting(gauge -> gauge.getId().getTag("pod"))
+                .containsExactly("fn-echo-c");
+
+        endpoints.remove("echo");
+        assertThat(balancer.acquire(spec("echo", ExecutionMode.DEPLOYMENT))).isNull();
+        assertThat(registry.find("function_pod_inflight").gauges()).isEmpty();
+    }
+
+    private EndpointBalancer balancer(LoadBalancingPolicy policy) {
+        return new EndpointBalancer(function -> endpoints.getOrDefault(function, List.of()),
+                new DispatchProperties(policy), registry);
+    }
+
+    private static FunctionSpec spec(String name, ExecutionMode mode) {
+        return new FunctionSpec(name, "image", null, Map.of(), null, 1000, 4, 10, 3,
+                "http://fn-" + name + ".default.svc.cluster.local:8080/invoke", mode, null, null, null);
+    }
+}
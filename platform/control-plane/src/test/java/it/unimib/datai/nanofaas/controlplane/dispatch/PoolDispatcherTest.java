@@ -1,8 +1,10 @@
 package it.unimib.datai.nanofaas.controlplane.dispatch;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.execution.RawJson;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -10,11 +12,14 @@ import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -111,6 +116,62 @@ class PoolDispatcherTest {
         server.shutdown();
     }
 
+    @Test
+    void poolDispatchOffersResponseCompletesModeAndReadsAcknowledgement() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse()
+                .setBody("{\"message\":\"ok\"}")
+                .addHeader("Content-Type", "application/json")
+                .addHeader("X-Completion-Mode", "response"));
+        server.enqueue(new MockResponse()
+                .setBody("{\"message\":\"ok\"}")
+                .addHeader("Content-Type", "application/json"));
+        server.enqueue(new MockResponse()
+                .setResponseCode(500)
+                .setBody("boom")
+                .addHeader("X-Completion-Mode", "response"));
+        server.start();
+
+        FunctionSpec spec = new FunctionSpec(
+                "pool-fn",
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                1,
+                10,
+                3,
+                server.url("/invoke").toString(),
+                ExecutionMode.POOL,
+                null,
+                null,
+                null
+        );
+        InvocationTask task = new InvocationTask(
+                "exec-pool",
+                "pool-fn",
+                spec,
+                new InvocationRequest("payload", Map.of()),
+                null,
+                null,
+                Instant.now(),
+                1
+        );
+
+        PoolDispatcher dispatcher = new PoolDispatcher(WebClient.builder().build());
+        DispatchResult acknowledged = dispatcher.dispatch(task).get();
+        DispatchResult legacy = dispatcher.dispatch(task).get();
+        DispatchResult failed = dispatcher.dispatch(task).get();
+
+        assertTrue(acknowledged.callbackSkipped());
+        assertFalse(legacy.callbackSkipped());
+        assertFalse(failed.result().success());
+        assertFalse(failed.callbackSkipped());
+        assertEquals("response", server.takeRequest().getHeader("X-Completion-Mode"));
+        server.shutdown();
+    }
+
     @Test
     void poolDispatchHandlesTextPlain() throws Exception {
         MockWebServer server = new MockWebServer();
@@ -156,4 +217,170 @@ class PoolDispatcherTest {
         assertEquals("plain-output", dr.result().output());
         server.shutdown();
     }
+
+    @Test
+    void passThroughForwardsRawPayloadsVerbatim() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse()
+                .setBody("{ \"message\" : \"ok\",\"n\":1.50 }")
+                .addHeader("Content-Type", "application/json"));
+        server.start();
+
+        String endpoint = server.url("/invoke").toString();
+
+        FunctionSpec spec = new FunctionSpec(
+                "pool-fn",
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                1,
+                10,
+                3,
+                endpoint,
+                ExecutionMode.POOL,
+                null,
+                null,
+                null
+        );
+
+        RawJson input = RawJson.of("{\"text\":  \"hi\"}".getBytes(StandardCharsets.UTF_8));
+        InvocationTask task = new InvocationTask(
+                "exec-pool",
+                "pool-fn",
+                spec,
+                new InvocationRequest(input, Map.of()),
+                null,
+                null,
+                Instant.now(),
+                1
+        );
+
+        PoolDispatcher dispatcher = new PoolDispatcher(WebClient.builder().build(), true);
+        DispatchResult dr = dispatcher.dispatch(task).get();
+
+        assertTrue(dr.result().success());
+        RawJson output = assertInstanceOf(RawJson.class, dr.result().output());
+        assertEquals("{ \"message\" : \"ok\",\"n\":1.50 }", output.toString());
+        RecordedRequest request = server.takeRequest();
+        assertEquals("{\"input\":{\"text\":  \"hi\"},\"metadata\":{}}", request.getBody().readUtf8());
+        server.shutdown();
+    }
+
+    @Test
+    void batchDispatchSendsOneRequestAndFansOutResults() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse()
+                .setBody("{\"results\":[{\"executionId\":\"exec-b\",\"result\":{\"success\":false,"
+                        + "\"error\":{\"code\":\"HANDLER_ERROR\",\"message\":\"boom\"}}},"
+                        + "{\"executionId\":\"exec-a\",\"result\":{\"success\":true,\"output\":{\"n\":1}}}]}")
+                .addHeader("Content-Type", "application/json")
+                .addHeader("X-Cold-Start", "true")
+                .addHeader("X-Completion-Mode", "response"));
+        server.start();
+
+        FunctionSpec spec = new FunctionSpec(
+                "pool-fn",
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                4,
+                10,
+                3,
+                server.url("/invoke").toString(),
+                ExecutionMode.POOL,
+                null,
+                null,
+                null
+        );
+        List<InvocationTask> tasks = List.of(
+                new InvocationTask("exec-a", "pool-fn", spec, new InvocationRequest("a", Map.of()),
+                        null, "trace-a", Instant.now(), 1),
+                new InvocationTask("exec-b", "pool-fn", spec, new InvocationRequest("b", Map.of()),
+                        null, null, Instant.now(), 2),
+                new InvocationTask("exec-c", "pool-fn", spec, new InvocationRequest("c", Map.of()),
+                        null, null, Instant.now(), 1));
+
+        PoolDispatcher dispatcher = new PoolDispatcher(WebClient.builder().build());
+        List<DispatchResult> results = dispatcher.dispatchBatch(tasks).get();
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).result().success());
+        assertEquals(Map.of("n", 1), results.get(0).result().output());
+        assertTrue(results.get(0).coldStart());
+        assertEquals("HANDLER_ERROR", results.get(1).result().error().code());
+        assertFalse(results.get(1).coldStart());
+        assertEquals("POOL_BATCH_RESULT_MISSING", results.get(2).result().error().code());
+        // Only successful items went without a callback.
+        assertTrue(results.get(0).callbackSkipped());
+        assertFalse(results.get(1).callbackSkipped());
+        assertFalse(results.get(2).callbackSkipped());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/invoke-batch", request.getPath());
+        assertEquals("3", request.getHeader("X-Batch-Size"));
+        assertEquals("response", request.getHeader("X-Completion-Mode"));
+        String body = request.getBody().readUtf8();
+        assertTrue(body.contains("\"executionId\":\"exec-a\",\"traceId\":\"trace-a\",\"attempt\":1"));
+        assertTrue(body.contains("\"executionId\":\"exec-b\",\"traceId\":null,\"attempt\":2"));
+        assertEquals(1, server.getRequestCount());
+        server.shutdown();
+    }
+
+    @Test
+    void batchEndpointIsDerivedFromInvokeEndpoint() {
+        assertEquals("http://fn:8080/invoke-batch", PoolDispatcher.batchEndpoint("http://fn:8080/invoke"));
+        assertEquals("http://fn:8080/invoke-batch", PoolDispatcher.batchEndpoint("http://fn:8080/invoke/"));
+        assertEquals("http://fn:8080/invoke-batch", PoolDispatcher.batchEndpoint("http://fn:8080"));
+    }
+
+    @Test
+    void deploymentDispatch_goesToTheBalancedPodAndReleasesIt() throws Exception {
+        MockWebServer pod = new MockWebServer();
+        pod.enqueue(new MockResponse()
+                .setBody("{\"message\":\"ok\"}")
+                .addHeader("Content-Type", "application/json"));
+        pod.start();
+
+        FunctionSpec spec = new FunctionSpec(
+                "deploy-fn",
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                1,
+                10,
+                3,
+                "http://fn-deploy-fn.default.svc.cluster.local:8080/invoke",
+                ExecutionMode.DEPLOYMENT,
+                null,
+                null,
+                null
+        );
+        InvocationTask task = new InvocationTask(
+                "exec-deploy",
+                "deploy-fn",
+                spec,
+                new InvocationRequest("payload", Map.of()),
+                null,
+                null,
+                Instant.now(),
+                1
+        );
+        List<PodEndpoint> pods = List.of(new PodEndpoint("deploy-fn-pod-1", pod.url("/invoke").toString()));
+        EndpointBalancer balancer = new EndpointBalancer(function -> pods,
+                new DispatchProperties(LoadBalancingPolicy.LEAST_OUTSTANDING), new SimpleMeterRegistry());
+
+        PoolDispatcher dispatcher = new PoolDispatcher(WebClient.builder().build(), false, balancer);
+        DispatchResult dr = dispatcher.dispatch(task).get();
+
+        assertTrue(dr.result().success());
+        assertEquals("/invoke", pod.takeRequest().getPath());
+        assertEquals(0, balancer.inFlight("deploy-fn", "deploy-fn-pod-1"));
+        pod.shutdown();
+    }
 }
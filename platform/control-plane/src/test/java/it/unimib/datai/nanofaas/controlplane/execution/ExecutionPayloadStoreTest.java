@@ -0,0 +1,160 @@
+package it.unimib.datai.nanofaas.controlplane.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ExecutionPayloadStoreTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ExecutionPayloadStore store;
+
+    @TempDir
+    Path spillDir;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    private ExecutionPayloadStore compactStore(DataSize budget, DataSize segmentSize) {
+        store = new ExecutionPayloadStore(new ExecutionPayloadProperties(
+                ExecutionPayloadProperties.Mode.COMPACT, budget, spillDir, segmentSize), objectMapper);
+        return store;
+    }
+
+    @Test
+    void objectModeLeavesPayloadsUntouched() {
+        store = new ExecutionPayloadStore();
+        InvocationRequest request = new InvocationRequest(Map.of("a", 1), Map.of());
+        InvocationResult result = InvocationResult.success(List.of(1, 2));
+
+        assertThat(store.isCompact()).isFalse();
+        assertThat(store.compactRequest(request)).isSameAs(request);
+        assertThat(store.compactResult(result)).isSameAs(result);
+    }
+
+    @Test
+    void compactRequestSerializesVerbatim() throws Exception {
+        compactStore(null, null);
+        InvocationRequest request = new InvocationRequest(Map.of("text", "hello world"), Map.of("k", "v"));
+
+        InvocationRequest compacted = store.compactRequest(request);
+
+        assertThat(compacted.input()).isInstanceOf(CompactPayload.class);
+        assertThat(compacted.metadata()).isEqualTo(Map.of("k", "v"));
+        assertThat(objectMapper.writeValueAsString(compacted)).isEqualTo(objectMapper.writeValueAsString(request));
+        assertThat(((CompactPayload) compacted.input()).decode()).isEqualTo(Map.of("text", "hello world"));
+    }
+
+    @Test
+    void rawJsonPayloadsAreAdoptedWithoutReserializing() throws Exception {
+        compactStore(null, null);
+        byte[] raw = "{ \"n\" : 1.50 }".getBytes();
+
+        InvocationResult compacted = store.compactResult(InvocationResult.success(RawJson.of(raw)));
+
+        CompactPayload payload = (CompactPayload) compacted.output();
+        assertThat(payload.bytes()).isSameAs(raw);
+        assertThat(objectMapper.writeValueAsString(compacted.output())).isEqualTo("{ \"n\" : 1.50 }");
+    }
+
+    @Test
+    void errorResultsAreNotCompacted() {
+        compactStore(null, null);
+        InvocationResult error = InvocationResult.error("ERR", "boom");
+
+        assertThat(store.compactResult(error)).isSameAs(error);
+    }
+
+    @Test
+    void releasedPayloadSerializesAsNullAndFreesBudget() throws Exception {
+        compactStore(null, null);
+        InvocationResult result = store.compactResult(InvocationResult.success("out"));
+        assertThat(store.residentBytes()).isEqualTo("\"out\"".length());
+
+        ExecutionPayloadStore.release(result.output());
+
+        assertThat(store.residentBytes()).isZero();
+        assertThat(objectMapper.writeValueAsString(result.output())).isEqualTo("null");
+    }
+
+    @Test
+    void payloadsOverBudgetAreSpilledAndStayReadable() throws Exception {
+        compactStore(DataSize.ofBytes(64), DataSize.ofKilobytes(1));
+        List<CompactPayload> payloads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            InvocationResult result = store.compactResult(InvocationResult.success(Map.of("value", "payload-" + i)));
+            payloads.add((CompactPayload) result.output());
+        }
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> store.residentBytes() <= 64);
+
+        assertThat(store.spilledPayloads()).isPositive();
+        assertThat(payloads.get(0).isResident()).isFalse();
+        for (int i = 0; i < payloads.size(); i++) {
+            assertThat(payloads.get(i).decode()).isEqualTo(Map.of("value", "payload-" + i));
+        }
+    }
+
+    @Test
+    void releasedPayloadsBehindALongLivedOneArePurgedFromTheQueue() {
+        compactStore(null, null);
+        store.compactResult(InvocationResult.success("long-lived"));
+        for (int i = 0; i < 4096; i++) {
+            ExecutionPayloadStore.release(store.compactResult(InvocationResult.success("short-" + i)).output());
+        }
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> store.queuedEntries() < 2048);
+    }
+
+    @Test
+    void spilledPayloadIsReportedAndLoadedAsRawJson() throws Exception {
+        compactStore(DataSize.ofBytes(0), DataSize.ofKilobytes(1));
+        Object output = store.compactResult(InvocationResult.success(Map.of("value", 1))).output();
+        await().atMost(Duration.ofSeconds(2)).until(() -> store.spilledPayloads() == 1);
+
+        assertThat(ExecutionPayloadStore.isSpilled(output)).isTrue();
+        Object loaded = ExecutionPayloadStore.load(output);
+        assertThat(loaded).isInstanceOf(RawJson.class);
+        assertThat(objectMapper.writeValueAsString(loaded)).isEqualTo("{\"value\":1}");
+
+        ExecutionPayloadStore.release(output);
+        assertThat(ExecutionPayloadStore.isSpilled(output)).isFalse();
+        assertThat(ExecutionPayloadStore.load(output)).isNull();
+        assertThat(ExecutionPayloadStore.isSpilled("plain")).isFalse();
+    }
+
+    @Test
+    void sealedSpillSegmentIsDeletedOnceAllPayloadsAreReleased() {
+        compactStore(DataSize.ofBytes(0), DataSize.ofBytes(32));
+        List<Object> outputs = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            outputs.add(store.compactResult(InvocationResult.success("spilled-payload-" + i)).output());
+            int expectedSpilled = i + 1;
+            await().atMost(Duration.ofSeconds(2)).until(() -> store.spilledPayloads() == expectedSpilled);
+        }
+        assertThat(store.openSpillSegments()).isGreaterThan(1);
+
+        outputs.forEach(ExecutionPayloadStore::release);
+
+        // only the current (unsealed) segment survives
+        assertThat(store.openSpillSegments()).isEqualTo(1);
+    }
+}
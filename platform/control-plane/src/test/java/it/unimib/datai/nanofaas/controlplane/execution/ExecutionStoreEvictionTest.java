@@ -1,20 +1,30 @@
 package it.unimib.datai.nanofaas.controlplane.execution;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.ErrorInfo;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.model.RuntimeMode;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
 import it.unimib.datai.nanofaas.controlplane.config.ExecutionStoreProperties;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import it.unimib.datai.nanofaas.controlplane.service.Metrics;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 class ExecutionStoreEvictionTest {
 
@@ -26,6 +36,55 @@ class ExecutionStoreEvictionTest {
         return new ExecutionRecord(id, task);
     }
 
+    private static ExecutionRecord compactRecord(String id, ExecutionPayloadStore payloadStore) {
+        ExecutionRecord plain = record(id);
+        InvocationTask task = plain.task();
+        return new ExecutionRecord(id, new InvocationTask(id, task.functionName(), task.functionSpec(),
+                payloadStore.compactRequest(task.request()), null, null, task.enqueuedAt(), 1));
+    }
+
+    @Test
+    void removeReleasesCompactPayloadsAndTheirSpillSegment(@TempDir Path spillDir) {
+        // Nothing stays resident and every payload gets a segment of its own.
+        ExecutionPayloadStore payloadStore = new ExecutionPayloadStore(new ExecutionPayloadProperties(
+                ExecutionPayloadProperties.Mode.COMPACT, DataSize.ofBytes(0), spillDir, DataSize.ofBytes(1)),
+                new ObjectMapper());
+        ExecutionStore store = new ExecutionStore();
+        try {
+            store.put(compactRecord("abandoned", payloadStore));
+            await().atMost(Duration.ofSeconds(2)).until(() -> payloadStore.spilledPayloads() == 1);
+            store.put(compactRecord("kept", payloadStore));
+            await().atMost(Duration.ofSeconds(2)).until(() -> payloadStore.spilledPayloads() == 2);
+            assertThat(payloadStore.openSpillSegments()).isEqualTo(2);
+
+            store.remove("abandoned");
+
+            assertThat(payloadStore.openSpillSegments()).isEqualTo(1);
+            assertThat(payloadStore.residentBytes()).isZero();
+        } finally {
+            store.shutdown();
+            payloadStore.shutdown();
+        }
+    }
+
+    @Test
+    void replacingARecordReleasesTheCompactPayloadsOfTheOldOne() {
+        ExecutionPayloadStore payloadStore = new ExecutionPayloadStore(new ExecutionPayloadProperties(
+                ExecutionPayloadProperties.Mode.COMPACT, null, null, null), new ObjectMapper());
+        ExecutionStore store = new ExecutionStore();
+        try {
+            store.put(compactRecord("same-id", payloadStore));
+            long onePayload = payloadStore.residentBytes();
+
+            store.put(compactRecord("same-id", payloadStore));
+
+            assertThat(payloadStore.residentBytes()).isEqualTo(onePayload);
+        } finally {
+            store.shutdown();
+            payloadStore.shutdown();
+        }
+    }
+
     @Test
     void nonTerminalRecordsAreEvictedAfterMaxLifetime() throws InterruptedException {
         ExecutionStoreProperties props = new ExecutionStoreProperties(
@@ -178,4 +237,94 @@ class ExecutionStoreEvictionTest {
             store.shutdown();
         }
     }
+
+    @Test
+    void shardCountIsRoundedUpToPowerOfTwo() {
+        ExecutionStore store = new ExecutionStore(new ExecutionStoreProperties(null, null, null, 5, null));
+        try {
+            assertThat(store.shardCount()).isEqualTo(8);
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void evictionSpansAllShardsAndKeepsEntriesNotYetDue() throws InterruptedException {
+        ExecutionStoreProperties props = new ExecutionStoreProperties(
+                Duration.ofMillis(50), Duration.ofMillis(50), Duration.ofMinutes(10), 4, Duration.ofHours(1));
+        ExecutionStore store = new ExecutionStore(props);
+        try {
+            for (int i = 0; i < 64; i++) {
+                ExecutionRecord done = record("done-" + i);
+                done.markSuccess("ok");
+                store.put(done);
+            }
+            Thread.sleep(120);
+            ExecutionRecord fresh = record("fresh");
+            fresh.markSuccess("ok");
+            store.put(fresh);
+
+            store.evictExpired();
+
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.getOrNull("fresh")).isNotNull();
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void replacedRecordIsScheduledIndependently() throws InterruptedException {
+        ExecutionStoreProperties props = new ExecutionStoreProperties(
+                Duration.ofMillis(50), Duration.ofMillis(50), Duration.ofMinutes(10));
+        ExecutionStore store = new ExecutionStore(props);
+        try {
+            ExecutionRecord first = record("same-id");
+            first.markSuccess("first");
+            store.put(first);
+
+            Thread.sleep(120);
+            ExecutionRecord second = record("same-id");
+            store.put(second);
+            store.evictExpired();
+
+            // the stale expiry of the first record must not evict its replacement
+            assertThat(store.getOrNull("same-id")).isSameAs(second);
+        } finally {
+            store.shutdown();
+        }
+    }
+
+    @Test
+    void shardMetricsReportSizeAndEvictions() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ExecutionStoreProperties props = new ExecutionStoreProperties(
+                Duration.ofMillis(50), Duration.ofMillis(50), Duration.ofMillis(50), 2, Duration.ofHours(1));
+        ExecutionStore store = new ExecutionStore(props, new Metrics(registry));
+        try {
+            ExecutionRecord done = record("done");
+            done.markSuccess("ok");
+            store.put(done);
+            store.put(record("stuck"));
+
+            assertThat(registry.find("execution_store_size").gauges()).hasSize(2);
+            assertThat(registry.find("execution_store_size").gauges().stream()
+                    .mapToDouble(Gauge::value).sum()).isEqualTo(2.0);
+
+            Thread.sleep(120);
+            store.evictExpired();
+
+            double ttlEvictions = registry.find("execution_store_evictions_total").tag("reason", "ttl")
+                    .functionCounters().stream().mapToDouble(FunctionCounter::count).sum();
+            double lifetimeEvictions = registry.find("execution_store_evictions_total").tag("reason", "max_lifetime")
+                    .functionCounters().stream().mapToDouble(FunctionCounter::count).sum();
+            assertThat(ttlEvictions).isEqualTo(1.0);
+            assertThat(lifetimeEvictions).isEqualTo(1.0);
+            assertThat(registry.find("execution_store_size").gauges())
+                    .extracting(Gauge::value)
+                    .containsOnly(0.0);
+        } finally {
+            store.shutdown();
+        }
+    }
 }
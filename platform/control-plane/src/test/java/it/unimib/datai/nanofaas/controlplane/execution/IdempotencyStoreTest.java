@@ -1,12 +1,16 @@
 package it.unimib.datai.nanofaas.controlplane.execution;
 
+import com.github.benmanes.caffeine.cache.Scheduler;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 
 class IdempotencyStoreTest {
 
@@ -129,4 +133,80 @@ class IdempotencyStoreTest {
         assertThat(store.getExecutionId("fn1", "keyB")).hasValue("exec2");
         assertThat(store.getExecutionId("fn2", "keyA")).hasValue("exec3");
     }
+
+    @Test
+    void keysContainingSeparator_doNotCollideAcrossFunctions() {
+        store = new IdempotencyStore(Duration.ofMinutes(15));
+
+        store.put("fn:a", "b", "exec1");
+        store.put("fn", "a:b", "exec2");
+
+        assertThat(store.getExecutionId("fn:a", "b")).hasValue("exec1");
+        assertThat(store.getExecutionId("fn", "a:b")).hasValue("exec2");
+    }
+
+    @Test
+    void pendingClaim_completesWhenPublished() {
+        store = new IdempotencyStore(Duration.ofMinutes(15));
+        IdempotencyStore.AcquireResult claim = store.acquireOrGet("fn", "key");
+
+        IdempotencyStore.AcquireResult duplicate = store.acquireOrGet("fn", "key");
+        assertThat(duplicate.state()).isEqualTo(IdempotencyStore.AcquireResult.State.PENDING);
+        CompletableFuture<Void> settled = duplicate.pendingClaim().toCompletableFuture();
+        assertThat(settled).isNotDone();
+
+        store.publishClaim("fn", "key", claim.executionIdOrToken(), "exec-1");
+
+        assertThat(settled).isCompleted();
+        assertThat(store.acquireOrGet("fn", "key").executionIdOrToken()).isEqualTo("exec-1");
+    }
+
+    @Test
+    void pendingClaim_completesWhenAbandoned() {
+        store = new IdempotencyStore(Duration.ofMinutes(15));
+        IdempotencyStore.AcquireResult claim = store.acquireOrGet("fn", "key");
+        CompletableFuture<Void> settled = store.acquireOrGet("fn", "key").pendingClaim().toCompletableFuture();
+
+        store.abandonClaim("fn", "key", claim.executionIdOrToken());
+
+        assertThat(settled).isCompleted();
+        assertThat(store.acquireOrGet("fn", "key").state()).isEqualTo(IdempotencyStore.AcquireResult.State.CLAIMED);
+    }
+
+    @Test
+    void pendingClaim_completesWhenExpired() {
+        AtomicLong nanos = new AtomicLong();
+        store = new IdempotencyStore(Duration.ofMinutes(5), nanos::get);
+        store.acquireOrGet("fn", "key");
+        CompletableFuture<Void> settled = store.acquireOrGet("fn", "key").pendingClaim().toCompletableFuture();
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        store.size();
+
+        assertThat(settled).isCompleted();
+    }
+
+    @Test
+    void pendingClaim_expiryReleasesWaitersWithoutFurtherCacheActivity() {
+        AtomicLong nanos = new AtomicLong();
+        ConcurrentLinkedQueue<Runnable> scheduled = new ConcurrentLinkedQueue<>();
+        Scheduler scheduler = (executor, command, delay, unit) -> {
+            scheduled.add(() -> executor.execute(command));
+            return CompletableFuture.completedFuture(null);
+        };
+        store = new IdempotencyStore(Duration.ofMinutes(5), nanos::get, scheduler);
+        store.acquireOrGet("fn", "key");
+        CompletableFuture<Void> settled = store.acquireOrGet("fn", "key").pendingClaim().toCompletableFuture();
+        await().atMost(Duration.ofSeconds(2)).until(() -> !scheduled.isEmpty());
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        // Only the scheduled expiry runs: nothing reads or writes the cache.
+        Runnable expiry;
+        while ((expiry = scheduled.poll()) != null) {
+            expiry.run();
+        }
+
+        await().atMost(Duration.ofSeconds(2)).until(settled::isDone);
+        assertThat(settled).isCompleted();
+    }
 }
@@ -49,6 +49,20 @@ class FunctionSpecResolverTest {
         assertEquals(RuntimeMode.STDIO, resolved.runtimeMode());
     }
 
+    @Test
+    void resolve_normalizesBatchConfig() {
+        FunctionSpec spec = new FunctionSpec("fn", "img:latest", null, null, null,
+                null, null, null, null, "http://svc", ExecutionMode.POOL, null, null, null, null,
+                new BatchConfig(8, null));
+
+        FunctionSpec resolved = resolver.resolve(spec);
+
+        assertEquals(new BatchConfig(8, 0), resolved.batchConfig());
+        assertTrue(resolved.batchConfig().enabled());
+        assertNull(resolver.resolve(new FunctionSpec("fn", "img:latest", null, null, null,
+                null, null, null, null, null, ExecutionMode.POOL, null, null, null)).batchConfig());
+    }
+
     @Test
     void resolve_deploymentMode_defaultScaling() {
         FunctionSpec spec = new FunctionSpec("fn", "img:latest", null, null, null,
@@ -184,4 +198,20 @@ class FunctionSpecResolverTest {
 
         assertTrue(thrown.getMessage().contains("Unsupported INTERNAL scaling metric"));
     }
+
+    @Test
+    void resolve_predictiveScalingUsesTheInternalMetricTypes() {
+        ScalingConfig scaling = new ScalingConfig(
+                ScalingStrategy.PREDICTIVE,
+                1,
+                5,
+                List.of(new ScalingMetric("cpu", "80", null))
+        );
+        FunctionSpec spec = new FunctionSpec("fn", "img:latest", null, null, null,
+                null, null, null, null, null, ExecutionMode.DEPLOYMENT, null, null, scaling);
+
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> resolver.resolve(spec));
+
+        assertTrue(thrown.getMessage().contains("Unsupported INTERNAL scaling metric"));
+    }
 }
@@ -1,11 +1,17 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
 import it.unimib.datai.nanofaas.controlplane.dispatch.DispatchResult;
 import it.unimib.datai.nanofaas.controlplane.dispatch.DispatcherRouter;
+import it.unimib.datai.nanofaas.controlplane.execution.CompactPayload;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionState;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
@@ -19,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.CompletableFuture;
@@ -27,7 +34,6 @@ import java.util.concurrent.TimeUnit;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -39,7 +45,8 @@ import static org.mockito.Mockito.when;
 class ExecutionCompletionHandlerTest {
 
     @Mock private InvocationEnqueuer enqueuer;
-    @Mock private Metrics metrics;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Metrics metrics = new Metrics(meterRegistry);
     @Mock private DispatcherRouter dispatcherRouter;
 
     private ExecutionStore executionStore;
@@ -56,23 +63,6 @@ class ExecutionCompletionHandlerTest {
                 "testFunc", "test-image", null, null, null,
                 30000, 4, 100, 3, null, ExecutionMode.LOCAL, null, null, null
         );
-
-        io.micrometer.core.instrument.simple.SimpleMeterRegistry meterRegistry =
-                new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
-        when(metrics.latency(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-latency").register(meterRegistry));
-        when(metrics.queueWait(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-queue-wait").register(meterRegistry));
-        when(metrics.e2eLatency(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-e2e").register(meterRegistry));
-        when(metrics.initDuration(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-init").register(meterRegistry));
-        when(metrics.timers(anyString())).thenAnswer(invocation -> new Metrics.FunctionTimers(
-                metrics.latency(invocation.getArgument(0)),
-                metrics.initDuration(invocation.getArgument(0)),
-                metrics.queueWait(invocation.getArgument(0)),
-                metrics.e2eLatency(invocation.getArgument(0))
-        ));
     }
 
     // ─── dispatch tests ────────────────────────────────────────────────────────
@@ -128,6 +118,46 @@ class ExecutionCompletionHandlerTest {
         verify(dispatcherRouter).dispatchPool(task);
     }
 
+    @Test
+    void dispatchBatch_poolMode_fansResultsOutToEachExecution() throws Exception {
+        InvocationTask first = task("exec-b1", "pool-fn", ExecutionMode.POOL);
+        InvocationTask second = task("exec-b2", "pool-fn", ExecutionMode.POOL);
+        InvocationTask gone = task("exec-gone", "pool-fn", ExecutionMode.POOL);
+        ExecutionRecord firstRecord = new ExecutionRecord(first.executionId(), first);
+        ExecutionRecord secondRecord = new ExecutionRecord(second.executionId(), second);
+        executionStore.put(firstRecord);
+        executionStore.put(secondRecord);
+
+        when(dispatcherRouter.dispatchPoolBatch(any())).thenReturn(CompletableFuture.completedFuture(List.of(
+                DispatchResult.warm(InvocationResult.success("one")),
+                DispatchResult.warm(InvocationResult.error("HANDLER_ERROR", "boom")))));
+
+        completionHandler.dispatchBatch(List.of(first, gone, second));
+
+        assertThat(firstRecord.completion().get(1, TimeUnit.SECONDS).output()).isEqualTo("one");
+        assertThat(secondRecord.completion().get(1, TimeUnit.SECONDS).error().code()).isEqualTo("HANDLER_ERROR");
+        assertThat(firstRecord.state()).isEqualTo(ExecutionState.SUCCESS);
+        assertThat(secondRecord.state()).isEqualTo(ExecutionState.ERROR);
+        verify(dispatcherRouter).dispatchPoolBatch(List.of(first, second));
+        verify(enqueuer, times(3)).releaseDispatchSlot("pool-fn");
+        verify(dispatcherRouter, never()).dispatchPool(any());
+    }
+
+    @Test
+    void dispatchBatch_withSingleLiveTask_usesRegularDispatch() throws Exception {
+        InvocationTask only = task("exec-solo", "pool-fn", ExecutionMode.POOL);
+        ExecutionRecord record = new ExecutionRecord(only.executionId(), only);
+        executionStore.put(record);
+
+        when(dispatcherRouter.dispatchPool(any())).thenReturn(
+                CompletableFuture.completedFuture(DispatchResult.warm(InvocationResult.success("ok"))));
+
+        completionHandler.dispatchBatch(List.of(only, task("exec-gone", "pool-fn", ExecutionMode.POOL)));
+
+        assertThat(record.completion().get(1, TimeUnit.SECONDS).output()).isEqualTo("ok");
+        verify(dispatcherRouter, never()).dispatchPoolBatch(any());
+    }
+
     // ─── completeExecution / retry tests ──────────────────────────────────────
 
     @Test
@@ -179,6 +209,19 @@ class ExecutionCompletionHandlerTest {
         verify(enqueuer).releaseDispatchSlot("testFunc");
     }
 
+    @Test
+    void completeExecution_whenRuntimeSkippedCallback_countsAvoidedCallback() {
+        recordInStore("exec-skip", testSpec, null);
+        recordInStore("exec-legacy", testSpec, null);
+
+        completionHandler.completeExecution("exec-skip",
+                new DispatchResult(InvocationResult.success("result"), false, null, true));
+        completionHandler.completeExecution("exec-legacy", DispatchResult.warm(InvocationResult.success("result")));
+
+        assertThat(count("function_callbacks_avoided_total")).isEqualTo(1.0);
+        assertThat(count("function_success_total")).isEqualTo(2.0);
+    }
+
     @Test
     void completeExecution_withSuccess_readsFieldsUnderLockWithoutSnapshot() {
         CountingExecutionRecord record = countingRecordInStore("exec-count", testSpec);
@@ -199,8 +242,8 @@ class ExecutionCompletionHandlerTest {
 
         assertThat(record.state()).isEqualTo(ExecutionState.TIMEOUT);
         assertThat(record.output()).isNull();
-        verify(metrics, never()).success("testFunc");
-        verify(metrics, never()).error("testFunc");
+        assertThat(count("function_success_total")).isZero();
+        assertThat(count("function_error_total")).isZero();
     }
 
     @Test
@@ -269,6 +312,34 @@ class ExecutionCompletionHandlerTest {
         verify(enqueuer, times(2)).releaseDispatchSlot("testFunc");
     }
 
+    @Test
+    void compactPayloadMode_storesSuccessfulOutputAsCompactPayload() throws Exception {
+        ExecutionPayloadStore payloadStore = new ExecutionPayloadStore(
+                new ExecutionPayloadProperties(ExecutionPayloadProperties.Mode.COMPACT, null, null, null),
+                new ObjectMapper());
+        ExecutionCompletionHandler handler = new ExecutionCompletionHandler(
+                executionStore, enqueuer, dispatcherRouter, metrics, payloadStore);
+        ExecutionRecord record = recordInStore("exec-compact", testSpec, null);
+
+        handler.completeExecution("exec-compact", InvocationResult.success(Map.of("words", 3)));
+
+        InvocationResult result = record.completion().get(1, TimeUnit.SECONDS);
+        assertThat(result.output()).isInstanceOf(CompactPayload.class);
+        assertThat(record.output()).isSameAs(result.output());
+        assertThat(((CompactPayload) result.output()).decode()).isEqualTo(Map.of("words", 3));
+        assertThat(payloadStore.residentBytes()).isPositive();
+
+        record.cleanup();
+        // Replays and status reads keep serving the output until the record is evicted.
+        assertThat(record.output()).isSameAs(result.output());
+        assertThat(((CompactPayload) result.output()).decode()).isEqualTo(Map.of("words", 3));
+
+        record.releasePayloads();
+        assertThat(record.output()).isNull();
+        assertThat(payloadStore.residentBytes()).isZero();
+        payloadStore.shutdown();
+    }
+
     // ─── helpers ──────────────────────────────────────────────────────────────
 
     private ExecutionRecord recordInStore(String executionId, FunctionSpec spec, String idempotencyKey) {
@@ -297,6 +368,11 @@ class ExecutionCompletionHandlerTest {
         );
     }
 
+    private double count(String counterName) {
+        Counter counter = meterRegistry.find(counterName).tag("function", "testFunc").counter();
+        return counter == null ? 0.0 : counter.count();
+    }
+
     private CountingExecutionRecord countingRecordInStore(String executionId, FunctionSpec spec) {
         InvocationTask task = new InvocationTask(
                 executionId, spec.name(), spec,
@@ -3,16 +3,22 @@ package it.unimib.datai.nanofaas.controlplane.service;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.controlplane.config.ExecutionPayloadProperties;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
 import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -60,6 +66,97 @@ class InvocationExecutionFactoryTest {
         }
     }
 
+    @Test
+    void createOrReuseExecutionReactive_duplicateOfPendingClaimResumesWhenClaimIsPublished() throws Exception {
+        ExecutionStore executionStore = new ExecutionStore();
+        InvocationExecutionFactory factory = new InvocationExecutionFactory(executionStore, new IdempotencyStore());
+        FunctionSpec spec = functionSpec("reactive-idem-fn");
+        InvocationRequest request = new InvocationRequest("payload", Map.of());
+        try {
+            InvocationExecutionFactory.ExecutionLookup winner =
+                    factory.createOrReuseExecution("reactive-idem-fn", spec, request, "same-key", null);
+
+            CompletableFuture<InvocationExecutionFactory.ExecutionLookup> duplicate = factory
+                    .createOrReuseExecutionReactive("reactive-idem-fn", spec, request, "same-key", null)
+                    .toFuture();
+            assertThat(duplicate).isNotDone();
+
+            winner.publishAdmission();
+
+            InvocationExecutionFactory.ExecutionLookup lookup = duplicate.get(1, TimeUnit.SECONDS);
+            assertThat(lookup.isNew()).isFalse();
+            assertThat(lookup.record().executionId()).isEqualTo(winner.record().executionId());
+        } finally {
+            executionStore.shutdown();
+        }
+    }
+
+    @Test
+    void createOrReuseExecutionReactive_duplicateResumesOffTheSettlingThread() throws Exception {
+        ExecutionStore executionStore = new ExecutionStore();
+        InvocationExecutionFactory factory = new InvocationExecutionFactory(executionStore, new IdempotencyStore());
+        FunctionSpec spec = functionSpec("reactive-idem-fn");
+        InvocationRequest request = new InvocationRequest("payload", Map.of());
+        try {
+            InvocationExecutionFactory.ExecutionLookup winner =
+                    factory.createOrReuseExecution("reactive-idem-fn", spec, request, "same-key", null);
+            CompletableFuture<Thread> resumedOn = factory
+                    .createOrReuseExecutionReactive("reactive-idem-fn", spec, request, "same-key", null)
+                    .map(lookup -> Thread.currentThread())
+                    .toFuture();
+
+            winner.publishAdmission();
+
+            assertThat(resumedOn.get(1, TimeUnit.SECONDS)).isNotSameAs(Thread.currentThread());
+        } finally {
+            executionStore.shutdown();
+        }
+    }
+
+    @Test
+    void abandonAdmission_releasesTheCompactInput(@TempDir Path spillDir) {
+        ExecutionStore executionStore = new ExecutionStore();
+        ExecutionPayloadStore payloadStore = compactPayloadStore(DataSize.ofMegabytes(1), spillDir);
+        InvocationExecutionFactory factory =
+                new InvocationExecutionFactory(executionStore, new IdempotencyStore(), payloadStore);
+        FunctionSpec spec = functionSpec("compact-fn");
+        try {
+            InvocationExecutionFactory.ExecutionLookup lookup = factory.createOrReuseExecution(
+                    "compact-fn", spec, new InvocationRequest(Map.of("text", "hello"), Map.of()), "key", null);
+            assertThat(payloadStore.residentBytes()).isPositive();
+
+            lookup.abandonAdmission();
+
+            assertThat(payloadStore.residentBytes()).isZero();
+        } finally {
+            executionStore.shutdown();
+            payloadStore.shutdown();
+        }
+    }
+
+    @Test
+    void createOrReuseExecutionReactive_duplicateOfAbandonedClaimTakesOverTheKey() throws Exception {
+        ExecutionStore executionStore = new ExecutionStore();
+        InvocationExecutionFactory factory = new InvocationExecutionFactory(executionStore, new IdempotencyStore());
+        FunctionSpec spec = functionSpec("reactive-idem-fn");
+        InvocationRequest request = new InvocationRequest("payload", Map.of());
+        try {
+            InvocationExecutionFactory.ExecutionLookup winner =
+                    factory.createOrReuseExecution("reactive-idem-fn", spec, request, "same-key", null);
+            CompletableFuture<InvocationExecutionFactory.ExecutionLookup> duplicate = factory
+                    .createOrReuseExecutionReactive("reactive-idem-fn", spec, request, "same-key", null)
+                    .toFuture();
+
+            winner.abandonAdmission();
+
+            InvocationExecutionFactory.ExecutionLookup lookup = duplicate.get(1, TimeUnit.SECONDS);
+            assertThat(lookup.isNew()).isTrue();
+            assertThat(lookup.record().executionId()).isNotEqualTo(winner.record().executionId());
+        } finally {
+            executionStore.shutdown();
+        }
+    }
+
     @Test
     void createOrReuseExecution_doesNotUseThreadOnSpinWait() throws Exception {
         Path sourcePath = Path.of(
@@ -99,6 +196,12 @@ class InvocationExecutionFactoryTest {
         }
     }
 
+    private static ExecutionPayloadStore compactPayloadStore(DataSize residentBudget, Path spillDir) {
+        return new ExecutionPayloadStore(new ExecutionPayloadProperties(
+                ExecutionPayloadProperties.Mode.COMPACT, residentBudget, spillDir, null),
+                new ObjectMapper());
+    }
+
     private static FunctionSpec functionSpec(String functionName) {
         return new FunctionSpec(
                 functionName,
@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
@@ -45,7 +46,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.doAnswer;
@@ -63,8 +64,7 @@ class InvocationServiceDispatchTest {
     @Mock
     private InvocationEnqueuer enqueuer;
 
-    @Mock
-    private Metrics metrics;
+    private final Metrics metrics = new Metrics(new SimpleMeterRegistry());
 
     @Mock
     private DispatcherRouter dispatcherRouter;
@@ -96,23 +96,6 @@ class InvocationServiceDispatchTest {
                 syncQueueGateway,
                 completionHandler
         );
-
-        io.micrometer.core.instrument.simple.SimpleMeterRegistry meterRegistry =
-                new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
-        when(metrics.latency(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-latency").register(meterRegistry));
-        when(metrics.queueWait(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-queue-wait").register(meterRegistry));
-        when(metrics.e2eLatency(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-e2e").register(meterRegistry));
-        when(metrics.initDuration(anyString())).thenReturn(
-                io.micrometer.core.instrument.Timer.builder("test-init").register(meterRegistry));
-        when(metrics.timers(anyString())).thenAnswer(invocation -> new Metrics.FunctionTimers(
-                metrics.latency(invocation.getArgument(0)),
-                metrics.initDuration(invocation.getArgument(0)),
-                metrics.queueWait(invocation.getArgument(0)),
-                metrics.e2eLatency(invocation.getArgument(0))
-        ));
     }
 
     @Test
@@ -137,7 +120,7 @@ class InvocationServiceDispatchTest {
         assertThat(response.executionId()).isEqualTo("exec-replay-success");
         assertThat(response.status()).isEqualTo("success");
         assertThat(response.output()).isEqualTo("replayed-ok");
-        verify(syncQueueGateway, never()).enqueueOrThrow(any());
+        verify(syncQueueGateway, never()).enqueueOrThrow(any(), any());
         verify(enqueuer, never()).enqueue(any());
         verifyNoInteractions(dispatcherRouter);
     }
@@ -165,7 +148,7 @@ class InvocationServiceDispatchTest {
         assertThat(response.executionId()).isEqualTo("exec-reactive-replay-success");
         assertThat(response.status()).isEqualTo("success");
         assertThat(response.output()).isEqualTo("reactive-replayed-ok");
-        verify(syncQueueGateway, never()).enqueueOrThrow(any());
+        verify(syncQueueGateway, never()).enqueueOrThrow(any(), any());
         verify(enqueuer, never()).enqueue(any());
         verifyNoInteractions(dispatcherRouter);
     }
@@ -191,7 +174,7 @@ class InvocationServiceDispatchTest {
 
         assertThat(response.executionId()).isEqualTo("exec-sync-replay-timeout");
         assertThat(response.status()).isEqualTo("timeout");
-        verify(syncQueueGateway, never()).enqueueOrThrow(any());
+        verify(syncQueueGateway, never()).enqueueOrThrow(any(), any());
         verify(enqueuer, never()).enqueue(any());
         verifyNoInteractions(dispatcherRouter);
     }
@@ -218,7 +201,7 @@ class InvocationServiceDispatchTest {
         assertThat(response).isNotNull();
         assertThat(response.executionId()).isEqualTo("exec-replay-timeout");
         assertThat(response.status()).isEqualTo("timeout");
-        verify(syncQueueGateway, never()).enqueueOrThrow(any());
+        verify(syncQueueGateway, never()).enqueueOrThrow(any(), any());
         verify(enqueuer, never()).enqueue(any());
         verifyNoInteractions(dispatcherRouter);
     }
@@ -298,7 +281,7 @@ class InvocationServiceDispatchTest {
         assertThat(response.status()).isEqualTo("success");
         assertThat(response.output()).isEqualTo("inline-ok");
         verify(dispatcherRouter).dispatchLocal(any());
-        verify(syncQueueGateway, never()).enqueueOrThrow(any());
+        verify(syncQueueGateway, never()).enqueueOrThrow(any(), any());
         verify(enqueuer, never()).enqueue(any());
         verify(enqueuer).releaseDispatchSlot("inline-fn");
     }
@@ -364,7 +347,7 @@ class InvocationServiceDispatchTest {
         assertThat(response.status()).isEqualTo("success");
         assertThat(response.output()).isEqualTo("queued-ok");
         verify(enqueuer).enqueue(any());
-        verify(syncQueueGateway, never()).enqueueOrThrow(any());
+        verify(syncQueueGateway, never()).enqueueOrThrow(any(), any());
         verify(dispatcherRouter, never()).dispatchLocal(any());
         verify(enqueuer).releaseDispatchSlot("queued-sync-fn");
     }
@@ -385,7 +368,7 @@ class InvocationServiceDispatchTest {
                 1_000
         ).subscribe();
 
-        verify(syncQueueGateway, org.mockito.Mockito.timeout(2_000)).enqueueOrThrow(any());
+        verify(syncQueueGateway, org.mockito.Mockito.timeout(2_000)).enqueueOrThrow(any(), any());
         verify(enqueuer, never()).enqueue(any());
         verifyNoInteractions(dispatcherRouter);
     }
@@ -402,7 +385,7 @@ class InvocationServiceDispatchTest {
                     DispatchResult.warm(InvocationResult.success("ok"))
             );
             return null;
-        }).when(syncQueueGateway).enqueueOrThrow(any());
+        }).when(syncQueueGateway).enqueueOrThrow(any(), any());
 
         InvocationResponse response = invocationService.invokeSyncReactive(
                 "sync-queued-sync-fn",
@@ -414,7 +397,7 @@ class InvocationServiceDispatchTest {
 
         assertThat(response.status()).isEqualTo("success");
         assertThat(response.output()).isEqualTo("ok");
-        verify(syncQueueGateway).enqueueOrThrow(any());
+        verify(syncQueueGateway).enqueueOrThrow(any(), eq(Duration.ofMillis(1_000)));
         verify(enqueuer, never()).enqueue(any());
         verify(enqueuer).releaseDispatchSlot("sync-queued-sync-fn");
         verifyNoInteractions(dispatcherRouter);
@@ -426,7 +409,7 @@ class InvocationServiceDispatchTest {
         when(functionService.get("sync-reject-fn")).thenReturn(Optional.of(spec));
         when(syncQueueGateway.enabled()).thenReturn(true);
         doThrow(new SyncQueueRejectedException(SyncQueueRejectReason.DEPTH, 3))
-                .when(syncQueueGateway).enqueueOrThrow(any());
+                .when(syncQueueGateway).enqueueOrThrow(any(), any());
 
         AtomicReference<reactor.core.publisher.Mono<InvocationResponse>> monoRef = new AtomicReference<>();
         assertThatCode(() -> monoRef.set(invocationService.invokeSyncReactive(
@@ -454,7 +437,7 @@ class InvocationServiceDispatchTest {
                     DispatchResult.warm(InvocationResult.error("QUEUE_TIMEOUT", "queue wait exceeded"))
             );
             return null;
-        }).when(syncQueueGateway).enqueueOrThrow(any());
+        }).when(syncQueueGateway).enqueueOrThrow(any(), any());
 
         assertThatThrownBy(() -> invocationService.invokeSyncReactive(
                 "queue-timeout-fn",
@@ -713,7 +696,7 @@ class InvocationServiceDispatchTest {
             InvocationTask task = invocation.getArgument(0);
             rejectedExecutionId.set(task.executionId());
             throw new SyncQueueRejectedException(SyncQueueRejectReason.DEPTH, 1);
-        }).when(syncQueueGateway).enqueueOrThrow(any());
+        }).when(syncQueueGateway).enqueueOrThrow(any(), any());
 
         assertThatThrownBy(() -> invocationService.invokeSyncReactive(
                 "reactive-sync-reject-fn",
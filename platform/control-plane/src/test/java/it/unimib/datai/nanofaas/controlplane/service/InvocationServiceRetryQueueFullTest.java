@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
@@ -24,7 +25,6 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -35,7 +35,7 @@ class InvocationServiceRetryQueueFullTest {
 
     @Mock private FunctionService functionService;
     @Mock private InvocationEnqueuer enqueuer;
-    @Mock private Metrics metrics;
+    private final Metrics metrics = new Metrics(new SimpleMeterRegistry());
     @Mock private DispatcherRouter dispatcherRouter;
     @Mock private SyncQueueGateway syncQueueGateway;
 
@@ -67,17 +67,6 @@ class InvocationServiceRetryQueueFullTest {
         when(functionService.get("testFunc")).thenReturn(Optional.of(testSpec));
         when(enqueuer.enabled()).thenReturn(true);
         when(syncQueueGateway.enabled()).thenReturn(false);
-        io.micrometer.core.instrument.simple.SimpleMeterRegistry simpleMeterRegistry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
-        when(metrics.latency(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-latency").register(simpleMeterRegistry));
-        when(metrics.queueWait(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-queue-wait").register(simpleMeterRegistry));
-        when(metrics.e2eLatency(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-e2e").register(simpleMeterRegistry));
-        when(metrics.initDuration(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-init").register(simpleMeterRegistry));
-        when(metrics.timers(anyString())).thenAnswer(invocation -> new Metrics.FunctionTimers(
-                metrics.latency(invocation.getArgument(0)),
-                metrics.initDuration(invocation.getArgument(0)),
-                metrics.queueWait(invocation.getArgument(0)),
-                metrics.e2eLatency(invocation.getArgument(0))
-        ));
     }
 
     @Test
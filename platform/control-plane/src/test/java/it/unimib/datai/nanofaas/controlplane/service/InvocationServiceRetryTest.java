@@ -1,10 +1,13 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.model.InvocationResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.common.model.RateLimitConfig;
 import it.unimib.datai.nanofaas.controlplane.dispatch.DispatcherRouter;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionState;
@@ -20,12 +23,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,8 +41,7 @@ class InvocationServiceRetryTest {
     @Mock
     private InvocationEnqueuer enqueuer;
 
-    @Mock
-    private Metrics metrics;
+    private final Metrics metrics = new Metrics(new SimpleMeterRegistry());
 
     @Mock
     private DispatcherRouter dispatcherRouter;
@@ -96,17 +98,25 @@ class InvocationServiceRetryTest {
         when(enqueuer.enqueue(any())).thenReturn(true);
         when(enqueuer.enabled()).thenReturn(true);
         when(syncQueueGateway.enabled()).thenReturn(false);
-        io.micrometer.core.instrument.simple.SimpleMeterRegistry simpleMeterRegistry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
-        when(metrics.latency(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-latency").register(simpleMeterRegistry));
-        when(metrics.queueWait(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-queue-wait").register(simpleMeterRegistry));
-        when(metrics.e2eLatency(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-e2e").register(simpleMeterRegistry));
-        when(metrics.initDuration(anyString())).thenReturn(io.micrometer.core.instrument.Timer.builder("test-init").register(simpleMeterRegistry));
-        when(metrics.timers(anyString())).thenAnswer(invocation -> new Metrics.FunctionTimers(
-                metrics.latency(invocation.getArgument(0)),
-                metrics.initDuration(invocation.getArgument(0)),
-                metrics.queueWait(invocation.getArgument(0)),
-                metrics.e2eLatency(invocation.getArgument(0))
-        ));
+    }
+
+    @Test
+    void completeExecutions_appliesEachItemLikeASingleCallback() {
+        InvocationResponse first = invocationService.invokeAsync("testFunc", new InvocationRequest("a", null), null, null);
+        InvocationResponse second = invocationService.invokeAsync("testFunc", new InvocationRequest("b", null), null, null);
+        InvocationResponse stale = invocationService.invokeAsync("testFunc", new InvocationRequest("c", null), null, null);
+
+        invocationService.completeExecutions(Arrays.asList(
+                new ExecutionCompletionBatch.Item(first.executionId(), null, 1, InvocationResult.success("one")),
+                new ExecutionCompletionBatch.Item(second.executionId(), "trace", null, InvocationResult.success("two")),
+                new ExecutionCompletionBatch.Item(stale.executionId(), null, 5, InvocationResult.success("late")),
+                new ExecutionCompletionBatch.Item("unknown", null, 1, InvocationResult.success("x")),
+                null));
+
+        assertThat(executionStore.get(first.executionId()).orElseThrow().state()).isEqualTo(ExecutionState.SUCCESS);
+        assertThat(executionStore.get(second.executionId()).orElseThrow().output()).isEqualTo("two");
+        // A result for another attempt is discarded, as with the single callback.
+        assertThat(executionStore.get(stale.executionId()).orElseThrow().completion().isDone()).isFalse();
     }
 
     @Test
@@ -321,4 +331,45 @@ class InvocationServiceRetryTest {
         verify(enqueuer, times(1)).enqueue(any());
     }
 
+    @Test
+    void invokeAsync_overFunctionRateLimit_throwsRateLimitException() {
+        FunctionSpec limited = new FunctionSpec(
+                "limitedFunc", "test-image", null, null, null, 30000, 4, 100, 3, null,
+                ExecutionMode.LOCAL, null, null, null, null, null, new RateLimitConfig(1, 1));
+        when(functionService.get("limitedFunc")).thenReturn(Optional.of(limited));
+
+        invocationService.invokeAsync("limitedFunc", new InvocationRequest("payload", null), null, null);
+
+        assertThatThrownBy(() -> invocationService.invokeAsync(
+                "limitedFunc", new InvocationRequest("payload", null), null, null))
+                .isInstanceOf(RateLimitException.class);
+        invocationService.invokeAsync("testFunc", new InvocationRequest("payload", null), null, null);
+    }
+
+    @Test
+    void invokeAsync_overCallerRateLimit_throwsRateLimitException() {
+        rateLimiter.setPerCallerMaxPerSecond(1);
+
+        invocationService.invokeAsync("testFunc", new InvocationRequest("payload", null), null, null, "tenant-a");
+
+        assertThatThrownBy(() -> invocationService.invokeAsync(
+                "testFunc", new InvocationRequest("payload", null), null, null, "tenant-a"))
+                .isInstanceOf(RateLimitException.class);
+        invocationService.invokeAsync("testFunc", new InvocationRequest("payload", null), null, null, "tenant-b");
+    }
+
+    @Test
+    void invokeAsync_rejectedByCallerLimit_leavesTheGlobalLimitUntouched() {
+        rateLimiter.setMaxPerSecond(2);
+        rateLimiter.setPerCallerMaxPerSecond(1);
+
+        invocationService.invokeAsync("testFunc", new InvocationRequest("payload", null), null, null, "tenant-a");
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> invocationService.invokeAsync(
+                    "testFunc", new InvocationRequest("payload", null), null, null, "tenant-a"))
+                    .isInstanceOf(RateLimitException.class);
+        }
+
+        invocationService.invokeAsync("testFunc", new InvocationRequest("payload", null), null, null, "tenant-b");
+    }
 }
@@ -3,9 +3,15 @@ package it.unimib.datai.nanofaas.controlplane.service;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class MetricsTest {
@@ -39,6 +45,16 @@ class MetricsTest {
         assertThat(counter.count()).isEqualTo(1.0);
     }
 
+    @Test
+    void callbackAvoided_incrementsCounter() {
+        metrics.callbackAvoided("echo");
+
+        Counter counter = registry.find("function_callbacks_avoided_total")
+                .tag("function", "echo").counter();
+        assertThat(counter).isNotNull();
+        assertThat(counter.count()).isEqualTo(1.0);
+    }
+
     @Test
     void initDuration_registersTimer() {
         Timer timer = metrics.initDuration("echo");
@@ -113,4 +129,36 @@ class MetricsTest {
 
         assertThat(registry.find("function_success_total").tag("function", "echo").counter()).isNotNull();
     }
+
+    @Test
+    void meters_isResolvedOncePerExecution() {
+        ExecutionRecord record = new ExecutionRecord("exec-1", new InvocationTask(
+                "exec-1", "echo", null, new InvocationRequest("payload", Map.of()), null, null, Instant.now(), 1));
+
+        Metrics.FunctionMeters meters = metrics.meters(record);
+        meters.dispatch();
+
+        assertThat(metrics.meters(record)).isSameAs(meters).isSameAs(metrics.meters("echo"));
+        assertThat(registry.find("function_dispatch_total").tag("function", "echo").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void retiredHandle_recordsNothingWhileRemovedAndFollowsReRegistration() {
+        Metrics.FunctionMeters handle = metrics.meters("echo");
+        metrics.removeFunction("echo");
+
+        handle.success();
+        handle.timers().latency().record(1, java.util.concurrent.TimeUnit.MILLISECONDS);
+
+        assertThat(registry.find("function_success_total").tag("function", "echo").counter()).isNull();
+        assertThat(registry.find("function_latency_ms").tag("function", "echo").timer()).isNull();
+
+        metrics.registerFunction("echo");
+        handle.success();
+
+        assertThat(registry.find("function_success_total").tag("function", "echo").counter().count())
+                .isEqualTo(1.0);
+        assertThat(metrics.meters("echo")).isNotSameAs(handle);
+    }
 }
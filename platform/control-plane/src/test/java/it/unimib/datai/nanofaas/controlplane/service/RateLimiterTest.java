@@ -1,11 +1,13 @@
 package it.unimib.datai.nanofaas.controlplane.service;
 
+import it.unimib.datai.nanofaas.common.model.RateLimitConfig;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -54,7 +56,8 @@ class RateLimiterTest {
     @Test
     void allow_underConcurrentLoad_neverExceedsLimit() throws Exception {
         int maxPerSecond = 100;
-        RateLimiter limiter = new RateLimiter();
+        // Time stands still, so the only permits are the initial burst.
+        RateLimiter limiter = new RateLimiter(() -> 0L);
         limiter.setMaxPerSecond(maxPerSecond);
 
         int numThreads = 50;
@@ -64,9 +67,8 @@ class RateLimiterTest {
         CountDownLatch startLatch = new CountDownLatch(1);
         CountDownLatch endLatch = new CountDownLatch(numThreads);
 
-        List<Thread> threads = new ArrayList<>();
         for (int i = 0; i < numThreads; i++) {
-            Thread t = new Thread(() -> {
+            new Thread(() -> {
                 try {
                     startLatch.await();
                     for (int j = 0; j < requestsPerThread; j++) {
@@ -79,18 +81,15 @@ class RateLimiterTest {
                 } finally {
                     endLatch.countDown();
                 }
-            });
-            threads.add(t);
-            t.start();
+            }).start();
         }
 
         // Start all threads simultaneously
         startLatch.countDown();
         endLatch.await();
 
-        // With 50 threads x 10 requests = 500 total requests
-        // But limit is 100/second, so max 100 should be allowed
-        assertThat(allowedCount.get()).isLessThanOrEqualTo(maxPerSecond);
+        // 50 threads x 10 requests = 500 requests against a burst of 100
+        assertThat(allowedCount.get()).isEqualTo(maxPerSecond);
     }
 
     @Test
@@ -142,4 +141,166 @@ class RateLimiterTest {
         // No violations should occur
         assertThat(violations.get()).isEqualTo(0);
     }
+
+    @Test
+    void allow_refillsSmoothlyInsteadOfDoublingAtWindowBoundary() {
+        AtomicLong now = new AtomicLong(999_000_000L);
+        RateLimiter limiter = new RateLimiter(now::get);
+        limiter.setMaxPerSecond(10);
+
+        assertThat(allowed(limiter, 20)).isEqualTo(10);
+        // Just past a wall-clock second: a fixed window would hand out another 10 here.
+        now.addAndGet(2_000_000L);
+        assertThat(allowed(limiter, 20)).isZero();
+        now.addAndGet(100_000_000L);
+        assertThat(allowed(limiter, 20)).isEqualTo(1);
+        now.addAndGet(500_000_000L);
+        assertThat(allowed(limiter, 20)).isEqualTo(5);
+    }
+
+    @Test
+    void allow_burstCapsAdmissionsAfterIdlePeriod() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(now::get);
+        limiter.setMaxPerSecond(100);
+        limiter.setBurst(5);
+
+        now.addAndGet(10_000_000_000L);
+
+        assertThat(allowed(limiter, 50)).isEqualTo(5);
+    }
+
+    @Test
+    void allow_zeroRateRejectsEverything() {
+        RateLimiter limiter = new RateLimiter();
+        limiter.setMaxPerSecond(0);
+
+        assertThat(limiter.allow()).isFalse();
+    }
+
+    @Test
+    void allowFunction_appliesDeclaredLimitPerFunction() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(now::get);
+        RateLimitConfig config = new RateLimitConfig(3, null);
+
+        int first = 0;
+        int second = 0;
+        for (int i = 0; i < 10; i++) {
+            first += limiter.allowFunction("fn-a", config) ? 1 : 0;
+            second += limiter.allowFunction("fn-b", config) ? 1 : 0;
+        }
+
+        assertThat(first).isEqualTo(3);
+        assertThat(second).isEqualTo(3);
+        assertThat(limiter.allowFunction("fn-c", null)).isTrue();
+    }
+
+    @Test
+    void allowFunction_changedLimitTakesEffectImmediately() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(now::get);
+        for (int i = 0; i < 2; i++) {
+            limiter.allowFunction("fn", new RateLimitConfig(2, null));
+        }
+        assertThat(limiter.allowFunction("fn", new RateLimitConfig(2, null))).isFalse();
+
+        assertThat(limiter.allowFunction("fn", new RateLimitConfig(5, 5))).isTrue();
+    }
+
+    @Test
+    void removeFunction_reRegisteredFunctionStartsWithAFullBucket() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(now::get);
+        RateLimitConfig config = new RateLimitConfig(2, null);
+        for (int i = 0; i < 2; i++) {
+            limiter.allowFunction("fn", config);
+        }
+        assertThat(limiter.allowFunction("fn", config)).isFalse();
+
+        limiter.removeFunction("fn");
+
+        assertThat(limiter.allowFunction("fn", config)).isTrue();
+        assertThat(limiter.allowFunction("fn", config)).isTrue();
+        assertThat(limiter.allowFunction("fn", config)).isFalse();
+    }
+
+    @Test
+    void allowCaller_limitsEachCallerIndependently() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(now::get);
+        limiter.setPerCallerMaxPerSecond(2);
+
+        assertThat(limiter.allowCaller("tenant-a")).isTrue();
+        assertThat(limiter.allowCaller("tenant-a")).isTrue();
+        assertThat(limiter.allowCaller("tenant-a")).isFalse();
+        assertThat(limiter.allowCaller("tenant-b")).isTrue();
+        assertThat(limiter.allowCaller(null)).isTrue();
+    }
+
+    @Test
+    void allowCaller_disabledByDefault() {
+        RateLimiter limiter = new RateLimiter();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.allowCaller("tenant-a")).isTrue();
+        }
+    }
+
+    @Test
+    void allowCaller_evictsIdleCallersWhenTableIsFull() {
+        AtomicLong now = new AtomicLong();
+        RateLimiter limiter = new RateLimiter(now::get);
+        limiter.setPerCallerMaxPerSecond(1);
+        limiter.setMaxTrackedCallers(2);
+
+        assertThat(limiter.allowCaller("a")).isTrue();
+        assertThat(limiter.allowCaller("b")).isTrue();
+        // Table full of active callers: new callers share one overflow bucket.
+        assertThat(limiter.allowCaller("c")).isTrue();
+        assertThat(limiter.allowCaller("c")).isFalse();
+        assertThat(limiter.allowCaller("d")).isFalse();
+
+        now.addAndGet(2_000_000_000L);
+        assertThat(limiter.allowCaller("c")).isTrue();
+        assertThat(limiter.allowCaller("c")).isFalse();
+        assertThat(limiter.allowCaller("d")).isTrue();
+    }
+
+    @Test
+    void stripedBucket_admitsExactlyTheBurstAcrossStripes() throws Exception {
+        StripedTokenBucket bucket = new StripedTokenBucket(1_000_000, 512, 8, 0L);
+        assertThat(bucket.stripes()).isEqualTo(8);
+
+        AtomicInteger allowed = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryAcquire(0L)) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(allowed.get()).isEqualTo(512);
+        assertThat(bucket.isFull(0L)).isFalse();
+        assertThat(bucket.isFull(1_000_000_000L)).isTrue();
+    }
+
+    private static int allowed(RateLimiter limiter, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.allow()) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
 }
@@ -1,41 +1,73 @@
 package it.unimib.datai.nanofaas.modules.asyncqueue;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
 import it.unimib.datai.nanofaas.common.model.ErrorInfo;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
 import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistrationListener;
+import it.unimib.datai.nanofaas.controlplane.scaling.FunctionActivator;
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationEnqueuer;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationService;
 import it.unimib.datai.nanofaas.controlplane.service.ScalingMetricsSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.io.IOException;
+
 @Configuration
 @ConditionalOnBean({MeterRegistry.class, InvocationService.class})
+@EnableConfigurationProperties({AsyncQueueProperties.class, DurableQueueProperties.class})
 public class AsyncQueueConfiguration {
     private static final String FUNCTION_REMOVED = "FUNCTION_REMOVED";
 
     @Bean
-    QueueManager queueManager(MeterRegistry meterRegistry) {
-        return new QueueManager(meterRegistry);
+    QueueManager queueManager(MeterRegistry meterRegistry,
+                              AsyncQueueProperties properties,
+                              ObjectProvider<ScalingSignals> scalingSignals) {
+        return new QueueManager(meterRegistry, properties.queueStrategyOrDefault(), scalingSignals.getIfAvailable());
     }
 
     @Bean
-    Scheduler scheduler(QueueManager queueManager, InvocationService invocationService) {
-        return new Scheduler(queueManager, invocationService);
+    Scheduler scheduler(QueueManager queueManager,
+                        InvocationService invocationService,
+                        AsyncQueueProperties properties,
+                        ObjectProvider<FunctionActivator> activator) {
+        return new Scheduler(queueManager, invocationService, properties.schedulerThreadsOrDefault(),
+                activator.getIfAvailable());
     }
 
     @Bean
     @Primary
+    @ConditionalOnProperty(name = "nanofaas.async-queue.durable.enabled", havingValue = "false", matchIfMissing = true)
     InvocationEnqueuer asyncQueueInvocationEnqueuer(QueueManager queueManager) {
         return new QueueBackedEnqueuer(queueManager);
     }
 
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "nanofaas.async-queue.durable.enabled", havingValue = "true")
+    DurableQueueBackedEnqueuer durableQueueInvocationEnqueuer(QueueManager queueManager,
+                                                              DurableQueueProperties properties,
+                                                              ObjectMapper objectMapper,
+                                                              ExecutionStore executionStore,
+                                                              IdempotencyStore idempotencyStore,
+                                                              ExecutionPayloadStore payloadStore,
+                                                              MeterRegistry meterRegistry) throws IOException {
+        return new DurableQueueBackedEnqueuer(queueManager, properties, objectMapper, executionStore,
+                idempotencyStore, payloadStore, meterRegistry);
+    }
+
     @Bean
     @Primary
     ScalingMetricsSource asyncQueueScalingMetricsSource(QueueManager queueManager) {
@@ -0,0 +1,19 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "nanofaas.async-queue")
+public record AsyncQueueProperties(
+        Integer schedulerThreads,
+        QueueStrategy queueStrategy
+) {
+    public int schedulerThreadsOrDefault() {
+        return schedulerThreads != null && schedulerThreads > 0
+                ? schedulerThreads
+                : Runtime.getRuntime().availableProcessors();
+    }
+
+    public QueueStrategy queueStrategyOrDefault() {
+        return queueStrategy != null ? queueStrategy : QueueStrategy.LOCKING;
+    }
+}
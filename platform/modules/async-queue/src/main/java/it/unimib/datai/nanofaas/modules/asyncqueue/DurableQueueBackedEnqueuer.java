@@ -0,0 +1,288 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
+import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistrationListener;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link QueueBackedEnqueuer} that writes every task to a {@link SegmentTaskLog} before
+ * queueing it, so queued and in-flight async invocations survive a control-plane restart.
+ *
+ * <p>Heap only holds each execution's log position. A record is marked done when its execution
+ * completes, when a retry logs a newer attempt, or, for executions the store dropped without
+ * completing them, on the next periodic sweep.</p>
+ *
+ * <p>Enqueues from a non-blocking (event-loop) thread, such as sync admission or a retry
+ * triggered by a completion callback, do not wait for the log to be forced: the task is queued
+ * as soon as it is written, and the record of the attempt it supersedes stays live until the new
+ * one is durable. Other threads wait as the fsync policy says.</p>
+ *
+ * <p>On startup the unfinished tasks are put back into the {@link ExecutionStore} (and their
+ * idempotency keys into the {@link IdempotencyStore}) right away, and queued again when their
+ * function is registered, since the function registry itself is not persisted. The requeued
+ * tasks carry the spec just registered, not the logged one, whose endpoint and settings may be
+ * stale. Until then they
+ * live in the store like any other execution: one whose function is not registered again before
+ * the store evicts it ({@code execution-store.max-lifetime}) is dropped from the log, logged, and
+ * counted in {@code async_queue_recovered_dropped_total}.</p>
+ */
+public class DurableQueueBackedEnqueuer extends QueueBackedEnqueuer implements FunctionRegistrationListener, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(DurableQueueBackedEnqueuer.class);
+    private static final String QUEUE_FULL = "QUEUE_FULL";
+    private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(30);
+
+    private final QueueManager queueManager;
+    private final SegmentTaskLog taskLog;
+    private final ObjectMapper objectMapper;
+    private final ExecutionStore executionStore;
+    private final ConcurrentMap<String, Long> positions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<InvocationTask>> recovered = new ConcurrentHashMap<>();
+    /** Recovered executions that have not been requeued yet. */
+    private final Set<String> awaitingRequeue = ConcurrentHashMap.newKeySet();
+    private final Counter recoveredDropped;
+    private final ScheduledExecutorService janitor;
+
+    public DurableQueueBackedEnqueuer(QueueManager queueManager,
+                                      DurableQueueProperties properties,
+                                      ObjectMapper objectMapper,
+                                      ExecutionStore executionStore,
+                                      IdempotencyStore idempotencyStore,
+                                      ExecutionPayloadStore payloadStore,
+                                      MeterRegistry meterRegistry) throws IOException {
+        super(queueManager);
+        this.recoveredDropped = Counter.builder("async_queue_recovered_dropped_total")
+                .description("Recovered executions evicted from the store before their function was registered again")
+                .register(meterRegistry);
+        this.queueManager = queueManager;
+        this.objectMapper = objectMapper;
+        this.executionStore = executionStore;
+        this.taskLog = new SegmentTaskLog(properties);
+        recover(idempotencyStore, payloadStore);
+        this.janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "async-queue-log-janitor");
+            t.setDaemon(true);
+            return t;
+        });
+        long sweepMillis = SWEEP_INTERVAL.toMillis();
+        janitor.scheduleAtFixedRate(this::releaseVanished, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean enqueue(InvocationTask task) {
+        long position;
+        CompletableFuture<Void> durable = Schedulers.isInNonBlockingThread() ? new CompletableFuture<>() : null;
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(task);
+            position = durable == null
+                    ? taskLog.append(payload)
+                    : taskLog.appendDeferred(payload, () -> durable.complete(null));
+        } catch (JsonProcessingException ex) {
+            log.warn("Rejecting task {}: it cannot be serialized to the task log: {}", task.executionId(), ex.getMessage());
+            return false;
+        } catch (IOException | IllegalStateException ex) {
+            log.warn("Rejecting task {}: task log append failed: {}", task.executionId(), ex.getMessage());
+            return false;
+        }
+        track(task.executionId(), position, durable);
+        if (!super.enqueue(task)) {
+            release(task.executionId(), position);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void onRegister(FunctionSpec spec) {
+        List<InvocationTask> tasks = recovered.remove(spec.name());
+        if (tasks == null) {
+            return;
+        }
+        queueManager.getOrCreate(spec);
+        int requeued = 0;
+        for (InvocationTask recoveredTask : tasks) {
+            if (!awaitingRequeue.remove(recoveredTask.executionId())) {
+                continue;
+            }
+            ExecutionRecord record = executionStore.getOrNull(recoveredTask.executionId());
+            if (record == null) {
+                dropRecovered(recoveredTask.executionId());
+                continue;
+            }
+            if (record.isTerminal()) {
+                continue;
+            }
+            InvocationTask task = new InvocationTask(
+                    recoveredTask.executionId(),
+                    spec.name(),
+                    spec,
+                    recoveredTask.request(),
+                    recoveredTask.idempotencyKey(),
+                    recoveredTask.traceId(),
+                    recoveredTask.enqueuedAt(),
+                    recoveredTask.attempt()
+            );
+            record.replaceTask(task);
+            if (queueManager.enqueue(task)) {
+                requeued++;
+            } else {
+                fail(record, InvocationResult.error(QUEUE_FULL,
+                        "Queue of '%s' was full when recovered executions were requeued".formatted(spec.name())));
+            }
+        }
+        log.info("Requeued {} recovered executions of function {}", requeued, spec.name());
+    }
+
+    @Override
+    public void onRemove(String functionName) {
+        recovered.remove(functionName);
+    }
+
+    @Override
+    public void close() {
+        janitor.shutdownNow();
+        taskLog.close();
+    }
+
+    // Package-private for testing.
+    SegmentTaskLog taskLog() {
+        return taskLog;
+    }
+
+    int recoveredPending(String functionName) {
+        List<InvocationTask> tasks = recovered.get(functionName);
+        return tasks == null ? 0 : tasks.size();
+    }
+
+    void releaseVanished() {
+        positions.forEach((executionId, position) -> {
+            ExecutionRecord record = executionStore.getOrNull(executionId);
+            if (record == null || record.isTerminal()) {
+                if (record == null && awaitingRequeue.remove(executionId)) {
+                    dropRecovered(executionId);
+                }
+                release(executionId, position);
+            }
+        });
+    }
+
+    double recoveredDropped() {
+        return recoveredDropped.count();
+    }
+
+    private void dropRecovered(String executionId) {
+        recoveredDropped.increment();
+        log.warn("Dropping recovered execution {}: the execution store evicted it before its function was registered",
+                executionId);
+    }
+
+    private void recover(IdempotencyStore idempotencyStore, ExecutionPayloadStore payloadStore) {
+        // Latest logged attempt of each execution, in log order.
+        Map<String, Logged> latest = new LinkedHashMap<>();
+        for (SegmentTaskLog.Recovered entry : taskLog.drainRecovered()) {
+            InvocationTask task;
+            try {
+                task = objectMapper.readValue(entry.payload(), InvocationTask.class);
+            } catch (IOException ex) {
+                log.warn("Dropping unreadable task log record: {}", ex.getMessage());
+                taskLog.markDone(entry.position());
+                continue;
+            }
+            Logged previous = latest.get(task.executionId());
+            if (previous != null && previous.task().attempt() > task.attempt()) {
+                taskLog.markDone(entry.position());
+                continue;
+            }
+            if (previous != null) {
+                taskLog.markDone(previous.position());
+            }
+            latest.put(task.executionId(), new Logged(task, entry.position()));
+        }
+
+        for (Logged logged : latest.values()) {
+            InvocationTask task = logged.task();
+            InvocationTask restored = new InvocationTask(
+                    task.executionId(),
+                    task.functionName(),
+                    task.functionSpec(),
+                    payloadStore.compactRequest(task.request()),
+                    task.idempotencyKey(),
+                    task.traceId(),
+                    task.enqueuedAt(),
+                    task.attempt()
+            );
+            executionStore.put(new ExecutionRecord(restored.executionId(), restored));
+            if (restored.idempotencyKey() != null) {
+                idempotencyStore.put(restored.functionName(), restored.idempotencyKey(), restored.executionId());
+            }
+            awaitingRequeue.add(restored.executionId());
+            track(restored.executionId(), logged.position(), null);
+            recovered.computeIfAbsent(restored.functionName(), name -> new ArrayList<>()).add(restored);
+        }
+    }
+
+    /**
+     * Maps {@code executionId} to {@code position}. The attempt it replaces is marked done once
+     * the new record is durable: right away, or when {@code durable} completes if it is not null.
+     */
+    private void track(String executionId, long position, CompletableFuture<Void> durable) {
+        Long superseded = positions.put(executionId, position);
+        if (superseded != null && superseded != position) {
+            if (durable == null) {
+                taskLog.markDone(superseded);
+            } else {
+                durable.thenRun(() -> taskLog.markDone(superseded));
+            }
+        }
+        ExecutionRecord record = executionStore.getOrNull(executionId);
+        if (record == null) {
+            release(executionId, position);
+            return;
+        }
+        record.completion().whenComplete((result, error) -> release(executionId, position));
+    }
+
+    private void release(String executionId, long position) {
+        if (positions.remove(executionId, position)) {
+            taskLog.markDone(position);
+        }
+    }
+
+    private static void fail(ExecutionRecord record, InvocationResult result) {
+        synchronized (record) {
+            if (record.isTerminal()) {
+                return;
+            }
+            record.markError(result.error());
+            record.completion().complete(result);
+        }
+    }
+
+    private record Logged(InvocationTask task, long position) {
+    }
+}
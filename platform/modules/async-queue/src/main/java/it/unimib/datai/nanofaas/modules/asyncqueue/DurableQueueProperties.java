@@ -0,0 +1,56 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Write-ahead log that lets queued async invocations survive a control-plane restart.
+ *
+ * <p>{@code enabled}: log every queued task before accepting it (default {@code false}).
+ * {@code directory}: where segment files are kept; it must outlive the process.
+ * {@code segmentSize}: size of each memory-mapped segment; a segment is deleted once every
+ * task written to it is terminal.
+ * {@code fsync}: when appended tasks are forced to disk, see {@link Fsync}.
+ * {@code flushInterval}: how often {@code PERIODIC} forces the log.</p>
+ *
+ * <p>The log only keeps the backlog off disk-less restarts; it does not lift the in-memory
+ * limits. Every logged task is still an {@code ExecutionStore} record, each function queue still
+ * holds at most the function's {@code queueSize} tasks (recovered ones beyond it fail with
+ * {@code QUEUE_FULL}), and recovered tasks whose function is not registered
+ * again within {@code execution-store.max-lifetime} are evicted and dropped from the log.</p>
+ */
+@ConfigurationProperties(prefix = "nanofaas.async-queue.durable")
+public record DurableQueueProperties(
+        boolean enabled,
+        Path directory,
+        DataSize segmentSize,
+        Fsync fsync,
+        Duration flushInterval
+) {
+    public enum Fsync {
+        /** Every enqueue forces its own write before returning. */
+        ALWAYS,
+        /** Enqueues wait for the next flush, which forces all writes made since the previous one. */
+        GROUP,
+        /** Enqueues do not wait; the log is forced every {@code flushInterval}. */
+        PERIODIC
+    }
+
+    public DurableQueueProperties {
+        if (directory == null) {
+            directory = Path.of(System.getProperty("java.io.tmpdir"), "nanofaas-async-queue");
+        }
+        if (segmentSize == null || segmentSize.toBytes() <= 0 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            segmentSize = DataSize.ofMegabytes(64);
+        }
+        if (fsync == null) {
+            fsync = Fsync.GROUP;
+        }
+        if (flushInterval == null || flushInterval.isNegative() || flushInterval.isZero()) {
+            flushInterval = Duration.ofMillis(100);
+        }
+    }
+}
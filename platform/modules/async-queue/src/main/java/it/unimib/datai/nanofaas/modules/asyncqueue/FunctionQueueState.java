@@ -1,23 +1,33 @@
 package it.unimib.datai.nanofaas.modules.asyncqueue;
 
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class FunctionQueueState {
     private final String functionName;
-    private final ArrayBlockingQueue<InvocationTask> queue;
+    private final InvocationTaskQueue queue;
     private final AtomicInteger inFlight;
+    private final ScalingSignals signals;
     private volatile int configuredConcurrency;
     private volatile int effectiveConcurrency;
-    private boolean closed;
 
     public FunctionQueueState(String functionName, int queueSize, int concurrency) {
+        this(functionName, queueSize, concurrency, QueueStrategy.LOCKING);
+    }
+
+    public FunctionQueueState(String functionName, int queueSize, int concurrency, QueueStrategy queueStrategy) {
+        this(functionName, queueSize, concurrency, queueStrategy, ScalingSignals.noOp());
+    }
+
+    /** {@code signals} hears about every change of the queue depth and of the in-flight count. */
+    public FunctionQueueState(String functionName, int queueSize, int concurrency, QueueStrategy queueStrategy,
+                              ScalingSignals signals) {
         this.functionName = functionName;
-        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.signals = signals;
+        this.queue = InvocationTaskQueue.create(queueStrategy, queueSize);
         this.inFlight = new AtomicInteger();
         this.configuredConcurrency = Math.max(1, concurrency);
         this.effectiveConcurrency = Math.max(1, concurrency);
@@ -28,29 +38,35 @@ public class FunctionQueueState {
     }
 
     public int queueSize() {
-        return queue.remainingCapacity() + queue.size();
+        return queue.capacity();
     }
 
     public int queued() {
         return queue.size();
     }
 
-    public synchronized boolean offer(InvocationTask task) {
-        if (closed) {
-            return false;
+    public boolean offer(InvocationTask task) {
+        boolean offered = queue.offer(task);
+        if (offered) {
+            signals.queueDepthChanged(functionName, queue.size());
+        }
+        return offered;
+    }
+
+    public InvocationTask poll() {
+        InvocationTask task = queue.poll();
+        if (task != null) {
+            signals.queueDepthChanged(functionName, queue.size());
         }
-        return queue.offer(task);
+        return task;
     }
 
-    public synchronized InvocationTask poll() {
-        return queue.poll();
+    public InvocationTask peek() {
+        return queue.peek();
     }
 
-    public synchronized List<InvocationTask> closeAndDrainQueued() {
-        closed = true;
-        List<InvocationTask> drained = new ArrayList<>();
-        queue.drainTo(drained);
-        return drained;
+    public List<InvocationTask> closeAndDrainQueued() {
+        return queue.closeAndDrain();
     }
 
     public int inFlight() {
@@ -71,6 +87,7 @@ public class FunctionQueueState {
                 return false;
             }
             if (inFlight.compareAndSet(current, current + 1)) {
+                signals.inFlightChanged(functionName, current + 1);
                 return true;
             }
             // CAS failed, another thread modified - retry
@@ -97,7 +114,7 @@ public class FunctionQueueState {
      */
     @Deprecated
     public void incrementInFlight() {
-        inFlight.incrementAndGet();
+        signals.inFlightChanged(functionName, inFlight.incrementAndGet());
     }
 
     /**
@@ -143,6 +160,7 @@ public class FunctionQueueState {
                 return;
             }
             if (inFlight.compareAndSet(current, current - 1)) {
+                signals.inFlightChanged(functionName, current - 1);
                 return;
             }
         }
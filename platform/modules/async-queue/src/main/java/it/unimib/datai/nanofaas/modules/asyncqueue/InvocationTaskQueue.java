@@ -0,0 +1,33 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+
+import java.util.List;
+
+/**
+ * Bounded per-function task queue behind {@link FunctionQueueState}.
+ *
+ * <p>Once {@link #closeAndDrain()} returns, every task that was accepted is in the drained list
+ * and every later {@link #offer} returns {@code false}.</p>
+ */
+interface InvocationTaskQueue {
+
+    static InvocationTaskQueue create(QueueStrategy strategy, int capacity) {
+        return switch (strategy) {
+            case LOCKING -> new LockingInvocationTaskQueue(capacity);
+            case MPSC_RING -> new MpscRingInvocationTaskQueue(capacity);
+        };
+    }
+
+    boolean offer(InvocationTask task);
+
+    InvocationTask poll();
+
+    InvocationTask peek();
+
+    int size();
+
+    int capacity();
+
+    List<InvocationTask> closeAndDrain();
+}
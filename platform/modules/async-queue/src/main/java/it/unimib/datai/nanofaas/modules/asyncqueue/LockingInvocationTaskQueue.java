@@ -0,0 +1,52 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+final class LockingInvocationTaskQueue implements InvocationTaskQueue {
+    private final ArrayBlockingQueue<InvocationTask> queue;
+    private boolean closed;
+
+    LockingInvocationTaskQueue(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized boolean offer(InvocationTask task) {
+        if (closed) {
+            return false;
+        }
+        return queue.offer(task);
+    }
+
+    @Override
+    public synchronized InvocationTask poll() {
+        return queue.poll();
+    }
+
+    @Override
+    public synchronized InvocationTask peek() {
+        return queue.peek();
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    @Override
+    public int capacity() {
+        return queue.remainingCapacity() + queue.size();
+    }
+
+    @Override
+    public synchronized List<InvocationTask> closeAndDrain() {
+        closed = true;
+        List<InvocationTask> drained = new ArrayList<>();
+        queue.drainTo(drained);
+        return drained;
+    }
+}
@@ -0,0 +1,210 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded multi-producer ring buffer in the style of JCTools' {@code MpscArrayQueue}.
+ *
+ * <p>Producers claim a slot with a CAS on {@code producerIndex} and publish the task with a
+ * release store, so {@link #offer} never takes a lock. The consumer side ({@link #poll},
+ * {@link #peek}, {@link #closeAndDrain}) is serialized on a private monitor, because more than
+ * one scheduler loop may work on the same function; producers never touch that monitor.</p>
+ *
+ * <p>Closing sets {@link #CLOSED} on the producer index, which makes every later claim fail.
+ * Slots claimed before that are drained, waiting briefly for any write still in progress.</p>
+ *
+ * <p>The indices sit on separate cache lines (see the padding superclasses) so producers
+ * bumping {@code producerIndex} do not invalidate the consumer's line and vice versa.</p>
+ */
+final class MpscRingInvocationTaskQueue extends MpscRingConsumerIndexPad implements InvocationTaskQueue {
+    private static final VarHandle BUFFER = MethodHandles.arrayElementVarHandle(InvocationTask[].class);
+
+    private final InvocationTask[] buffer;
+    private final int mask;
+    private final int capacity;
+    private final Object consumerLock = new Object();
+
+    MpscRingInvocationTaskQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+        this.buffer = new InvocationTask[length];
+        this.mask = length - 1;
+        this.capacity = capacity;
+        this.producerLimit = capacity;
+    }
+
+    @Override
+    public boolean offer(InvocationTask task) {
+        if (task == null) {
+            throw new NullPointerException("task");
+        }
+        long limit = producerLimit;
+        long index;
+        do {
+            index = producerIndex;
+            if ((index & CLOSED) != 0) {
+                return false;
+            }
+            if (index >= limit) {
+                // The cached limit is stale or the queue is full: re-read the consumer position.
+                limit = consumerIndex + capacity;
+                if (index >= limit) {
+                    return false;
+                }
+                producerLimit = limit;
+            }
+        } while (!casProducerIndex(index, index + 1));
+        BUFFER.setRelease(buffer, slot(index), task);
+        return true;
+    }
+
+    @Override
+    public InvocationTask poll() {
+        synchronized (consumerLock) {
+            long index = consumerIndex;
+            int slot = slot(index);
+            InvocationTask task = awaitElement(index, slot);
+            if (task == null) {
+                return null;
+            }
+            BUFFER.setOpaque(buffer, slot, null);
+            setConsumerIndex(index + 1);
+            return task;
+        }
+    }
+
+    @Override
+    public InvocationTask peek() {
+        synchronized (consumerLock) {
+            long index = consumerIndex;
+            return awaitElement(index, slot(index));
+        }
+    }
+
+    @Override
+    public int size() {
+        long after = consumerIndex;
+        while (true) {
+            long before = after;
+            long produced = producerIndex & ~CLOSED;
+            after = consumerIndex;
+            if (before == after) {
+                return (int) Math.max(0, Math.min(capacity, produced - after));
+            }
+        }
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+
+    @Override
+    public List<InvocationTask> closeAndDrain() {
+        long index;
+        do {
+            index = producerIndex;
+        } while ((index & CLOSED) == 0 && !casProducerIndex(index, index | CLOSED));
+        List<InvocationTask> drained = new ArrayList<>();
+        synchronized (consumerLock) {
+            InvocationTask task;
+            while ((task = poll()) != null) {
+                drained.add(task);
+            }
+        }
+        return drained;
+    }
+
+    private int slot(long index) {
+        return (int) index & mask;
+    }
+
+    /**
+     * Returns the task at {@code index}, or {@code null} if nothing has been claimed there.
+     * A claimed slot whose producer has not finished its store yet is awaited, since it is
+     * only a few instructions away from being published.
+     */
+    private InvocationTask awaitElement(long index, int slot) {
+        InvocationTask task = (InvocationTask) BUFFER.getAcquire(buffer, slot);
+        if (task != null) {
+            return task;
+        }
+        if (index == (producerIndex & ~CLOSED)) {
+            return null;
+        }
+        while ((task = (InvocationTask) BUFFER.getAcquire(buffer, slot)) == null) {
+            Thread.onSpinWait();
+        }
+        return task;
+    }
+}
+
+abstract class MpscRingHeadPad {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class MpscRingProducerIndex extends MpscRingHeadPad {
+    static final long CLOSED = Long.MIN_VALUE;
+    private static final VarHandle PRODUCER_INDEX;
+
+    static {
+        try {
+            PRODUCER_INDEX = MethodHandles.lookup()
+                    .findVarHandle(MpscRingProducerIndex.class, "producerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile long producerIndex;
+
+    final boolean casProducerIndex(long expected, long next) {
+        return PRODUCER_INDEX.compareAndSet(this, expected, next);
+    }
+}
+
+abstract class MpscRingProducerIndexPad extends MpscRingProducerIndex {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class MpscRingProducerLimit extends MpscRingProducerIndexPad {
+    /** Producer-side cache of {@code consumerIndex + capacity}, refreshed only when it looks full. */
+    volatile long producerLimit;
+}
+
+abstract class MpscRingProducerLimitPad extends MpscRingProducerLimit {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
+
+abstract class MpscRingConsumerIndex extends MpscRingProducerLimitPad {
+    private static final VarHandle CONSUMER_INDEX;
+
+    static {
+        try {
+            CONSUMER_INDEX = MethodHandles.lookup()
+                    .findVarHandle(MpscRingConsumerIndex.class, "consumerIndex", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile long consumerIndex;
+
+    final void setConsumerIndex(long next) {
+        CONSUMER_INDEX.setRelease(this, next);
+    }
+}
+
+abstract class MpscRingConsumerIndexPad extends MpscRingConsumerIndex {
+    long p30, p31, p32, p33, p34, p35, p36, p37;
+}
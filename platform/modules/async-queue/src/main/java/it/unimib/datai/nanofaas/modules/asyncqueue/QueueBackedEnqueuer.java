@@ -3,6 +3,8 @@ package it.unimib.datai.nanofaas.modules.asyncqueue;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationEnqueuer;
 
+import java.util.function.Consumer;
+
 public class QueueBackedEnqueuer implements InvocationEnqueuer {
     private final QueueManager queueManager;
 
@@ -34,4 +36,10 @@ public class QueueBackedEnqueuer implements InvocationEnqueuer {
     public void releaseDispatchSlot(String functionName) {
         queueManager.releaseSlot(functionName);
     }
+
+    @Override
+    public boolean addDispatchSlotListener(Consumer<String> listener) {
+        queueManager.addSlotReleaseListener(listener);
+        return true;
+    }
 }
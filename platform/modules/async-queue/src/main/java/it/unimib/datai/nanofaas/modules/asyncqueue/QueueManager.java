@@ -2,6 +2,7 @@ package it.unimib.datai.nanofaas.modules.asyncqueue;
 
 import it.unimib.datai.nanofaas.common.model.ConcurrencyControlMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter;
@@ -11,23 +12,42 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class QueueManager {
     private final Map<String, FunctionQueueState> queues = new ConcurrentHashMap<>();
     private final Map<String, List<Meter.Id>> meterIds = new ConcurrentHashMap<>();
     private final MeterRegistry meterRegistry;
     private final QueueConcurrencyControlMetrics concurrencyMetrics;
+    private final QueueStrategy queueStrategy;
+    private final ScalingSignals scalingSignals;
+    private final List<Consumer<String>> slotReleaseListeners = new CopyOnWriteArrayList<>();
     private WorkSignaler workSignaler;
 
     public QueueManager(MeterRegistry meterRegistry) {
+        this(meterRegistry, QueueStrategy.LOCKING);
+    }
+
+    public QueueManager(MeterRegistry meterRegistry, QueueStrategy queueStrategy) {
+        this(meterRegistry, queueStrategy, null);
+    }
+
+    public QueueManager(MeterRegistry meterRegistry, QueueStrategy queueStrategy, ScalingSignals scalingSignals) {
         this.meterRegistry = meterRegistry;
+        this.scalingSignals = scalingSignals == null ? ScalingSignals.noOp() : scalingSignals;
         this.concurrencyMetrics = new QueueConcurrencyControlMetrics(meterRegistry);
+        this.queueStrategy = queueStrategy;
     }
 
     public void setWorkSignaler(WorkSignaler workSignaler) {
         this.workSignaler = workSignaler;
     }
 
+    public void addSlotReleaseListener(Consumer<String> listener) {
+        slotReleaseListeners.add(listener);
+    }
+
     private void notifyWork(String functionName) {
         if (workSignaler != null) {
             workSignaler.signalWork(functionName);
@@ -40,7 +60,9 @@ public class QueueManager {
                 FunctionQueueState state = new FunctionQueueState(
                         name,
                         spec.queueSize(),
-                        spec.concurrency()
+                        spec.concurrency(),
+                        queueStrategy,
+                        scalingSignals
                 );
                 List<Meter.Id> ids = new ArrayList<>();
                 ids.add(Gauge.builder("function_queue_depth", state::queued)
@@ -140,6 +162,9 @@ public class QueueManager {
             if (state.queued() > 0) {
                 notifyWork(functionName);
             }
+            for (Consumer<String> listener : slotReleaseListeners) {
+                listener.accept(functionName);
+            }
         }
     }
 
@@ -0,0 +1,11 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+/**
+ * Storage used for each function's pending invocations.
+ */
+public enum QueueStrategy {
+    /** Bounded {@code ArrayBlockingQueue} guarded by a monitor. */
+    LOCKING,
+    /** Bounded lock-free multi-producer ring buffer; enqueue never blocks the request thread. */
+    MPSC_RING
+}
@@ -1,5 +1,7 @@
 package it.unimib.datai.nanofaas.modules.asyncqueue;
 
+import it.unimib.datai.nanofaas.common.model.BatchConfig;
+import it.unimib.datai.nanofaas.controlplane.scaling.FunctionActivator;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import it.unimib.datai.nanofaas.controlplane.scheduler.SchedulerDispatchSupport;
 import it.unimib.datai.nanofaas.controlplane.scheduler.SchedulerLifecycleSupport;
@@ -9,28 +11,58 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.SmartLifecycle;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public class Scheduler implements SmartLifecycle, WorkSignaler {
     private static final Logger log = LoggerFactory.getLogger(Scheduler.class);
     private static final String COMPONENT_NAME = "Scheduler";
     private static final int MAX_BATCH_PER_FUNCTION = 2;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
 
     private final QueueManager queueManager;
     private final InvocationService invocationService;
+    private final FunctionActivator activator;
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final Object lifecycleMonitor = new Object();
     private volatile ExecutorService executor;
+    private volatile ScheduledExecutorService lingerTimer;
 
-    private final BlockingQueue<String> activeFunctions = new LinkedBlockingQueue<>();
+    private final Worker[] workers;
     private final Set<String> enqueuedFunctions = ConcurrentHashMap.newKeySet();
+    private final Set<String> lingeringFunctions = ConcurrentHashMap.newKeySet();
+    private final Set<String> awaitingActivation = ConcurrentHashMap.newKeySet();
 
     public Scheduler(QueueManager queueManager,
                      InvocationService invocationService) {
+        this(queueManager, invocationService, Runtime.getRuntime().availableProcessors());
+    }
+
+    public Scheduler(QueueManager queueManager,
+                     InvocationService invocationService,
+                     int workerCount) {
+        this(queueManager, invocationService, workerCount, null);
+    }
+
+    public Scheduler(QueueManager queueManager,
+                     InvocationService invocationService,
+                     int workerCount,
+                     FunctionActivator activator) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("workerCount must be >= 1");
+        }
         this.queueManager = queueManager;
         this.invocationService = invocationService;
+        this.activator = activator == null ? FunctionActivator.alwaysActive() : activator;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker();
+        }
     }
 
     @PostConstruct
@@ -40,9 +72,26 @@ public class Scheduler implements SmartLifecycle, WorkSignaler {
 
     @Override
     public void signalWork(String functionName) {
-        if (enqueuedFunctions.add(functionName)) {
-            activeFunctions.offer(functionName);
+        if (!enqueuedFunctions.add(functionName)) {
+            return;
         }
+        Worker home = workers[homeIndex(functionName, workers.length)];
+        home.signals.offer(functionName);
+        home.wake();
+        if (!home.idle) {
+            // The home loop is busy with another function: let an idle loop steal this one.
+            for (Worker worker : workers) {
+                if (worker != home && worker.idle) {
+                    worker.wake();
+                    break;
+                }
+            }
+        }
+    }
+
+    static int homeIndex(String functionName, int workerCount) {
+        int h = functionName.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % workerCount;
     }
 
     @Override
@@ -51,14 +100,23 @@ public class Scheduler implements SmartLifecycle, WorkSignaler {
             if (!running.compareAndSet(false, true)) {
                 return;
             }
-            log.info("Scheduler starting");
-            ExecutorService newExecutor = SchedulerLifecycleSupport.newSingleThreadExecutor("nanofaas-scheduler");
+            log.info("Scheduler starting with {} worker loops", workers.length);
+            ExecutorService newExecutor = SchedulerLifecycleSupport.newFixedThreadExecutor("nanofaas-scheduler", workers.length);
             executor = newExecutor;
+            lingerTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "nanofaas-scheduler-linger");
+                t.setDaemon(true);
+                return t;
+            });
             try {
-                newExecutor.submit(this::loop);
+                for (int i = 0; i < workers.length; i++) {
+                    int index = i;
+                    newExecutor.submit(() -> loop(index));
+                }
             } catch (RuntimeException e) {
                 executor = null;
                 running.set(false);
+                stopLingerTimer();
                 SchedulerLifecycleSupport.shutdownExecutor(newExecutor, log, COMPONENT_NAME);
                 throw e;
             }
@@ -74,6 +132,10 @@ public class Scheduler implements SmartLifecycle, WorkSignaler {
             }
             executorToStop = executor;
             executor = null;
+            stopLingerTimer();
+        }
+        for (Worker worker : workers) {
+            worker.wake();
         }
         SchedulerLifecycleSupport.shutdownExecutor(executorToStop, log, COMPONENT_NAME);
     }
@@ -93,24 +155,63 @@ public class Scheduler implements SmartLifecycle, WorkSignaler {
         return true;
     }
 
-    private void loop() {
-        log.info("Scheduler loop started");
-        while (running.get()) {
+    private void loop(int index) {
+        Worker self = workers[index];
+        self.thread = Thread.currentThread();
+        log.info("Scheduler loop {} started", index);
+        while (running.get() && !Thread.currentThread().isInterrupted()) {
             try {
-                String functionName = activeFunctions.poll(500, TimeUnit.MILLISECONDS);
+                String functionName = self.signals.pollFirst();
+                if (functionName == null) {
+                    functionName = steal(index);
+                }
                 if (functionName == null) {
+                    idle(self, index);
                     continue;
                 }
                 enqueuedFunctions.remove(functionName);
                 processFunction(functionName);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
             } catch (Exception e) {
                 log.error("Error in scheduler loop", e);
             }
         }
-        log.info("Scheduler loop exited");
+        self.thread = null;
+        log.info("Scheduler loop {} exited", index);
+    }
+
+    /**
+     * Takes a signal from another loop, newest first, so the thief and the owner (which drains
+     * its own deque oldest first) work from opposite ends.
+     */
+    private String steal(int index) {
+        for (int i = 1; i < workers.length; i++) {
+            String functionName = workers[(index + i) % workers.length].signals.pollLast();
+            if (functionName != null) {
+                return functionName;
+            }
+        }
+        return null;
+    }
+
+    private void idle(Worker self, int index) {
+        self.idle = true;
+        try {
+            // Re-check after publishing idle so a signal racing with this transition is not missed.
+            if (self.signals.isEmpty() && !hasStealableWork(index) && running.get()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        } finally {
+            self.idle = false;
+        }
+    }
+
+    private boolean hasStealableWork(int index) {
+        for (int i = 1; i < workers.length; i++) {
+            if (!workers[(index + i) % workers.length].signals.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void processFunction(String functionName) {
@@ -119,6 +220,16 @@ public class Scheduler implements SmartLifecycle, WorkSignaler {
             return;
         }
 
+        InvocationTask head = state.peek();
+        if (head != null && !isActive(functionName)) {
+            return;
+        }
+        BatchConfig batchConfig = head == null || head.functionSpec() == null ? null : head.functionSpec().batchConfig();
+        if (batchConfig != null && batchConfig.enabled()) {
+            processBatch(functionName, state, head, batchConfig);
+            return;
+        }
+
         int dispatched = 0;
         while (running.get() && dispatched < MAX_BATCH_PER_FUNCTION && state.tryAcquireSlot()) {
             InvocationTask task = state.poll();
@@ -140,4 +251,100 @@ public class Scheduler implements SmartLifecycle, WorkSignaler {
         }
     }
 
+    /**
+     * Sends up to {@code maxBatchSize} queued tasks as one batch. A partial batch waits until the
+     * oldest task has lingered for {@code maxLingerMs}; new arrivals re-signal the function, so a
+     * batch that fills up in the meantime goes out immediately.
+     */
+    private void processBatch(String functionName, FunctionQueueState state, InvocationTask head, BatchConfig config) {
+        int maxBatchSize = config.maxBatchSize();
+        if (state.queued() < maxBatchSize && head.enqueuedAt() != null) {
+            long lingerMs = head.enqueuedAt().toEpochMilli() + config.maxLingerMs() - Instant.now().toEpochMilli();
+            if (lingerMs > 0) {
+                scheduleLingerExpiry(functionName, lingerMs);
+                return;
+            }
+        }
+
+        List<InvocationTask> batch = new ArrayList<>(maxBatchSize);
+        while (running.get() && batch.size() < maxBatchSize && state.tryAcquireSlot()) {
+            InvocationTask task = state.poll();
+            if (task == null) {
+                state.releaseSlot();
+                break;
+            }
+            batch.add(task);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        SchedulerDispatchSupport.dispatchWithFailureCleanup(
+                batch.get(0),
+                () -> invocationService.dispatchBatch(batch),
+                () -> batch.forEach(task -> state.releaseSlot()),
+                log
+        );
+        if (state.queued() > 0) {
+            signalWork(functionName);
+        }
+    }
+
+    /**
+     * A function scaled to zero keeps its tasks queued while it activates; the function is
+     * signalled again once, when activation completes.
+     */
+    private boolean isActive(String functionName) {
+        CompletableFuture<Void> activation = activator.activate(functionName);
+        if (activation.isDone()) {
+            return true;
+        }
+        if (awaitingActivation.add(functionName)) {
+            activation.whenComplete((ignored, error) -> {
+                awaitingActivation.remove(functionName);
+                signalWork(functionName);
+            });
+        }
+        return false;
+    }
+
+    private void scheduleLingerExpiry(String functionName, long delayMs) {
+        ScheduledExecutorService timer = lingerTimer;
+        if (timer == null || !lingeringFunctions.add(functionName)) {
+            return;
+        }
+        try {
+            timer.schedule(() -> {
+                lingeringFunctions.remove(functionName);
+                signalWork(functionName);
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            lingeringFunctions.remove(functionName);
+        }
+    }
+
+    private void stopLingerTimer() {
+        ScheduledExecutorService timer = lingerTimer;
+        lingerTimer = null;
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        lingeringFunctions.clear();
+    }
+
+    /**
+     * One scheduler loop: functions hash to a home loop, whose deque holds their pending signals.
+     */
+    private static final class Worker {
+        private final ConcurrentLinkedDeque<String> signals = new ConcurrentLinkedDeque<>();
+        private volatile boolean idle;
+        private volatile Thread thread;
+
+        private void wake() {
+            Thread t = thread;
+            if (t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
 }
@@ -0,0 +1,317 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Append-only log of serialized tasks, stored in memory-mapped {@link TaskLogSegment}s.
+ *
+ * <p>{@link #append} returns a position ({@code segment id << 32 | offset}) that the caller
+ * later passes to {@link #markDone} once the task is terminal; only the segments, not the
+ * payloads, are kept on heap. Opening a directory recovers every record not yet marked done
+ * (see {@link #drainRecovered()}); those segments are sealed and new appends go to a fresh one.</p>
+ *
+ * <p>Durability follows {@link DurableQueueProperties.Fsync}. With {@code GROUP}, appenders
+ * block until the flusher thread has forced their write; appenders arriving while a force is
+ * running share the next one. Callers that must not block use {@link #appendDeferred} instead,
+ * which never waits for a force, whatever the policy, and reports durability through a callback.
+ * Done marks are never forced on their own: the OS writes them back, and {@link #close()} forces
+ * them. After a power loss a finished task can therefore be recovered once more, which async
+ * invocations already tolerate as a retry.</p>
+ */
+final class SegmentTaskLog implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(SegmentTaskLog.class);
+    private static final String SEGMENT_PREFIX = "tasks-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final DurableQueueProperties.Fsync fsync;
+    private final long flushIntervalMillis;
+    private final ConcurrentMap<Long, TaskLogSegment> segments = new ConcurrentHashMap<>();
+    private final Object appendLock = new Object();
+    private final Object flushMonitor = new Object();
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    // Guarded by appendLock
+    private TaskLogSegment active;
+    private long nextSegmentId;
+    private List<Recovered> recovered = new ArrayList<>();
+
+    // Guarded by flushMonitor
+    private long appended;
+    private long flushed;
+    private final Set<TaskLogSegment> unflushed = new LinkedHashSet<>();
+    private final ArrayDeque<Deferred> deferred = new ArrayDeque<>();
+
+    SegmentTaskLog(DurableQueueProperties properties) throws IOException {
+        this.directory = properties.directory();
+        this.segmentSize = (int) properties.segmentSize().toBytes();
+        this.fsync = properties.fsync();
+        this.flushIntervalMillis = Math.max(1, properties.flushInterval().toMillis());
+        Files.createDirectories(directory);
+        recover();
+        // Also started for ALWAYS, which forces inline, to serve appendDeferred.
+        this.flusher = new Thread(this::flushLoop, "async-queue-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Returns the records that were live when the log was opened, in log order, and forgets them.
+     */
+    List<Recovered> drainRecovered() {
+        synchronized (appendLock) {
+            List<Recovered> drained = recovered;
+            recovered = new ArrayList<>();
+            return drained;
+        }
+    }
+
+    /**
+     * Appends a record and returns its position once it is as durable as the fsync policy asks.
+     */
+    long append(byte[] payload) throws IOException {
+        return append(payload, null);
+    }
+
+    /**
+     * Appends a record without waiting for any force and returns its position. {@code onDurable}
+     * runs on the flusher thread once the record is forced: right away with {@code ALWAYS} and
+     * {@code GROUP}, at the next periodic flush with {@code PERIODIC}.
+     */
+    long appendDeferred(byte[] payload, Runnable onDurable) throws IOException {
+        return append(payload, onDurable);
+    }
+
+    private long append(byte[] payload, Runnable onDurable) throws IOException {
+        int checksum = TaskLogSegment.checksum(payload);
+        long position;
+        long sequence;
+        TaskLogSegment segment;
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Task log is closed");
+            }
+            segment = active;
+            int offset = segment == null ? -1 : segment.append(payload, checksum);
+            if (offset < 0) {
+                segment = roll(payload.length);
+                offset = segment.append(payload, checksum);
+            }
+            position = segment.id() << 32 | offset;
+            if (fsync == DurableQueueProperties.Fsync.ALWAYS && onDurable == null) {
+                segment.force();
+                return position;
+            }
+            synchronized (flushMonitor) {
+                sequence = ++appended;
+                unflushed.add(segment);
+                if (onDurable != null) {
+                    deferred.addLast(new Deferred(sequence, onDurable));
+                }
+                if (fsync != DurableQueueProperties.Fsync.PERIODIC) {
+                    flushMonitor.notifyAll();
+                }
+            }
+        }
+        if (fsync == DurableQueueProperties.Fsync.GROUP && onDurable == null) {
+            awaitFlushed(sequence);
+        }
+        return position;
+    }
+
+    /**
+     * Marks the record at {@code position} done. Each position must be marked at most once.
+     */
+    void markDone(long position) {
+        TaskLogSegment segment = segments.get(position >>> 32);
+        if (segment == null) {
+            return;
+        }
+        segment.markDone((int) position);
+        if (segment.isDeleted()) {
+            segments.remove(segment.id(), segment);
+        }
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long liveRecords() {
+        long live = 0;
+        for (TaskLogSegment segment : segments.values()) {
+            live += segment.liveRecords();
+        }
+        return live;
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        flusher.interrupt();
+        try {
+            flusher.join(flushIntervalMillis * 10);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        segments.values().forEach(TaskLogSegment::force);
+        List<Deferred> durable;
+        synchronized (flushMonitor) {
+            flushed = appended;
+            unflushed.clear();
+            durable = new ArrayList<>(deferred);
+            deferred.clear();
+            flushMonitor.notifyAll();
+        }
+        durable.forEach(Deferred::run);
+    }
+
+    private void recover() throws IOException {
+        Map<Long, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    files.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), path);
+                } catch (NumberFormatException ex) {
+                    log.warn("Ignoring unexpected file {} in task log directory", path);
+                }
+            }
+        }
+        long lastId = 0;
+        for (Map.Entry<Long, Path> file : files.entrySet()) {
+            long id = file.getKey();
+            lastId = Math.max(lastId, id);
+            TaskLogSegment segment = TaskLogSegment.open(id, file.getValue(),
+                    (offset, payload) -> recovered.add(new Recovered(id << 32 | offset, payload)));
+            if (segment == null) {
+                log.warn("Ignoring {}: not a task log segment", file.getValue());
+                continue;
+            }
+            segment.seal();
+            if (!segment.isDeleted()) {
+                segments.put(id, segment);
+            }
+        }
+        nextSegmentId = lastId + 1;
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} unfinished tasks from {} task log segments in {}",
+                    recovered.size(), segments.size(), directory);
+        }
+    }
+
+    // Called with appendLock held.
+    private TaskLogSegment roll(int payloadLength) throws IOException {
+        int capacity = Math.max(segmentSize, TaskLogSegment.HEADER_BYTES + TaskLogSegment.recordBytes(payloadLength));
+        long id = nextSegmentId++;
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%020d", id) + SEGMENT_SUFFIX);
+        TaskLogSegment next = TaskLogSegment.create(id, path, capacity);
+        segments.put(id, next);
+        TaskLogSegment previous = active;
+        active = next;
+        if (previous != null) {
+            // Its pending writes are still in 'unflushed', so the flusher forces them before
+            // anyone waiting on them is released.
+            previous.seal();
+            if (previous.isDeleted()) {
+                segments.remove(previous.id(), previous);
+            }
+        }
+        return next;
+    }
+
+    private void awaitFlushed(long sequence) {
+        boolean interrupted = false;
+        synchronized (flushMonitor) {
+            while (flushed < sequence) {
+                try {
+                    flushMonitor.wait();
+                } catch (InterruptedException ex) {
+                    // The record is written; only its durability is still pending.
+                    interrupted = true;
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            List<TaskLogSegment> toForce;
+            synchronized (flushMonitor) {
+                try {
+                    if (fsync == DurableQueueProperties.Fsync.PERIODIC) {
+                        flushMonitor.wait(flushIntervalMillis);
+                    } else if (appended == flushed) {
+                        flushMonitor.wait(flushIntervalMillis);
+                    }
+                } catch (InterruptedException ex) {
+                    if (closed) {
+                        return;
+                    }
+                }
+                target = appended;
+                toForce = new ArrayList<>(unflushed);
+                unflushed.clear();
+            }
+            toForce.forEach(TaskLogSegment::force);
+            List<Deferred> durable = null;
+            synchronized (flushMonitor) {
+                flushed = Math.max(flushed, target);
+                while (!deferred.isEmpty() && deferred.peekFirst().sequence() <= target) {
+                    if (durable == null) {
+                        durable = new ArrayList<>();
+                    }
+                    durable.add(deferred.pollFirst());
+                }
+                flushMonitor.notifyAll();
+            }
+            if (durable != null) {
+                durable.forEach(Deferred::run);
+            }
+            if (closed) {
+                return;
+            }
+        }
+    }
+
+    record Recovered(long position, byte[] payload) {
+    }
+
+    private record Deferred(long sequence, Runnable onDurable) {
+        void run() {
+            try {
+                onDurable.run();
+            } catch (RuntimeException ex) {
+                log.warn("Task log durability callback failed", ex);
+            }
+        }
+    }
+}
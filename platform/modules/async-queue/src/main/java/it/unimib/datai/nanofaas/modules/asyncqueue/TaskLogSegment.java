@@ -0,0 +1,200 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32C;
+
+/**
+ * One memory-mapped file of a {@link SegmentTaskLog}.
+ *
+ * <p>The file starts with an 8-byte header (magic, version) followed by 4-byte aligned records
+ * {@code [int length][int crc32c][byte state][3 bytes padding][payload]}. The length is written
+ * last, so a zero length marks the end of the written region, and a record whose checksum does
+ * not match is the torn tail of a crash. The state byte is the only part rewritten in place,
+ * when the record's task turns terminal.</p>
+ *
+ * <p>Appends are serialized by the owning log; {@link #markDone} may run concurrently with them
+ * since it only touches the state byte of an already written record. The segment deletes its
+ * file once it has been sealed and every record in it is done. The mapping itself is released
+ * when the buffer is garbage collected.</p>
+ */
+final class TaskLogSegment {
+    private static final Logger log = LoggerFactory.getLogger(TaskLogSegment.class);
+
+    static final int MAGIC = 0x4E465131; // "NFQ1"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 12;
+    static final byte LIVE = 1;
+    static final byte DONE = 2;
+
+    private static final int CRC_OFFSET = 4;
+    private static final int STATE_OFFSET = 8;
+
+    private final long id;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicBoolean deleted = new AtomicBoolean();
+    private volatile boolean sealed;
+    // Guarded by the owning log's append lock
+    private int writePosition;
+
+    private TaskLogSegment(long id, Path path, MappedByteBuffer buffer, int capacity, int writePosition) {
+        this.id = id;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.writePosition = writePosition;
+    }
+
+    static TaskLogSegment create(long id, Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            return new TaskLogSegment(id, path, buffer, capacity, HEADER_BYTES);
+        }
+    }
+
+    /**
+     * Maps an existing segment and hands every live record to {@code liveRecords}. Returns
+     * {@code null}, leaving the file alone, when it is not a segment of this format.
+     */
+    static TaskLogSegment open(long id, Path path, RecordVisitor liveRecords) throws IOException {
+        MappedByteBuffer buffer;
+        int capacity;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            capacity = (int) size;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+
+        TaskLogSegment segment = new TaskLogSegment(id, path, buffer, capacity, HEADER_BYTES);
+        int position = HEADER_BYTES;
+        while (position + RECORD_HEADER_BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_BYTES, payload);
+            if (buffer.getInt(position + CRC_OFFSET) != checksum(payload)) {
+                log.warn("Ignoring torn record at {} of task log segment {}", position, path);
+                break;
+            }
+            if (buffer.get(position + STATE_OFFSET) == LIVE) {
+                segment.live.incrementAndGet();
+                liveRecords.accept(position, payload);
+            }
+            position += recordBytes(length);
+        }
+        segment.writePosition = position;
+        segment.sealed = true;
+        return segment;
+    }
+
+    static int recordBytes(int payloadLength) {
+        return (RECORD_HEADER_BYTES + payloadLength + 3) & ~3;
+    }
+
+    static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    long id() {
+        return id;
+    }
+
+    /**
+     * Writes a live record and returns its offset, or -1 when it does not fit.
+     */
+    int append(byte[] payload, int checksum) {
+        int offset = writePosition;
+        int length = recordBytes(payload.length);
+        if (length > capacity - offset) {
+            return -1;
+        }
+        buffer.put(offset + RECORD_HEADER_BYTES, payload);
+        buffer.putInt(offset + CRC_OFFSET, checksum);
+        buffer.put(offset + STATE_OFFSET, LIVE);
+        buffer.putInt(offset, payload.length);
+        writePosition = offset + length;
+        live.incrementAndGet();
+        return offset;
+    }
+
+    /**
+     * Marks the record at {@code offset} done; each record must be marked at most once.
+     */
+    void markDone(int offset) {
+        buffer.put(offset + STATE_OFFSET, DONE);
+        if (live.decrementAndGet() == 0 && sealed) {
+            delete();
+        }
+    }
+
+    void seal() {
+        sealed = true;
+        if (live.get() == 0) {
+            delete();
+        }
+    }
+
+    void force() {
+        if (deleted.get()) {
+            return;
+        }
+        try {
+            buffer.force();
+        } catch (UncheckedIOException ex) {
+            log.warn("Failed to force task log segment {}: {}", path, ex.getMessage());
+        }
+    }
+
+    int liveRecords() {
+        return live.get();
+    }
+
+    boolean isDeleted() {
+        return deleted.get();
+    }
+
+    private void delete() {
+        if (!deleted.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.warn("Failed to delete task log segment {}: {}", path, ex.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordVisitor {
+        void accept(int offset, byte[] payload);
+    }
+}
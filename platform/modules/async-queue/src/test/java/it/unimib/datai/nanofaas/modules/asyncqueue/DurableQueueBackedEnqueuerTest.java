@@ -0,0 +1,242 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionPayloadStore;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionState;
+import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.execution.IdempotencyStore;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DurableQueueBackedEnqueuerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final List<ExecutionStore> executionStores = new ArrayList<>();
+    private final List<DurableQueueBackedEnqueuer> enqueuers = new ArrayList<>();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        enqueuers.forEach(DurableQueueBackedEnqueuer::close);
+        executionStores.forEach(ExecutionStore::shutdown);
+    }
+
+    @Test
+    void restart_restoresUnfinishedExecutionsAndRequeuesThemWhenTheFunctionIsRegistered() throws IOException {
+        FunctionSpec spec = spec("echo");
+        Node before = new Node();
+        before.queueManager.getOrCreate(spec);
+        InvocationTask queued = before.submit(task("exec-queued", spec, "idem-1", 1));
+        InvocationTask finished = before.submit(task("exec-finished", spec, null, 1));
+        before.complete(finished);
+        before.enqueuer.close();
+
+        Node after = new Node();
+
+        ExecutionRecord restored = after.executionStore.getOrNull("exec-queued");
+        assertThat(restored).isNotNull();
+        assertThat(restored.state()).isEqualTo(ExecutionState.QUEUED);
+        assertThat(restored.task().request().input()).isEqualTo(queued.request().input());
+        assertThat(after.executionStore.getOrNull("exec-finished")).isNull();
+        assertThat(after.idempotencyStore.getExecutionId("echo", "idem-1")).hasValue("exec-queued");
+        assertThat(after.enqueuer.recoveredPending("echo")).isEqualTo(1);
+
+        after.enqueuer.onRegister(spec);
+
+        FunctionQueueState state = after.queueManager.get("echo");
+        assertThat(state.queued()).isEqualTo(1);
+        assertThat(state.poll().executionId()).isEqualTo("exec-queued");
+        assertThat(after.enqueuer.recoveredPending("echo")).isZero();
+    }
+
+    @Test
+    void completion_marksTheRecordDoneSoTheSegmentCanBeCompacted() throws IOException {
+        FunctionSpec spec = spec("echo");
+        Node node = new Node();
+        node.queueManager.getOrCreate(spec);
+        InvocationTask task = node.submit(task("exec-1", spec, null, 1));
+        assertThat(node.enqueuer.taskLog().liveRecords()).isEqualTo(1);
+
+        node.complete(task);
+
+        assertThat(node.enqueuer.taskLog().liveRecords()).isZero();
+    }
+
+    @Test
+    void retry_supersedesThePreviousAttemptInTheLog() throws IOException {
+        FunctionSpec spec = spec("echo");
+        Node before = new Node();
+        before.queueManager.getOrCreate(spec);
+        InvocationTask first = before.submit(task("exec-1", spec, null, 1));
+        before.queueManager.get("echo").poll();
+        InvocationTask retry = task("exec-1", spec, null, 2);
+        assertThat(before.enqueuer.enqueue(retry)).isTrue();
+        assertThat(before.enqueuer.taskLog().liveRecords()).isEqualTo(1);
+        before.enqueuer.close();
+
+        Node after = new Node();
+
+        assertThat(after.executionStore.getOrNull(first.executionId()).task().attempt()).isEqualTo(2);
+    }
+
+    @Test
+    void recoveredExecutionEvictedBeforeRegistration_isCountedAndDroppedFromTheLog() throws IOException {
+        FunctionSpec spec = spec("echo");
+        Node before = new Node();
+        before.queueManager.getOrCreate(spec);
+        before.submit(task("exec-swept", spec, null, 1));
+        before.submit(task("exec-late", spec, null, 1));
+        before.enqueuer.close();
+
+        Node after = new Node();
+        after.executionStore.remove("exec-swept");
+        after.enqueuer.releaseVanished();
+
+        assertThat(after.enqueuer.recoveredDropped()).isEqualTo(1);
+        assertThat(after.enqueuer.taskLog().liveRecords()).isEqualTo(1);
+
+        after.executionStore.remove("exec-late");
+        after.enqueuer.onRegister(spec);
+
+        assertThat(after.enqueuer.recoveredDropped()).isEqualTo(2);
+        assertThat(after.queueManager.get("echo").queued()).isZero();
+    }
+
+    @Test
+    void restart_requeuesRecoveredTasksWithTheSpecRegisteredAfterTheRestart() throws IOException {
+        FunctionSpec before = spec("echo", "http://127.0.0.1:41001/invoke");
+        Node first = new Node();
+        first.queueManager.getOrCreate(before);
+        first.submit(task("exec-1", before, null, 1));
+        first.enqueuer.close();
+
+        Node second = new Node();
+        FunctionSpec after = spec("echo", "http://127.0.0.1:42002/invoke");
+        second.enqueuer.onRegister(after);
+
+        InvocationTask requeued = second.queueManager.get("echo").poll();
+        assertThat(requeued.executionId()).isEqualTo("exec-1");
+        assertThat(requeued.attempt()).isEqualTo(1);
+        assertThat(requeued.functionSpec().endpointUrl()).isEqualTo("http://127.0.0.1:42002/invoke");
+        assertThat(second.executionStore.getOrNull("exec-1").task().functionSpec().endpointUrl())
+                .isEqualTo("http://127.0.0.1:42002/invoke");
+    }
+
+    @Test
+    void retry_onAnEventLoopThreadDoesNotWaitForTheForce() throws IOException {
+        FunctionSpec spec = spec("echo");
+        // PERIODIC with a long interval: nothing is forced before close().
+        Node before = new Node(DurableQueueProperties.Fsync.PERIODIC, Duration.ofHours(1));
+        before.queueManager.getOrCreate(spec);
+        InvocationTask first = before.submit(task("exec-1", spec, null, 1));
+        before.queueManager.get("echo").poll();
+        InvocationTask retry = task("exec-1", spec, null, 2);
+
+        Boolean enqueued = Mono.fromCallable(() -> before.enqueuer.enqueue(retry))
+                .subscribeOn(Schedulers.parallel())
+                .block(Duration.ofSeconds(2));
+
+        assertThat(enqueued).isTrue();
+        // The first attempt stays live until the retry is durable.
+        assertThat(before.enqueuer.taskLog().liveRecords()).isEqualTo(2);
+        before.enqueuer.close();
+        assertThat(before.enqueuer.taskLog().liveRecords()).isEqualTo(1);
+
+        Node after = new Node();
+
+        assertThat(after.executionStore.getOrNull(first.executionId()).task().attempt()).isEqualTo(2);
+    }
+
+    @Test
+    void enqueue_rejectedByTheQueueIsNotLeftInTheLog() throws IOException {
+        Node node = new Node();
+
+        assertThat(node.enqueuer.enqueue(task("exec-1", spec("unregistered"), null, 1))).isFalse();
+
+        assertThat(node.enqueuer.taskLog().liveRecords()).isZero();
+    }
+
+    @Test
+    void releaseVanished_marksDoneExecutionsTheStoreNoLongerHolds() throws IOException {
+        FunctionSpec spec = spec("echo");
+        Node node = new Node();
+        node.queueManager.getOrCreate(spec);
+        node.submit(task("exec-1", spec, null, 1));
+        node.executionStore.remove("exec-1");
+
+        node.enqueuer.releaseVanished();
+
+        assertThat(node.enqueuer.taskLog().liveRecords()).isZero();
+    }
+
+    private static FunctionSpec spec(String name) {
+        return spec(name, null);
+    }
+
+    private static FunctionSpec spec(String name, String endpointUrl) {
+        return new FunctionSpec(name, "image", null, Map.of(), null, 1000, 4, 10, 3, endpointUrl,
+                ExecutionMode.DEPLOYMENT, null, null, null);
+    }
+
+    private static InvocationTask task(String executionId, FunctionSpec spec, String idempotencyKey, int attempt) {
+        return new InvocationTask(executionId, spec.name(), spec,
+                new InvocationRequest(Map.of("message", "hi " + executionId), Map.of("k", "v")),
+                idempotencyKey, "trace-" + executionId, Instant.now(), attempt);
+    }
+
+    /** One control-plane incarnation sharing the log directory. */
+    private final class Node {
+        final ExecutionStore executionStore = new ExecutionStore();
+        final IdempotencyStore idempotencyStore = new IdempotencyStore();
+        final QueueManager queueManager = new QueueManager(new SimpleMeterRegistry());
+        final DurableQueueBackedEnqueuer enqueuer;
+
+        Node() throws IOException {
+            this(DurableQueueProperties.Fsync.GROUP, Duration.ofMillis(10));
+        }
+
+        Node(DurableQueueProperties.Fsync fsync, Duration flushInterval) throws IOException {
+            executionStores.add(executionStore);
+            enqueuer = new DurableQueueBackedEnqueuer(queueManager,
+                    new DurableQueueProperties(true, directory, DataSize.ofKilobytes(64), fsync, flushInterval),
+                    objectMapper, executionStore, idempotencyStore, new ExecutionPayloadStore(), new SimpleMeterRegistry());
+            enqueuers.add(enqueuer);
+        }
+
+        InvocationTask submit(InvocationTask task) {
+            executionStore.put(new ExecutionRecord(task.executionId(), task));
+            assertThat(enqueuer.enqueue(task)).isTrue();
+            return task;
+        }
+
+        void complete(InvocationTask task) {
+            ExecutionRecord record = executionStore.getOrNull(task.executionId());
+            InvocationResult result = InvocationResult.success("done");
+            record.markSuccess(result.output());
+            record.completion().complete(result);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.modules.asyncqueue;
 
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import org.junit.jupiter.api.Test;
 
@@ -160,6 +161,40 @@ class FunctionQueueStateTest {
         assertThat(state.effectiveConcurrency()).isEqualTo(3);
     }
 
+    @Test
+    void loadChanges_areReportedToScalingSignals() {
+        List<String> reports = new ArrayList<>();
+        ScalingSignals signals = new ScalingSignals() {
+            @Override
+            public void queueDepthChanged(String functionName, int queueDepth) {
+                reports.add(functionName + " depth " + queueDepth);
+            }
+
+            @Override
+            public void inFlightChanged(String functionName, int inFlight) {
+                reports.add(functionName + " inFlight " + inFlight);
+            }
+
+            @Override
+            public void backlogWaiting(String functionName) {
+                reports.add(functionName + " backlog");
+            }
+        };
+        FunctionQueueState state = new FunctionQueueState("fn", 10, 1, QueueStrategy.LOCKING, signals);
+
+        state.offer(createTask("e1"));
+        state.offer(createTask("e2"));
+        state.tryAcquireSlot();
+        state.tryAcquireSlot();
+        state.poll();
+        state.releaseSlot();
+        state.releaseSlot();
+
+        // The refused acquire and the release below zero change nothing and are not reported.
+        assertThat(reports).containsExactly(
+                "fn depth 1", "fn depth 2", "fn inFlight 1", "fn depth 1", "fn inFlight 0");
+    }
+
     private InvocationTask createTask(String executionId) {
         return new InvocationTask(
                 executionId,
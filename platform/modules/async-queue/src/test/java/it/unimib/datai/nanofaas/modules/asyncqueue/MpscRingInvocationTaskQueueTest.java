@@ -0,0 +1,147 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingInvocationTaskQueueTest {
+
+    @Test
+    void offerAndPoll_areFifoAndBoundedByExactCapacity() {
+        MpscRingInvocationTaskQueue queue = new MpscRingInvocationTaskQueue(3);
+        InvocationTask t1 = task("t-1");
+        InvocationTask t2 = task("t-2");
+        InvocationTask t3 = task("t-3");
+
+        assertThat(queue.offer(t1)).isTrue();
+        assertThat(queue.offer(t2)).isTrue();
+        assertThat(queue.offer(t3)).isTrue();
+        assertThat(queue.offer(task("t-4"))).isFalse();
+        assertThat(queue.size()).isEqualTo(3);
+        assertThat(queue.capacity()).isEqualTo(3);
+
+        assertThat(queue.peek()).isSameAs(t1);
+        assertThat(queue.poll()).isSameAs(t1);
+        assertThat(queue.poll()).isSameAs(t2);
+        assertThat(queue.poll()).isSameAs(t3);
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void offer_wrapsAroundTheRing() {
+        MpscRingInvocationTaskQueue queue = new MpscRingInvocationTaskQueue(2);
+
+        for (int i = 0; i < 10; i++) {
+            InvocationTask first = task("a-" + i);
+            InvocationTask second = task("b-" + i);
+            assertThat(queue.offer(first)).isTrue();
+            assertThat(queue.offer(second)).isTrue();
+            assertThat(queue.offer(task("c-" + i))).isFalse();
+            assertThat(queue.poll()).isSameAs(first);
+            assertThat(queue.poll()).isSameAs(second);
+        }
+    }
+
+    @Test
+    void closeAndDrain_returnsQueuedTasksAndRejectsLaterOffers() {
+        MpscRingInvocationTaskQueue queue = new MpscRingInvocationTaskQueue(4);
+        InvocationTask t1 = task("t-1");
+        InvocationTask t2 = task("t-2");
+        queue.offer(t1);
+        queue.offer(t2);
+
+        assertThat(queue.closeAndDrain()).containsExactly(t1, t2);
+        assertThat(queue.offer(task("t-3"))).isFalse();
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.closeAndDrain()).isEmpty();
+    }
+
+    @Test
+    void concurrentProducersAndClose_neverLoseAcceptedTasks() throws Exception {
+        MpscRingInvocationTaskQueue queue = new MpscRingInvocationTaskQueue(64);
+        int producers = 8;
+        int perProducer = 5_000;
+        Set<String> accepted = ConcurrentHashMap.newKeySet();
+        AtomicInteger producersDone = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        String id = producer + "-" + i;
+                        if (queue.offer(task(id))) {
+                            accepted.add(id);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    producersDone.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        List<String> consumed = new ArrayList<>();
+        start.countDown();
+        while (producersDone.get() < producers / 2) {
+            InvocationTask task = queue.poll();
+            if (task != null) {
+                consumed.add(task.executionId());
+            }
+        }
+        queue.closeAndDrain().forEach(task -> consumed.add(task.executionId()));
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(queue.poll()).isNull();
+        assertThat(consumed).doesNotHaveDuplicates();
+        assertThat(consumed).containsExactlyInAnyOrderElementsOf(accepted);
+    }
+
+    @Test
+    void functionQueueState_usesSelectedStrategy() {
+        FunctionQueueState state = new FunctionQueueState("fn", 2, 1, QueueStrategy.MPSC_RING);
+        InvocationTask t1 = task("t-1");
+
+        assertThat(state.offer(t1)).isTrue();
+        assertThat(state.offer(task("t-2"))).isTrue();
+        assertThat(state.offer(task("t-3"))).isFalse();
+        assertThat(state.queueSize()).isEqualTo(2);
+        assertThat(state.queued()).isEqualTo(2);
+        assertThat(state.poll()).isSameAs(t1);
+        assertThat(state.closeAndDrainQueued()).hasSize(1);
+        assertThat(state.offer(task("t-4"))).isFalse();
+    }
+
+    private static InvocationTask task(String executionId) {
+        return new InvocationTask(
+                executionId,
+                "fn",
+                null,
+                new InvocationRequest("payload", Map.of()),
+                null,
+                null,
+                Instant.now(),
+                1
+        );
+    }
+}
@@ -226,4 +226,35 @@ class QueueManagerTest {
         assertThat(state.offer(task)).isFalse();
         assertThat(state.queued()).isZero();
     }
+
+    @Test
+    void releaseSlot_notifiesSlotReleaseListeners() {
+        QueueManager manager = new QueueManager(new SimpleMeterRegistry());
+        FunctionSpec spec = new FunctionSpec(
+                "echo",
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                1,
+                10,
+                3,
+                null,
+                ExecutionMode.DEPLOYMENT,
+                null,
+                null,
+                null
+        );
+        manager.getOrCreate(spec);
+        List<String> released = new java.util.concurrent.CopyOnWriteArrayList<>();
+        manager.addSlotReleaseListener(released::add);
+        assertTrue(manager.tryAcquireSlot("echo"));
+
+        manager.releaseSlot("echo");
+        manager.releaseSlot("missing");
+
+        assertThat(released).containsExactly("echo");
+        assertTrue(manager.hasAvailableSlot("echo"));
+    }
 }
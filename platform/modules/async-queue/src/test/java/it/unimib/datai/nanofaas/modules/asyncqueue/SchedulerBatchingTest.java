@@ -0,0 +1,141 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.BatchConfig;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import it.unimib.datai.nanofaas.controlplane.service.InvocationService;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SchedulerBatchingTest {
+
+    private QueueManager queueManager;
+    private InvocationService invocationService;
+    private Scheduler scheduler;
+    private final List<List<InvocationTask>> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        queueManager = new QueueManager(new SimpleMeterRegistry());
+        invocationService = mock(InvocationService.class);
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.getArgument(0)));
+            return null;
+        }).when(invocationService).dispatchBatch(any());
+        scheduler = new Scheduler(queueManager, invocationService);
+        scheduler.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void fullBatch_isDispatchedAsSingleRequest() {
+        FunctionSpec spec = functionSpec("batched", 10, new BatchConfig(3, 10_000));
+        queueManager.getOrCreate(spec);
+        InvocationTask t1 = task("b-1", spec);
+        InvocationTask t2 = task("b-2", spec);
+        InvocationTask t3 = task("b-3", spec);
+        queueManager.enqueue(t1);
+        queueManager.enqueue(t2);
+        queueManager.enqueue(t3);
+
+        scheduler.start();
+
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(batches).containsExactly(List.of(t1, t2, t3)));
+        verify(invocationService, never()).dispatch(any(InvocationTask.class));
+    }
+
+    @Test
+    void partialBatch_waitsForLingerThenFlushes() {
+        FunctionSpec spec = functionSpec("lingering", 10, new BatchConfig(4, 1_000));
+        queueManager.getOrCreate(spec);
+        scheduler.start();
+
+        InvocationTask t1 = task("l-1", spec);
+        InvocationTask t2 = task("l-2", spec);
+        queueManager.enqueue(t1);
+        queueManager.enqueue(t2);
+
+        Awaitility.await()
+                .during(Duration.ofMillis(300))
+                .atMost(Duration.ofMillis(800))
+                .untilAsserted(() -> assertThat(batches).isEmpty());
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(3))
+                .untilAsserted(() -> assertThat(batches).containsExactly(List.of(t1, t2)));
+    }
+
+    @Test
+    void batch_isBoundedByFreeDispatchSlots() {
+        FunctionSpec spec = functionSpec("bounded", 2, new BatchConfig(4, 0));
+        FunctionQueueState state = queueManager.getOrCreate(spec);
+        for (int i = 0; i < 4; i++) {
+            queueManager.enqueue(task("s-" + i, spec));
+        }
+
+        scheduler.start();
+
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(batches).hasSize(1));
+        assertThat(batches.get(0)).hasSize(2);
+        assertThat(state.queued()).isEqualTo(2);
+    }
+
+    private FunctionSpec functionSpec(String functionName, int concurrency, BatchConfig batchConfig) {
+        return new FunctionSpec(
+                functionName,
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                concurrency,
+                10,
+                3,
+                "http://fn/invoke",
+                ExecutionMode.POOL,
+                null,
+                null,
+                null,
+                null,
+                batchConfig
+        );
+    }
+
+    private InvocationTask task(String executionId, FunctionSpec spec) {
+        return new InvocationTask(
+                executionId,
+                spec.name(),
+                spec,
+                new InvocationRequest("payload-" + executionId, Map.of()),
+                null,
+                null,
+                Instant.now(),
+                1
+        );
+    }
+}
@@ -0,0 +1,158 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
+import it.unimib.datai.nanofaas.controlplane.service.InvocationService;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SchedulerWorkStealingTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private Scheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void blockedHomeLoop_letsIdleLoopStealSignal() {
+        String blocked = "blocked";
+        String other = functionWithSameHome(blocked, 2);
+        QueueManager queueManager = new QueueManager(new SimpleMeterRegistry());
+        FunctionSpec blockedSpec = functionSpec(blocked, 1);
+        FunctionSpec otherSpec = functionSpec(other, 1);
+        queueManager.getOrCreate(blockedSpec);
+        queueManager.getOrCreate(otherSpec);
+
+        Set<String> dispatched = ConcurrentHashMap.newKeySet();
+        InvocationService invocationService = mock(InvocationService.class);
+        doAnswer(invocation -> {
+            InvocationTask task = invocation.getArgument(0);
+            dispatched.add(task.functionName());
+            if (task.functionName().equals(blocked)) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(invocationService).dispatch(any(InvocationTask.class));
+
+        scheduler = new Scheduler(queueManager, invocationService, 2);
+        scheduler.init();
+        scheduler.start();
+
+        queueManager.enqueue(task("b-1", blockedSpec));
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(dispatched).containsExactly(blocked));
+
+        queueManager.enqueue(task("o-1", otherSpec));
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(2))
+                .untilAsserted(() -> assertThat(dispatched).containsExactlyInAnyOrder(blocked, other));
+    }
+
+    @Test
+    void multipleLoops_neverExceedFunctionConcurrency() {
+        QueueManager queueManager = new QueueManager(new SimpleMeterRegistry());
+        FunctionSpec spec = functionSpec("limited", 2);
+        FunctionQueueState state = queueManager.getOrCreate(spec);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        InvocationService invocationService = mock(InvocationService.class);
+        doAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(5);
+            inFlight.decrementAndGet();
+            completed.incrementAndGet();
+            queueManager.releaseSlot("limited");
+            return null;
+        }).when(invocationService).dispatch(any(InvocationTask.class));
+
+        scheduler = new Scheduler(queueManager, invocationService, 4);
+        scheduler.init();
+        scheduler.start();
+
+        for (int i = 0; i < 40; i++) {
+            assertThat(queueManager.enqueue(task("l-" + i, spec))).isTrue();
+        }
+
+        Awaitility.await()
+                .atMost(Duration.ofSeconds(5))
+                .untilAsserted(() -> assertThat(completed.get()).isEqualTo(40));
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+        assertThat(state.inFlight()).isZero();
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveWorkerCount() {
+        assertThatThrownBy(() -> new Scheduler(mock(QueueManager.class), mock(InvocationService.class), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String functionWithSameHome(String functionName, int workers) {
+        int home = Scheduler.homeIndex(functionName, workers);
+        for (int i = 0; ; i++) {
+            String candidate = "fn-" + i;
+            if (Scheduler.homeIndex(candidate, workers) == home) {
+                return candidate;
+            }
+        }
+    }
+
+    private FunctionSpec functionSpec(String functionName, int concurrency) {
+        return new FunctionSpec(
+                functionName,
+                "image",
+                null,
+                Map.of(),
+                null,
+                1000,
+                concurrency,
+                100,
+                3,
+                null,
+                ExecutionMode.LOCAL,
+                null,
+                null,
+                null
+        );
+    }
+
+    private InvocationTask task(String executionId, FunctionSpec spec) {
+        return new InvocationTask(
+                executionId,
+                spec.name(),
+                spec,
+                new InvocationRequest("payload-" + executionId, Map.of()),
+                null,
+                null,
+                Instant.now(),
+                1
+        );
+    }
+}
@@ -0,0 +1,170 @@
+package it.unimib.datai.nanofaas.modules.asyncqueue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SegmentTaskLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_recoversRecordsNotMarkedDoneInLogOrder() throws IOException {
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(64))) {
+            log.append(bytes("first"));
+            long second = log.append(bytes("second"));
+            log.append(bytes("third"));
+            log.markDone(second);
+        }
+
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(64))) {
+            assertThat(payloads(log.drainRecovered())).containsExactly("first", "third");
+            assertThat(log.drainRecovered()).isEmpty();
+            assertThat(log.liveRecords()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void append_rollsOverFullSegmentsAndDeletesThemOnceEveryRecordIsDone() throws IOException {
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.PERIODIC, DataSize.ofBytes(64))) {
+            long first = log.append(bytes("a".repeat(30)));
+            long second = log.append(bytes("b".repeat(30)));
+            assertThat(segmentFiles()).hasSize(2);
+
+            log.markDone(first);
+            assertThat(segmentFiles()).hasSize(1);
+            assertThat(log.segmentCount()).isEqualTo(1);
+
+            // The active segment is kept even when empty.
+            log.markDone(second);
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    @Test
+    void append_oversizedRecordGetsItsOwnSegment() throws IOException {
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.ALWAYS, DataSize.ofBytes(64))) {
+            log.append(bytes("x".repeat(500)));
+        }
+
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.ALWAYS, DataSize.ofBytes(64))) {
+            assertThat(payloads(log.drainRecovered())).containsExactly("x".repeat(500));
+        }
+    }
+
+    @Test
+    void reopen_ignoresRecordsFromACorruptedTail() throws IOException {
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.ALWAYS, DataSize.ofKilobytes(64))) {
+            log.append(bytes("intact"));
+            log.append(bytes("torn"));
+        }
+        Path segment = segmentFiles().get(0);
+        int tornPayload = TaskLogSegment.HEADER_BYTES + TaskLogSegment.recordBytes(6)
+                + TaskLogSegment.RECORD_HEADER_BYTES;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes("XX")), tornPayload);
+        }
+
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.ALWAYS, DataSize.ofKilobytes(64))) {
+            assertThat(payloads(log.drainRecovered())).containsExactly("intact");
+        }
+    }
+
+    @Test
+    void reopen_deletesSegmentsWithNothingLeftToRecover() throws IOException {
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(64))) {
+            log.markDone(log.append(bytes("done")));
+        }
+
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(64))) {
+            assertThat(log.drainRecovered()).isEmpty();
+            assertThat(segmentFiles()).isEmpty();
+        }
+    }
+
+    @Test
+    void groupCommit_concurrentAppendersAllReturnAndAreRecovered() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(4))) {
+            List<Future<Long>> appends = Stream.iterate(0, i -> i + 1).limit(200)
+                    .map(i -> executor.submit(() -> log.append(bytes("task-" + i))))
+                    .toList();
+            for (Future<Long> append : appends) {
+                append.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(4))) {
+            assertThat(log.drainRecovered()).hasSize(200);
+        }
+    }
+
+    @Test
+    void appendDeferred_returnsBeforeTheForceAndReportsDurabilityOnceForced() throws Exception {
+        CountDownLatch durable = new CountDownLatch(1);
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.PERIODIC, DataSize.ofKilobytes(64), Duration.ofHours(1))) {
+            log.appendDeferred(bytes("deferred"), durable::countDown);
+
+            assertThat(durable.getCount()).isEqualTo(1);
+        }
+        assertThat(durable.getCount()).isZero();
+
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.GROUP, DataSize.ofKilobytes(64))) {
+            assertThat(payloads(log.drainRecovered())).containsExactly("deferred");
+        }
+    }
+
+    @Test
+    void appendDeferred_withAlwaysIsForcedByTheFlusher() throws Exception {
+        CountDownLatch durable = new CountDownLatch(1);
+        try (SegmentTaskLog log = open(DurableQueueProperties.Fsync.ALWAYS, DataSize.ofKilobytes(64), Duration.ofHours(1))) {
+            log.appendDeferred(bytes("deferred"), durable::countDown);
+
+            assertThat(durable.await(2, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private SegmentTaskLog open(DurableQueueProperties.Fsync fsync, DataSize segmentSize) throws IOException {
+        return open(fsync, segmentSize, Duration.ofMillis(10));
+    }
+
+    private SegmentTaskLog open(DurableQueueProperties.Fsync fsync, DataSize segmentSize, Duration flushInterval)
+            throws IOException {
+        return new SegmentTaskLog(new DurableQueueProperties(true, directory, segmentSize, fsync, flushInterval));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<String> payloads(List<SegmentTaskLog.Recovered> recovered) {
+        return recovered.stream().map(entry -> new String(entry.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,190 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Arrival-rate forecast of PREDICTIVE functions, one cold start ahead.
+ *
+ * <p>Every evaluation samples the function's dispatch and latency totals. The arrival rate is
+ * smoothed with Holt's linear method, a level plus a trend, whose weights follow the time since
+ * the previous sample so irregular evaluation times are weighed correctly. Service time is an
+ * exponential moving average of the latency of the invocations completed in each sample, and the
+ * cold start one of the time observed scale-ups took to become ready. The forecast looks that
+ * cold start ahead, since replicas asked for now serve the load arriving by then; until one is
+ * observed it looks {@value #DEFAULT_HORIZON_MS} ms ahead.</p>
+ *
+ * <p>Each function keeps only its last sample and a handful of smoothed values. The last sampled
+ * rate, the forecast and its horizon are exposed as {@code function_arrival_rps},
+ * {@code function_forecast_rps} and {@code function_forecast_horizon_ms}.</p>
+ */
+final class ArrivalForecaster {
+    static final long MIN_SAMPLE_INTERVAL_MS = 1_000;
+    static final long DEFAULT_HORIZON_MS = 10_000;
+    static final long MAX_HORIZON_MS = 300_000;
+    private static final double LEVEL_TIME_CONSTANT_MS = 10_000;
+    private static final double TREND_TIME_CONSTANT_MS = 30_000;
+    private static final double COLD_START_WEIGHT = 0.3;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    ArrivalForecaster(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Adds a sample of the cumulative dispatch count and latency totals of {@code functionName}
+     * and returns the updated forecast. Samples closer than {@value #MIN_SAMPLE_INTERVAL_MS} ms to
+     * the previous one are ignored, so bursts of evaluations do not turn noise into trend.
+     */
+    Forecast observe(String functionName, double dispatches, ScalingMetricsReader.LatencyTotals latency,
+                     long nowMs) {
+        Series current = series.computeIfAbsent(functionName, this::newSeries);
+        synchronized (current) {
+            current.observe(dispatches, latency, nowMs);
+            return current.forecast();
+        }
+    }
+
+    /** Records that a scale-up of {@code functionName} took {@code durationMs} to become ready. */
+    void recordColdStart(String functionName, long durationMs) {
+        Series current = series.get(functionName);
+        if (current == null || durationMs < 0) {
+            return;
+        }
+        synchronized (current) {
+            current.coldStartMs = Double.isNaN(current.coldStartMs)
+                    ? durationMs
+                    : COLD_START_WEIGHT * durationMs + (1 - COLD_START_WEIGHT) * current.coldStartMs;
+        }
+    }
+
+    void remove(String functionName) {
+        Series removed = series.remove(functionName);
+        if (removed != null) {
+            removed.meterIds.forEach(meterRegistry::remove);
+        }
+    }
+
+    private Series newSeries(String functionName) {
+        Series created = new Series();
+        created.meterIds = List.of(
+                gauge("function_arrival_rps", functionName, created, s -> s.actualRps),
+                gauge("function_forecast_rps", functionName, created, s -> s.forecast().forecastRps()),
+                gauge("function_forecast_horizon_ms", functionName, created, s -> s.forecast().horizonMs())
+        );
+        return created;
+    }
+
+    private Meter.Id gauge(String name, String functionName, Series state,
+                           ToDoubleFunction<Series> value) {
+        return Gauge.builder(name, state, s -> {
+                    synchronized (s) {
+                        return value.applyAsDouble(s);
+                    }
+                })
+                .tag("function", functionName)
+                .strongReference(true)
+                .register(meterRegistry)
+                .getId();
+    }
+
+    /**
+     * @param actualRps     arrival rate over the last sample
+     * @param forecastRps   arrival rate expected {@code horizonMs} from now
+     * @param serviceTimeMs smoothed latency of one invocation, 0 until one completed
+     */
+    record Forecast(double actualRps, double forecastRps, double serviceTimeMs, long horizonMs) {
+        /**
+         * Value {@code metricType} is expected to reach at the horizon. Invocations in flight
+         * follow from the forecast rate and the service time (Little's law); queue depth is a
+         * backlog rather than a rate and is left as it is.
+         */
+        double predicted(String metricType, double currentValue) {
+            return switch (metricType) {
+                case "rps" -> forecastRps;
+                case "in_flight" -> {
+                    if (serviceTimeMs > 0) {
+                        yield forecastRps * serviceTimeMs / 1000.0;
+                    }
+                    yield actualRps > 0 ? currentValue * forecastRps / actualRps : currentValue;
+                }
+                default -> currentValue;
+            };
+        }
+    }
+
+    private static final class Series {
+        private long lastSampleMs = -1;
+        private double lastDispatches;
+        private long lastLatencyCount;
+        private double lastLatencyTotalMs;
+        private boolean hasLevel;
+        private double level;
+        /** Change of the arrival rate per second. */
+        private double trend;
+        private double actualRps;
+        private double serviceTimeMs = Double.NaN;
+        private double coldStartMs = Double.NaN;
+        private List<Meter.Id> meterIds = List.of();
+
+        void observe(double dispatches, ScalingMetricsReader.LatencyTotals latency, long nowMs) {
+            if (lastSampleMs < 0) {
+                remember(dispatches, latency, nowMs);
+                return;
+            }
+            long elapsedMs = nowMs - lastSampleMs;
+            if (elapsedMs < MIN_SAMPLE_INTERVAL_MS) {
+                return;
+            }
+            double elapsedSeconds = elapsedMs / 1000.0;
+            double rate = Math.max(0.0, dispatches - lastDispatches) / elapsedSeconds;
+            double levelWeight = 1 - Math.exp(-elapsedMs / LEVEL_TIME_CONSTANT_MS);
+            double trendWeight = 1 - Math.exp(-elapsedMs / TREND_TIME_CONSTANT_MS);
+
+            long completed = latency.count() - lastLatencyCount;
+            if (completed > 0) {
+                double sampleServiceTimeMs = Math.max(0.0, latency.totalMs() - lastLatencyTotalMs) / completed;
+                serviceTimeMs = Double.isNaN(serviceTimeMs)
+                        ? sampleServiceTimeMs
+                        : levelWeight * sampleServiceTimeMs + (1 - levelWeight) * serviceTimeMs;
+            }
+            if (!hasLevel) {
+                level = rate;
+                trend = 0.0;
+                hasLevel = true;
+            } else {
+                double nextLevel = levelWeight * rate + (1 - levelWeight) * (level + trend * elapsedSeconds);
+                trend = trendWeight * (nextLevel - level) / elapsedSeconds + (1 - trendWeight) * trend;
+                level = nextLevel;
+            }
+            actualRps = rate;
+            remember(dispatches, latency, nowMs);
+        }
+
+        Forecast forecast() {
+            long horizonMs = Double.isNaN(coldStartMs)
+                    ? DEFAULT_HORIZON_MS
+                    : Math.min(MAX_HORIZON_MS, Math.round(coldStartMs));
+            if (!hasLevel) {
+                return new Forecast(0.0, 0.0, 0.0, horizonMs);
+            }
+            double forecastRps = Math.max(0.0, level + trend * horizonMs / 1000.0);
+            return new Forecast(actualRps, forecastRps, Double.isNaN(serviceTimeMs) ? 0.0 : serviceTimeMs, horizonMs);
+        }
+
+        private void remember(double dispatches, ScalingMetricsReader.LatencyTotals latency, long nowMs) {
+            lastSampleMs = nowMs;
+            lastDispatches = dispatches;
+            lastLatencyCount = latency.count();
+            lastLatencyTotalMs = latency.totalMs();
+        }
+    }
+}
@@ -32,18 +32,49 @@ public class AutoscalerConfiguration {
         return new TargetLoadMetrics(meterRegistry);
     }
 
+    @Bean
+    ScalingTriggers scalingTriggers() {
+        return new ScalingTriggers();
+    }
+
+    @Bean
+    ArrivalForecaster arrivalForecaster(MeterRegistry meterRegistry) {
+        return new ArrivalForecaster(meterRegistry);
+    }
+
+    @Bean
+    ScaleFromZeroActivator scaleFromZeroActivator(FunctionRegistry registry,
+                                                  ObjectProvider<ManagedDeploymentCoordinator> deploymentCoordinatorProvider,
+                                                  ScalingProperties properties,
+                                                  ColdStartTracker coldStartTracker,
+                                                  MeterRegistry meterRegistry) {
+        return new ScaleFromZeroActivator(
+                registry,
+                deploymentCoordinatorProvider.getIfAvailable(),
+                properties,
+                coldStartTracker,
+                meterRegistry
+        );
+    }
+
     @Bean
     InternalScaler internalScaler(FunctionRegistry registry,
                                   ScalingMetricsReader metricsReader,
                                   ObjectProvider<ManagedDeploymentCoordinator> deploymentCoordinatorProvider,
                                   ScalingProperties properties,
-                                  ColdStartTracker coldStartTracker) {
+                                  ColdStartTracker coldStartTracker,
+                                  ScaleFromZeroActivator scaleFromZeroActivator,
+                                  ScalingTriggers scalingTriggers,
+                                  ArrivalForecaster arrivalForecaster) {
         return new InternalScaler(
                 registry,
                 metricsReader,
                 deploymentCoordinatorProvider.getIfAvailable(),
                 properties,
-                coldStartTracker
+                coldStartTracker,
+                scaleFromZeroActivator,
+                scalingTriggers,
+                arrivalForecaster
         );
     }
 
@@ -55,6 +86,7 @@ public class AutoscalerConfiguration {
             @Override
             public void onRegister(FunctionSpec spec) {
                 targetLoadMetrics.update(spec);
+                internalScaler.onRegister(spec.name());
             }
 
             @Override
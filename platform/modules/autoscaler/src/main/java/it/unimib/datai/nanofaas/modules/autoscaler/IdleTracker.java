@@ -0,0 +1,30 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how long each function has gone without work. A function is busy while it has queued
+ * or in-flight invocations, or when its dispatch counter moved since the previous observation,
+ * which also catches short invocations that start and finish between two scaler ticks.
+ */
+final class IdleTracker {
+
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+
+    /** Records one observation and returns for how many ms the function has been idle. */
+    long observe(String functionName, boolean busy, double dispatchCount, long nowMs) {
+        Sample previous = samples.get(functionName);
+        boolean active = busy || previous == null || dispatchCount != previous.dispatchCount();
+        long idleSinceMs = active ? nowMs : previous.idleSinceMs();
+        samples.put(functionName, new Sample(dispatchCount, idleSinceMs));
+        return nowMs - idleSinceMs;
+    }
+
+    void clear(String functionName) {
+        samples.remove(functionName);
+    }
+
+    private record Sample(double dispatchCount, long idleSinceMs) {
+    }
+}
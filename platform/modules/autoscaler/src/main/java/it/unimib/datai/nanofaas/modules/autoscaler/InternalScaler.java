@@ -9,17 +9,35 @@ import it.unimib.datai.nanofaas.common.model.ScalingStrategy;
 import it.unimib.datai.nanofaas.controlplane.deployment.ManagedDeploymentCoordinator;
 import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistry;
 import it.unimib.datai.nanofaas.controlplane.registry.RegisteredFunction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.SmartLifecycle;
 
 import java.time.Instant;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Replica scaling of INTERNAL functions.
+ *
+ * <p>Functions are evaluated one at a time when their load crosses a level armed in
+ * {@link ScalingTriggers} by their previous evaluation, so a burst is acted on within one queue
+ * operation instead of at the next poll. A scale-up held back by its cooldown is re-evaluated when
+ * the cooldown ends. The sweep over every function every {@code pollIntervalMs} remains as a
+ * safety net and for what no queue reports, such as {@code rps} and the scale-to-zero idle
+ * window. All evaluations run on the single scaler thread.</p>
+ *
+ * <p>PREDICTIVE functions are scaled the same way, except that each metric counts as the larger of
+ * its current value and the value {@link ArrivalForecaster} expects one cold start ahead. They are
+ * also re-evaluated every half forecast horizon, so the forecast keeps up with the load, and
+ * every scale-up is watched until its replicas are ready to learn how long a cold start takes.</p>
+ */
 public class InternalScaler implements SmartLifecycle {
     private static final Logger log = LoggerFactory.getLogger(InternalScaler.class);
+    private static final long SCALE_UP_CHECK_INTERVAL_MS = 500;
 
     private final FunctionRegistry registry;
     private final ScalingMetricsReader metricsReader;
@@ -31,6 +49,13 @@ public class InternalScaler implements SmartLifecycle {
     private final StaticPerPodConcurrencyController staticConcurrencyController;
     private final AdaptivePerPodConcurrencyController adaptiveConcurrencyController;
     private final ConcurrencyControlCoordinator concurrencyControlCoordinator;
+    private final ScaleFromZeroActivator activator;
+    private final IdleTracker idleTracker = new IdleTracker();
+    private final ScalingTriggers triggers;
+    private final ArrivalForecaster forecaster;
+    private final Set<String> watchedScaleUps = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingEvaluations = ConcurrentHashMap.newKeySet();
+    private final Set<String> deferredEvaluations = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean running = new AtomicBoolean(false);
     private ScheduledExecutorService executor;
 
@@ -39,6 +64,29 @@ public class InternalScaler implements SmartLifecycle {
                           @Autowired(required = false) ManagedDeploymentCoordinator deploymentCoordinator,
                           ScalingProperties properties,
                           ColdStartTracker coldStartTracker) {
+        this(registry, metricsReader, deploymentCoordinator, properties, coldStartTracker,
+                new ScaleFromZeroActivator(registry, deploymentCoordinator, properties, coldStartTracker,
+                        new SimpleMeterRegistry()));
+    }
+
+    public InternalScaler(FunctionRegistry registry,
+                          ScalingMetricsReader metricsReader,
+                          ManagedDeploymentCoordinator deploymentCoordinator,
+                          ScalingProperties properties,
+                          ColdStartTracker coldStartTracker,
+                          ScaleFromZeroActivator activator) {
+        this(registry, metricsReader, deploymentCoordinator, properties, coldStartTracker, activator,
+                new ScalingTriggers(), new ArrivalForecaster(new SimpleMeterRegistry()));
+    }
+
+    InternalScaler(FunctionRegistry registry,
+                   ScalingMetricsReader metricsReader,
+                   ManagedDeploymentCoordinator deploymentCoordinator,
+                   ScalingProperties properties,
+                   ColdStartTracker coldStartTracker,
+                   ScaleFromZeroActivator activator,
+                   ScalingTriggers triggers,
+                   ArrivalForecaster forecaster) {
         this.registry = registry;
         this.metricsReader = metricsReader;
         this.deploymentCoordinator = deploymentCoordinator;
@@ -54,6 +102,9 @@ public class InternalScaler implements SmartLifecycle {
                 staticConcurrencyController,
                 adaptiveConcurrencyController
         );
+        this.activator = activator;
+        this.triggers = triggers;
+        this.forecaster = forecaster;
     }
 
     @Override
@@ -69,6 +120,7 @@ public class InternalScaler implements SmartLifecycle {
                 t.setDaemon(true);
                 return t;
             });
+            triggers.onTrigger(this::requestEvaluation);
             executor.scheduleAtFixedRate(this::scalingLoop, properties.pollIntervalMsOrDefault(),
                     properties.pollIntervalMsOrDefault(), TimeUnit.MILLISECONDS);
         }
@@ -112,36 +164,87 @@ public class InternalScaler implements SmartLifecycle {
     void scalingLoop() {
         try {
             for (RegisteredFunction registeredFunction : registry.listRegistered()) {
-                if (!deploymentCoordinator.isManagedDeployment(registeredFunction)) {
-                    continue;
-                }
-                FunctionSpec spec = registeredFunction.spec();
-                ScalingConfig scaling = spec.scalingConfig();
-                if (scaling == null || scaling.strategy() != ScalingStrategy.INTERNAL) {
-                    continue;
-                }
-                try {
-                    evaluateAndScale(registeredFunction, spec, scaling);
-                } catch (Exception ex) {
-                    log.error("Error scaling function {}", spec.name(), ex);
-                }
+                evaluate(registeredFunction);
             }
         } catch (Exception ex) {
             log.error("Error in scaling loop", ex);
         }
     }
 
+    /**
+     * Queues one evaluation of {@code functionName} on the scaler thread; requests made while one
+     * is already queued are folded into it.
+     */
+    void requestEvaluation(String functionName) {
+        if (!running.get() || !pendingEvaluations.add(functionName)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                pendingEvaluations.remove(functionName);
+                evaluateNow(functionName);
+            });
+        } catch (RejectedExecutionException ex) {
+            pendingEvaluations.remove(functionName);
+        }
+    }
+
+    // Package-private for testing
+    void evaluateNow(String functionName) {
+        try {
+            registry.getRegistered(functionName).ifPresent(this::evaluate);
+        } catch (Exception ex) {
+            log.error("Error evaluating function {}", functionName, ex);
+        }
+    }
+
+    /** Arms {@code functionName} so that its first load gets it evaluated before the next sweep. */
+    void onRegister(String functionName) {
+        triggers.armOnFirstLoad(functionName);
+    }
+
+    private void evaluate(RegisteredFunction registeredFunction) {
+        if (!deploymentCoordinator.isManagedDeployment(registeredFunction)) {
+            return;
+        }
+        FunctionSpec spec = registeredFunction.spec();
+        ScalingConfig scaling = spec.scalingConfig();
+        if (scaling == null
+                || scaling.strategy() != ScalingStrategy.INTERNAL && scaling.strategy() != ScalingStrategy.PREDICTIVE) {
+            return;
+        }
+        try {
+            evaluateAndScale(registeredFunction, spec, scaling);
+        } catch (Exception ex) {
+            log.error("Error scaling function {}", spec.name(), ex);
+        }
+    }
+
     private void evaluateAndScale(RegisteredFunction registeredFunction, FunctionSpec spec, ScalingConfig scaling) {
         String functionName = spec.name();
         int currentReplicas = deploymentCoordinator.getReadyReplicas(registeredFunction);
-        ScalingDecision decision = decisionCalculator.calculate(spec, currentReplicas);
-
         Instant now = Instant.now();
+        if (scaling.minReplicas() == 0) {
+            int replicasAfter = applyScaleToZero(registeredFunction, spec, currentReplicas, now);
+            if (replicasAfter >= 0) {
+                armTriggers(spec, scaling, replicasAfter, now);
+                return;
+            }
+        }
+        ArrivalForecaster.Forecast forecast = null;
+        if (scaling.strategy() == ScalingStrategy.PREDICTIVE) {
+            forecast = forecaster.observe(functionName, metricsReader.dispatchCount(functionName),
+                    metricsReader.latencyTotals(functionName), now.toEpochMilli());
+            evaluateLater(functionName, Math.max(ArrivalForecaster.MIN_SAMPLE_INTERVAL_MS, forecast.horizonMs() / 2));
+        }
+        ScalingDecision decision = decisionCalculator.calculate(spec, currentReplicas, forecast);
+
         boolean scaled = false;
         int effectiveReplicas = decision.effectiveReplicas();
         if (decision.desiredReplicas() > decision.currentReplicas()) {
             if (!cooldownTracker.allowScaleUp(functionName, now)) {
                 log.debug("Skipping scale-up for {} (cooldown)", functionName);
+                evaluateAfterCooldown(functionName, now);
             } else {
                 log.info("Scaling UP function {} from {} to {} replicas (maxRatio={})",
                         functionName, decision.currentReplicas(), decision.desiredReplicas(), decision.maxRatio());
@@ -150,6 +253,9 @@ public class InternalScaler implements SmartLifecycle {
                 cooldownTracker.recordScaleUp(functionName, now);
                 scaled = true;
                 effectiveReplicas = decision.desiredReplicas();
+                if (forecast != null) {
+                    watchScaleUp(registeredFunction, decision.desiredReplicas(), now.toEpochMilli());
+                }
             }
         } else if (decision.downscaleSignal()) {
             if (!cooldownTracker.allowScaleDown(functionName, now)) {
@@ -172,9 +278,152 @@ public class InternalScaler implements SmartLifecycle {
                 decision.downscaleSignal(),
                 decision.currentReplicas()
         );
+        armTriggers(spec, scaling, effectiveReplicas, now);
+    }
+
+    /**
+     * Arms the levels at which the next decision for {@code spec} could differ from keeping
+     * {@code replicas}. With {@code ratio = value / target} and {@code desired = ceil(ratio * n)},
+     * a metric above its target asks for more replicas, and one at or below
+     * {@code target * (n - 1) / n} allows fewer. Levels that cannot change anything, such as
+     * growth at {@code maxReplicas}, are left open.
+     */
+    private void armTriggers(FunctionSpec spec, ScalingConfig scaling, int replicas, Instant now) {
+        String functionName = spec.name();
+        double queueDepthTarget = Double.POSITIVE_INFINITY;
+        double inFlightTarget = Double.POSITIVE_INFINITY;
+        if (scaling.metrics() != null) {
+            for (ScalingMetric metric : scaling.metrics()) {
+                double target = ScalingDecisionCalculator.targetOf(metric);
+                if (target <= 0) {
+                    continue;
+                }
+                if ("queue_depth".equals(metric.type())) {
+                    queueDepthTarget = Math.min(queueDepthTarget, target);
+                } else if ("in_flight".equals(metric.type())) {
+                    inFlightTarget = Math.min(inFlightTarget, target);
+                }
+            }
+        }
+        boolean canGrow = replicas < scaling.maxReplicas();
+        triggers.arm(functionName,
+                level(queueDepthTarget, replicas, scaling, metricsReader.queueDepth(functionName)),
+                level(inFlightTarget, replicas, scaling, metricsReader.inFlight(functionName)),
+                canGrow && cooldownTracker.allowScaleUp(functionName, now));
+    }
+
+    private static ScalingTriggers.Level level(double target, int replicas, ScalingConfig scaling, double value) {
+        if (Double.isInfinite(target)) {
+            return null;
+        }
+        if (replicas <= 0) {
+            // Any work wakes a function at zero.
+            return ScalingTriggers.Level.of(Double.NEGATIVE_INFINITY, 0.0, value);
+        }
+        double high = replicas < scaling.maxReplicas() ? target : Double.POSITIVE_INFINITY;
+        double low = replicas > Math.max(1, scaling.minReplicas())
+                ? target * (replicas - 1) / replicas
+                : Double.NEGATIVE_INFINITY;
+        return ScalingTriggers.Level.of(low, high, value);
+    }
+
+    private void evaluateAfterCooldown(String functionName, Instant now) {
+        evaluateLater(functionName, Math.max(1, cooldownTracker.scaleUpCooldownRemainingMs(functionName, now)));
+    }
+
+    /** Evaluates {@code functionName} after {@code delayMs}, unless a later evaluation is already scheduled. */
+    private void evaluateLater(String functionName, long delayMs) {
+        if (!running.get() || !deferredEvaluations.add(functionName)) {
+            return;
+        }
+        try {
+            executor.schedule(() -> {
+                deferredEvaluations.remove(functionName);
+                evaluateNow(functionName);
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            deferredEvaluations.remove(functionName);
+        }
+    }
+
+    /**
+     * Polls the ready replicas of a PREDICTIVE function after a scale-up and reports how long it
+     * took to reach {@code targetReplicas} as its cold start. Gives up after the longest horizon.
+     */
+    private void watchScaleUp(RegisteredFunction registeredFunction, int targetReplicas, long startedMs) {
+        String functionName = registeredFunction.spec().name();
+        if (running.get() && watchedScaleUps.add(functionName)) {
+            scheduleScaleUpCheck(registeredFunction, targetReplicas, startedMs);
+        }
+    }
+
+    private void scheduleScaleUpCheck(RegisteredFunction registeredFunction, int targetReplicas, long startedMs) {
+        String functionName = registeredFunction.spec().name();
+        try {
+            executor.schedule(() -> {
+                long elapsedMs = System.currentTimeMillis() - startedMs;
+                try {
+                    if (deploymentCoordinator.getReadyReplicas(registeredFunction) >= targetReplicas) {
+                        forecaster.recordColdStart(functionName, elapsedMs);
+                        watchedScaleUps.remove(functionName);
+                        return;
+                    }
+                } catch (Exception ex) {
+                    log.debug("Unable to read ready replicas of {}", functionName, ex);
+                }
+                if (running.get() && elapsedMs < ArrivalForecaster.MAX_HORIZON_MS) {
+                    scheduleScaleUpCheck(registeredFunction, targetReplicas, startedMs);
+                } else {
+                    watchedScaleUps.remove(functionName);
+                }
+            }, SCALE_UP_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            watchedScaleUps.remove(functionName);
+        }
+    }
+
+    /**
+     * Handles the transitions to and from zero of a function with {@code minReplicas: 0}, and
+     * returns the replicas it is left with, or -1 when the regular decision applies. After {@code scaleToZeroIdleMs} without work the
+     * function goes to zero; without ready replicas its work is held by the activator, which also
+     * does the scale-up when load is already waiting.
+     */
+    private int applyScaleToZero(RegisteredFunction registeredFunction, FunctionSpec spec,
+                                 int currentReplicas, Instant now) {
+        String functionName = spec.name();
+        boolean busy = metricsReader.queueDepth(functionName) > 0 || metricsReader.inFlight(functionName) > 0;
+        long idleMs = idleTracker.observe(functionName, busy, metricsReader.dispatchCount(functionName), now.toEpochMilli());
+        if (currentReplicas > 0) {
+            if (busy || idleMs < properties.scaleToZeroIdleMsOrDefault()) {
+                return -1;
+            }
+            if (!cooldownTracker.allowScaleDown(functionName, now)) {
+                log.debug("Skipping scale-to-zero for {} (cooldown)", functionName);
+                return currentReplicas;
+            }
+            log.info("Scaling function {} to zero after {} ms without work", functionName, idleMs);
+            activator.scaleToZero(registeredFunction);
+            cooldownTracker.recordScaleDown(functionName, now);
+            return 0;
+        }
+        ScalingDecision decision = decisionCalculator.calculate(spec, 0);
+        if (decision.desiredReplicas() > 0) {
+            log.info("Activating function {} from zero with {} replicas (maxRatio={})",
+                    functionName, decision.desiredReplicas(), decision.maxRatio());
+            activator.activate(registeredFunction, decision.desiredReplicas());
+            cooldownTracker.recordScaleUp(functionName, now);
+            return decision.desiredReplicas();
+        }
+        activator.markScaledToZero(functionName);
+        return 0;
     }
 
     void removeFunctionState(String functionName) {
+        triggers.remove(functionName);
+        forecaster.remove(functionName);
+        watchedScaleUps.remove(functionName);
+        idleTracker.clear(functionName);
+        activator.removeFunctionState(functionName);
         cooldownTracker.clear(functionName);
         concurrencyControlCoordinator.removeFunctionState(functionName);
         coldStartTracker.removeFunctionState(functionName);
@@ -0,0 +1,170 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.unimib.datai.nanofaas.controlplane.deployment.ManagedDeploymentCoordinator;
+import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistry;
+import it.unimib.datai.nanofaas.controlplane.registry.RegisteredFunction;
+import it.unimib.datai.nanofaas.controlplane.scaling.FunctionActivator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scales INTERNAL functions back from zero as soon as work arrives for them.
+ *
+ * <p>{@link InternalScaler} marks a function scaled to zero after its idle window. The first
+ * dispatch attempt afterwards starts one activation, which sets one replica right away instead of
+ * waiting for the next scaler tick and polls until it is ready. Work stays in the queues
+ * meanwhile; the returned future wakes them. The time from the first held invocation to the
+ * first ready replica is recorded as {@code function_activation_ms}.</p>
+ *
+ * <p>Scale-to-zero and the activation's scale-up take the same per-function lock, so a function
+ * cannot be scaled down underneath an activation that already requested its replica.</p>
+ */
+public class ScaleFromZeroActivator implements FunctionActivator {
+    private static final Logger log = LoggerFactory.getLogger(ScaleFromZeroActivator.class);
+    private static final CompletableFuture<Void> ACTIVE = CompletableFuture.completedFuture(null);
+    private static final long READY_POLL_MS = 50;
+
+    private final FunctionRegistry registry;
+    private final ManagedDeploymentCoordinator deploymentCoordinator;
+    private final ScalingProperties properties;
+    private final ColdStartTracker coldStartTracker;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> scaledToZero = ConcurrentHashMap.newKeySet();
+    private final Map<String, CompletableFuture<Void>> activations = new ConcurrentHashMap<>();
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public ScaleFromZeroActivator(FunctionRegistry registry,
+                                  ManagedDeploymentCoordinator deploymentCoordinator,
+                                  ScalingProperties properties,
+                                  ColdStartTracker coldStartTracker,
+                                  MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.deploymentCoordinator = deploymentCoordinator;
+        this.properties = properties;
+        this.coldStartTracker = coldStartTracker;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public CompletableFuture<Void> activate(String functionName) {
+        if (!scaledToZero.contains(functionName)) {
+            return ACTIVE;
+        }
+        return startActivation(functionName, null, 1);
+    }
+
+    /**
+     * Holds the work of {@code function} and activates it with {@code replicas} replicas, for
+     * a scaler tick that finds load on a function without ready replicas. A running activation
+     * is left as it is.
+     */
+    void activate(RegisteredFunction function, int replicas) {
+        markScaledToZero(function.name());
+        startActivation(function.name(), function, Math.max(1, replicas));
+    }
+
+    private CompletableFuture<Void> startActivation(String functionName, RegisteredFunction function, int replicas) {
+        return activations.computeIfAbsent(functionName, name -> {
+            CompletableFuture<Void> activation = new CompletableFuture<>();
+            Thread.ofVirtual().name("nanofaas-activate-" + name)
+                    .start(() -> runActivation(name, function, replicas, activation));
+            return activation;
+        });
+    }
+
+    /** Scales {@code function} to zero and holds its work from now on, unless it is activating. */
+    void scaleToZero(RegisteredFunction function) {
+        synchronized (lockFor(function.name())) {
+            if (activations.containsKey(function.name())) {
+                return;
+            }
+            scaledToZero.add(function.name());
+            deploymentCoordinator.setReplicas(function, 0);
+        }
+    }
+
+    /** Records that {@code functionName} was observed without replicas, e.g. right after registration. */
+    void markScaledToZero(String functionName) {
+        synchronized (lockFor(functionName)) {
+            if (!activations.containsKey(functionName)) {
+                scaledToZero.add(functionName);
+            }
+        }
+    }
+
+    boolean isScaledToZero(String functionName) {
+        return scaledToZero.contains(functionName);
+    }
+
+    void removeFunctionState(String functionName) {
+        scaledToZero.remove(functionName);
+        locks.remove(functionName);
+    }
+
+    private void runActivation(String functionName, RegisteredFunction knownFunction, int replicas,
+                               CompletableFuture<Void> activation) {
+        long startNanos = System.nanoTime();
+        try {
+            RegisteredFunction function = knownFunction != null
+                    ? knownFunction
+                    : registry.getRegistered(functionName).orElse(null);
+            if (function == null || deploymentCoordinator == null) {
+                return;
+            }
+            synchronized (lockFor(functionName)) {
+                coldStartTracker.recordScaleUp(functionName, 0, replicas);
+                deploymentCoordinator.setReplicas(function, replicas);
+            }
+            long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(properties.activationTimeoutMsOrDefault());
+            while (deploymentCoordinator.getReadyReplicas(function) < 1) {
+                if (System.nanoTime() - deadlineNanos >= 0) {
+                    failure(functionName).increment();
+                    log.warn("Function {} had no ready replica {} ms after activation; releasing its held work",
+                            functionName, properties.activationTimeoutMsOrDefault());
+                    return;
+                }
+                Thread.sleep(READY_POLL_MS);
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+            activationTimer(functionName).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            log.info("Activated function {} from zero in {} ms", functionName, TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure(functionName).increment();
+        } catch (RuntimeException ex) {
+            failure(functionName).increment();
+            log.error("Activation of function {} failed", functionName, ex);
+        } finally {
+            // Clear the mark before completing, so woken dispatchers see the function as active.
+            scaledToZero.remove(functionName);
+            activations.remove(functionName, activation);
+            activation.complete(null);
+        }
+    }
+
+    private Object lockFor(String functionName) {
+        return locks.computeIfAbsent(functionName, name -> new Object());
+    }
+
+    private Timer activationTimer(String functionName) {
+        return Timer.builder("function_activation_ms")
+                .tag("function", functionName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private Counter failure(String functionName) {
+        return Counter.builder("function_activation_failures_total")
+                .tag("function", functionName)
+                .register(meterRegistry);
+    }
+}
@@ -19,6 +19,12 @@ public final class ScalingCooldownTracker {
         return allow(lastScaleDown.get(functionName), now, SCALE_DOWN_COOLDOWN_MS);
     }
 
+    /** Milliseconds until {@link #allowScaleUp} holds again, 0 when it already does. */
+    public long scaleUpCooldownRemainingMs(String functionName, Instant now) {
+        Instant last = lastScaleUp.get(functionName);
+        return last == null ? 0 : Math.max(0, SCALE_UP_COOLDOWN_MS - (now.toEpochMilli() - last.toEpochMilli()));
+    }
+
     public void recordScaleUp(String functionName, Instant now) {
         lastScaleUp.put(functionName, now);
     }
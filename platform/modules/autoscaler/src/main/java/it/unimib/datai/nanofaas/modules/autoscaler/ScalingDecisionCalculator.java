@@ -14,6 +14,15 @@ public final class ScalingDecisionCalculator {
     }
 
     public ScalingDecision calculate(FunctionSpec spec, int currentReplicas) {
+        return calculate(spec, currentReplicas, null);
+    }
+
+    /**
+     * Like {@link #calculate(FunctionSpec, int)}, but each metric counts as the larger of its
+     * current value and its value forecast at the horizon of {@code forecast}, so replicas are
+     * added before the load arrives. A lower forecast never removes replicas early.
+     */
+    ScalingDecision calculate(FunctionSpec spec, int currentReplicas, ArrivalForecaster.Forecast forecast) {
         ScalingConfig scaling = spec.scalingConfig();
         int normalizedCurrentReplicas = currentReplicas <= 0
                 ? Math.max(1, scaling.minReplicas())
@@ -23,7 +32,10 @@ public final class ScalingDecisionCalculator {
         if (scaling.metrics() != null) {
             for (ScalingMetric metric : scaling.metrics()) {
                 double currentValue = metricsReader.readMetric(spec.name(), metric);
-                double targetValue = parseTarget(metric.target());
+                if (forecast != null) {
+                    currentValue = Math.max(currentValue, forecast.predicted(metric.type(), currentValue));
+                }
+                double targetValue = targetOf(metric);
                 if (targetValue > 0) {
                     maxRatio = Math.max(maxRatio, currentValue / targetValue);
                 }
@@ -31,7 +43,13 @@ public final class ScalingDecisionCalculator {
         }
 
         int desiredReplicas = (int) Math.ceil(maxRatio * normalizedCurrentReplicas);
-        desiredReplicas = Math.max(scaling.minReplicas(), Math.min(scaling.maxReplicas(), desiredReplicas));
+        // Load-based scaling keeps at least one replica: with minReplicas 0, zero is reached only
+        // through the scale-to-zero idle window, and an idle function already at zero stays there.
+        int floor = Math.max(1, scaling.minReplicas());
+        desiredReplicas = Math.max(floor, Math.min(scaling.maxReplicas(), desiredReplicas));
+        if (currentReplicas <= 0 && scaling.minReplicas() == 0 && maxRatio == 0.0) {
+            desiredReplicas = 0;
+        }
 
         int effectiveReplicas = currentReplicas <= 0
                 ? Math.max(1, scaling.minReplicas())
@@ -46,7 +64,11 @@ public final class ScalingDecisionCalculator {
         );
     }
 
-    private double parseTarget(String target) {
+    static double targetOf(ScalingMetric metric) {
+        return parseTarget(metric.target());
+    }
+
+    private static double parseTarget(String target) {
         try {
             if (target == null || target.isBlank()) {
                 return DEFAULT_TARGET;
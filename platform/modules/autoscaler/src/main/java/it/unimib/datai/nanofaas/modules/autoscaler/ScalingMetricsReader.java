@@ -2,6 +2,7 @@ package it.unimib.datai.nanofaas.modules.autoscaler;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import it.unimib.datai.nanofaas.common.model.ConcurrencyControlMode;
 import it.unimib.datai.nanofaas.common.model.ScalingMetric;
 import it.unimib.datai.nanofaas.controlplane.service.ScalingMetricsSource;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class ScalingMetricsReader {
     private static final Logger log = LoggerFactory.getLogger(ScalingMetricsReader.class);
@@ -52,6 +54,19 @@ public class ScalingMetricsReader {
         return readInFlight(functionName);
     }
 
+    /** Total dispatches of {@code functionName} so far; only its changes are meaningful. */
+    public double dispatchCount(String functionName) {
+        return dispatchCounter(functionName).count();
+    }
+
+    /** Completed invocations of {@code functionName} and their total latency so far. */
+    public LatencyTotals latencyTotals(String functionName) {
+        Timer timer = meterRegistry.find("function_latency_ms").tag("function", functionName).timer();
+        return timer == null
+                ? LatencyTotals.NONE
+                : new LatencyTotals(timer.count(), timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
     public void setEffectiveConcurrency(String functionName, int effectiveConcurrency) {
         scalingMetricsSource.setEffectiveConcurrency(functionName, effectiveConcurrency);
     }
@@ -68,10 +83,7 @@ public class ScalingMetricsReader {
     }
 
     private double readRps(String functionName) {
-        Counter counter = dispatchCounters.computeIfAbsent(functionName, fn ->
-                Counter.builder("function_dispatch_total")
-                        .tag("function", fn)
-                        .register(meterRegistry));
+        Counter counter = dispatchCounter(functionName);
         CounterSample current = new CounterSample(counter.count(), System.currentTimeMillis());
         CounterSample previous = lastDispatchSamples.put(functionName, current);
         if (previous == null) {
@@ -86,6 +98,17 @@ public class ScalingMetricsReader {
         return deltaCount / (deltaMs / 1000.0);
     }
 
+    private Counter dispatchCounter(String functionName) {
+        return dispatchCounters.computeIfAbsent(functionName, fn ->
+                Counter.builder("function_dispatch_total")
+                        .tag("function", fn)
+                        .register(meterRegistry));
+    }
+
+    public record LatencyTotals(long count, double totalMs) {
+        static final LatencyTotals NONE = new LatencyTotals(0, 0.0);
+    }
+
     private record CounterSample(double count, long epochMs) {
     }
 }
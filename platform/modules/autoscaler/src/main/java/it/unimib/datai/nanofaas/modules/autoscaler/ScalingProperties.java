@@ -3,6 +3,15 @@ package it.unimib.datai.nanofaas.modules.autoscaler;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
+/**
+ * {@code pollIntervalMs}: period of the sweep over every INTERNAL function, default 30 seconds.
+ * Queue load changes get a function evaluated right away, so the sweep is a safety net and the
+ * source of {@code rps} samples and scale-to-zero checks.
+ * {@code scaleToZeroIdleMs}: how long an INTERNAL function with {@code minReplicas: 0} must see
+ * no queued, in-flight or dispatched work before it is scaled to zero, default 5 minutes.
+ * {@code activationTimeoutMs}: how long the first invocation of a scaled-to-zero function waits
+ * for a ready replica before its held work is released anyway, default 2 minutes.
+ */
 @ConfigurationProperties(prefix = "nanofaas.scaling")
 public record ScalingProperties(
         Long pollIntervalMs,
@@ -12,12 +21,38 @@ public record ScalingProperties(
         Long concurrencyUpscaleCooldownMs,
         Long concurrencyDownscaleCooldownMs,
         Double concurrencyHighLoadThreshold,
-        Double concurrencyLowLoadThreshold
+        Double concurrencyLowLoadThreshold,
+        Long scaleToZeroIdleMs,
+        Long activationTimeoutMs
 ) {
     @ConstructorBinding
     public ScalingProperties {
     }
 
+    public ScalingProperties(
+            Long pollIntervalMs,
+            Integer defaultMinReplicas,
+            Integer defaultMaxReplicas,
+            Integer defaultTargetInFlightPerPod,
+            Long concurrencyUpscaleCooldownMs,
+            Long concurrencyDownscaleCooldownMs,
+            Double concurrencyHighLoadThreshold,
+            Double concurrencyLowLoadThreshold
+    ) {
+        this(
+                pollIntervalMs,
+                defaultMinReplicas,
+                defaultMaxReplicas,
+                defaultTargetInFlightPerPod,
+                concurrencyUpscaleCooldownMs,
+                concurrencyDownscaleCooldownMs,
+                concurrencyHighLoadThreshold,
+                concurrencyLowLoadThreshold,
+                null,
+                null
+        );
+    }
+
     public ScalingProperties(
             Long pollIntervalMs,
             Integer defaultMinReplicas,
@@ -31,12 +66,14 @@ public record ScalingProperties(
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
         );
     }
 
     public long pollIntervalMsOrDefault() {
-        return pollIntervalMs != null && pollIntervalMs > 0 ? pollIntervalMs : 5000;
+        return pollIntervalMs != null && pollIntervalMs > 0 ? pollIntervalMs : 30_000;
     }
 
     public int defaultMinReplicasOrDefault() {
@@ -76,4 +113,12 @@ public record ScalingProperties(
                 ? concurrencyLowLoadThreshold
                 : 0.35;
     }
+
+    public long scaleToZeroIdleMsOrDefault() {
+        return scaleToZeroIdleMs != null && scaleToZeroIdleMs >= 0 ? scaleToZeroIdleMs : 300_000L;
+    }
+
+    public long activationTimeoutMsOrDefault() {
+        return activationTimeoutMs != null && activationTimeoutMs > 0 ? activationTimeoutMs : 120_000L;
+    }
 }
@@ -0,0 +1,106 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Turns the load reports of the queues into evaluations of single functions.
+ *
+ * <p>After each evaluation {@link InternalScaler} arms the function with the levels at which its
+ * decision could change: above {@code high} it would add replicas, at or below {@code low} it
+ * could remove one. Each level remembers on which side of the band the value was when armed, and
+ * the first report on another side disarms the function and hands it to the listener; the
+ * evaluation arms it again. A value that stays where it is costs one map lookup per report, and a
+ * burst of reports leads to a single evaluation.</p>
+ */
+final class ScalingTriggers implements ScalingSignals {
+
+    private final Map<String, Armed> armed = new ConcurrentHashMap<>();
+    private volatile Consumer<String> listener = functionName -> { };
+
+    void onTrigger(Consumer<String> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Arms {@code functionName}; a {@code null} level is not watched, and {@code onBacklog}
+     * makes parked sync work trigger as well. Replaces any previous arming.
+     */
+    void arm(String functionName, Level queueDepth, Level inFlight, boolean onBacklog) {
+        if (queueDepth == null && inFlight == null && !onBacklog) {
+            armed.remove(functionName);
+        } else {
+            armed.put(functionName, new Armed(queueDepth, inFlight, onBacklog));
+        }
+    }
+
+    /** Arms {@code functionName} to trigger on its first queued, in-flight or parked work. */
+    void armOnFirstLoad(String functionName) {
+        Level idle = Level.of(Double.NEGATIVE_INFINITY, 0.0, 0.0);
+        armed.putIfAbsent(functionName, new Armed(idle, idle, true));
+    }
+
+    boolean isArmed(String functionName) {
+        return armed.containsKey(functionName);
+    }
+
+    void remove(String functionName) {
+        armed.remove(functionName);
+    }
+
+    @Override
+    public void queueDepthChanged(String functionName, int queueDepth) {
+        Armed current = armed.get(functionName);
+        if (current != null && current.queueDepth() != null && current.queueDepth().crossedBy(queueDepth)) {
+            fire(functionName, current);
+        }
+    }
+
+    @Override
+    public void inFlightChanged(String functionName, int inFlight) {
+        Armed current = armed.get(functionName);
+        if (current != null && current.inFlight() != null && current.inFlight().crossedBy(inFlight)) {
+            fire(functionName, current);
+        }
+    }
+
+    @Override
+    public void backlogWaiting(String functionName) {
+        Armed current = armed.get(functionName);
+        if (current != null && current.onBacklog()) {
+            fire(functionName, current);
+        }
+    }
+
+    private void fire(String functionName, Armed current) {
+        // Only the reporter that disarms the function triggers it.
+        if (armed.remove(functionName, current)) {
+            listener.accept(functionName);
+        }
+    }
+
+    /** The band ({@code low}, {@code high}] of one metric and the side the value was on when armed. */
+    record Level(double low, double high, int side) {
+
+        static Level of(double low, double high, double value) {
+            return new Level(low, high, sideOf(low, high, value));
+        }
+
+        boolean crossedBy(double value) {
+            return sideOf(low, high, value) != side;
+        }
+
+        private static int sideOf(double low, double high, double value) {
+            if (value > high) {
+                return 1;
+            }
+            return value <= low ? -1 : 0;
+        }
+    }
+
+    private record Armed(Level queueDepth, Level inFlight, boolean onBacklog) {
+    }
+}
@@ -0,0 +1,97 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ArrivalForecasterTest {
+
+    private static final ScalingMetricsReader.LatencyTotals NO_LATENCY = ScalingMetricsReader.LatencyTotals.NONE;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ArrivalForecaster forecaster = new ArrivalForecaster(meterRegistry);
+
+    @Test
+    void observe_steadyArrivalsForecastTheSameRate() {
+        assertThat(forecaster.observe("echo", 0, NO_LATENCY, 0).forecastRps()).isZero();
+
+        ArrivalForecaster.Forecast forecast = null;
+        for (int i = 1; i <= 20; i++) {
+            forecast = forecaster.observe("echo", i * 25, NO_LATENCY, i * 5_000L);
+        }
+
+        assertThat(forecast.actualRps()).isEqualTo(5.0);
+        assertThat(forecast.forecastRps()).isCloseTo(5.0, within(1e-9));
+        assertThat(forecast.horizonMs()).isEqualTo(ArrivalForecaster.DEFAULT_HORIZON_MS);
+    }
+
+    @Test
+    void observe_risingArrivalsForecastAboveTheCurrentRate() {
+        ArrivalForecaster.Forecast forecast = risingArrivals();
+
+        assertThat(forecast.actualRps()).isCloseTo(9.2, within(1e-9));
+        assertThat(forecast.forecastRps()).isGreaterThan(forecast.actualRps());
+    }
+
+    @Test
+    void observe_ignoresSamplesCloserThanTheMinimumInterval() {
+        forecaster.observe("echo", 0, NO_LATENCY, 0);
+        forecaster.observe("echo", 10, NO_LATENCY, 2_000);
+
+        ArrivalForecaster.Forecast forecast = forecaster.observe("echo", 500, NO_LATENCY, 2_100);
+
+        assertThat(forecast.actualRps()).isEqualTo(5.0);
+    }
+
+    @Test
+    void recordColdStart_setsTheForecastHorizon() {
+        risingArrivals();
+        double shortHorizon = forecaster.observe("echo", 0, NO_LATENCY, 0).forecastRps();
+
+        forecaster.recordColdStart("echo", 40_000);
+        ArrivalForecaster.Forecast forecast = forecaster.observe("echo", 0, NO_LATENCY, 0);
+
+        assertThat(forecast.horizonMs()).isEqualTo(40_000);
+        assertThat(forecast.forecastRps()).isGreaterThan(shortHorizon);
+    }
+
+    @Test
+    void predicted_inFlightFollowsForecastRateAndServiceTime() {
+        forecaster.observe("echo", 0, new ScalingMetricsReader.LatencyTotals(0, 0.0), 0);
+        ArrivalForecaster.Forecast forecast = forecaster.observe("echo", 40,
+                new ScalingMetricsReader.LatencyTotals(40, 8_000.0), 5_000);
+
+        assertThat(forecast.serviceTimeMs()).isEqualTo(200.0);
+        assertThat(forecast.predicted("in_flight", 1.0)).isCloseTo(8.0 * 0.2, within(1e-9));
+        assertThat(forecast.predicted("rps", 3.0)).isEqualTo(8.0);
+        assertThat(forecast.predicted("queue_depth", 3.0)).isEqualTo(3.0);
+    }
+
+    @Test
+    void remove_dropsForecastGauges() {
+        risingArrivals();
+
+        assertThat(meterRegistry.get("function_forecast_rps").tag("function", "echo").gauge().value())
+                .isGreaterThan(meterRegistry.get("function_arrival_rps").tag("function", "echo").gauge().value());
+        assertThat(meterRegistry.get("function_forecast_horizon_ms").tag("function", "echo").gauge().value())
+                .isEqualTo(ArrivalForecaster.DEFAULT_HORIZON_MS);
+
+        forecaster.remove("echo");
+
+        assertThat(meterRegistry.find("function_forecast_rps").gauge()).isNull();
+        assertThat(meterRegistry.find("function_arrival_rps").gauge()).isNull();
+    }
+
+    /** Arrivals climbing by 0.4 rps every 5 s, sampled every 5 s up to 9.2 rps at 115 s. */
+    private ArrivalForecaster.Forecast risingArrivals() {
+        ArrivalForecaster.Forecast forecast = null;
+        double dispatches = 0;
+        for (int i = 0; i < 24; i++) {
+            dispatches += 0.4 * i * 5;
+            forecast = forecaster.observe("echo", dispatches, NO_LATENCY, i * 5_000L);
+        }
+        return forecast;
+    }
+}
@@ -96,10 +96,11 @@ class InternalScalerBranchTest {
     @Test
     void scalingLoop_scaleDownCooldown_preventsSecondScaleDown() {
         RegisteredFunction spec = spec("echo", 0, 10, List.of(new ScalingMetric("in_flight", "2", null)));
+        scaler = new InternalScaler(registry, metricsReader, deploymentCoordinator,
+                new ScalingProperties(5000L, 0, 10, null, null, null, null, null, 0L, null), new ColdStartTracker());
 
         when(registry.listRegistered()).thenReturn(List.of(spec));
         when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(3);
-        when(metricsReader.readMetric(eq("echo"), any())).thenReturn(0.0);
 
         scaler.scalingLoop();
         scaler.scalingLoop();
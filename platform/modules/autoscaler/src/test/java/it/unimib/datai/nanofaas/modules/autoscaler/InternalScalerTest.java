@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.modules.autoscaler;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.*;
 import it.unimib.datai.nanofaas.controlplane.deployment.ManagedDeploymentCoordinator;
 import it.unimib.datai.nanofaas.controlplane.registry.DeploymentMetadata;
@@ -12,8 +13,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -158,14 +161,15 @@ class InternalScalerTest {
         RegisteredFunction spec = functionSpec("echo", ExecutionMode.DEPLOYMENT, scaling);
 
         when(registry.listRegistered()).thenReturn(List.of(spec));
-        // 0 ready replicas, minReplicas=0 → currentReplicas should be treated as 1
-        when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(0);
+        // 0 ready replicas, minReplicas=0 → currentReplicas should be treated as 1; ready once activated
+        when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(0, 2);
         // in_flight = 4, target = 2, ratio = 2.0, desired = ceil(2.0 * 1) = 2
         when(metricsReader.readMetric("echo", scaling.metrics().get(0))).thenReturn(4.0);
 
         scaler.scalingLoop();
 
-        verify(deploymentCoordinator).setReplicas(spec, 2);
+        // The scale-up from zero runs as an activation, off the scaler thread.
+        verify(deploymentCoordinator, timeout(1000)).setReplicas(spec, 2);
     }
 
     @Test
@@ -174,16 +178,35 @@ class InternalScalerTest {
                 List.of(new ScalingMetric("in_flight", "2", null)));
         RegisteredFunction spec = functionSpec("echo", ExecutionMode.DEPLOYMENT, scaling);
 
+        ScalingProperties noIdleWindow = new ScalingProperties(5000L, 1, 10, null, null, null, null, null, 0L, null);
+        scaler = new InternalScaler(registry, metricsReader, deploymentCoordinator, noIdleWindow, coldStartTracker);
+
         when(registry.listRegistered()).thenReturn(List.of(spec));
         when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(2);
-        // in_flight = 0, target = 2, ratio = 0.0, desired = ceil(0 * 2) = 0, clamped to min=0
-        when(metricsReader.readMetric("echo", scaling.metrics().get(0))).thenReturn(0.0);
+        // no queued, in-flight or dispatched work and no idle window: straight to zero
 
         scaler.scalingLoop();
 
         verify(deploymentCoordinator).setReplicas(spec, 0);
     }
 
+    @Test
+    void scalingLoop_keepsOneReplicaUntilIdleWindowElapses() {
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.INTERNAL, 0, 5,
+                List.of(new ScalingMetric("in_flight", "2", null)));
+        RegisteredFunction spec = functionSpec("echo", ExecutionMode.DEPLOYMENT, scaling);
+
+        when(registry.listRegistered()).thenReturn(List.of(spec));
+        when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(2);
+        when(metricsReader.readMetric("echo", scaling.metrics().get(0))).thenReturn(0.0);
+
+        scaler.scalingLoop();
+
+        // in_flight = 0, but the default idle window has not elapsed: down to one replica only
+        verify(deploymentCoordinator).setReplicas(spec, 1);
+        verify(deploymentCoordinator, never()).setReplicas(spec, 0);
+    }
+
     @Test
     void scalingLoop_adaptiveMode_reducesEffectiveConcurrencyWhenMaxedAndHot() {
         ConcurrencyControlConfig control = new ConcurrencyControlConfig(
@@ -278,6 +301,90 @@ class InternalScalerTest {
         verifyNoInteractions(deploymentCoordinator);
     }
 
+    @Test
+    void scalingLoop_predictiveStrategyScalesAheadOfRisingArrivals() {
+        ArrivalForecaster forecaster = new ArrivalForecaster(new SimpleMeterRegistry());
+        scaler = new InternalScaler(registry, metricsReader, deploymentCoordinator, PROPS, coldStartTracker,
+                new ScaleFromZeroActivator(registry, deploymentCoordinator, PROPS, coldStartTracker,
+                        new SimpleMeterRegistry()),
+                new ScalingTriggers(), forecaster);
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.PREDICTIVE, 1, 10,
+                List.of(new ScalingMetric("rps", "10", null)));
+        RegisteredFunction spec = functionSpec("echo", ExecutionMode.DEPLOYMENT, scaling);
+        // Arrivals climb by 0.4 rps every 5 s up to 9.2 rps; a cold start takes 30 s.
+        long start = System.currentTimeMillis() - 23 * 5_000L;
+        double dispatches = 0;
+        for (int i = 0; i < 24; i++) {
+            dispatches += 0.4 * i * 5;
+            forecaster.observe("echo", dispatches, ScalingMetricsReader.LatencyTotals.NONE, start + i * 5_000L);
+        }
+        forecaster.recordColdStart("echo", 30_000);
+
+        when(registry.listRegistered()).thenReturn(List.of(spec));
+        when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(1);
+        when(metricsReader.readMetric("echo", scaling.metrics().get(0))).thenReturn(9.2);
+        when(metricsReader.dispatchCount("echo")).thenReturn(dispatches);
+        when(metricsReader.latencyTotals("echo")).thenReturn(ScalingMetricsReader.LatencyTotals.NONE);
+
+        scaler.scalingLoop();
+
+        // Reactively 9.2 / 10 keeps one replica; the forecast 30 s ahead is above the target.
+        verify(deploymentCoordinator).setReplicas(spec, 2);
+    }
+
+    @Test
+    void evaluation_armsTriggerAtTheTargetOfItsMetric() {
+        ScalingTriggers triggers = new ScalingTriggers();
+        List<String> triggered = new ArrayList<>();
+        triggers.onTrigger(triggered::add);
+        scaler = new InternalScaler(registry, metricsReader, deploymentCoordinator, PROPS, coldStartTracker,
+                new ScaleFromZeroActivator(registry, deploymentCoordinator, PROPS, coldStartTracker,
+                        new SimpleMeterRegistry()),
+                triggers, new ArrivalForecaster(new SimpleMeterRegistry()));
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.INTERNAL, 1, 10,
+                List.of(new ScalingMetric("in_flight", "2", null)));
+        RegisteredFunction spec = functionSpec("echo", ExecutionMode.DEPLOYMENT, scaling);
+
+        when(registry.listRegistered()).thenReturn(List.of(spec));
+        when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(1);
+        when(metricsReader.readMetric("echo", scaling.metrics().get(0))).thenReturn(1.0);
+        when(metricsReader.inFlight("echo")).thenReturn(1.0);
+
+        scaler.scalingLoop();
+
+        triggers.inFlightChanged("echo", 2);
+        assertThat(triggered).isEmpty();
+        triggers.inFlightChanged("echo", 3);
+        assertThat(triggered).containsExactly("echo");
+    }
+
+    @Test
+    void trigger_evaluatesFunctionWithoutWaitingForTheSweep() {
+        ScalingTriggers triggers = new ScalingTriggers();
+        scaler = new InternalScaler(registry, metricsReader, deploymentCoordinator, PROPS, coldStartTracker,
+                new ScaleFromZeroActivator(registry, deploymentCoordinator, PROPS, coldStartTracker,
+                        new SimpleMeterRegistry()),
+                triggers, new ArrivalForecaster(new SimpleMeterRegistry()));
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.INTERNAL, 1, 10,
+                List.of(new ScalingMetric("queue_depth", "5", null)));
+        RegisteredFunction spec = functionSpec("echo", ExecutionMode.DEPLOYMENT, scaling);
+
+        when(registry.getRegistered("echo")).thenReturn(Optional.of(spec));
+        when(deploymentCoordinator.getReadyReplicas(spec)).thenReturn(1);
+        when(metricsReader.readMetric("echo", scaling.metrics().get(0))).thenReturn(15.0);
+
+        scaler.start();
+        try {
+            scaler.onRegister("echo");
+            triggers.queueDepthChanged("echo", 15);
+
+            // PROPS polls every 5 s: only the trigger can scale within the first second.
+            verify(deploymentCoordinator, timeout(1000)).setReplicas(spec, 3);
+        } finally {
+            scaler.stop();
+        }
+    }
+
     @Test
     void doesNotStartWithoutDeploymentCoordinator() {
         InternalScaler noK8sScaler = new InternalScaler(registry, metricsReader, null, PROPS, coldStartTracker);
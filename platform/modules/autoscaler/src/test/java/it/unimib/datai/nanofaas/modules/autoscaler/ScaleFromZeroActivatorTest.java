@@ -0,0 +1,97 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionMode;
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+import it.unimib.datai.nanofaas.common.model.RuntimeMode;
+import it.unimib.datai.nanofaas.controlplane.deployment.ManagedDeploymentCoordinator;
+import it.unimib.datai.nanofaas.controlplane.registry.DeploymentMetadata;
+import it.unimib.datai.nanofaas.controlplane.registry.FunctionRegistry;
+import it.unimib.datai.nanofaas.controlplane.registry.RegisteredFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScaleFromZeroActivatorTest {
+
+    private final FunctionRegistry registry = mock(FunctionRegistry.class);
+    private final ManagedDeploymentCoordinator deploymentCoordinator = mock(ManagedDeploymentCoordinator.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RegisteredFunction function;
+
+    @BeforeEach
+    void setUp() {
+        FunctionSpec spec = new FunctionSpec(
+                "echo", "image:latest",
+                List.of(), Map.of(), null,
+                30000, 4, 100, 3,
+                "http://fn-echo.default.svc:8080/invoke",
+                ExecutionMode.DEPLOYMENT, RuntimeMode.HTTP, null, null
+        );
+        function = new RegisteredFunction(
+                spec,
+                new DeploymentMetadata(ExecutionMode.DEPLOYMENT, ExecutionMode.DEPLOYMENT, "k8s", null)
+        );
+        when(registry.getRegistered("echo")).thenReturn(Optional.of(function));
+    }
+
+    @Test
+    void activate_returnsCompletedFutureWhenNotScaledToZero() {
+        ScaleFromZeroActivator activator = activator(120_000L);
+
+        assertThat(activator.activate("echo")).isDone();
+        verify(deploymentCoordinator, never()).setReplicas(function, 1);
+    }
+
+    @Test
+    void activate_scalesToOneReplicaAndCompletesWhenReady() throws Exception {
+        ScaleFromZeroActivator activator = activator(120_000L);
+        when(deploymentCoordinator.getReadyReplicas(function)).thenReturn(0, 0, 1);
+        activator.scaleToZero(function);
+        verify(deploymentCoordinator).setReplicas(function, 0);
+
+        CompletableFuture<Void> first = activator.activate("echo");
+        CompletableFuture<Void> second = activator.activate("echo");
+
+        assertThat(second).isSameAs(first);
+        first.get(5, TimeUnit.SECONDS);
+        verify(deploymentCoordinator, times(1)).setReplicas(function, 1);
+        assertThat(activator.isScaledToZero("echo")).isFalse();
+        assertThat(activator.activate("echo")).isDone();
+        assertThat(meterRegistry.find("function_activation_ms").tag("function", "echo").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void activate_releasesHeldWorkAfterTimeout() throws Exception {
+        ScaleFromZeroActivator activator = activator(100L);
+        when(deploymentCoordinator.getReadyReplicas(function)).thenReturn(0);
+        activator.markScaledToZero("echo");
+
+        activator.activate("echo").get(5, TimeUnit.SECONDS);
+
+        assertThat(activator.isScaledToZero("echo")).isFalse();
+        assertThat(meterRegistry.find("function_activation_failures_total").tag("function", "echo").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.find("function_activation_ms").timer()).isNull();
+    }
+
+    private ScaleFromZeroActivator activator(long activationTimeoutMs) {
+        ScalingProperties properties = new ScalingProperties(
+                5000L, 1, 10, null, null, null, null, null, null, activationTimeoutMs);
+        return new ScaleFromZeroActivator(registry, deploymentCoordinator, properties, new ColdStartTracker(),
+                meterRegistry);
+    }
+}
@@ -9,13 +9,13 @@ class ScalingPropertiesTest {
     @Test
     void pollIntervalMsOrDefault_nullReturnsDefault() {
         ScalingProperties props = new ScalingProperties(null, null, null);
-        assertEquals(5000, props.pollIntervalMsOrDefault());
+        assertEquals(30_000, props.pollIntervalMsOrDefault());
     }
 
     @Test
     void pollIntervalMsOrDefault_zeroReturnsDefault() {
         ScalingProperties props = new ScalingProperties(0L, null, null);
-        assertEquals(5000, props.pollIntervalMsOrDefault());
+        assertEquals(30_000, props.pollIntervalMsOrDefault());
     }
 
     @Test
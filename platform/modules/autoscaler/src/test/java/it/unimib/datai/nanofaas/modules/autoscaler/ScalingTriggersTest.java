@@ -0,0 +1,94 @@
+package it.unimib.datai.nanofaas.modules.autoscaler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalingTriggersTest {
+
+    private final ScalingTriggers triggers = new ScalingTriggers();
+    private final List<String> triggered = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        triggers.onTrigger(triggered::add);
+    }
+
+    @Test
+    void crossingAboveHigh_triggersOnceUntilRearmed() {
+        triggers.arm("echo", null, ScalingTriggers.Level.of(1.0, 4.0, 2.0), false);
+
+        triggers.inFlightChanged("echo", 3);
+        triggers.inFlightChanged("echo", 4);
+        assertThat(triggered).isEmpty();
+
+        triggers.inFlightChanged("echo", 5);
+        triggers.inFlightChanged("echo", 6);
+        triggers.queueDepthChanged("echo", 100);
+
+        assertThat(triggered).containsExactly("echo");
+        assertThat(triggers.isArmed("echo")).isFalse();
+    }
+
+    @Test
+    void levelRemembersSideAtArmTime() {
+        // Armed while already above the band, e.g. during a scale-up cooldown: only a drop triggers.
+        triggers.arm("echo", ScalingTriggers.Level.of(2.0, 5.0, 9.0), null, false);
+
+        triggers.queueDepthChanged("echo", 12);
+        assertThat(triggered).isEmpty();
+
+        triggers.queueDepthChanged("echo", 4);
+        assertThat(triggered).containsExactly("echo");
+    }
+
+    @Test
+    void droppingToLow_triggers() {
+        triggers.arm("echo", null, ScalingTriggers.Level.of(1.0, 4.0, 3.0), false);
+
+        triggers.inFlightChanged("echo", 1);
+
+        assertThat(triggered).containsExactly("echo");
+    }
+
+    @Test
+    void backlog_triggersOnlyWhenArmedForIt() {
+        triggers.arm("a", ScalingTriggers.Level.of(0.0, 4.0, 0.0), null, false);
+        triggers.arm("b", ScalingTriggers.Level.of(0.0, 4.0, 0.0), null, true);
+
+        triggers.backlogWaiting("a");
+        triggers.backlogWaiting("b");
+        triggers.backlogWaiting("unknown");
+
+        assertThat(triggered).containsExactly("b");
+    }
+
+    @Test
+    void armOnFirstLoad_triggersOnFirstWorkAndKeepsExistingArming() {
+        triggers.armOnFirstLoad("fresh");
+        triggers.arm("known", ScalingTriggers.Level.of(0.0, 10.0, 1.0), null, false);
+        triggers.armOnFirstLoad("known");
+
+        triggers.inFlightChanged("fresh", 0);
+        triggers.queueDepthChanged("known", 2);
+        assertThat(triggered).isEmpty();
+
+        triggers.queueDepthChanged("fresh", 1);
+        assertThat(triggered).containsExactly("fresh");
+    }
+
+    @Test
+    void remove_stopsTriggering() {
+        triggers.arm("echo", null, ScalingTriggers.Level.of(1.0, 4.0, 2.0), true);
+        triggers.remove("echo");
+
+        triggers.inFlightChanged("echo", 10);
+        triggers.backlogWaiting("echo");
+
+        assertThat(triggered).isEmpty();
+    }
+}
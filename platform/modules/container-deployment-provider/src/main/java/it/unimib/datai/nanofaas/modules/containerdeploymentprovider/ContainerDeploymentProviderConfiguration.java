@@ -1,5 +1,7 @@
 package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,7 +33,7 @@ public class ContainerDeploymentProviderConfiguration {
 
     @Bean
     ManagedFunctionProxyFactory managedFunctionProxyFactory(ContainerLocalProperties properties) {
-        return new RoundRobinFunctionProxyFactory(properties.bindHost());
+        return new LeastLoadedFunctionProxyFactory(properties.bindHost());
     }
 
     @Bean
@@ -39,7 +41,9 @@ public class ContainerDeploymentProviderConfiguration {
                                                                      ContainerLocalProperties properties,
                                                                      EndpointProbe endpointProbe,
                                                                      PortAllocator portAllocator,
-                                                                     ManagedFunctionProxyFactory proxyFactory) {
-        return new ContainerLocalDeploymentProvider(adapter, properties, endpointProbe, portAllocator, proxyFactory);
+                                                                     ManagedFunctionProxyFactory proxyFactory,
+                                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ContainerLocalDeploymentProvider(adapter, properties, endpointProbe, portAllocator, proxyFactory,
+                new ContainerLocalMetrics(meterRegistry.getIfAvailable()));
     }
 }
@@ -6,15 +6,36 @@ import it.unimib.datai.nanofaas.common.model.ScalingConfig;
 import it.unimib.datai.nanofaas.controlplane.deployment.ManagedDeploymentProvider;
 import it.unimib.datai.nanofaas.controlplane.deployment.ProvisionResult;
 
+import io.micrometer.core.instrument.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Runs DEPLOYMENT functions as local containers behind a {@link ManagedFunctionProxy}.
+ *
+ * <p>With {@code warmPoolSize > 0} every function also keeps that many started, healthy spare
+ * containers. Scale-up takes spares first and only starts the remainder; scale-down parks removed
+ * replicas as spares while the pool has room. The pool is per function rather than per image
+ * because the container environment names the function. The pool is refilled in the
+ * background.</p>
+ */
 public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(ContainerLocalDeploymentProvider.class);
     static final String BACKEND_ID = "container-local";
     private static final Set<String> RESERVED_ENV = Set.of(
             "FUNCTION_NAME", "WARM", "TIMEOUT_MS", "EXECUTION_MODE", "WATCHDOG_CMD", "CALLBACK_URL"
@@ -25,6 +46,8 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
     private final EndpointProbe endpointProbe;
     private final PortAllocator portAllocator;
     private final ManagedFunctionProxyFactory proxyFactory;
+    private final ContainerLocalMetrics metrics;
+    private final ExecutorService startExecutor = Executors.newVirtualThreadPerTaskExecutor();
     private final Map<String, FunctionState> states = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
 
@@ -33,11 +56,21 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
                                             EndpointProbe endpointProbe,
                                             PortAllocator portAllocator,
                                             ManagedFunctionProxyFactory proxyFactory) {
+        this(adapter, properties, endpointProbe, portAllocator, proxyFactory, new ContainerLocalMetrics(null));
+    }
+
+    ContainerLocalDeploymentProvider(ContainerRuntimeAdapter adapter,
+                                     ContainerLocalProperties properties,
+                                     EndpointProbe endpointProbe,
+                                     PortAllocator portAllocator,
+                                     ManagedFunctionProxyFactory proxyFactory,
+                                     ContainerLocalMetrics metrics) {
         this.adapter = adapter;
         this.properties = properties;
         this.endpointProbe = endpointProbe;
         this.portAllocator = portAllocator;
         this.proxyFactory = proxyFactory;
+        this.metrics = metrics;
     }
 
     @Override
@@ -59,27 +92,43 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
     @Override
     public ProvisionResult provision(FunctionSpec spec) {
         ReentrantLock lock = locks.computeIfAbsent(spec.name(), k -> new ReentrantLock());
+        FunctionState state;
+        boolean created = false;
         lock.lock();
         try {
             FunctionState existing = states.get(spec.name());
             if (existing != null) {
-                return new ProvisionResult(existing.proxy.endpointUrl(), backendId());
-            }
-
-            ManagedFunctionProxy proxy = proxyFactory.create(spec.name());
-            FunctionState state = new FunctionState(spec, proxy);
-            states.put(spec.name(), state);
-            try {
-                scaleTo(state, desiredReplicas(spec));
-                return new ProvisionResult(proxy.endpointUrl(), backendId());
-            } catch (RuntimeException e) {
-                states.remove(spec.name());
-                safeClose(proxy);
-                throw e;
+                state = existing;
+            } else {
+                created = true;
+                state = new FunctionState(spec, proxyFactory.create(spec));
+                state.warmPoolGauge = metrics.registerWarmPoolSize(spec.name(), state::spareCount);
+                states.put(spec.name(), state);
             }
         } finally {
             lock.unlock();
         }
+        if (!created) {
+            awaitProvisioned(state);
+            return new ProvisionResult(state.proxy.endpointUrl(), backendId());
+        }
+        try {
+            scaleTo(state, desiredReplicas(spec));
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                if (states.remove(spec.name(), state)) {
+                    teardown(state);
+                }
+            } finally {
+                lock.unlock();
+            }
+            state.provisioned.completeExceptionally(e);
+            throw e;
+        }
+        state.provisioned.complete(null);
+        refillWarmPool(state);
+        return new ProvisionResult(state.proxy.endpointUrl(), backendId());
     }
 
     @Override
@@ -94,10 +143,7 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
             if (state == null) {
                 return;
             }
-            for (int replicaIndex : List.copyOf(state.replicas.keySet()).reversed()) {
-                removeReplica(state, replicaIndex);
-            }
-            safeClose(state.proxy);
+            teardown(state);
         } finally {
             lock.unlock();
             locks.remove(functionName);
@@ -106,20 +152,12 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
 
     @Override
     public void setReplicas(String functionName, int replicas) {
-        ReentrantLock lock = locks.get(functionName);
-        if (lock == null) {
+        FunctionState state = states.get(functionName);
+        if (state == null) {
             return;
         }
-        lock.lock();
-        try {
-            FunctionState state = states.get(functionName);
-            if (state == null) {
-                return;
-            }
-            scaleTo(state, Math.max(0, replicas));
-        } finally {
-            lock.unlock();
-        }
+        scaleTo(state, Math.max(0, replicas));
+        refillWarmPool(state);
     }
 
     @Override
@@ -142,46 +180,223 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
         }
     }
 
+    /**
+     * Brings {@code state} to {@code desiredReplicas}. Removals, warm-pool hand-outs and slot
+     * reservations happen under the function lock; the containers that still have to be started
+     * are started in parallel after the lock is released, so readiness polling never blocks other
+     * calls for the function. Started containers are only attached if they are still wanted.
+     */
     private void scaleTo(FunctionState state, int desiredReplicas) {
-        int currentReplicas = state.replicas.size();
-        if (desiredReplicas > currentReplicas) {
-            for (int replicaIndex = currentReplicas + 1; replicaIndex <= desiredReplicas; replicaIndex++) {
-                addReplica(state, replicaIndex);
+        ReentrantLock lock = locks.get(state.spec.name());
+        if (lock == null) {
+            return;
+        }
+        List<Slot> slots;
+        lock.lock();
+        try {
+            if (states.get(state.spec.name()) != state) {
+                return;
+            }
+            state.desired = desiredReplicas;
+            while (state.replicas.size() > desiredReplicas) {
+                retireReplica(state, state.replicas.lastEntry().getValue());
+            }
+            int missing = desiredReplicas - state.replicas.size() - state.starting;
+            while (missing > 0 && takeSpare(state)) {
+                missing--;
+            }
+            if (missing > 0) {
+                metrics.warmPoolMiss(state.spec.name(), missing);
+            }
+            slots = reserveSlots(state, missing);
+            state.starting += slots.size();
+            state.proxy.updateBackends(state.backendUrls());
+        } finally {
+            lock.unlock();
+        }
+        if (slots.isEmpty()) {
+            return;
+        }
+
+        List<StartResult> results = startAll(state.spec, slots);
+        lock.lock();
+        try {
+            state.starting -= slots.size();
+            boolean current = states.get(state.spec.name()) == state;
+            for (StartResult result : results) {
+                if (result.replica() == null) {
+                    state.reserved.remove(result.slot().index());
+                } else if (current && state.replicas.size() < state.desired) {
+                    state.replicas.put(result.slot().index(), result.replica());
+                } else if (current) {
+                    retireReplica(state, result.replica());
+                } else {
+                    adapter.removeContainer(result.replica().containerName());
+                }
+            }
+            if (current) {
+                state.proxy.updateBackends(state.backendUrls());
+            }
+        } finally {
+            lock.unlock();
+        }
+        throwFirstFailure(results);
+    }
+
+    /** Tops the function's spare containers back up to {@code warmPoolSize} in the background. */
+    private void refillWarmPool(FunctionState state) {
+        if (properties.warmPoolSize() == 0) {
+            return;
+        }
+        ReentrantLock lock = locks.get(state.spec.name());
+        if (lock == null) {
+            return;
+        }
+        List<Slot> slots;
+        lock.lock();
+        try {
+            if (states.get(state.spec.name()) != state) {
+                return;
+            }
+            slots = reserveSlots(state, properties.warmPoolSize() - state.spares.size() - state.warming);
+            state.warming += slots.size();
+        } finally {
+            lock.unlock();
+        }
+        if (slots.isEmpty()) {
+            return;
+        }
+        startExecutor.execute(() -> {
+            List<StartResult> results = startAll(state.spec, slots);
+            lock.lock();
+            try {
+                state.warming -= slots.size();
+                boolean current = states.get(state.spec.name()) == state;
+                for (StartResult result : results) {
+                    if (result.replica() == null) {
+                        state.reserved.remove(result.slot().index());
+                    } else if (current) {
+                        state.spares.addLast(result.replica());
+                    } else {
+                        adapter.removeContainer(result.replica().containerName());
+                    }
+                }
+            } finally {
+                lock.unlock();
             }
-        } else if (desiredReplicas < currentReplicas) {
-            for (int replicaIndex = currentReplicas; replicaIndex > desiredReplicas; replicaIndex--) {
-                removeReplica(state, replicaIndex);
+            results.stream()
+                    .filter(result -> result.failure() != null)
+                    .findFirst()
+                    .ifPresent(result -> log.warn("Unable to start warm container for function {}: {}",
+                            state.spec.name(), result.failure().getMessage()));
+        });
+    }
+
+    /** Caller holds the function lock. */
+    private boolean takeSpare(FunctionState state) {
+        while (!state.spares.isEmpty()) {
+            ReplicaState spare = state.spares.pollFirst();
+            if (endpointProbe.isReady(spare.baseUrl())) {
+                state.replicas.put(spare.index(), spare);
+                metrics.warmPoolHit(state.spec.name());
+                return true;
+            }
+            state.reserved.remove(spare.index());
+            adapter.removeContainer(spare.containerName());
+        }
+        return false;
+    }
+
+    /** Caller holds the function lock. Keeps the container as a spare when the pool has room. */
+    private void retireReplica(FunctionState state, ReplicaState replica) {
+        state.replicas.remove(replica.index());
+        if (state.spares.size() + state.warming < properties.warmPoolSize()) {
+            state.spares.addLast(replica);
+            return;
+        }
+        state.reserved.remove(replica.index());
+        adapter.removeContainer(replica.containerName());
+    }
+
+    /** Caller holds the function lock. Reuses the lowest free indexes so container names stay short. */
+    private List<Slot> reserveSlots(FunctionState state, int count) {
+        List<Slot> slots = new ArrayList<>(Math.max(0, count));
+        for (int index = 1; slots.size() < count; index++) {
+            if (state.reserved.add(index)) {
+                slots.add(new Slot(index, portAllocator.nextPort()));
             }
         }
-        state.proxy.updateBackends(state.replicas.values().stream().map(ReplicaState::baseUrl).toList());
+        return slots;
     }
 
-    private void addReplica(FunctionState state, int replicaIndex) {
-        String containerName = containerName(state.spec.name(), replicaIndex);
-        int hostPort = portAllocator.nextPort();
-        String baseUrl = baseUrl(hostPort);
+    /** Starts every slot in parallel and waits for all of them; results keep the order of {@code slots}. */
+    private List<StartResult> startAll(FunctionSpec spec, List<Slot> slots) {
+        if (slots.size() == 1) {
+            return List.of(start(spec, slots.getFirst()));
+        }
+        List<CompletableFuture<StartResult>> futures = slots.stream()
+                .map(slot -> CompletableFuture.supplyAsync(() -> start(spec, slot), startExecutor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private StartResult start(FunctionSpec spec, Slot slot) {
+        String containerName = containerName(spec.name(), slot.index());
+        String baseUrl = baseUrl(slot.hostPort());
         ContainerInstanceSpec instanceSpec = new ContainerInstanceSpec(
                 containerName,
-                state.spec.image(),
-                hostPort,
-                state.spec.command() == null ? List.of() : state.spec.command(),
-                buildEnv(state.spec)
+                spec.image(),
+                slot.hostPort(),
+                spec.command() == null ? List.of() : spec.command(),
+                buildEnv(spec)
         );
-
-        adapter.runContainer(instanceSpec);
         try {
-            endpointProbe.awaitReady(baseUrl, properties.readinessTimeout(), properties.readinessPollInterval());
+            metrics.containerStart(spec.name()).record(() -> adapter.runContainer(instanceSpec));
+        } catch (RuntimeException e) {
+            return new StartResult(slot, null, e);
+        }
+        try {
+            metrics.containerReadiness(spec.name()).record(() ->
+                    endpointProbe.awaitReady(baseUrl, properties.readinessTimeout(), properties.readinessPollInterval()));
         } catch (RuntimeException e) {
             adapter.removeContainer(containerName);
+            return new StartResult(slot, null, e);
+        }
+        return new StartResult(slot, new ReplicaState(slot.index(), containerName, slot.hostPort(), baseUrl), null);
+    }
+
+    /** Caller holds the function lock. */
+    private void teardown(FunctionState state) {
+        for (ReplicaState replica : List.copyOf(state.replicas.values()).reversed()) {
+            adapter.removeContainer(replica.containerName());
+        }
+        state.replicas.clear();
+        for (ReplicaState spare : state.spares) {
+            adapter.removeContainer(spare.containerName());
+        }
+        state.spares.clear();
+        if (state.warmPoolGauge != null) {
+            metrics.remove(state.warmPoolGauge);
+        }
+        safeClose(state.proxy);
+    }
+
+    private static void awaitProvisioned(FunctionState state) {
+        try {
+            state.provisioned.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
             throw e;
         }
-        state.replicas.put(replicaIndex, new ReplicaState(containerName, hostPort, baseUrl));
     }
 
-    private void removeReplica(FunctionState state, int replicaIndex) {
-        ReplicaState removed = state.replicas.remove(replicaIndex);
-        if (removed != null) {
-            adapter.removeContainer(removed.containerName());
+    private static void throwFirstFailure(List<StartResult> results) {
+        for (StartResult result : results) {
+            if (result.failure() != null) {
+                throw result.failure();
+            }
         }
     }
 
@@ -244,17 +459,40 @@ public class ContainerLocalDeploymentProvider implements ManagedDeploymentProvid
         }
     }
 
+    /** Mutable fields are guarded by the function lock. */
     private static final class FunctionState {
         private final FunctionSpec spec;
         private final ManagedFunctionProxy proxy;
+        private final CompletableFuture<Void> provisioned = new CompletableFuture<>();
         private final LinkedHashMap<Integer, ReplicaState> replicas = new LinkedHashMap<>();
+        private final ArrayDeque<ReplicaState> spares = new ArrayDeque<>();
+        /** Indexes held by replicas, spares and containers being started. */
+        private final Set<Integer> reserved = new HashSet<>();
+        private int desired;
+        private int starting;
+        private int warming;
+        private Meter.Id warmPoolGauge;
 
         private FunctionState(FunctionSpec spec, ManagedFunctionProxy proxy) {
             this.spec = spec;
             this.proxy = proxy;
         }
+
+        int spareCount() {
+            return spares.size();
+        }
+
+        List<String> backendUrls() {
+            return replicas.values().stream().map(ReplicaState::baseUrl).toList();
+        }
+    }
+
+    private record ReplicaState(int index, String containerName, int hostPort, String baseUrl) {
+    }
+
+    private record Slot(int index, int hostPort) {
     }
 
-    private record ReplicaState(String containerName, int hostPort, String baseUrl) {
+    private record StartResult(Slot slot, ReplicaState replica, RuntimeException failure) {
     }
 }
@@ -0,0 +1,61 @@
+package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.function.Supplier;
+
+/**
+ * Cold-start cost of container-local replicas: how long {@code run} and the readiness wait take,
+ * and how often a scale-up was served from the warm pool instead.
+ */
+final class ContainerLocalMetrics {
+
+    private final MeterRegistry registry;
+
+    ContainerLocalMetrics(MeterRegistry registry) {
+        this.registry = registry == null ? new SimpleMeterRegistry() : registry;
+    }
+
+    Timer containerStart(String function) {
+        return timer("container_start_ms", function);
+    }
+
+    Timer containerReadiness(String function) {
+        return timer("container_readiness_ms", function);
+    }
+
+    void warmPoolHit(String function) {
+        counter("container_warm_pool_hits_total", function).increment();
+    }
+
+    void warmPoolMiss(String function, int replicas) {
+        counter("container_warm_pool_misses_total", function).increment(replicas);
+    }
+
+    Meter.Id registerWarmPoolSize(String function, Supplier<Number> size) {
+        return Gauge.builder("container_warm_pool_size", size)
+                .tag("function", function)
+                .register(registry)
+                .getId();
+    }
+
+    void remove(Meter.Id id) {
+        registry.remove(id);
+    }
+
+    private Counter counter(String name, String function) {
+        return Counter.builder(name).tag("function", function).register(registry);
+    }
+
+    private Timer timer(String name, String function) {
+        return Timer.builder(name)
+                .tag("function", function)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
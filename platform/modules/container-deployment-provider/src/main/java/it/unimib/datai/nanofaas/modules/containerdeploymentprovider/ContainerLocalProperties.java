@@ -1,18 +1,48 @@
 package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
 import java.time.Duration;
 
+/**
+ * {@code warmPoolSize}: started and healthy spare containers kept per function and handed out on
+ * scale-up before new ones are started, default 0 (no pool).
+ */
 @ConfigurationProperties(prefix = "nanofaas.container-local")
 public record ContainerLocalProperties(
         String runtimeAdapter,
         String bindHost,
         Duration readinessTimeout,
         Duration readinessPollInterval,
-        String callbackUrl
+        String callbackUrl,
+        Integer warmPoolSize
 ) {
     public ContainerLocalProperties() {
-        this("docker", "127.0.0.1", Duration.ofSeconds(20), Duration.ofMillis(250), null);
+        this(null, null, null, null, null, null);
+    }
+
+    public ContainerLocalProperties(String runtimeAdapter, String bindHost, Duration readinessTimeout,
+                                    Duration readinessPollInterval, String callbackUrl) {
+        this(runtimeAdapter, bindHost, readinessTimeout, readinessPollInterval, callbackUrl, null);
+    }
+
+    @ConstructorBinding
+    public ContainerLocalProperties {
+        if (runtimeAdapter == null || runtimeAdapter.isBlank()) {
+            runtimeAdapter = "docker";
+        }
+        if (bindHost == null || bindHost.isBlank()) {
+            bindHost = "127.0.0.1";
+        }
+        if (readinessTimeout == null) {
+            readinessTimeout = Duration.ofSeconds(20);
+        }
+        if (readinessPollInterval == null) {
+            readinessPollInterval = Duration.ofMillis(250);
+        }
+        if (warmPoolSize == null || warmPoolSize < 0) {
+            warmPoolSize = 0;
+        }
     }
 }
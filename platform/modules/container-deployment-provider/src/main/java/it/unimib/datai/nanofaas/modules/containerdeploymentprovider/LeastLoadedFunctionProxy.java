@@ -0,0 +1,287 @@
+package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Stable local endpoint in front of the containers of one function.
+ *
+ * <p>Every exchange runs on its own virtual thread and bodies are streamed in both directions,
+ * so a slow or large invocation holds neither a platform thread nor a full copy of its payload.
+ * Each request goes to the backend with the fewest requests in flight; ties rotate so idle
+ * backends are used in turn. A backend that refuses connections or answers 502/503/504
+ * {@value #EJECT_AFTER_FAILURES} times in a row is left out for {@code ejectionCooldown}, unless
+ * every backend is ejected, in which case all of them are tried again. Requests time out after
+ * the function's {@code timeoutMs}.</p>
+ */
+public final class LeastLoadedFunctionProxy implements ManagedFunctionProxy {
+
+    static final int EJECT_AFTER_FAILURES = 3;
+    static final Duration DEFAULT_EJECTION_COOLDOWN = Duration.ofSeconds(5);
+
+    private static final byte[] NO_BACKENDS = "No ready container backends".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String bindHost;
+    private final Duration requestTimeout;
+    private final long ejectionCooldownNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<Backend[]> backends = new AtomicReference<>(new Backend[0]);
+    private final AtomicInteger counter = new AtomicInteger();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    public LeastLoadedFunctionProxy(String bindHost, Duration requestTimeout) {
+        this(bindHost, requestTimeout, DEFAULT_EJECTION_COOLDOWN, System::nanoTime);
+    }
+
+    LeastLoadedFunctionProxy(String bindHost, Duration requestTimeout, Duration ejectionCooldown,
+                             LongSupplier nanoClock) {
+        this.bindHost = bindHost == null || bindHost.isBlank() ? "127.0.0.1" : bindHost;
+        this.requestTimeout = requestTimeout == null || requestTimeout.isZero() || requestTimeout.isNegative()
+                ? Duration.ofSeconds(30)
+                : requestTimeout;
+        this.ejectionCooldownNanos = ejectionCooldown.toNanos();
+        this.nanoClock = nanoClock;
+        try {
+            this.server = HttpServer.create(new InetSocketAddress(this.bindHost, 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to start local function proxy", e);
+        }
+        server.setExecutor(executor);
+        server.createContext("/invoke", this::handleInvoke);
+        server.createContext("/health", this::handleHealth);
+        server.start();
+    }
+
+    @Override
+    public String endpointUrl() {
+        return "http://" + bindHost + ":" + server.getAddress().getPort() + "/invoke";
+    }
+
+    @Override
+    public void updateBackends(List<String> backendBaseUrls) {
+        List<String> urls = backendBaseUrls == null ? List.of() : backendBaseUrls;
+        // Keep the state of backends that are still there, so in-flight counts and ejections survive.
+        backends.updateAndGet(current -> {
+            Map<String, Backend> previous = new HashMap<>();
+            for (Backend backend : current) {
+                previous.put(backend.baseUrl, backend);
+            }
+            Backend[] next = new Backend[urls.size()];
+            for (int i = 0; i < next.length; i++) {
+                Backend backend = previous.get(urls.get(i));
+                next[i] = backend != null ? backend : new Backend(urls.get(i));
+            }
+            return next;
+        });
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** Requests currently proxied to {@code baseUrl}, or -1 when it is not a backend. */
+    int inFlight(String baseUrl) {
+        for (Backend backend : backends.get()) {
+            if (backend.baseUrl.equals(baseUrl)) {
+                return backend.inFlight.get();
+            }
+        }
+        return -1;
+    }
+
+    private void handleInvoke(HttpExchange exchange) throws IOException {
+        Backend backend = selectBackend(backends.get());
+        if (backend == null) {
+            sendError(exchange, 503, NO_BACKENDS);
+            return;
+        }
+
+        URI target = URI.create(backend.baseUrl + exchange.getRequestURI().getPath()
+                + (exchange.getRequestURI().getRawQuery() == null ? "" : "?" + exchange.getRequestURI().getRawQuery()));
+        HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(target)
+                .timeout(requestTimeout)
+                .method(exchange.getRequestMethod(), requestBody(exchange));
+        copyRequestHeaders(exchange, requestBuilder);
+
+        backend.inFlight.incrementAndGet();
+        try {
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (HttpTimeoutException e) {
+                // A slow function is not a broken backend: time out without counting a failure.
+                sendError(exchange, 504, ("Function did not answer within " + requestTimeout.toMillis() + " ms")
+                        .getBytes(StandardCharsets.UTF_8));
+                return;
+            } catch (IOException e) {
+                backend.recordFailure();
+                sendError(exchange, 502, ("Proxy error: " + e.getMessage()).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            int status = response.statusCode();
+            if (status == 502 || status == 503 || status == 504) {
+                backend.recordFailure();
+            } else {
+                backend.recordSuccess();
+            }
+            copyResponseHeaders(response, exchange);
+            try (InputStream body = response.body(); OutputStream outputStream = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(status, responseLength(exchange, response));
+                body.transferTo(outputStream);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 500, "Interrupted while proxying request".getBytes(StandardCharsets.UTF_8));
+        } finally {
+            backend.inFlight.decrementAndGet();
+        }
+    }
+
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        boolean down = backends.get().length == 0;
+        byte[] body = (down ? "DOWN" : "UP").getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(down ? 503 : 200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private Backend selectBackend(Backend[] current) {
+        int n = current.length;
+        if (n == 0) {
+            return null;
+        }
+        long now = nanoClock.getAsLong();
+        int start = Math.floorMod(counter.getAndIncrement(), n);
+        Backend best = null;
+        for (int i = 0; i < n; i++) {
+            Backend candidate = current[(start + i) % n];
+            if (candidate.isEjected(now)) {
+                continue;
+            }
+            if (best == null || candidate.inFlight.get() < best.inFlight.get()) {
+                best = candidate;
+            }
+        }
+        // Every backend ejected: better to try one than to fail the whole function.
+        return best != null ? best : current[start];
+    }
+
+    private static HttpRequest.BodyPublisher requestBody(HttpExchange exchange) {
+        String contentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+        long length = -1;
+        if (contentLength != null) {
+            try {
+                length = Long.parseLong(contentLength.strip());
+            } catch (NumberFormatException ignored) {
+                // fall through to a chunked upload
+            }
+        }
+        if (length == 0) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        HttpRequest.BodyPublisher stream = HttpRequest.BodyPublishers.ofInputStream(exchange::getRequestBody);
+        return length > 0 ? HttpRequest.BodyPublishers.fromPublisher(stream, length) : stream;
+    }
+
+    private static long responseLength(HttpExchange exchange, HttpResponse<InputStream> response) {
+        int status = response.statusCode();
+        if (status == 204 || status == 304 || "HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+            return -1;
+        }
+        long length = response.headers().firstValueAsLong("content-length").orElse(-1);
+        // HttpServer: -1 means no body, 0 means chunked.
+        return length == 0 ? -1 : Math.max(length, 0);
+    }
+
+    private static void sendError(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static void copyRequestHeaders(HttpExchange exchange, HttpRequest.Builder builder) {
+        for (Map.Entry<String, List<String>> entry : exchange.getRequestHeaders().entrySet()) {
+            if ("host".equalsIgnoreCase(entry.getKey())
+                    || "content-length".equalsIgnoreCase(entry.getKey())
+                    || "connection".equalsIgnoreCase(entry.getKey())
+                    || "upgrade".equalsIgnoreCase(entry.getKey())
+                    || "http2-settings".equalsIgnoreCase(entry.getKey())
+                    || "transfer-encoding".equalsIgnoreCase(entry.getKey())
+                    || "expect".equalsIgnoreCase(entry.getKey())) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                builder.header(entry.getKey(), value);
+            }
+        }
+    }
+
+    private static void copyResponseHeaders(HttpResponse<?> response, HttpExchange exchange) {
+        for (Map.Entry<String, List<String>> entry : response.headers().map().entrySet()) {
+            if ("content-length".equalsIgnoreCase(entry.getKey())
+                    || "connection".equalsIgnoreCase(entry.getKey())
+                    || "transfer-encoding".equalsIgnoreCase(entry.getKey())) {
+                continue;
+            }
+            exchange.getResponseHeaders().put(entry.getKey(), List.copyOf(entry.getValue()));
+        }
+    }
+
+    private final class Backend {
+        private final String baseUrl;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicLong ejectedUntilNanos = new AtomicLong(Long.MIN_VALUE);
+
+        private Backend(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+
+        boolean isEjected(long now) {
+            long until = ejectedUntilNanos.get();
+            return until != Long.MIN_VALUE && now - until < 0;
+        }
+
+        void recordFailure() {
+            if (consecutiveFailures.incrementAndGet() >= EJECT_AFTER_FAILURES) {
+                consecutiveFailures.set(0);
+                ejectedUntilNanos.set(nanoClock.getAsLong() + ejectionCooldownNanos);
+            }
+        }
+
+        void recordSuccess() {
+            consecutiveFailures.set(0);
+            ejectedUntilNanos.set(Long.MIN_VALUE);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
+
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+
+import java.time.Duration;
+
+final class LeastLoadedFunctionProxyFactory implements ManagedFunctionProxyFactory {
+
+    private final String bindHost;
+
+    LeastLoadedFunctionProxyFactory(String bindHost) {
+        this.bindHost = bindHost;
+    }
+
+    @Override
+    public ManagedFunctionProxy create(FunctionSpec spec) {
+        Duration timeout = spec.timeoutMs() == null ? null : Duration.ofMillis(spec.timeoutMs());
+        return new LeastLoadedFunctionProxy(bindHost, timeout);
+    }
+}
@@ -1,5 +1,7 @@
 package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
 
+import it.unimib.datai.nanofaas.common.model.FunctionSpec;
+
 public interface ManagedFunctionProxyFactory {
-    ManagedFunctionProxy create(String functionName);
+    ManagedFunctionProxy create(FunctionSpec spec);
 }
@@ -7,22 +7,25 @@ import it.unimib.datai.nanofaas.common.model.ScalingConfig;
 import it.unimib.datai.nanofaas.common.model.ScalingMetric;
 import it.unimib.datai.nanofaas.common.model.ScalingStrategy;
 import it.unimib.datai.nanofaas.controlplane.deployment.ProvisionResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
 
 class ContainerLocalDeploymentProviderTest {
 
@@ -35,14 +38,15 @@ class ContainerLocalDeploymentProviderTest {
                 new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null),
                 new ReadyEndpointProbe(),
                 new FixedPortAllocator(19001, 19002),
-                functionName -> proxy
+                spec -> proxy
         );
 
         ProvisionResult result = provider.provision(spec("echo", 2));
 
         assertThat(result.backendId()).isEqualTo("container-local");
         assertThat(result.endpointUrl()).isEqualTo("http://127.0.0.1:19090/invoke");
-        assertThat(adapter.startedPorts()).containsExactly(19001, 19002);
+        // Replicas start in parallel, so the run order is not fixed.
+        assertThat(adapter.startedPorts()).containsExactlyInAnyOrder(19001, 19002);
         assertThat(proxy.backends()).containsExactly(
                 "http://127.0.0.1:19001",
                 "http://127.0.0.1:19002"
@@ -59,7 +63,7 @@ class ContainerLocalDeploymentProviderTest {
                 new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null),
                 probe,
                 new FixedPortAllocator(19001, 19002, 19003),
-                functionName -> proxy
+                spec -> proxy
         );
 
         provider.provision(spec("echo", 1));
@@ -90,7 +94,7 @@ class ContainerLocalDeploymentProviderTest {
                 new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null),
                 new ReadyEndpointProbe(),
                 new FixedPortAllocator(19001),
-                functionName -> new RecordingProxy("http://127.0.0.1:19090/invoke")
+                spec -> new RecordingProxy("http://127.0.0.1:19090/invoke")
         );
 
         FunctionSpec spec = new FunctionSpec(
@@ -125,7 +129,7 @@ class ContainerLocalDeploymentProviderTest {
                 new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null),
                 new ReadyEndpointProbe(),
                 new FixedPortAllocator(19001, 19002),
-                functionName -> proxyCreations.getAndIncrement() == 0 ? firstProxy : secondProxy
+                spec -> proxyCreations.getAndIncrement() == 0 ? firstProxy : secondProxy
         );
 
         assertThatThrownBy(() -> provider.provision(spec("echo", 1)))
@@ -146,7 +150,7 @@ class ContainerLocalDeploymentProviderTest {
                 new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null),
                 new FailingEndpointProbe("probe timeout"),
                 new FixedPortAllocator(19001),
-                functionName -> proxy
+                spec -> proxy
         );
 
         assertThatThrownBy(() -> provider.provision(spec("echo", 1)))
@@ -171,7 +175,7 @@ class ContainerLocalDeploymentProviderTest {
                 ),
                 new ReadyEndpointProbe(),
                 new FixedPortAllocator(19001),
-                functionName -> new RecordingProxy("http://127.0.0.1:19090/invoke")
+                spec -> new RecordingProxy("http://127.0.0.1:19090/invoke")
         );
 
         provider.provision(spec("echo", 1));
@@ -182,6 +186,120 @@ class ContainerLocalDeploymentProviderTest {
                         .containsEntry("CALLBACK_URL", "http://control-plane.local:8080/v1/internal/executions"));
     }
 
+    @Test
+    void setReplicas_startsNewReplicasInParallelWithoutHoldingTheFunctionLock() throws Exception {
+        CountDownLatch bothStarting = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        MutableEndpointProbe probe = new MutableEndpointProbe() {
+            @Override
+            public void awaitReady(String baseUrl, Duration timeout, Duration pollInterval) {
+                if (!baseUrl.endsWith(":19001")) {
+                    bothStarting.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.awaitReady(baseUrl, timeout, pollInterval);
+            }
+        };
+        RecordingProxy proxy = new RecordingProxy("http://127.0.0.1:19090/invoke");
+        ContainerLocalDeploymentProvider provider = new ContainerLocalDeploymentProvider(
+                new RecordingContainerRuntimeAdapter(),
+                new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null),
+                probe,
+                new FixedPortAllocator(19001, 19002, 19003),
+                spec -> proxy
+        );
+        provider.provision(spec("echo", 1));
+
+        CompletableFuture<Void> scaleUp = CompletableFuture.runAsync(() -> provider.setReplicas("echo", 3));
+        try {
+            assertThat(bothStarting.await(2, TimeUnit.SECONDS)).as("both replicas start concurrently").isTrue();
+            assertThat(CompletableFuture.supplyAsync(() -> provider.getReadyReplicas("echo")).get(500, TimeUnit.MILLISECONDS))
+                    .isEqualTo(1);
+        } finally {
+            release.countDown();
+        }
+        scaleUp.get(5, TimeUnit.SECONDS);
+
+        assertThat(proxy.backends()).containsExactly(
+                "http://127.0.0.1:19001",
+                "http://127.0.0.1:19002",
+                "http://127.0.0.1:19003"
+        );
+    }
+
+    @Test
+    void setReplicas_handsOutWarmSparesAndRefillsThePool() {
+        RecordingContainerRuntimeAdapter adapter = new RecordingContainerRuntimeAdapter();
+        RecordingProxy proxy = new RecordingProxy("http://127.0.0.1:19090/invoke");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ContainerLocalDeploymentProvider provider = new ContainerLocalDeploymentProvider(
+                adapter,
+                new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null, 2),
+                new MutableEndpointProbe(),
+                new FixedPortAllocator(19001, 19002, 19003, 19004, 19005),
+                spec -> proxy,
+                new ContainerLocalMetrics(registry)
+        );
+
+        provider.provision(spec("echo", 1));
+        await().atMost(Duration.ofSeconds(5)).until(() -> warmPoolSize(registry) == 2.0);
+        assertThat(adapter.startedSpecs()).hasSize(3);
+        assertThat(proxy.backends()).containsExactly("http://127.0.0.1:19001");
+
+        provider.setReplicas("echo", 3);
+
+        assertThat(proxy.backends()).containsExactlyInAnyOrder(
+                "http://127.0.0.1:19001",
+                "http://127.0.0.1:19002",
+                "http://127.0.0.1:19003"
+        );
+        assertThat(registry.get("container_warm_pool_hits_total").tag("function", "echo").counter().count())
+                .isEqualTo(2.0);
+        await().atMost(Duration.ofSeconds(5)).until(() -> warmPoolSize(registry) == 2.0);
+        assertThat(adapter.startedSpecs()).hasSize(5);
+        assertThat(registry.get("container_start_ms").tag("function", "echo").timer().count()).isEqualTo(5);
+        assertThat(registry.get("container_readiness_ms").tag("function", "echo").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    void setReplicas_scaleDownParksReplicaInWarmPoolWhenThereIsRoom() {
+        RecordingProxy proxy = new RecordingProxy("http://127.0.0.1:19090/invoke");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FailingAfterContainerRuntimeAdapter failingAdapter = new FailingAfterContainerRuntimeAdapter(2);
+        ContainerLocalDeploymentProvider provider = new ContainerLocalDeploymentProvider(
+                failingAdapter,
+                new ContainerLocalProperties("docker", "127.0.0.1", Duration.ofSeconds(5), Duration.ofMillis(10), null, 1),
+                new MutableEndpointProbe(),
+                new FixedPortAllocator(19001, 19002, 19003),
+                spec -> proxy,
+                new ContainerLocalMetrics(registry)
+        );
+
+        provider.provision(spec("echo", 2));
+        // The pool refill cannot start a container, so the pool stays empty until a replica is parked.
+        await().atMost(Duration.ofSeconds(5)).until(() -> failingAdapter.failures() == 1);
+        assertThat(warmPoolSize(registry)).isZero();
+
+        provider.setReplicas("echo", 1);
+
+        assertThat(proxy.backends()).containsExactly("http://127.0.0.1:19001");
+        assertThat(failingAdapter.removedContainers()).isEmpty();
+        assertThat(warmPoolSize(registry)).isEqualTo(1.0);
+
+        provider.deprovision("echo");
+
+        assertThat(failingAdapter.removedContainers()).containsExactlyInAnyOrder("nanofaas-echo-r1", "nanofaas-echo-r2");
+        assertThat(registry.find("container_warm_pool_size").gauge()).isNull();
+    }
+
+    private static double warmPoolSize(SimpleMeterRegistry registry) {
+        return registry.get("container_warm_pool_size").tag("function", "echo").gauge().value();
+    }
+
     private static FunctionSpec spec(String name, int minReplicas) {
         return new FunctionSpec(
                 name,
@@ -214,7 +332,7 @@ class ContainerLocalDeploymentProviderTest {
                         Duration.ofSeconds(10), Duration.ofMillis(10), null),
                 probe,
                 new FixedPortAllocator(19001),
-                functionName -> slowProxy
+                spec -> slowProxy
         );
 
         // Start provisioning "slow" in background — will block on the probe
@@ -253,8 +371,8 @@ class ContainerLocalDeploymentProviderTest {
     }
 
     private static class RecordingContainerRuntimeAdapter implements ContainerRuntimeAdapter {
-        private final List<ContainerInstanceSpec> started = new ArrayList<>();
-        private final List<String> removed = new ArrayList<>();
+        private final List<ContainerInstanceSpec> started = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> removed = Collections.synchronizedList(new ArrayList<>());
 
         @Override
         public boolean isAvailable() {
@@ -272,15 +390,19 @@ class ContainerLocalDeploymentProviderTest {
         }
 
         List<Integer> startedPorts() {
-            return started.stream().map(ContainerInstanceSpec::hostPort).toList();
+            return startedSpecs().stream().map(ContainerInstanceSpec::hostPort).toList();
         }
 
         List<ContainerInstanceSpec> startedSpecs() {
-            return started;
+            synchronized (started) {
+                return List.copyOf(started);
+            }
         }
 
         List<String> removedContainers() {
-            return removed;
+            synchronized (removed) {
+                return List.copyOf(removed);
+            }
         }
     }
 
@@ -297,6 +419,28 @@ class ContainerLocalDeploymentProviderTest {
         }
     }
 
+    private static final class FailingAfterContainerRuntimeAdapter extends RecordingContainerRuntimeAdapter {
+        private final AtomicInteger remaining;
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private FailingAfterContainerRuntimeAdapter(int successfulStarts) {
+            this.remaining = new AtomicInteger(successfulStarts);
+        }
+
+        @Override
+        public void runContainer(ContainerInstanceSpec spec) {
+            if (remaining.getAndDecrement() <= 0) {
+                failures.incrementAndGet();
+                throw new IllegalStateException("no more containers");
+            }
+            super.runContainer(spec);
+        }
+
+        int failures() {
+            return failures.get();
+        }
+    }
+
     private static final class ReadyEndpointProbe implements EndpointProbe {
         @Override
         public void awaitReady(String baseUrl, Duration timeout, Duration pollInterval) {
@@ -309,8 +453,8 @@ class ContainerLocalDeploymentProviderTest {
         }
     }
 
-    private static final class MutableEndpointProbe implements EndpointProbe {
-        private final Set<String> readyEndpoints = new LinkedHashSet<>();
+    private static class MutableEndpointProbe implements EndpointProbe {
+        private final Set<String> readyEndpoints = ConcurrentHashMap.newKeySet();
 
         void markReady(String baseUrl) {
             readyEndpoints.add(baseUrl);
@@ -0,0 +1,269 @@
+package it.unimib.datai.nanofaas.modules.containerdeploymentprovider;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class LeastLoadedFunctionProxyTest {
+
+    private HttpServer backendA;
+    private HttpServer backendB;
+    private LeastLoadedFunctionProxy proxy;
+
+    @AfterEach
+    void tearDown() {
+        if (proxy != null) {
+            proxy.close();
+        }
+        if (backendA != null) {
+            backendA.stop(0);
+        }
+        if (backendB != null) {
+            backendB.stop(0);
+        }
+    }
+
+    @Test
+    void endpointUrl_isStableAndRotatesAcrossIdleBackends() throws Exception {
+        backendA = backend("a");
+        backendB = backend("b");
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofSeconds(5));
+        proxy.updateBackends(List.of(baseUrl(backendA), baseUrl(backendB)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        String first = post(client, proxy.endpointUrl());
+        String second = post(client, proxy.endpointUrl());
+        String third = post(client, proxy.endpointUrl());
+
+        assertThat(proxy.endpointUrl()).startsWith("http://127.0.0.1:");
+        assertThat(List.of(first, second, third)).containsExactly("a", "b", "a");
+    }
+
+    @Test
+    void handleInvoke_emptyBodyUpstream_returnsStatusWithoutChunkedEncoding() throws Exception {
+        backendA = backend204();
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofSeconds(5));
+        proxy.updateBackends(List.of(baseUrl(backendA)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(proxy.endpointUrl()))
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .header("Content-Type", "application/json")
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(response.statusCode()).isEqualTo(204);
+        assertThat(response.body()).isEmpty();
+        // Transfer-Encoding must not be present on a 204 (RFC 7230 §3.3.3)
+        assertThat(response.headers().map()).doesNotContainKey("transfer-encoding");
+    }
+
+    @Test
+    void handleInvoke_prefersBackendWithFewestRequestsInFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        backendA = blockingBackend("a", release);
+        backendB = backend("b");
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofSeconds(5));
+        proxy.updateBackends(List.of(baseUrl(backendA), baseUrl(backendB)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        CompletableFuture<HttpResponse<String>> slow = client.sendAsync(postRequest(proxy.endpointUrl()),
+                HttpResponse.BodyHandlers.ofString());
+        await().atMost(Duration.ofSeconds(5)).until(() -> proxy.inFlight(baseUrl(backendA)) == 1);
+
+        List<String> bodies = List.of(post(client, proxy.endpointUrl()), post(client, proxy.endpointUrl()));
+        release.countDown();
+
+        assertThat(bodies).containsExactly("b", "b");
+        assertThat(slow.get(5, TimeUnit.SECONDS).body()).isEqualTo("a");
+        await().atMost(Duration.ofSeconds(5)).until(() -> proxy.inFlight(baseUrl(backendA)) == 0);
+    }
+
+    @Test
+    void handleInvoke_ejectsBackendAfterConsecutiveFailuresUntilCooldownExpires() throws Exception {
+        backendA = statusBackend(503);
+        backendB = backend("b");
+        AtomicLong clock = new AtomicLong();
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofSeconds(5), Duration.ofSeconds(10), clock::get);
+        proxy.updateBackends(List.of(baseUrl(backendA), baseUrl(backendB)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        List<Integer> beforeEjection = new ArrayList<>();
+        for (int i = 0; i < 2 * LeastLoadedFunctionProxy.EJECT_AFTER_FAILURES; i++) {
+            beforeEjection.add(send(client, proxy.endpointUrl()).statusCode());
+        }
+        List<String> whileEjected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            whileEjected.add(post(client, proxy.endpointUrl()));
+        }
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        List<Integer> afterCooldown = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            afterCooldown.add(send(client, proxy.endpointUrl()).statusCode());
+        }
+
+        assertThat(beforeEjection).filteredOn(status -> status == 503).hasSize(LeastLoadedFunctionProxy.EJECT_AFTER_FAILURES);
+        assertThat(whileEjected).containsOnly("b");
+        assertThat(afterCooldown).contains(503);
+    }
+
+    @Test
+    void handleInvoke_allBackendsEjected_stillTriesOne() throws Exception {
+        backendA = statusBackend(503);
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofSeconds(5));
+        proxy.updateBackends(List.of(baseUrl(backendA)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        for (int i = 0; i < LeastLoadedFunctionProxy.EJECT_AFTER_FAILURES + 1; i++) {
+            assertThat(send(client, proxy.endpointUrl()).statusCode()).isEqualTo(503);
+        }
+    }
+
+    @Test
+    void handleInvoke_slowBackend_returnsGatewayTimeoutAfterFunctionTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        backendA = blockingBackend("late", release);
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofMillis(200));
+        proxy.updateBackends(List.of(baseUrl(backendA)));
+
+        try {
+            HttpResponse<String> response = send(HttpClient.newHttpClient(), proxy.endpointUrl());
+
+            assertThat(response.statusCode()).isEqualTo(504);
+            assertThat(response.body()).contains("200 ms");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void handleInvoke_streamsLargeBodiesBothWays() throws Exception {
+        backendA = echoBackend();
+        proxy = new LeastLoadedFunctionProxy("127.0.0.1", Duration.ofSeconds(5));
+        proxy.updateBackends(List.of(baseUrl(backendA)));
+        byte[] payload = new byte[4 * 1024 * 1024];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<byte[]> fixedLength = client.send(HttpRequest.newBuilder(URI.create(proxy.endpointUrl()))
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        HttpResponse<byte[]> chunked = client.send(HttpRequest.newBuilder(URI.create(proxy.endpointUrl()))
+                        .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(payload)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(fixedLength.statusCode()).isEqualTo(200);
+        assertThat(fixedLength.body()).isEqualTo(payload);
+        assertThat(chunked.statusCode()).isEqualTo(200);
+        assertThat(chunked.body()).isEqualTo(payload);
+    }
+
+    private static HttpServer backend(String responseBody) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/invoke", exchange -> {
+            byte[] response = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static HttpServer blockingBackend(String responseBody, CountDownLatch release) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/invoke", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] response = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static HttpServer statusBackend(int status) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/invoke", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static HttpServer echoBackend() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/invoke", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                exchange.getRequestBody().transferTo(outputStream);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static HttpServer backend204() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/invoke", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.getResponseBody().close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static String post(HttpClient client, String url) throws Exception {
+        return send(client, url).body();
+    }
+
+    private static HttpResponse<String> send(HttpClient client, String url) throws Exception {
+        return client.send(postRequest(url), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest postRequest(String url) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"input\":\"ok\"}"))
+                .header("Content-Type", "application/json")
+                .build();
+    }
+}
@@ -3,20 +3,32 @@ package it.unimib.datai.nanofaas.modules.k8s.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
+/**
+ * {@code endpointRouting}: watch the EndpointSlices of DEPLOYMENT functions and dispatch to
+ * ready pods directly instead of through the function's Service, default false.
+ */
 @ConfigurationProperties(prefix = "nanofaas.k8s")
 public record KubernetesProperties(
         String namespace,
         String callbackUrl,
-        String imagePullPolicy
+        String imagePullPolicy,
+        Boolean endpointRouting
 ) {
     public KubernetesProperties(String namespace, String callbackUrl) {
         this(namespace, callbackUrl, null);
     }
 
+    public KubernetesProperties(String namespace, String callbackUrl, String imagePullPolicy) {
+        this(namespace, callbackUrl, imagePullPolicy, null);
+    }
+
     @ConstructorBinding
     public KubernetesProperties {
         if (imagePullPolicy == null || imagePullPolicy.isBlank()) {
             imagePullPolicy = "Always";
         }
+        if (endpointRouting == null) {
+            endpointRouting = false;
+        }
     }
 }
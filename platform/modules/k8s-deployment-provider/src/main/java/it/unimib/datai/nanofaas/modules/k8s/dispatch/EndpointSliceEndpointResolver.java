@@ -0,0 +1,181 @@
+package it.unimib.datai.nanofaas.modules.k8s.dispatch;
+
+import io.fabric8.kubernetes.api.model.ObjectReference;
+import io.fabric8.kubernetes.api.model.discovery.v1.Endpoint;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointConditions;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointPort;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSlice;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import it.unimib.datai.nanofaas.controlplane.dispatch.EndpointResolver;
+import it.unimib.datai.nanofaas.controlplane.dispatch.PodEndpoint;
+import it.unimib.datai.nanofaas.modules.k8s.config.KubernetesProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the ready pod endpoints of every DEPLOYMENT function from its EndpointSlices.
+ *
+ * <p>One informer watches the slices labelled {@code app=nanofaas} in the function namespace;
+ * Kubernetes copies the Service labels onto its slices, so the {@code function} label names the
+ * owner. A function can have several slices, so each is kept separately and the function's
+ * snapshot is rebuilt from all of them on every change. Snapshots are immutable and replaced
+ * only when the endpoint set really changes, so informer resyncs do not reset the balancer.</p>
+ *
+ * <p>Events can be fed directly through {@link #onAdd}, {@link #onUpdate} and {@link #onDelete},
+ * which is how tests stand in for the informer.</p>
+ */
+@Component
+public class EndpointSliceEndpointResolver
+        implements EndpointResolver, ResourceEventHandler<EndpointSlice>, SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(EndpointSliceEndpointResolver.class);
+    private static final int DEFAULT_PORT = 8080;
+
+    private final ObjectProvider<KubernetesClient> clientProvider;
+    private final KubernetesProperties properties;
+    private final String namespace;
+    /** function -> slice name -> ready endpoints of that slice. */
+    private final Map<String, Map<String, List<PodEndpoint>>> slices = new ConcurrentHashMap<>();
+    private final Map<String, List<PodEndpoint>> snapshots = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private SharedIndexInformer<EndpointSlice> informer;
+
+    public EndpointSliceEndpointResolver(ObjectProvider<KubernetesClient> clientProvider,
+                                         KubernetesProperties properties,
+                                         KubernetesResourceManager resourceManager) {
+        this.clientProvider = clientProvider;
+        this.properties = properties;
+        this.namespace = resourceManager.getResolvedNamespace();
+    }
+
+    @Override
+    public List<PodEndpoint> endpoints(String functionName) {
+        return snapshots.getOrDefault(functionName, List.of());
+    }
+
+    @Override
+    public void onAdd(EndpointSlice slice) {
+        apply(slice, false);
+    }
+
+    @Override
+    public void onUpdate(EndpointSlice oldSlice, EndpointSlice newSlice) {
+        apply(newSlice, false);
+    }
+
+    @Override
+    public void onDelete(EndpointSlice slice, boolean deletedFinalStateUnknown) {
+        apply(slice, true);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.endpointRouting()) {
+            log.info("Endpoint routing disabled: DEPLOYMENT functions are dispatched through their Service");
+            return;
+        }
+        if (running.compareAndSet(false, true)) {
+            informer = clientProvider.getObject().discovery().v1().endpointSlices()
+                    .inNamespace(namespace)
+                    .withLabel("app", "nanofaas")
+                    .inform(this, 0);
+            log.info("Watching EndpointSlices in namespace {} for endpoint routing", namespace);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (running.compareAndSet(true, false)) {
+            if (informer != null) {
+                informer.close();
+                informer = null;
+            }
+            slices.clear();
+            snapshots.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void apply(EndpointSlice slice, boolean deleted) {
+        if (slice == null || slice.getMetadata() == null || slice.getMetadata().getLabels() == null) {
+            return;
+        }
+        String function = slice.getMetadata().getLabels().get("function");
+        String sliceName = slice.getMetadata().getName();
+        if (function == null || sliceName == null) {
+            return;
+        }
+        List<PodEndpoint> ready = deleted ? List.of() : readyEndpoints(slice);
+        // compute() serializes the events of one function, so rebuilds never interleave.
+        snapshots.compute(function, (name, previous) -> {
+            Map<String, List<PodEndpoint>> bySlice = slices.computeIfAbsent(name, ignored -> new ConcurrentHashMap<>());
+            if (ready.isEmpty()) {
+                bySlice.remove(sliceName);
+            } else {
+                bySlice.put(sliceName, ready);
+            }
+            if (bySlice.isEmpty()) {
+                slices.remove(name);
+                return null;
+            }
+            Map<String, PodEndpoint> merged = new LinkedHashMap<>();
+            bySlice.values().forEach(list -> list.forEach(endpoint -> merged.putIfAbsent(endpoint.pod(), endpoint)));
+            List<PodEndpoint> next = List.copyOf(merged.values());
+            return next.equals(previous) ? previous : next;
+        });
+    }
+
+    static List<PodEndpoint> readyEndpoints(EndpointSlice slice) {
+        boolean ipv6 = "IPv6".equals(slice.getAddressType());
+        if (slice.getEndpoints() == null || !ipv6 && !"IPv4".equals(slice.getAddressType())) {
+            return List.of();
+        }
+        int port = port(slice);
+        Map<String, PodEndpoint> ready = new LinkedHashMap<>();
+        for (Endpoint endpoint : slice.getEndpoints()) {
+            if (!isReady(endpoint.getConditions()) || endpoint.getAddresses() == null || endpoint.getAddresses().isEmpty()) {
+                continue;
+            }
+            String address = endpoint.getAddresses().get(0);
+            String host = ipv6 ? "[" + address + "]" : address;
+            String pod = podName(endpoint, address);
+            ready.putIfAbsent(pod, new PodEndpoint(pod, "http://" + host + ":" + port + "/invoke"));
+        }
+        return List.copyOf(ready.values());
+    }
+
+    private static boolean isReady(EndpointConditions conditions) {
+        // A missing ready condition means ready, per the EndpointSlice API.
+        return conditions == null || !Boolean.FALSE.equals(conditions.getReady());
+    }
+
+    private static String podName(Endpoint endpoint, String address) {
+        ObjectReference ref = endpoint.getTargetRef();
+        return ref != null && "Pod".equals(ref.getKind()) && ref.getName() != null ? ref.getName() : address;
+    }
+
+    private static int port(EndpointSlice slice) {
+        if (slice.getPorts() != null) {
+            for (EndpointPort port : slice.getPorts()) {
+                if (port.getPort() != null) {
+                    return port.getPort();
+                }
+            }
+        }
+        return DEFAULT_PORT;
+    }
+}
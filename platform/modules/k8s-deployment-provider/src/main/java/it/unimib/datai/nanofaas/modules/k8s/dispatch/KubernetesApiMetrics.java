@@ -0,0 +1,45 @@
+package it.unimib.datai.nanofaas.modules.k8s.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of managing function resources: how long provisioning and deprovisioning a function take,
+ * and how many Kubernetes API requests of each kind they and the scaler issue.
+ */
+final class KubernetesApiMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer provision;
+    private final Timer deprovision;
+
+    KubernetesApiMetrics(MeterRegistry registry) {
+        this.registry = registry == null ? new SimpleMeterRegistry() : registry;
+        this.provision = timer("k8s_function_provision_ms");
+        this.deprovision = timer("k8s_function_deprovision_ms");
+    }
+
+    Timer provision() {
+        return provision;
+    }
+
+    Timer deprovision() {
+        return deprovision;
+    }
+
+    void request(String resource, String verb) {
+        Counter.builder("k8s_api_requests_total")
+                .tag("resource", resource)
+                .tag("verb", verb)
+                .register(registry)
+                .increment();
+    }
+
+    private Timer timer(String name) {
+        return Timer.builder(name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
@@ -0,0 +1,135 @@
+package it.unimib.datai.nanofaas.modules.k8s.dispatch;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.autoscaling.v2.HorizontalPodAutoscaler;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import it.unimib.datai.nanofaas.modules.k8s.config.KubernetesProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalInt;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * In-memory view of the function Deployments, Services and HPAs, kept from watches instead of
+ * read with one GET per operation.
+ *
+ * <p>One informer per kind watches the objects labelled {@code app=nanofaas} in the function
+ * namespace, and lookups go to the informer stores. Until all three informers have listed their
+ * objects once, {@link #isSynced()} is false and callers read the API directly; the same holds
+ * for good when a watch cannot be opened, for example without list/watch permissions. Writes
+ * still go to the API and show up here once the watch delivers them, so a caller acting on a
+ * lookup must cope with a view that is a few milliseconds old.</p>
+ */
+@Component
+public class KubernetesResourceCache implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(KubernetesResourceCache.class);
+
+    private final ObjectProvider<KubernetesClient> clientProvider;
+    private final String namespace;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile SharedIndexInformer<Deployment> deployments;
+    private volatile SharedIndexInformer<Service> services;
+    private volatile SharedIndexInformer<HorizontalPodAutoscaler> hpas;
+
+    public KubernetesResourceCache(ObjectProvider<KubernetesClient> clientProvider,
+                                   KubernetesProperties properties) {
+        this.clientProvider = clientProvider;
+        this.namespace = KubernetesResourceManager.resolveNamespace(properties);
+    }
+
+    /** Whether lookups reflect the cluster; when false they must not be relied on. */
+    public boolean isSynced() {
+        return synced(deployments) && synced(services) && synced(hpas);
+    }
+
+    /** The Deployment named {@code name}, or null when there is none. Meaningful only while synced. */
+    public Deployment deployment(String name) {
+        return lookup(deployments, name);
+    }
+
+    /** The Service named {@code name}, or null when there is none. Meaningful only while synced. */
+    public Service service(String name) {
+        return lookup(services, name);
+    }
+
+    /** The HPA named {@code name}, or null when there is none. Meaningful only while synced. */
+    public HorizontalPodAutoscaler horizontalPodAutoscaler(String name) {
+        return lookup(hpas, name);
+    }
+
+    /** Ready replicas of {@code functionName}, or empty while the cache cannot answer. */
+    public OptionalInt readyReplicas(String functionName) {
+        if (!isSynced()) {
+            return OptionalInt.empty();
+        }
+        Deployment deployment = deployment(KubernetesDeploymentBuilder.deploymentName(functionName));
+        if (deployment == null || deployment.getStatus() == null || deployment.getStatus().getReadyReplicas() == null) {
+            return OptionalInt.of(0);
+        }
+        return OptionalInt.of(deployment.getStatus().getReadyReplicas());
+    }
+
+    @Override
+    public void start() {
+        if (running.compareAndSet(false, true)) {
+            KubernetesClient client = clientProvider.getObject();
+            deployments = inform("Deployments", () -> client.apps().deployments()
+                    .inNamespace(namespace).withLabel("app", "nanofaas").inform());
+            services = inform("Services", () -> client.services()
+                    .inNamespace(namespace).withLabel("app", "nanofaas").inform());
+            hpas = inform("HorizontalPodAutoscalers", () -> client.autoscaling().v2().horizontalPodAutoscalers()
+                    .inNamespace(namespace).withLabel("app", "nanofaas").inform());
+            log.info("Watching function Deployments, Services and HPAs in namespace {}", namespace);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (running.compareAndSet(true, false)) {
+            close(deployments);
+            close(services);
+            close(hpas);
+            deployments = null;
+            services = null;
+            hpas = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private <T extends HasMetadata> SharedIndexInformer<T> inform(String kind, Supplier<SharedIndexInformer<T>> inform) {
+        try {
+            return inform.get();
+        } catch (KubernetesClientException ex) {
+            // Without list/watch every lookup is still answered by the API, just more expensively.
+            log.warn("Cannot watch {} in namespace {}; reading them directly: {}", kind, namespace, ex.getMessage());
+            return null;
+        }
+    }
+
+    private <T extends HasMetadata> T lookup(SharedIndexInformer<T> informer, String name) {
+        return informer == null ? null : informer.getStore().getByKey(namespace + "/" + name);
+    }
+
+    private static boolean synced(SharedIndexInformer<?> informer) {
+        return informer != null && informer.hasSynced();
+    }
+
+    private static void close(SharedIndexInformer<?> informer) {
+        if (informer != null) {
+            informer.close();
+        }
+    }
+}
@@ -1,20 +1,43 @@
 package it.unimib.datai.nanofaas.modules.k8s.dispatch;
 
+import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.autoscaling.v2.HorizontalPodAutoscaler;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.kubernetes.client.dsl.base.PatchContext;
 import io.fabric8.kubernetes.client.dsl.base.PatchType;
 import io.fabric8.kubernetes.client.utils.Serialization;
+import io.micrometer.core.instrument.MeterRegistry;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.ScalingStrategy;
 import it.unimib.datai.nanofaas.modules.k8s.config.KubernetesProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Creates, updates and deletes the Kubernetes resources of DEPLOYMENT functions.
+ *
+ * <p>Whether a resource exists, and how many replicas are ready, is looked up in the
+ * {@link KubernetesResourceCache} while it is synced, and read from the API otherwise. The
+ * Deployment, Service and HPA of one function are independent, so their requests are issued
+ * concurrently. A lookup can be a moment behind the cluster: a create that finds the object
+ * already there becomes a patch, and a patch that finds it gone becomes a create.</p>
+ */
 @Component
 public class KubernetesResourceManager {
     private static final Logger log = LoggerFactory.getLogger(KubernetesResourceManager.class);
@@ -23,12 +46,25 @@ public class KubernetesResourceManager {
     private final KubernetesProperties properties;
     private final KubernetesDeploymentBuilder builder;
     private final String resolvedNamespace;
+    private final KubernetesResourceCache cache;
+    private final KubernetesApiMetrics metrics;
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public KubernetesResourceManager(ObjectProvider<KubernetesClient> clientProvider, KubernetesProperties properties) {
+        this(clientProvider, properties, null, null);
+    }
+
+    @Autowired
+    public KubernetesResourceManager(ObjectProvider<KubernetesClient> clientProvider,
+                                     KubernetesProperties properties,
+                                     @Autowired(required = false) KubernetesResourceCache cache,
+                                     @Autowired(required = false) MeterRegistry meterRegistry) {
         this.clientProvider = clientProvider;
         this.properties = properties;
         this.builder = new KubernetesDeploymentBuilder(properties);
         this.resolvedNamespace = resolveNamespace(properties);
+        this.cache = cache;
+        this.metrics = new KubernetesApiMetrics(meterRegistry);
     }
 
     /**
@@ -38,61 +74,36 @@ public class KubernetesResourceManager {
      * Returns the service URL for invocations.
      */
     public String provision(FunctionSpec spec) {
+        long startNanos = System.nanoTime();
         Deployment deployment = builder.buildDeployment(spec);
         Service service = builder.buildService(spec);
+        boolean hpaStrategy = spec.scalingConfig() != null && spec.scalingConfig().strategy() == ScalingStrategy.HPA;
+        HorizontalPodAutoscaler hpa = hpaStrategy ? builder.buildHpa(spec) : null;
         KubernetesClient client = clientProvider.getObject();
 
-        var deploymentResource = client.apps().deployments()
-                .inNamespace(resolvedNamespace)
-                .withName(deployment.getMetadata().getName());
-        if (deploymentResource.get() == null) {
-            client.apps().deployments()
-                    .inNamespace(resolvedNamespace)
-                    .resource(deployment)
-                    .create();
-        } else {
-            deploymentResource.patch(PatchContext.of(PatchType.JSON_MERGE), Serialization.asJson(deployment));
-        }
-        log.info("Created/updated Deployment {} for function {}", deployment.getMetadata().getName(), spec.name());
-
-        var serviceResource = client.services()
-                .inNamespace(resolvedNamespace)
-                .withName(service.getMetadata().getName());
-        if (serviceResource.get() == null) {
-            client.services()
-                    .inNamespace(resolvedNamespace)
-                    .resource(service)
-                    .create();
-        } else {
-            serviceResource.patch(PatchContext.of(PatchType.JSON_MERGE), Serialization.asJson(service));
-        }
-        log.info("Created/updated Service {} for function {}", service.getMetadata().getName(), spec.name());
-
-        if (spec.scalingConfig() != null && spec.scalingConfig().strategy() == ScalingStrategy.HPA) {
-            HorizontalPodAutoscaler hpa = builder.buildHpa(spec);
-            if (hpa != null) {
-                var hpaResource = client.autoscaling().v2().horizontalPodAutoscalers()
-                        .inNamespace(resolvedNamespace)
-                        .withName(hpa.getMetadata().getName());
-                if (hpaResource.get() == null) {
-                    client.autoscaling().v2().horizontalPodAutoscalers()
-                            .inNamespace(resolvedNamespace)
-                            .resource(hpa)
-                            .create();
-                } else {
-                    hpaResource.patch(PatchContext.of(PatchType.JSON_MERGE), Serialization.asJson(hpa));
-                }
-                log.info("Created/updated HPA {} for function {}", hpa.getMetadata().getName(), spec.name());
-            }
-        } else {
-            client.autoscaling().v2().horizontalPodAutoscalers()
-                    .inNamespace(resolvedNamespace)
-                    .withName(KubernetesDeploymentBuilder.deploymentName(spec.name()))
-                    .delete();
-        }
+        runConcurrently(
+                () -> {
+                    createOrPatch(client.apps().deployments(), "deployment", deployment, n -> cache.deployment(n));
+                    log.info("Created/updated Deployment {} for function {}", deployment.getMetadata().getName(), spec.name());
+                },
+                () -> {
+                    createOrPatch(client.services(), "service", service, n -> cache.service(n));
+                    log.info("Created/updated Service {} for function {}", service.getMetadata().getName(), spec.name());
+                },
+                () -> {
+                    if (hpa != null) {
+                        createOrPatch(client.autoscaling().v2().horizontalPodAutoscalers(), "hpa", hpa,
+                                n -> cache.horizontalPodAutoscaler(n));
+                        log.info("Created/updated HPA {} for function {}", hpa.getMetadata().getName(), spec.name());
+                    } else if (!hpaStrategy) {
+                        delete(client.autoscaling().v2().horizontalPodAutoscalers(), "hpa",
+                                KubernetesDeploymentBuilder.deploymentName(spec.name()));
+                    }
+                });
 
         String serviceUrl = String.format("http://%s.%s.svc.cluster.local:8080/invoke",
                 KubernetesDeploymentBuilder.serviceName(spec.name()), resolvedNamespace);
+        metrics.provision().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
         log.info("Function {} provisioned at {}", spec.name(), serviceUrl);
         return serviceUrl;
     }
@@ -101,24 +112,16 @@ public class KubernetesResourceManager {
      * Deletes Deployment, Service, and HPA (if exists) for a function.
      */
     public void deprovision(String functionName) {
+        long startNanos = System.nanoTime();
         String name = KubernetesDeploymentBuilder.deploymentName(functionName);
         KubernetesClient client = clientProvider.getObject();
 
-        client.autoscaling().v2().horizontalPodAutoscalers()
-                .inNamespace(resolvedNamespace)
-                .withName(name)
-                .delete();
-
-        client.services()
-                .inNamespace(resolvedNamespace)
-                .withName(KubernetesDeploymentBuilder.serviceName(functionName))
-                .delete();
-
-        client.apps().deployments()
-                .inNamespace(resolvedNamespace)
-                .withName(name)
-                .delete();
+        runConcurrently(
+                () -> delete(client.autoscaling().v2().horizontalPodAutoscalers(), "hpa", name),
+                () -> delete(client.services(), "service", KubernetesDeploymentBuilder.serviceName(functionName)),
+                () -> delete(client.apps().deployments(), "deployment", name));
 
+        metrics.deprovision().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
         log.info("Deprovisioned resources for function {}", functionName);
     }
 
@@ -129,6 +132,7 @@ public class KubernetesResourceManager {
     public void setReplicas(String functionName, int replicas) {
         String name = KubernetesDeploymentBuilder.deploymentName(functionName);
         KubernetesClient client = clientProvider.getObject();
+        metrics.request("deployment", "scale");
         client.apps().deployments()
                 .inNamespace(resolvedNamespace)
                 .withName(name)
@@ -140,8 +144,13 @@ public class KubernetesResourceManager {
      * Returns the number of ready replicas for a function's Deployment.
      */
     public int getReadyReplicas(String functionName) {
+        OptionalInt cached = cache == null ? OptionalInt.empty() : cache.readyReplicas(functionName);
+        if (cached.isPresent()) {
+            return cached.getAsInt();
+        }
         String name = KubernetesDeploymentBuilder.deploymentName(functionName);
         KubernetesClient client = clientProvider.getObject();
+        metrics.request("deployment", "get");
         Deployment deployment = client.apps().deployments()
                 .inNamespace(resolvedNamespace)
                 .withName(name)
@@ -152,11 +161,74 @@ public class KubernetesResourceManager {
         return deployment.getStatus().getReadyReplicas();
     }
 
+    private <T extends HasMetadata> void createOrPatch(MixedOperation<T, ?, ? extends Resource<T>> operation,
+                                                       String kind, T resource, Function<String, T> cached) {
+        String name = resource.getMetadata().getName();
+        if (!exists(operation, kind, name, cached)) {
+            try {
+                metrics.request(kind, "create");
+                operation.inNamespace(resolvedNamespace).resource(resource).create();
+                return;
+            } catch (KubernetesClientException ex) {
+                if (ex.getCode() != 409) {
+                    throw ex;
+                }
+            }
+        }
+        try {
+            metrics.request(kind, "patch");
+            operation.inNamespace(resolvedNamespace)
+                    .withName(name)
+                    .patch(PatchContext.of(PatchType.JSON_MERGE), Serialization.asJson(resource));
+        } catch (KubernetesClientException ex) {
+            if (ex.getCode() != 404) {
+                throw ex;
+            }
+            metrics.request(kind, "create");
+            operation.inNamespace(resolvedNamespace).resource(resource).create();
+        }
+    }
+
+    /**
+     * Always goes to the API server: the cache can lag behind a create issued moments ago, and
+     * deleting a missing object is a no-op.
+     */
+    private <T extends HasMetadata> void delete(MixedOperation<T, ?, ? extends Resource<T>> operation,
+                                                String kind, String name) {
+        metrics.request(kind, "delete");
+        operation.inNamespace(resolvedNamespace).withName(name).delete();
+    }
+
+    private <T extends HasMetadata> boolean exists(MixedOperation<T, ?, ? extends Resource<T>> operation,
+                                                   String kind, String name, Function<String, T> cached) {
+        if (cache != null && cache.isSynced()) {
+            return cached.apply(name) != null;
+        }
+        metrics.request(kind, "get");
+        return operation.inNamespace(resolvedNamespace).withName(name).get() != null;
+    }
+
+    /** Runs {@code requests} in parallel and rethrows the first failure once all are done. */
+    private void runConcurrently(Runnable... requests) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests.length];
+        for (int i = 0; i < requests.length; i++) {
+            futures[i] = CompletableFuture.runAsync(requests[i], requestExecutor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
     public String getResolvedNamespace() {
         return resolvedNamespace;
     }
 
-    private static String resolveNamespace(KubernetesProperties properties) {
+    static String resolveNamespace(KubernetesProperties properties) {
         if (properties.namespace() != null && !properties.namespace().isBlank()) {
             return properties.namespace();
         }
@@ -0,0 +1,138 @@
+package it.unimib.datai.nanofaas.modules.k8s.dispatch;
+
+import io.fabric8.kubernetes.api.model.discovery.v1.Endpoint;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointBuilder;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSlice;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSliceBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import it.unimib.datai.nanofaas.controlplane.dispatch.PodEndpoint;
+import it.unimib.datai.nanofaas.modules.k8s.config.KubernetesProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+class EndpointSliceEndpointResolverTest {
+    KubernetesClient client;
+
+    private EndpointSliceEndpointResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        KubernetesProperties properties = new KubernetesProperties("default", null, null, true);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KubernetesClient> clientProvider = mock(ObjectProvider.class);
+        when(clientProvider.getObject()).thenReturn(client);
+        resolver = new EndpointSliceEndpointResolver(clientProvider, properties,
+                new KubernetesResourceManager(clientProvider, properties));
+    }
+
+    @AfterEach
+    void tearDown() {
+        resolver.stop();
+    }
+
+    @Test
+    void onAdd_keepsOnlyReadyEndpoints() {
+        resolver.onAdd(slice("fn-echo-abc", "echo",
+                endpoint("10.0.0.1", "fn-echo-1", true),
+                endpoint("10.0.0.2", "fn-echo-2", false),
+                endpoint("10.0.0.3", "fn-echo-3", null)));
+
+        assertThat(resolver.endpoints("echo")).containsExactly(
+                new PodEndpoint("fn-echo-1", "http://10.0.0.1:8080/invoke"),
+                new PodEndpoint("fn-echo-3", "http://10.0.0.3:8080/invoke"));
+        assertThat(resolver.endpoints("other")).isEmpty();
+    }
+
+    @Test
+    void endpoints_mergeAllSlicesOfAFunction() {
+        resolver.onAdd(slice("fn-echo-a", "echo", endpoint("10.0.0.1", "fn-echo-1", true)));
+        resolver.onAdd(slice("fn-echo-b", "echo", endpoint("10.0.0.2", "fn-echo-2", true)));
+
+        assertThat(resolver.endpoints("echo")).extracting(PodEndpoint::pod)
+                .containsExactlyInAnyOrder("fn-echo-1", "fn-echo-2");
+
+        resolver.onDelete(slice("fn-echo-a", "echo"), false);
+
+        assertThat(resolver.endpoints("echo")).extracting(PodEndpoint::pod).containsExactly("fn-echo-2");
+    }
+
+    @Test
+    void onUpdate_withSameEndpoints_keepsTheSnapshotInstance() {
+        EndpointSlice slice = slice("fn-echo-a", "echo", endpoint("10.0.0.1", "fn-echo-1", true));
+        resolver.onAdd(slice);
+        List<PodEndpoint> before = resolver.endpoints("echo");
+
+        resolver.onUpdate(slice, slice("fn-echo-a", "echo", endpoint("10.0.0.1", "fn-echo-1", true)));
+
+        assertThat(resolver.endpoints("echo")).isSameAs(before);
+    }
+
+    @Test
+    void onUpdate_whenLastPodTurnsUnready_dropsTheFunction() {
+        resolver.onAdd(slice("fn-echo-a", "echo", endpoint("10.0.0.1", "fn-echo-1", true)));
+
+        resolver.onUpdate(null, slice("fn-echo-a", "echo", endpoint("10.0.0.1", "fn-echo-1", false)));
+
+        assertThat(resolver.endpoints("echo")).isEmpty();
+    }
+
+    @Test
+    void start_informerPicksUpSlicesFromTheCluster() {
+        client.discovery().v1().endpointSlices().inNamespace("default")
+                .resource(slice("fn-echo-a", "echo", endpoint("10.0.0.7", "fn-echo-7", true)))
+                .create();
+
+        resolver.start();
+
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(resolver.endpoints("echo")).containsExactly(
+                        new PodEndpoint("fn-echo-7", "http://10.0.0.7:8080/invoke")));
+    }
+
+    @Test
+    void start_withRoutingDisabled_doesNotWatch() {
+        KubernetesProperties properties = new KubernetesProperties("default", null);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KubernetesClient> clientProvider = mock(ObjectProvider.class);
+        EndpointSliceEndpointResolver disabled = new EndpointSliceEndpointResolver(clientProvider, properties,
+                new KubernetesResourceManager(clientProvider, properties));
+
+        disabled.start();
+
+        assertThat(disabled.isRunning()).isFalse();
+    }
+
+    private static EndpointSlice slice(String name, String function, Endpoint... endpoints) {
+        return new EndpointSliceBuilder()
+                .withNewMetadata()
+                    .withName(name)
+                    .withNamespace("default")
+                    .addToLabels("app", "nanofaas")
+                    .addToLabels("function", function)
+                .endMetadata()
+                .withAddressType("IPv4")
+                .withEndpoints(endpoints)
+                .addNewPort().withPort(8080).withProtocol("TCP").endPort()
+                .build();
+    }
+
+    private static Endpoint endpoint(String address, String pod, Boolean ready) {
+        return new EndpointBuilder()
+                .withAddresses(address)
+                .withNewConditions().withReady(ready).endConditions()
+                .withNewTargetRef().withKind("Pod").withName(pod).endTargetRef()
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package it.unimib.datai.nanofaas.modules.k8s.dispatch;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import it.unimib.datai.nanofaas.modules.k8s.config.KubernetesProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@EnableKubernetesMockClient(crud = true)
+class KubernetesResourceCacheTest {
+    KubernetesClient client;
+
+    private KubernetesResourceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<KubernetesClient> clientProvider = mock(ObjectProvider.class);
+        when(clientProvider.getObject()).thenReturn(client);
+        cache = new KubernetesResourceCache(clientProvider, new KubernetesProperties("default", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.stop();
+    }
+
+    @Test
+    void lookups_areUnavailableUntilStarted() {
+        client.apps().deployments().inNamespace("default").resource(deployment("echo", 2)).create();
+
+        assertThat(cache.isSynced()).isFalse();
+        assertThat(cache.readyReplicas("echo")).isEmpty();
+        assertThat(cache.deployment("fn-echo")).isNull();
+    }
+
+    @Test
+    void start_answersFromTheWatchedResources() {
+        client.apps().deployments().inNamespace("default").resource(deployment("echo", 2)).create();
+
+        cache.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(cache::isSynced);
+        assertThat(cache.readyReplicas("echo")).isEqualTo(OptionalInt.of(2));
+        assertThat(cache.readyReplicas("missing")).isEqualTo(OptionalInt.of(0));
+        assertThat(cache.deployment("fn-echo")).isNotNull();
+        assertThat(cache.service("fn-echo")).isNull();
+        assertThat(cache.horizontalPodAutoscaler("fn-echo")).isNull();
+    }
+
+    @Test
+    void start_followsChangesAfterTheInitialList() {
+        cache.start();
+        await().atMost(Duration.ofSeconds(5)).until(cache::isSynced);
+
+        client.apps().deployments().inNamespace("default").resource(deployment("echo", 1)).create();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(cache.readyReplicas("echo")).isEqualTo(OptionalInt.of(1)));
+
+        client.apps().deployments().inNamespace("default").withName("fn-echo").delete();
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                assertThat(cache.deployment("fn-echo")).isNull());
+    }
+
+    private static Deployment deployment(String function, int readyReplicas) {
+        return new DeploymentBuilder()
+                .withNewMetadata()
+                    .withName("fn-" + function)
+                    .withNamespace("default")
+                    .addToLabels("app", "nanofaas")
+                    .addToLabels("function", function)
+                .endMetadata()
+                .withNewSpec()
+                    .withReplicas(readyReplicas)
+                .endSpec()
+                .withNewStatus()
+                    .withReadyReplicas(readyReplicas)
+                .endStatus()
+                .build();
+    }
+}
@@ -4,15 +4,19 @@ import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.autoscaling.v2.HorizontalPodAutoscaler;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import it.unimib.datai.nanofaas.common.model.*;
 import it.unimib.datai.nanofaas.modules.k8s.config.KubernetesProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.ObjectProvider;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -22,12 +26,14 @@ class KubernetesResourceManagerTest {
     KubernetesClient client;
 
     private KubernetesResourceManager resourceManager;
+    private KubernetesProperties properties;
+    private ObjectProvider<KubernetesClient> clientProvider;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        KubernetesProperties properties = new KubernetesProperties("default", null);
-        @SuppressWarnings("unchecked")
-        ObjectProvider<KubernetesClient> clientProvider = mock(ObjectProvider.class);
+        properties = new KubernetesProperties("default", null);
+        clientProvider = mock(ObjectProvider.class);
         when(clientProvider.getObject()).thenReturn(client);
         resourceManager = new KubernetesResourceManager(clientProvider, properties);
     }
@@ -195,4 +201,82 @@ class KubernetesResourceManagerTest {
         assertNull(client.autoscaling().v2().horizontalPodAutoscalers()
                 .inNamespace("default").withName("fn-echo").get());
     }
+
+    @Test
+    void provision_withSyncedCacheSkipsExistenceReadsAndCountsApiRequests() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        KubernetesResourceCache cache = new KubernetesResourceCache(clientProvider, properties);
+        KubernetesResourceManager cached = new KubernetesResourceManager(clientProvider, properties, cache, meterRegistry);
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.INTERNAL, 1, 10,
+                List.of(new ScalingMetric("queue_depth", "5", null)));
+        cache.start();
+        try {
+            await().atMost(Duration.ofSeconds(5)).until(cache::isSynced);
+
+            cached.provision(spec(scaling));
+            await().atMost(Duration.ofSeconds(5)).until(() -> cache.deployment("fn-echo") != null
+                    && cache.service("fn-echo") != null);
+            cached.provision(spec(scaling));
+            cached.deprovision("echo");
+
+            assertEquals(0.0, requests(meterRegistry, "deployment", "get"));
+            assertEquals(1.0, requests(meterRegistry, "deployment", "create"));
+            assertEquals(1.0, requests(meterRegistry, "deployment", "patch"));
+            assertEquals(1.0, requests(meterRegistry, "service", "delete"));
+            assertEquals(3.0, requests(meterRegistry, "hpa", "delete"));
+            assertEquals(2, meterRegistry.get("k8s_function_provision_ms").timer().count());
+            assertEquals(1, meterRegistry.get("k8s_function_deprovision_ms").timer().count());
+            assertNull(client.apps().deployments().inNamespace("default").withName("fn-echo").get());
+        } finally {
+            cache.stop();
+        }
+    }
+
+    @Test
+    void deprovision_rightAfterProvisionDeletesResourcesTheCacheHasNotSeenYet() {
+        KubernetesResourceCache staleCache = mock(KubernetesResourceCache.class);
+        when(staleCache.isSynced()).thenReturn(true);
+        KubernetesResourceManager stale = new KubernetesResourceManager(clientProvider, properties, staleCache, null);
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.HPA, 1, 5,
+                List.of(new ScalingMetric("cpu", "80", null)));
+
+        stale.provision(spec(scaling));
+        stale.deprovision("echo");
+
+        assertNull(client.apps().deployments().inNamespace("default").withName("fn-echo").get());
+        assertNull(client.services().inNamespace("default").withName("fn-echo").get());
+        assertNull(client.autoscaling().v2().horizontalPodAutoscalers()
+                .inNamespace("default").withName("fn-echo").get());
+    }
+
+    @Test
+    void provision_createThatFindsTheResourceAlreadyThereBecomesAPatch() {
+        ScalingConfig scaling = new ScalingConfig(ScalingStrategy.INTERNAL, 1, 10,
+                List.of(new ScalingMetric("queue_depth", "5", null)));
+        resourceManager.provision(spec(scaling));
+        KubernetesResourceCache staleCache = mock(KubernetesResourceCache.class);
+        when(staleCache.isSynced()).thenReturn(true);
+        KubernetesResourceManager stale = new KubernetesResourceManager(clientProvider, properties, staleCache, null);
+
+        stale.provision(spec(new ScalingConfig(ScalingStrategy.INTERNAL, 2, 10,
+                List.of(new ScalingMetric("queue_depth", "5", null)))));
+
+        assertEquals(1, client.apps().deployments().inNamespace("default").list().getItems().size());
+        assertEquals(2, client.apps().deployments().inNamespace("default").withName("fn-echo").get()
+                .getSpec().getReplicas());
+    }
+
+    @Test
+    void getReadyReplicas_prefersTheSyncedCache() {
+        KubernetesResourceCache cache = mock(KubernetesResourceCache.class);
+        when(cache.readyReplicas("echo")).thenReturn(OptionalInt.of(2));
+        KubernetesResourceManager cached = new KubernetesResourceManager(clientProvider, properties, cache, null);
+
+        assertEquals(2, cached.getReadyReplicas("echo"));
+    }
+
+    private static double requests(SimpleMeterRegistry meterRegistry, String resource, String verb) {
+        var counter = meterRegistry.find("k8s_api_requests_total").tag("resource", resource).tag("verb", verb).counter();
+        return counter == null ? 0.0 : counter.count();
+    }
 }
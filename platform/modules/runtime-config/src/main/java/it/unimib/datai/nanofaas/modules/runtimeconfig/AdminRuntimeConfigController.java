@@ -108,8 +108,21 @@ public class AdminRuntimeConfigController {
             Boolean syncQueueAdmissionEnabled,
             String syncQueueMaxEstimatedWait,
             String syncQueueMaxQueueWait,
-            Integer syncQueueRetryAfterSeconds
+            Integer syncQueueRetryAfterSeconds,
+            Integer rateBurst,
+            Integer ratePerCallerMaxPerSecond
     ) {
+        public PatchRequest(Long expectedRevision,
+                            Integer rateMaxPerSecond,
+                            Boolean syncQueueEnabled,
+                            Boolean syncQueueAdmissionEnabled,
+                            String syncQueueMaxEstimatedWait,
+                            String syncQueueMaxQueueWait,
+                            Integer syncQueueRetryAfterSeconds) {
+            this(expectedRevision, rateMaxPerSecond, syncQueueEnabled, syncQueueAdmissionEnabled,
+                    syncQueueMaxEstimatedWait, syncQueueMaxQueueWait, syncQueueRetryAfterSeconds, null, null);
+        }
+
         RuntimeConfigPatch toPatch() {
             return new RuntimeConfigPatch(
                     rateMaxPerSecond,
@@ -117,7 +130,9 @@ public class AdminRuntimeConfigController {
                     syncQueueAdmissionEnabled,
                     parseDuration(syncQueueMaxEstimatedWait, "syncQueueMaxEstimatedWait"),
                     parseDuration(syncQueueMaxQueueWait, "syncQueueMaxQueueWait"),
-                    syncQueueRetryAfterSeconds
+                    syncQueueRetryAfterSeconds,
+                    rateBurst,
+                    ratePerCallerMaxPerSecond
             );
         }
 
@@ -140,7 +155,9 @@ public class AdminRuntimeConfigController {
             boolean syncQueueAdmissionEnabled,
             String syncQueueMaxEstimatedWait,
             String syncQueueMaxQueueWait,
-            int syncQueueRetryAfterSeconds
+            int syncQueueRetryAfterSeconds,
+            int rateBurst,
+            int ratePerCallerMaxPerSecond
     ) {
         static ConfigSnapshotResponse from(RuntimeConfigSnapshot s) {
             return new ConfigSnapshotResponse(
@@ -150,7 +167,9 @@ public class AdminRuntimeConfigController {
                     s.syncQueueAdmissionEnabled(),
                     s.syncQueueMaxEstimatedWait().toString(),
                     s.syncQueueMaxQueueWait().toString(),
-                    s.syncQueueRetryAfterSeconds()
+                    s.syncQueueRetryAfterSeconds(),
+                    s.rateBurst(),
+                    s.ratePerCallerMaxPerSecond()
             );
         }
     }
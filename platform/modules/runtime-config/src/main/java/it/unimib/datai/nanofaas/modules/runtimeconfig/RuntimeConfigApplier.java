@@ -50,6 +50,8 @@ public class RuntimeConfigApplier {
         Timer.Sample sample = Timer.start();
         try {
             rateLimiter.setMaxPerSecond(snapshot.rateMaxPerSecond());
+            rateLimiter.setBurst(snapshot.rateBurst());
+            rateLimiter.setPerCallerMaxPerSecond(snapshot.ratePerCallerMaxPerSecond());
             revisionGauge.set(snapshot.revision());
             successCounter.increment();
             sample.stop(applyTimer);
@@ -62,6 +64,8 @@ public class RuntimeConfigApplier {
                     previous.revision(), snapshot.revision(), e);
             configService.restore(previous);
             rateLimiter.setMaxPerSecond(previous.rateMaxPerSecond());
+            rateLimiter.setBurst(previous.rateBurst());
+            rateLimiter.setPerCallerMaxPerSecond(previous.ratePerCallerMaxPerSecond());
             throw new RuntimeConfigApplyException("Failed to apply runtime config", e);
         }
     }
@@ -12,6 +12,17 @@ public record RuntimeConfigPatch(
         Boolean syncQueueAdmissionEnabled,
         Duration syncQueueMaxEstimatedWait,
         Duration syncQueueMaxQueueWait,
-        Integer syncQueueRetryAfterSeconds
+        Integer syncQueueRetryAfterSeconds,
+        Integer rateBurst,
+        Integer ratePerCallerMaxPerSecond
 ) {
+    public RuntimeConfigPatch(Integer rateMaxPerSecond,
+                              Boolean syncQueueEnabled,
+                              Boolean syncQueueAdmissionEnabled,
+                              Duration syncQueueMaxEstimatedWait,
+                              Duration syncQueueMaxQueueWait,
+                              Integer syncQueueRetryAfterSeconds) {
+        this(rateMaxPerSecond, syncQueueEnabled, syncQueueAdmissionEnabled, syncQueueMaxEstimatedWait,
+                syncQueueMaxQueueWait, syncQueueRetryAfterSeconds, null, null);
+    }
 }
@@ -25,7 +25,9 @@ public class RuntimeConfigService implements SyncQueueConfigSource {
                 syncQueueDefaults.admissionEnabled(),
                 syncQueueDefaults.maxEstimatedWait(),
                 syncQueueDefaults.maxQueueWait(),
-                syncQueueDefaults.retryAfterSeconds()
+                syncQueueDefaults.retryAfterSeconds(),
+                rateLimiter.getBurst(),
+                rateLimiter.getPerCallerMaxPerSecond()
         );
         this.current = new AtomicReference<>(initial);
     }
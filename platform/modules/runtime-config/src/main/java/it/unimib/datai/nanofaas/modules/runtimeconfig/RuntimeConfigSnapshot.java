@@ -14,7 +14,9 @@ public record RuntimeConfigSnapshot(
         boolean syncQueueAdmissionEnabled,
         Duration syncQueueMaxEstimatedWait,
         Duration syncQueueMaxQueueWait,
-        int syncQueueRetryAfterSeconds
+        int syncQueueRetryAfterSeconds,
+        int rateBurst,
+        int ratePerCallerMaxPerSecond
 ) {
 
     /**
@@ -28,7 +30,9 @@ public record RuntimeConfigSnapshot(
                 patch.syncQueueAdmissionEnabled() != null ? patch.syncQueueAdmissionEnabled() : syncQueueAdmissionEnabled,
                 patch.syncQueueMaxEstimatedWait() != null ? patch.syncQueueMaxEstimatedWait() : syncQueueMaxEstimatedWait,
                 patch.syncQueueMaxQueueWait() != null ? patch.syncQueueMaxQueueWait() : syncQueueMaxQueueWait,
-                patch.syncQueueRetryAfterSeconds() != null ? patch.syncQueueRetryAfterSeconds() : syncQueueRetryAfterSeconds
+                patch.syncQueueRetryAfterSeconds() != null ? patch.syncQueueRetryAfterSeconds() : syncQueueRetryAfterSeconds,
+                patch.rateBurst() != null ? patch.rateBurst() : rateBurst,
+                patch.ratePerCallerMaxPerSecond() != null ? patch.ratePerCallerMaxPerSecond() : ratePerCallerMaxPerSecond
         );
     }
 }
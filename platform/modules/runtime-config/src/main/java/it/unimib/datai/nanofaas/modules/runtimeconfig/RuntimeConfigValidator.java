@@ -18,7 +18,9 @@ public class RuntimeConfigValidator {
                 patch.rateMaxPerSecond(),
                 patch.syncQueueMaxEstimatedWait(),
                 patch.syncQueueMaxQueueWait(),
-                patch.syncQueueRetryAfterSeconds()
+                patch.syncQueueRetryAfterSeconds(),
+                patch.rateBurst(),
+                patch.ratePerCallerMaxPerSecond()
         );
     }
 
@@ -27,14 +29,18 @@ public class RuntimeConfigValidator {
                 snapshot.rateMaxPerSecond(),
                 snapshot.syncQueueMaxEstimatedWait(),
                 snapshot.syncQueueMaxQueueWait(),
-                snapshot.syncQueueRetryAfterSeconds()
+                snapshot.syncQueueRetryAfterSeconds(),
+                snapshot.rateBurst(),
+                snapshot.ratePerCallerMaxPerSecond()
         );
     }
 
     private List<String> validate(Integer rateMaxPerSecond,
                                   Duration syncQueueMaxEstimatedWait,
                                   Duration syncQueueMaxQueueWait,
-                                  Integer syncQueueRetryAfterSeconds) {
+                                  Integer syncQueueRetryAfterSeconds,
+                                  Integer rateBurst,
+                                  Integer ratePerCallerMaxPerSecond) {
         List<String> errors = new ArrayList<>();
         boolean estimatedWaitValid = syncQueueMaxEstimatedWait == null || isPositiveDuration(syncQueueMaxEstimatedWait);
         boolean queueWaitValid = syncQueueMaxQueueWait == null || isPositiveDuration(syncQueueMaxQueueWait);
@@ -42,6 +48,12 @@ public class RuntimeConfigValidator {
         if (rateMaxPerSecond != null && rateMaxPerSecond <= 0) {
             errors.add("rateMaxPerSecond must be > 0, got " + rateMaxPerSecond);
         }
+        if (rateBurst != null && rateBurst < 0) {
+            errors.add("rateBurst must be >= 0, got " + rateBurst);
+        }
+        if (ratePerCallerMaxPerSecond != null && ratePerCallerMaxPerSecond < 0) {
+            errors.add("ratePerCallerMaxPerSecond must be >= 0, got " + ratePerCallerMaxPerSecond);
+        }
         if (!estimatedWaitValid) {
             errors.add("syncQueueMaxEstimatedWait must be > 0");
         }
@@ -35,6 +35,24 @@ class RuntimeConfigApplierTest {
         assertEquals(1, (long) registry.get("controlplane_runtime_config_revision").gauge().value());
     }
 
+    @Test
+    void applySuccess_updatesBurstAndPerCallerLimit() {
+        RateLimiter rateLimiter = new RateLimiter();
+        rateLimiter.setMaxPerSecond(1000);
+        RuntimeConfigApplier applier = new RuntimeConfigApplier(rateLimiter, new SimpleMeterRegistry());
+        RuntimeConfigService configService = new RuntimeConfigService(rateLimiter, DEFAULT_SYNC_QUEUE_DEFAULTS);
+
+        RuntimeConfigSnapshot previous = configService.getSnapshot();
+        RuntimeConfigSnapshot updated = configService.update(0,
+                new RuntimeConfigPatch(null, null, null, null, null, null, 50, 5));
+
+        applier.apply(updated, previous, configService);
+
+        assertEquals(1000, rateLimiter.getMaxPerSecond());
+        assertEquals(50, rateLimiter.getBurst());
+        assertEquals(5, rateLimiter.getPerCallerMaxPerSecond());
+    }
+
     @Test
     void applyFailure_rollsBackAndThrows() {
         // Use a RateLimiter subclass that throws on specific value
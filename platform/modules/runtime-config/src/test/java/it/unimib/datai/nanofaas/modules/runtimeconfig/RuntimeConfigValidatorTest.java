@@ -61,6 +61,17 @@ class RuntimeConfigValidatorTest {
         assertTrue(errors.get(0).contains("syncQueueRetryAfterSeconds"));
     }
 
+    @Test
+    void rejectsNegativeBurstAndPerCallerLimit() {
+        RuntimeConfigPatch patch = new RuntimeConfigPatch(null, null, null, null, null, null, -1, -1);
+
+        List<String> errors = validator.validate(patch);
+
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0).contains("rateBurst"));
+        assertTrue(errors.get(1).contains("ratePerCallerMaxPerSecond"));
+    }
+
     @Test
     void rejectsEstimatedWaitGreaterThanMaxQueueWait() {
         RuntimeConfigPatch patch = new RuntimeConfigPatch(
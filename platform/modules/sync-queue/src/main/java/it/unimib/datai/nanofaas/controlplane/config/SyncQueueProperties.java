@@ -3,7 +3,10 @@ package it.unimib.datai.nanofaas.controlplane.config;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import it.unimib.datai.nanofaas.controlplane.config.SyncQueueRuntimeDefaults;
+import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueOrdering;
+import it.unimib.datai.nanofaas.controlplane.sync.WaitEstimatorMode;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
@@ -18,8 +21,52 @@ public record SyncQueueProperties(
         @NotNull Duration maxQueueWait,
         @Positive int retryAfterSeconds,
         @NotNull Duration throughputWindow,
-        @Positive int perFunctionMinSamples
+        @Positive int perFunctionMinSamples,
+        WaitEstimatorMode waitEstimator,
+        Duration throughputBucket,
+        SyncQueueOrdering ordering
 ) {
+    @ConstructorBinding
+    public SyncQueueProperties {
+    }
+
+    public SyncQueueProperties(
+            boolean enabled,
+            boolean admissionEnabled,
+            int maxDepth,
+            Duration maxEstimatedWait,
+            Duration maxQueueWait,
+            int retryAfterSeconds,
+            Duration throughputWindow,
+            int perFunctionMinSamples
+    ) {
+        this(
+                enabled,
+                admissionEnabled,
+                maxDepth,
+                maxEstimatedWait,
+                maxQueueWait,
+                retryAfterSeconds,
+                throughputWindow,
+                perFunctionMinSamples,
+                null,
+                null,
+                null
+        );
+    }
+
+    public WaitEstimatorMode waitEstimatorOrDefault() {
+        return waitEstimator != null ? waitEstimator : WaitEstimatorMode.SLIDING_WINDOW;
+    }
+
+    public Duration throughputBucketOrDefault() {
+        return throughputBucket != null && throughputBucket.isPositive() ? throughputBucket : Duration.ofSeconds(1);
+    }
+
+    public SyncQueueOrdering orderingOrDefault() {
+        return ordering != null ? ordering : SyncQueueOrdering.FIFO;
+    }
+
     public SyncQueueRuntimeDefaults runtimeDefaults() {
         return new SyncQueueRuntimeDefaults(
                 enabled,
@@ -1,5 +1,6 @@
 package it.unimib.datai.nanofaas.controlplane.scheduler;
 
+import it.unimib.datai.nanofaas.controlplane.scaling.FunctionActivator;
 import it.unimib.datai.nanofaas.controlplane.service.InvocationEnqueuer;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueItem;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueService;
@@ -11,46 +12,58 @@ import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
-import java.util.function.LongConsumer;
 
 @Component
 @ConditionalOnProperty(prefix = "sync-queue", name = "enabled", havingValue = "true")
 public class SyncScheduler implements SmartLifecycle {
     private static final Logger log = LoggerFactory.getLogger(SyncScheduler.class);
     private static final String COMPONENT_NAME = "Sync scheduler";
+    private static final long SIGNALLED_RECHECK_INTERVAL_MS = 100;
+    private static final long UNSIGNALLED_RECHECK_INTERVAL_MS = 5;
 
     private final InvocationEnqueuer enqueuer;
     private final SyncQueueService queue;
     private final Consumer<InvocationTask> dispatch;
-    private final LongConsumer pause;
+    private final FunctionActivator activator;
+    private final Set<String> awaitingActivation = ConcurrentHashMap.newKeySet();
     private final AtomicBoolean running = new AtomicBoolean(false);
     private final Object lifecycleMonitor = new Object();
-    private volatile long tickMs = 2;
-    private volatile long blockedBackoffMs = tickMs;
     private volatile ExecutorService executor;
+    private volatile long recheckIntervalNanos = TimeUnit.MILLISECONDS.toNanos(UNSIGNALLED_RECHECK_INTERVAL_MS);
+    private boolean slotListenerRegistered;
+    private long lastRecheckNanos = System.nanoTime();
 
-    @Autowired
     public SyncScheduler(InvocationEnqueuer enqueuer,
                          SyncQueueService queue,
                          it.unimib.datai.nanofaas.controlplane.service.InvocationService invocationService) {
         this(enqueuer, queue, invocationService::dispatch, null);
     }
 
+    @Autowired
+    public SyncScheduler(InvocationEnqueuer enqueuer,
+                         SyncQueueService queue,
+                         it.unimib.datai.nanofaas.controlplane.service.InvocationService invocationService,
+                         @Autowired(required = false) FunctionActivator activator) {
+        this(enqueuer, queue, invocationService::dispatch, activator);
+    }
+
     SyncScheduler(InvocationEnqueuer enqueuer, SyncQueueService queue, Consumer<InvocationTask> dispatch) {
         this(enqueuer, queue, dispatch, null);
     }
 
-    SyncScheduler(InvocationEnqueuer enqueuer,
-                  SyncQueueService queue,
-                  Consumer<InvocationTask> dispatch,
-                  LongConsumer pause) {
+    SyncScheduler(InvocationEnqueuer enqueuer, SyncQueueService queue, Consumer<InvocationTask> dispatch,
+                  FunctionActivator activator) {
         this.enqueuer = enqueuer;
         this.queue = queue;
         this.dispatch = dispatch;
-        this.pause = pause != null ? pause : this::sleep;
+        this.activator = activator == null ? FunctionActivator.alwaysActive() : activator;
     }
 
     @Override
@@ -59,7 +72,7 @@ public class SyncScheduler implements SmartLifecycle {
             if (!running.compareAndSet(false, true)) {
                 return;
             }
-            blockedBackoffMs = tickMs;
+            registerSlotListener();
             ExecutorService newExecutor = SchedulerLifecycleSupport.newSingleThreadExecutor("nanofaas-sync-scheduler");
             executor = newExecutor;
             try {
@@ -73,6 +86,17 @@ public class SyncScheduler implements SmartLifecycle {
         }
     }
 
+    private void registerSlotListener() {
+        if (slotListenerRegistered) {
+            return;
+        }
+        slotListenerRegistered = true;
+        if (enqueuer.addDispatchSlotListener(queue::onDispatchSlotReleased)) {
+            recheckIntervalNanos = TimeUnit.MILLISECONDS.toNanos(SIGNALLED_RECHECK_INTERVAL_MS);
+        }
+        // Otherwise parked functions can only be found by re-testing them, so do it often.
+    }
+
     @Override
     public void stop() {
         ExecutorService executorToStop;
@@ -101,32 +125,38 @@ public class SyncScheduler implements SmartLifecycle {
         return true;
     }
 
+    /**
+     * Dispatches the next ready item, or parks until an admission or a slot release makes a
+     * function dispatchable. Parked functions are also re-tested, and expired items dropped,
+     * every {@code recheckIntervalNanos} as a fallback for capacity that appears unannounced
+     * (e.g. a raised concurrency limit).
+     */
     void tickOnce() {
         Instant now = Instant.now();
-        SyncQueueItem item = queue.findReadyMatching(now, task -> enqueuer.hasAvailableSlot(task.functionName()));
+        long nowNanos = System.nanoTime();
+        if (nowNanos - lastRecheckNanos >= recheckIntervalNanos) {
+            lastRecheckNanos = nowNanos;
+            queue.unparkBlockedLanes();
+            queue.peekReady(now);
+        }
+        SyncQueueItem item = queue.findReadyMatching(now,
+                task -> enqueuer.hasAvailableSlot(task.functionName()) && isActive(task.functionName()));
         if (item == null) {
-            if (queue.peekReady(now) == null) {
-                blockedBackoffMs = tickMs;
-                queue.awaitWork(tickMs);
-            } else {
-                queue.rotateReadyScanWindow(now);
-                pause.accept(currentBlockedBackoff());
-            }
+            long untilRecheckNanos = recheckIntervalNanos - (System.nanoTime() - lastRecheckNanos);
+            queue.awaitWork(Math.max(1, TimeUnit.NANOSECONDS.toMillis(untilRecheckNanos)));
             return;
         }
         String functionName = item.task().functionName();
         if (!enqueuer.tryAcquireSlot(functionName)) {
+            // Lost the slot between the check and the acquire: the next pass parks the lane.
             queue.rotateReadyItem(item, now);
-            pause.accept(currentBlockedBackoff());
             return;
         }
         if (!queue.removeReady(item, now)) {
             enqueuer.releaseDispatchSlot(functionName);
-            pause.accept(currentBlockedBackoff());
             return;
         }
-        blockedBackoffMs = tickMs;
-        queue.recordDispatched(functionName, now);
+        queue.recordDispatched(item, now);
         SchedulerDispatchSupport.dispatchWithFailureCleanup(
                 item.task(),
                 () -> dispatch.accept(item.task()),
@@ -135,23 +165,27 @@ public class SyncScheduler implements SmartLifecycle {
         );
     }
 
-    private void loop() {
-        while (running.get()) {
-            tickOnce();
+    /**
+     * A scaled-to-zero function's lane is parked like one without a free slot and unparked once,
+     * when activation completes.
+     */
+    private boolean isActive(String functionName) {
+        CompletableFuture<Void> activation = activator.activate(functionName);
+        if (activation.isDone()) {
+            return true;
         }
+        if (awaitingActivation.add(functionName)) {
+            activation.whenComplete((ignored, error) -> {
+                awaitingActivation.remove(functionName);
+                queue.unparkLane(functionName);
+            });
+        }
+        return false;
     }
 
-    private long currentBlockedBackoff() {
-        long current = blockedBackoffMs;
-        blockedBackoffMs = Math.min(current * 2, 50);
-        return current;
-    }
-
-    private void sleep(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException ignored) {
-            Thread.currentThread().interrupt();
+    private void loop() {
+        while (running.get()) {
+            tickOnce();
         }
     }
 }
@@ -0,0 +1,66 @@
+package it.unimib.datai.nanofaas.controlplane.sync;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Median service time (dispatch to completion) of each function over its last
+ * {@value #WINDOW} completed dispatches.
+ *
+ * <p>The median is recomputed when a sample is recorded, off the scheduler thread, so reading
+ * it while scanning the queue is a volatile read.</p>
+ */
+final class ServiceTimeTracker {
+    static final int WINDOW = 64;
+
+    private final int minSamples;
+    private final Map<String, Samples> perFunction = new ConcurrentHashMap<>();
+
+    ServiceTimeTracker(int minSamples) {
+        this.minSamples = Math.max(1, Math.min(minSamples, WINDOW));
+    }
+
+    void record(String functionName, long serviceNanos) {
+        Samples samples = perFunction.get(functionName);
+        if (samples == null) {
+            samples = perFunction.computeIfAbsent(functionName, ignored -> new Samples());
+        }
+        samples.record(Math.max(0, serviceNanos), minSamples);
+    }
+
+    /**
+     * Returns the median service time of {@code functionName} in nanoseconds, or {@code -1}
+     * until it has completed at least {@code minSamples} dispatches.
+     */
+    long medianNanos(String functionName) {
+        Samples samples = perFunction.get(functionName);
+        return samples == null ? -1 : samples.median;
+    }
+
+    void removeFunctionState(String functionName) {
+        perFunction.remove(functionName);
+    }
+
+    private static final class Samples {
+        private final long[] ring = new long[WINDOW];
+        private final long[] sorted = new long[WINDOW];
+        private int count;
+        private int next;
+        private volatile long median = -1;
+
+        private synchronized void record(long serviceNanos, int minSamples) {
+            ring[next] = serviceNanos;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) {
+                count++;
+            }
+            if (count < minSamples) {
+                return;
+            }
+            System.arraycopy(ring, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            median = sorted[count / 2];
+        }
+    }
+}
@@ -4,8 +4,16 @@ import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 
 import java.time.Instant;
 
+/**
+ * A queued task. {@code deadline} is when its caller stops waiting, or {@code null} if the
+ * caller gave no budget.
+ */
 public record SyncQueueItem(
         InvocationTask task,
-        Instant enqueuedAt
+        Instant enqueuedAt,
+        Instant deadline
 ) {
+    public SyncQueueItem(InvocationTask task, Instant enqueuedAt) {
+        this(task, enqueuedAt, null);
+    }
 }
@@ -19,6 +19,8 @@ public class SyncQueueMetrics {
     private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
     private final Map<String, Counter> timedOutCounters = new ConcurrentHashMap<>();
     private final Map<String, Counter> admittedCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> expiredCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> withinDeadlineCounters = new ConcurrentHashMap<>();
     private final Map<String, Timer> waitTimers = new ConcurrentHashMap<>();
     private final Map<String, AtomicInteger> perFunctionDepth = new ConcurrentHashMap<>();
     private final Map<String, Meter.Id> perFunctionDepthGaugeIds = new ConcurrentHashMap<>();
@@ -26,11 +28,16 @@ public class SyncQueueMetrics {
     private final Object functionStateMonitor = new Object();
     private final AtomicInteger globalDepth = new AtomicInteger();
     private final Timer globalWaitTimer;
+    private final Timer slotToDispatchTimer;
 
     public SyncQueueMetrics(MeterRegistry registry) {
         this.registry = registry;
         Gauge.builder("sync_queue_depth", globalDepth, AtomicInteger::get).register(registry);
         this.globalWaitTimer = Timer.builder("sync_queue_wait_seconds").register(registry);
+        this.slotToDispatchTimer = Timer.builder("sync_queue_slot_to_dispatch_seconds")
+                .description("Delay between a dispatch slot being released and the next queued invocation of that function being dispatched")
+                .publishPercentileHistogram()
+                .register(registry);
     }
 
     public void registerFunction(String functionName) {
@@ -99,6 +106,30 @@ public class SyncQueueMetrics {
         timedOut.increment();
     }
 
+    /** An item was dropped because its caller's deadline passed, or would before a median run ends. */
+    public void expiredInQueue(String functionName) {
+        Counter expired;
+        synchronized (functionStateMonitor) {
+            if (removedFunctions.contains(functionName)) {
+                return;
+            }
+            expired = counter(expiredCounters, "sync_queue_expired_in_queue_total", functionName);
+        }
+        expired.increment();
+    }
+
+    /** A dispatched item with a caller deadline completed before that deadline. */
+    public void servedWithinDeadline(String functionName) {
+        Counter served;
+        synchronized (functionStateMonitor) {
+            if (removedFunctions.contains(functionName)) {
+                return;
+            }
+            served = counter(withinDeadlineCounters, "sync_queue_served_within_deadline_total", functionName);
+        }
+        served.increment();
+    }
+
     public void recordWait(String functionName, long waitMillis) {
         Timer waitTimer;
         synchronized (functionStateMonitor) {
@@ -111,18 +142,26 @@ public class SyncQueueMetrics {
         waitTimer.record(waitMillis, TimeUnit.MILLISECONDS);
     }
 
+    public void recordSlotToDispatch(long delayNanos) {
+        slotToDispatchTimer.record(delayNanos, TimeUnit.NANOSECONDS);
+    }
+
     public void removeFunctionState(String functionName) {
         synchronized (functionStateMonitor) {
             removedFunctions.add(functionName);
             Counter rejected = rejectedCounters.remove(functionName);
             Counter timedOut = timedOutCounters.remove(functionName);
             Counter admitted = admittedCounters.remove(functionName);
+            Counter expired = expiredCounters.remove(functionName);
+            Counter withinDeadline = withinDeadlineCounters.remove(functionName);
             Timer waitTimer = waitTimers.remove(functionName);
             perFunctionDepth.remove(functionName);
             Meter.Id depthGaugeId = perFunctionDepthGaugeIds.remove(functionName);
             remove(rejected);
             remove(timedOut);
             remove(admitted);
+            remove(expired);
+            remove(withinDeadline);
             remove(waitTimer);
             if (depthGaugeId != null) {
                 registry.remove(depthGaugeId);
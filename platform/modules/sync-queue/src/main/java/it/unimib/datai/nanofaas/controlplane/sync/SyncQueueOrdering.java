@@ -0,0 +1,11 @@
+package it.unimib.datai.nanofaas.controlplane.sync;
+
+/**
+ * Order in which {@link SyncQueueService} dispatches the queued items of one function.
+ */
+public enum SyncQueueOrdering {
+    /** Arrival order. */
+    FIFO,
+    /** Earliest caller deadline first; items enqueued without a deadline go last, in arrival order. */
+    EDF
+}
@@ -4,6 +4,7 @@ import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.controlplane.config.SyncQueueProperties;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -13,40 +14,80 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Predicate;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Sync admission queue, kept as one lane per function. Lanes with queued work sit in a
+ * round-robin ring of ready lanes; a lane whose function has no free dispatch slot is parked
+ * so the scheduler does not re-scan its backlog on every pass.
+ *
+ * <p>A lane is FIFO, or with {@link SyncQueueOrdering#EDF} ordered by caller deadline. Either
+ * way its head is dropped, rather than dispatched, once its caller's remaining budget is
+ * shorter than the function's median service time: the caller would give up before the
+ * result arrives.</p>
+ */
 @Component
 public class SyncQueueService implements SyncQueueGateway {
-    public static final int POLL_READY_MATCHING_SCAN_LIMIT = 64;
     private static final String FUNCTION_REMOVED = "FUNCTION_REMOVED";
+    private static final Comparator<SyncQueueItem> EARLIEST_DEADLINE_FIRST = Comparator
+            .comparing(SyncQueueItem::deadline, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(SyncQueueItem::enqueuedAt);
 
     private final SyncQueueConfigSource configSource;
     private final ExecutionStore executionStore;
     private final WaitEstimator estimator;
     private final SyncQueueMetrics metrics;
     private final Clock clock;
-    private final Deque<SyncQueueItem> queue;
+    private final ScalingSignals scalingSignals;
+    private final SyncQueueOrdering ordering;
+    private final ServiceTimeTracker serviceTimes;
+    /** Guards the lanes, both rings and {@code depth}. */
+    private final Object lanesLock = new Object();
+    private final Map<String, Lane> lanes = new HashMap<>();
+    private final ArrayDeque<Lane> readyLanes = new ArrayDeque<>();
+    /** Total queued items across lanes; written under {@code lanesLock}, read without it. */
+    private volatile int depth;
     private final int maxDepth;
-    private final Object workSignal = new Object();
+    /** The scheduler thread while it is parked in {@link #awaitWork}. */
+    private volatile Thread waiter;
     private final SyncQueueAdmissionController admissionController;
     private final Set<String> removedFunctions = ConcurrentHashMap.newKeySet();
 
-    @Autowired
     public SyncQueueService(SyncQueueProperties props,
                             ExecutionStore executionStore,
                             SyncQueueMetrics metrics,
                             SyncQueueConfigSource configSource) {
+        this(props, executionStore, metrics, configSource, null);
+    }
+
+    @Autowired
+    public SyncQueueService(SyncQueueProperties props,
+                            ExecutionStore executionStore,
+                            SyncQueueMetrics metrics,
+                            SyncQueueConfigSource configSource,
+                            @Autowired(required = false) ScalingSignals scalingSignals) {
         this(props,
                 executionStore,
-                new WaitEstimator(props.throughputWindow(), props.perFunctionMinSamples()),
+                new WaitEstimator(
+                        props.throughputWindow(),
+                        props.throughputBucketOrDefault(),
+                        props.perFunctionMinSamples(),
+                        props.waitEstimatorOrDefault()),
                 metrics,
                 Clock.systemUTC(),
-                configSource);
+                configSource,
+                scalingSignals);
     }
 
     SyncQueueService(SyncQueueProperties props,
@@ -55,13 +96,25 @@ public class SyncQueueService implements SyncQueueGateway {
                      SyncQueueMetrics metrics,
                      Clock clock,
                      SyncQueueConfigSource configSource) {
+        this(props, executionStore, estimator, metrics, clock, configSource, null);
+    }
+
+    SyncQueueService(SyncQueueProperties props,
+                     ExecutionStore executionStore,
+                     WaitEstimator estimator,
+                     SyncQueueMetrics metrics,
+                     Clock clock,
+                     SyncQueueConfigSource configSource,
+                     ScalingSignals scalingSignals) {
+        this.scalingSignals = scalingSignals == null ? ScalingSignals.noOp() : scalingSignals;
         this.configSource = configSource;
         this.executionStore = executionStore;
         this.estimator = estimator;
         this.metrics = metrics;
         this.clock = clock;
-        this.queue = new ArrayDeque<>(props.maxDepth());
         this.maxDepth = props.maxDepth();
+        this.ordering = props.orderingOrDefault();
+        this.serviceTimes = new ServiceTimeTracker(props.perFunctionMinSamples());
         this.admissionController = new SyncQueueAdmissionController(configSource, props.maxDepth(), estimator);
     }
 
@@ -75,6 +128,11 @@ public class SyncQueueService implements SyncQueueGateway {
 
     @Override
     public void enqueueOrThrow(InvocationTask task) {
+        enqueueOrThrow(task, null);
+    }
+
+    @Override
+    public void enqueueOrThrow(InvocationTask task, Duration budget) {
         if (removedFunctions.contains(task.functionName())) {
             markFunctionRemoved(task.functionName(), new SyncQueueItem(task, clock.instant()), false);
             throw new SyncQueueRejectedException(SyncQueueRejectReason.DEPTH, configSource.syncQueueRetryAfterSeconds());
@@ -85,75 +143,143 @@ public class SyncQueueService implements SyncQueueGateway {
             metrics.rejected(task.functionName());
             throw new SyncQueueRejectedException(decision.reason(), configSource.syncQueueRetryAfterSeconds());
         }
-        synchronized (queue) {
+        boolean becameReady = false;
+        synchronized (lanesLock) {
             if (removedFunctions.contains(task.functionName())) {
                 markFunctionRemoved(task.functionName(), new SyncQueueItem(task, now), false);
                 throw new SyncQueueRejectedException(SyncQueueRejectReason.DEPTH, configSource.syncQueueRetryAfterSeconds());
             }
-            if (queue.size() >= maxDepth) {
+            if (depth >= maxDepth) {
                 metrics.rejected(task.functionName());
                 throw new SyncQueueRejectedException(SyncQueueRejectReason.DEPTH, configSource.syncQueueRetryAfterSeconds());
             }
-            queue.addLast(new SyncQueueItem(task, now));
+            Lane lane = lanes.computeIfAbsent(task.functionName(), name -> new Lane(name, ordering));
+            lane.items.offer(new SyncQueueItem(task, now, budget == null ? null : now.plus(budget)));
+            depth++;
+            if (lane.state == LaneState.IDLE) {
+                lane.state = LaneState.READY;
+                readyLanes.addLast(lane);
+                becameReady = true;
+            }
             metrics.registerFunction(task.functionName());
             metrics.admitted(task.functionName());
         }
-        synchronized (workSignal) {
-            workSignal.notify();
+        if (becameReady) {
+            wakeWaiter();
         }
     }
 
     /**
-     * Waits for new work when the queue is empty to avoid busy polling.
+     * Parks the calling (scheduler) thread until a lane becomes ready, either through the
+     * admission of work for an idle function or through {@link #onDispatchSlotReleased}, or
+     * until the timeout elapses. Returns immediately if a lane is already ready.
      */
     public void awaitWork(long timeoutMs) {
-        if (timeoutMs <= 0 || queuedItems() > 0) {
+        if (timeoutMs <= 0) {
             return;
         }
-        synchronized (workSignal) {
-            if (queuedItems() == 0) {
-                try {
-                    workSignal.wait(timeoutMs);
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                }
+        waiter = Thread.currentThread();
+        try {
+            // waiter is published before the check, so a lane readied after it will unpark us.
+            if (!hasReadyLanes()) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(timeoutMs));
             }
+        } finally {
+            waiter = null;
         }
     }
 
-    public int queuedItems() {
-        synchronized (queue) {
-            return queue.size();
+    /**
+     * Called after a dispatch slot of {@code functionName} was released: returns its lane to the
+     * ready ring if it was parked and wakes the scheduler. Only that function's lane is touched.
+     */
+    public void onDispatchSlotReleased(String functionName) {
+        unpark(functionName, true);
+    }
+
+    /**
+     * Returns the lane of {@code functionName} to the ready ring if it was parked, for capacity
+     * that appears without a slot release, such as a scaled-to-zero function becoming ready.
+     */
+    public void unparkLane(String functionName) {
+        unpark(functionName, false);
+    }
+
+    private void unpark(String functionName, boolean slotReleased) {
+        if (depth == 0) {
+            return;
+        }
+        boolean becameReady = false;
+        synchronized (lanesLock) {
+            Lane lane = lanes.get(functionName);
+            if (lane == null) {
+                return;
+            }
+            if (slotReleased && lane.slotFreedAtNanos == 0) {
+                lane.slotFreedAtNanos = System.nanoTime();
+            }
+            if (lane.state == LaneState.PARKED) {
+                lane.state = LaneState.READY;
+                readyLanes.addLast(lane);
+                becameReady = true;
+            }
+        }
+        if (becameReady) {
+            wakeWaiter();
+        }
+    }
+
+    private boolean hasReadyLanes() {
+        synchronized (lanesLock) {
+            return !readyLanes.isEmpty();
+        }
+    }
+
+    private void wakeWaiter() {
+        Thread thread = waiter;
+        if (thread != null) {
+            LockSupport.unpark(thread);
         }
     }
 
+    public int queuedItems() {
+        return depth;
+    }
+
+    /**
+     * Returns an unexpired queued item, or {@code null} if the queue is empty. Unlike
+     * {@link #findReadyMatching} this looks at every lane, parked ones included, so it also
+     * times out items whose function has been blocked for longer than the queue wait. With
+     * {@link SyncQueueOrdering#EDF} it also sweeps whole lanes for such items, since the oldest
+     * item of a lane need not be its head.
+     */
     public SyncQueueItem peekReady(Instant now) {
-        while (true) {
-            SyncQueueItem timedOut = null;
-            synchronized (queue) {
-                SyncQueueItem item = queue.peekFirst();
-                if (item == null) {
-                    return null;
+        List<SyncQueueItem> timedOut = new ArrayList<>();
+        List<SyncQueueItem> expired = new ArrayList<>();
+        SyncQueueItem head = null;
+        synchronized (lanesLock) {
+            Iterator<Lane> iterator = lanes.values().iterator();
+            while (iterator.hasNext()) {
+                Lane lane = iterator.next();
+                if (ordering == SyncQueueOrdering.EDF) {
+                    sweepTimedOut(lane, now, timedOut);
                 }
-                if (!isTimedOut(item, now)) {
-                    return item;
+                SyncQueueItem laneHead = expireHead(lane, now, timedOut, expired);
+                if (laneHead == null) {
+                    iterator.remove();
+                    detach(lane);
+                } else if (head == null) {
+                    head = laneHead;
                 }
-                queue.pollFirst();
-                timedOut = item;
             }
-            timeout(timedOut);
         }
+        timedOut.forEach(this::timeout);
+        expired.forEach(this::expire);
+        return head;
     }
 
     public SyncQueueItem pollReady(Instant now) {
-        SyncQueueItem item;
-        synchronized (queue) {
-            item = queue.pollFirst();
-        }
-        if (item != null) {
-            recordDequeued(item, now);
-        }
-        return item;
+        return pollReadyMatching(now, task -> true);
     }
 
     public SyncQueueItem pollReadyMatching(Instant now, Predicate<InvocationTask> selector) {
@@ -164,97 +290,157 @@ public class SyncQueueService implements SyncQueueGateway {
         return null;
     }
 
+    /**
+     * Returns the head of the first ready lane, in round-robin order, whose head task matches
+     * {@code selector}, without dequeuing it. The selector is expected to depend on the function
+     * only (typically "has a free dispatch slot"): a lane whose head does not match is parked
+     * and skipped by later calls until {@link #onDispatchSlotReleased} or
+     * {@link #unparkBlockedLanes()}. Each lane is therefore
+     * tested at most once per call, however deep the backlog behind a blocked function is.
+     * Parking a lane is reported to the autoscaler as backlog of its function.
+     */
     public SyncQueueItem findReadyMatching(Instant now, Predicate<InvocationTask> selector) {
         List<SyncQueueItem> timedOut = new ArrayList<>();
+        List<SyncQueueItem> expired = new ArrayList<>();
+        List<String> parked = null;
         SyncQueueItem selected = null;
-        synchronized (queue) {
-            int remaining = Math.min(queue.size(), POLL_READY_MATCHING_SCAN_LIMIT);
-            Iterator<SyncQueueItem> iterator = queue.iterator();
-            while (remaining-- > 0 && iterator.hasNext()) {
-                SyncQueueItem item = iterator.next();
-                if (isTimedOut(item, now)) {
-                    iterator.remove();
-                    timedOut.add(item);
+        synchronized (lanesLock) {
+            int remaining = readyLanes.size();
+            while (remaining-- > 0) {
+                Lane lane = readyLanes.peekFirst();
+                SyncQueueItem head = expireHead(lane, now, timedOut, expired);
+                if (head == null) {
+                    readyLanes.pollFirst();
+                    lanes.remove(lane.functionName);
+                    lane.state = LaneState.IDLE;
                     continue;
                 }
-                if (selector.test(item.task())) {
-                    selected = item;
+                if (selector.test(head.task())) {
+                    selected = head;
                     break;
                 }
+                readyLanes.pollFirst();
+                lane.state = LaneState.PARKED;
+                if (parked == null) {
+                    parked = new ArrayList<>();
+                }
+                parked.add(lane.functionName);
             }
         }
         timedOut.forEach(this::timeout);
+        expired.forEach(this::expire);
+        if (parked != null) {
+            parked.forEach(scalingSignals::backlogWaiting);
+        }
         return selected;
     }
 
+    /**
+     * Dequeues {@code item}. When it was the head of the front ready lane, that lane moves to the
+     * back of the ready ring so functions with backlog take turns. If a slot of the function was
+     * released while it had queued work, the delay since that release is recorded.
+     */
     public boolean removeReady(SyncQueueItem item, Instant now) {
-        boolean removed;
-        synchronized (queue) {
-            removed = queue.remove(item);
-        }
-        if (!removed) {
-            return false;
-        }
-        recordDequeued(item, now);
-        return true;
-    }
-
-    public boolean rotateReadyHead(Instant now) {
-        SyncQueueItem timedOut = null;
-        synchronized (queue) {
-            SyncQueueItem item = queue.pollFirst();
-            if (item == null) {
+        long slotFreedAtNanos;
+        synchronized (lanesLock) {
+            Lane lane = lanes.get(item.task().functionName());
+            if (lane == null) {
                 return false;
             }
-            if (isTimedOut(item, now)) {
-                timedOut = item;
-            } else {
-                queue.addLast(item);
+            if (lane.items.peek() == item) {
+                lane.items.poll();
+            } else if (!lane.items.remove(item)) {
+                return false;
+            }
+            depth--;
+            slotFreedAtNanos = lane.slotFreedAtNanos;
+            lane.slotFreedAtNanos = 0;
+            if (lane.state == LaneState.READY && readyLanes.peekFirst() == lane) {
+                readyLanes.pollFirst();
+                if (lane.items.isEmpty()) {
+                    lanes.remove(lane.functionName);
+                    lane.state = LaneState.IDLE;
+                } else {
+                    readyLanes.addLast(lane);
+                }
+            } else if (lane.items.isEmpty()) {
+                lanes.remove(lane.functionName);
+                detach(lane);
             }
         }
-        if (timedOut != null) {
-            timeout(timedOut);
+        if (slotFreedAtNanos != 0) {
+            metrics.recordSlotToDispatch(System.nanoTime() - slotFreedAtNanos);
         }
+        recordDequeued(item, now);
         return true;
     }
 
+    /**
+     * Moves the lane of {@code item} to the back of the ready ring, e.g. after its function lost
+     * the race for the last dispatch slot. The item keeps its place at the head of its lane.
+     */
     public boolean rotateReadyItem(SyncQueueItem item, Instant now) {
-        SyncQueueItem timedOut = null;
-        boolean rotated = false;
-        synchronized (queue) {
-            if (!queue.remove(item)) {
+        synchronized (lanesLock) {
+            Lane lane = lanes.get(item.task().functionName());
+            if (lane == null || lane.state != LaneState.READY || lane.items.peek() != item) {
                 return false;
             }
-            if (isTimedOut(item, now)) {
-                timedOut = item;
+            if (readyLanes.peekFirst() == lane) {
+                readyLanes.pollFirst();
             } else {
-                queue.addLast(item);
-                rotated = true;
+                readyLanes.remove(lane);
             }
+            readyLanes.addLast(lane);
+            return true;
         }
-        if (timedOut != null) {
-            timeout(timedOut);
-        }
-        return rotated;
     }
 
-    public boolean rotateReadyScanWindow(Instant now) {
-        boolean changed = false;
-        int remaining = Math.min(queuedItems(), POLL_READY_MATCHING_SCAN_LIMIT);
-        while (remaining-- > 0) {
-            changed |= rotateReadyHead(now);
+    /**
+     * Returns every parked lane to the ready ring so the next {@link #findReadyMatching} call
+     * re-tests them. This is the fallback for capacity that frees up without a slot release
+     * signal, such as a raised concurrency limit.
+     *
+     * @return {@code true} if at least one lane was parked
+     */
+    public boolean unparkBlockedLanes() {
+        boolean unparked = false;
+        synchronized (lanesLock) {
+            for (Lane lane : lanes.values()) {
+                if (lane.state == LaneState.PARKED) {
+                    lane.state = LaneState.READY;
+                    readyLanes.addLast(lane);
+                    unparked = true;
+                }
+            }
         }
-        return changed;
+        return unparked;
     }
 
     public void recordDispatched(String functionName, Instant now) {
         estimator.recordDispatch(functionName, now);
     }
 
+    /**
+     * Records the dispatch of {@code item} and, once its execution completes, its service time
+     * and whether it completed within its caller's deadline.
+     */
+    public void recordDispatched(SyncQueueItem item, Instant now) {
+        recordDispatched(item.task().functionName(), now);
+        ExecutionRecord record = executionStore.getOrNull(item.task().executionId());
+        if (record != null) {
+            record.completion().whenComplete((result, error) -> {
+                if (error == null) {
+                    recordCompleted(item, now);
+                }
+            });
+        }
+    }
+
     public void removeFunctionState(String functionName) {
         removedFunctions.add(functionName);
         drainRemovedFunction(functionName);
         estimator.removeFunctionState(functionName);
+        serviceTimes.removeFunctionState(functionName);
         metrics.removeFunctionState(functionName);
     }
 
@@ -264,20 +450,68 @@ public class SyncQueueService implements SyncQueueGateway {
     }
 
     private void drainRemovedFunction(String functionName) {
-        List<SyncQueueItem> removed = new ArrayList<>();
-        synchronized (queue) {
-            Iterator<SyncQueueItem> iterator = queue.iterator();
-            while (iterator.hasNext()) {
-                SyncQueueItem item = iterator.next();
-                if (item.task().functionName().equals(functionName)) {
-                    iterator.remove();
-                    removed.add(item);
-                }
+        List<SyncQueueItem> removed;
+        synchronized (lanesLock) {
+            Lane lane = lanes.remove(functionName);
+            if (lane == null) {
+                return;
             }
+            detach(lane);
+            removed = new ArrayList<>(lane.items);
+            depth -= removed.size();
         }
         removed.forEach(item -> markFunctionRemoved(functionName, item, true));
     }
 
+    /**
+     * Drops timed-out items, and items that would miss their deadline, from the head of
+     * {@code lane} and returns the new head, if any. In a FIFO lane, once the head is within the
+     * queue wait the rest of the lane is too; in an EDF lane, once the head can meet its
+     * deadline so can the rest.
+     */
+    private SyncQueueItem expireHead(Lane lane, Instant now, List<SyncQueueItem> timedOut,
+                                     List<SyncQueueItem> expired) {
+        long medianServiceNanos = -1;
+        SyncQueueItem head;
+        while ((head = lane.items.peek()) != null) {
+            if (isTimedOut(head, now)) {
+                timedOut.add(head);
+            } else if (head.deadline() != null) {
+                if (medianServiceNanos < 0) {
+                    medianServiceNanos = Math.max(0, serviceTimes.medianNanos(lane.functionName));
+                }
+                if (!head.deadline().minusNanos(medianServiceNanos).isBefore(now)) {
+                    break;
+                }
+                expired.add(head);
+            } else {
+                break;
+            }
+            lane.items.poll();
+            depth--;
+        }
+        return head;
+    }
+
+    // Called with lanesLock held.
+    private void sweepTimedOut(Lane lane, Instant now, List<SyncQueueItem> timedOut) {
+        lane.items.removeIf(item -> {
+            if (!isTimedOut(item, now)) {
+                return false;
+            }
+            depth--;
+            timedOut.add(item);
+            return true;
+        });
+    }
+
+    private void detach(Lane lane) {
+        if (lane.state == LaneState.READY) {
+            readyLanes.remove(lane);
+        }
+        lane.state = LaneState.IDLE;
+    }
+
     private void markFunctionRemoved(String functionName, SyncQueueItem item, boolean wasQueued) {
         ExecutionRecord record = executionStore.getOrNull(item.task().executionId());
         if (record == null) {
@@ -306,18 +540,39 @@ public class SyncQueueService implements SyncQueueGateway {
     }
 
     private void timeout(SyncQueueItem item) {
+        completeTimedOut(item, "Queue wait exceeded");
+        metrics.timedOut(item.task().functionName());
+    }
+
+    private void expire(SyncQueueItem item) {
+        completeTimedOut(item, "Caller deadline would pass before the execution completes");
+        metrics.expiredInQueue(item.task().functionName());
+    }
+
+    private void completeTimedOut(SyncQueueItem item, String message) {
         ExecutionRecord record = executionStore.getOrNull(item.task().executionId());
         if (record != null) {
             // Guard: completeExecution publishes the future outside the record monitor; only complete if not already finalized.
             synchronized (record) {
                 if (!record.isTerminal()) {
                     record.markTimeout();
-                    record.completion().complete(InvocationResult.error("QUEUE_TIMEOUT", "Queue wait exceeded"));
+                    record.completion().complete(InvocationResult.error("QUEUE_TIMEOUT", message));
                 }
             }
         }
         metrics.dequeued(item.task().functionName());
-        metrics.timedOut(item.task().functionName());
+    }
+
+    private void recordCompleted(SyncQueueItem item, Instant dispatchedAt) {
+        String functionName = item.task().functionName();
+        if (removedFunctions.contains(functionName)) {
+            return;
+        }
+        Instant completedAt = clock.instant();
+        serviceTimes.record(functionName, Duration.between(dispatchedAt, completedAt).toNanos());
+        if (item.deadline() != null && !completedAt.isAfter(item.deadline())) {
+            metrics.servedWithinDeadline(functionName);
+        }
     }
 
     private void recordDequeued(SyncQueueItem item, Instant now) {
@@ -325,4 +580,32 @@ public class SyncQueueService implements SyncQueueGateway {
         long waitMillis = Duration.between(item.enqueuedAt(), now).toMillis();
         metrics.recordWait(item.task().functionName(), waitMillis);
     }
+
+    private enum LaneState {
+        /** Empty; in neither ring. */
+        IDLE,
+        /** Has items and is in {@code readyLanes}. */
+        READY,
+        /** Has items but its function had no free slot when last tested; in neither ring. */
+        PARKED
+    }
+
+    /**
+     * The queued items of one function, in dispatch order. A lane exists in {@code lanes} only
+     * while it holds items.
+     */
+    private static final class Lane {
+        private final String functionName;
+        private final Queue<SyncQueueItem> items;
+        private LaneState state = LaneState.IDLE;
+        /** {@link System#nanoTime()} of the first slot release since the last dispatch, or 0. */
+        private long slotFreedAtNanos;
+
+        private Lane(String functionName, SyncQueueOrdering ordering) {
+            this.functionName = functionName;
+            this.items = ordering == SyncQueueOrdering.EDF
+                    ? new PriorityQueue<>(EARLIEST_DEADLINE_FIRST)
+                    : new ArrayDeque<>();
+        }
+    }
 }
@@ -2,85 +2,186 @@ package it.unimib.datai.nanofaas.controlplane.sync;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Estimates how long a queued request waits from the recent dispatch throughput.
+ *
+ * <p>Dispatches are counted in a fixed ring of time buckets, one ring globally and one per
+ * function, so recording is a {@link LongAdder} increment and an estimate reads at most
+ * {@code window / bucket} counters: neither depends on the dispatch rate and neither
+ * allocates. A bucket is reset lazily when the ring wraps onto it.</p>
+ */
 public class WaitEstimator {
-    private final Duration window;
+    private static final int MAX_BUCKETS = 3600;
+
+    private final long bucketNanos;
+    private final int bucketCount;
+    private final double windowSeconds;
     private final int perFunctionMinSamples;
-    private final Deque<Instant> globalEvents = new ConcurrentLinkedDeque<>();
-    private final Map<String, Deque<Instant>> perFunctionEvents = new ConcurrentHashMap<>();
+    private final WaitEstimatorMode mode;
+    /** EWMA weight of the completed bucket {@code k + 1} buckets before the current one. */
+    private final double[] ewmaWeights;
+    private final DispatchCounter global;
+    private final Map<String, DispatchCounter> perFunction = new ConcurrentHashMap<>();
 
     public WaitEstimator(Duration window, int perFunctionMinSamples) {
-        this.window = window;
-        this.perFunctionMinSamples = perFunctionMinSamples;
+        this(window, Duration.ofSeconds(1), perFunctionMinSamples, WaitEstimatorMode.SLIDING_WINDOW);
     }
 
-    WaitEstimator(Duration window,
-                  int perFunctionMinSamples,
-                  Deque<Instant> globalEvents,
-                  Map<String, ? extends Deque<Instant>> perFunctionEvents) {
-        this.window = window;
+    public WaitEstimator(Duration window, Duration bucket, int perFunctionMinSamples, WaitEstimatorMode mode) {
+        long windowNanos = Math.max(1, window.toNanos());
+        long bucketNanos = Math.min(Math.max(1, bucket.toNanos()), windowNanos);
+        int bucketCount = (int) Math.min(MAX_BUCKETS, (windowNanos + bucketNanos - 1) / bucketNanos);
+        this.bucketNanos = Math.max(bucketNanos, (windowNanos + bucketCount - 1) / bucketCount);
+        this.bucketCount = bucketCount;
+        this.windowSeconds = Math.max(1.0, window.toNanos() / 1e9);
         this.perFunctionMinSamples = perFunctionMinSamples;
-        this.globalEvents.clear();
-        this.globalEvents.addAll(globalEvents);
-        perFunctionEvents.forEach((functionName, events) -> this.perFunctionEvents.put(functionName, events));
+        this.mode = mode;
+        this.ewmaWeights = ewmaWeights(bucketCount);
+        this.global = new DispatchCounter(bucketCount);
     }
 
     public void recordDispatch(String functionName, Instant now) {
-        globalEvents.addLast(now);
-        perFunctionEvents
-                .computeIfAbsent(functionName, ignored -> new ConcurrentLinkedDeque<>())
-                .addLast(now);
-        prune(globalEvents, now);
-        prune(perFunctionEvents.get(functionName), now);
+        recordDispatch(functionName, toNanos(now));
+    }
+
+    void recordDispatch(String functionName, long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        global.record(epoch);
+        DispatchCounter counter = perFunction.get(functionName);
+        if (counter == null) {
+            counter = perFunction.computeIfAbsent(functionName, ignored -> new DispatchCounter(bucketCount));
+        }
+        counter.record(epoch);
     }
 
     public void removeFunctionState(String functionName) {
-        perFunctionEvents.remove(functionName);
+        perFunction.remove(functionName);
     }
 
     public double estimateWaitSeconds(String functionName, int queueDepth, Instant now) {
+        return estimateWaitSeconds(functionName, queueDepth, toNanos(now));
+    }
+
+    double estimateWaitSeconds(String functionName, int queueDepth, long nowNanos) {
         if (queueDepth <= 0) {
             return 0.0;
         }
-        ThroughputSnapshot perFunction = snapshot(perFunctionEvents.get(functionName), now);
-        if (perFunction.samples() >= perFunctionMinSamples && perFunction.throughput() > 0) {
-            return queueDepth / perFunction.throughput();
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        DispatchCounter counter = perFunction.get(functionName);
+        if (counter != null && counter.samples(epoch) >= perFunctionMinSamples) {
+            double throughput = throughput(counter, epoch);
+            if (throughput > 0) {
+                return queueDepth / throughput;
+            }
         }
-        ThroughputSnapshot global = snapshot(globalEvents, now);
-        if (global.throughput() <= 0) {
+        double throughput = throughput(global, epoch);
+        if (throughput <= 0) {
             return Double.POSITIVE_INFINITY;
         }
-        return queueDepth / global.throughput();
+        return queueDepth / throughput;
     }
 
-    private ThroughputSnapshot snapshot(Deque<Instant> events, Instant now) {
-        if (events == null) {
-            return new ThroughputSnapshot(0, 0.0);
+    private double throughput(DispatchCounter counter, long epoch) {
+        if (mode == WaitEstimatorMode.EWMA && bucketCount > 1) {
+            return counter.weightedCompletedCount(epoch, ewmaWeights) * 1e9 / bucketNanos;
         }
-        prune(events, now);
-        int samples = events.size();
-        double seconds = Math.max(1.0, window.toSeconds());
-        return new ThroughputSnapshot(samples, samples / seconds);
+        return counter.samples(epoch) / windowSeconds;
+    }
+
+    private static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
     }
 
-    private void prune(Deque<Instant> events, Instant now) {
-        if (events == null) {
-            return;
+    /**
+     * Normalized weights for the {@code bucketCount - 1} completed buckets, using the usual
+     * span-based smoothing factor {@code 2 / (n + 1)}. The in-progress bucket is left out so a
+     * half-filled bucket does not read as a throughput drop.
+     */
+    private static double[] ewmaWeights(int bucketCount) {
+        int completed = Math.max(0, bucketCount - 1);
+        double[] weights = new double[completed];
+        double decay = 1.0 - 2.0 / (completed + 1);
+        double weight = 1.0;
+        double total = 0.0;
+        for (int k = 0; k < completed; k++) {
+            weights[k] = weight;
+            total += weight;
+            weight *= decay;
         }
-        Instant cutoff = now.minus(window);
-        while (true) {
-            Instant first = events.peekFirst();
-            if (first == null || !first.isBefore(cutoff)) {
-                return;
-            }
-            events.pollFirst();
+        for (int k = 0; k < completed; k++) {
+            weights[k] /= total;
         }
+        return weights;
     }
 
-    private record ThroughputSnapshot(int samples, double throughput) {
+    /**
+     * Ring of per-bucket counters. A slot belongs to the bucket stored in {@code epochs}; the
+     * first dispatch of a newer bucket claims the slot and clears it. Increments racing with
+     * that claim may be lost, which only nudges a statistical estimate.
+     */
+    private static final class DispatchCounter {
+        private final AtomicLongArray epochs;
+        private final LongAdder[] counts;
+
+        private DispatchCounter(int bucketCount) {
+            long[] initial = new long[bucketCount];
+            Arrays.fill(initial, Long.MIN_VALUE);
+            this.epochs = new AtomicLongArray(initial);
+            this.counts = new LongAdder[bucketCount];
+            for (int i = 0; i < bucketCount; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        void record(long epoch) {
+            int slot = slot(epoch);
+            long current = epochs.get(slot);
+            while (current != epoch) {
+                if (current > epoch) {
+                    // Older than the window the ring still covers.
+                    return;
+                }
+                if (epochs.compareAndSet(slot, current, epoch)) {
+                    counts[slot].reset();
+                    break;
+                }
+                current = epochs.get(slot);
+            }
+            counts[slot].increment();
+        }
+
+        long samples(long epoch) {
+            long oldest = epoch - counts.length;
+            long total = 0;
+            for (int slot = 0; slot < counts.length; slot++) {
+                long bucket = epochs.get(slot);
+                if (bucket > oldest && bucket <= epoch) {
+                    total += counts[slot].sum();
+                }
+            }
+            return total;
+        }
+
+        double weightedCompletedCount(long epoch, double[] weights) {
+            double total = 0.0;
+            for (int k = 0; k < weights.length; k++) {
+                long bucket = epoch - 1 - k;
+                int slot = slot(bucket);
+                if (epochs.get(slot) == bucket) {
+                    total += weights[k] * counts[slot].sum();
+                }
+            }
+            return total;
+        }
+
+        private int slot(long epoch) {
+            return (int) Math.floorMod(epoch, (long) counts.length);
+        }
     }
 }
@@ -0,0 +1,11 @@
+package it.unimib.datai.nanofaas.controlplane.sync;
+
+/**
+ * How {@link WaitEstimator} turns the per-bucket dispatch counts into a throughput.
+ */
+public enum WaitEstimatorMode {
+    /** Dispatches over the whole window divided by its length. */
+    SLIDING_WINDOW,
+    /** Exponentially weighted mean of the completed buckets, favouring the most recent ones. */
+    EWMA
+}
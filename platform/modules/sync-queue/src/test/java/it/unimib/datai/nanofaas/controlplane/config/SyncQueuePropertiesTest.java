@@ -1,5 +1,7 @@
 package it.unimib.datai.nanofaas.controlplane.config;
 
+import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueOrdering;
+import it.unimib.datai.nanofaas.controlplane.sync.WaitEstimatorMode;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.context.properties.bind.Bindable;
 import org.springframework.boot.context.properties.bind.Binder;
@@ -21,7 +23,10 @@ class SyncQueuePropertiesTest {
                 .withProperty("sync-queue.max-queue-wait", "2s")
                 .withProperty("sync-queue.retry-after-seconds", "2")
                 .withProperty("sync-queue.throughput-window", "30s")
-                .withProperty("sync-queue.per-function-min-samples", "50");
+                .withProperty("sync-queue.per-function-min-samples", "50")
+                .withProperty("sync-queue.wait-estimator", "ewma")
+                .withProperty("sync-queue.throughput-bucket", "250ms")
+                .withProperty("sync-queue.ordering", "edf");
 
         SyncQueueProperties props = Binder.get(env)
                 .bind("sync-queue", Bindable.of(SyncQueueProperties.class))
@@ -35,5 +40,19 @@ class SyncQueuePropertiesTest {
         assertEquals(2, props.retryAfterSeconds());
         assertEquals(Duration.ofSeconds(30), props.throughputWindow());
         assertEquals(50, props.perFunctionMinSamples());
+        assertEquals(WaitEstimatorMode.EWMA, props.waitEstimatorOrDefault());
+        assertEquals(Duration.ofMillis(250), props.throughputBucketOrDefault());
+        assertEquals(SyncQueueOrdering.EDF, props.orderingOrDefault());
+    }
+
+    @Test
+    void waitEstimatorDefaultsToOneSecondSlidingWindow() {
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, true, 200, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 50
+        );
+
+        assertEquals(WaitEstimatorMode.SLIDING_WINDOW, props.waitEstimatorOrDefault());
+        assertEquals(Duration.ofSeconds(1), props.throughputBucketOrDefault());
+        assertEquals(SyncQueueOrdering.FIFO, props.orderingOrDefault());
     }
 }
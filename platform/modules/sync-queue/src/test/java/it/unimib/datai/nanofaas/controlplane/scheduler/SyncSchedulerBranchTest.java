@@ -50,56 +50,67 @@ class SyncSchedulerBranchTest {
         scheduler.tickOnce();
 
         verify(queue, never()).pollReady(any(Instant.class));
-        verify(queue, never()).recordDispatched(anyString(), any(Instant.class));
+        verify(queue, never()).recordDispatched(any(SyncQueueItem.class), any(Instant.class));
         verifyNoInteractions(dispatch);
     }
 
     @Test
-    void tickOnce_whenWorkAdvances_resetsBlockedBackoff() {
+    void tickOnce_whenWorkAdvances_dispatchesWithoutWaiting() {
         InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
         SyncQueueService queue = mock(SyncQueueService.class);
         @SuppressWarnings("unchecked")
         Consumer<InvocationTask> dispatch = mock(Consumer.class);
-        List<Long> pauses = new ArrayList<>();
         SyncQueueItem item = mock(SyncQueueItem.class);
         InvocationTask task = mock(InvocationTask.class);
 
-        when(queue.findReadyMatching(any(Instant.class), any())).thenReturn(null, item, null);
+        when(queue.findReadyMatching(any(Instant.class), any())).thenReturn(item);
         when(queue.removeReady(eq(item), any(Instant.class))).thenReturn(true);
         when(item.task()).thenReturn(task);
         when(task.functionName()).thenReturn("fn");
         when(enqueuer.tryAcquireSlot("fn")).thenReturn(true);
-        when(queue.peekReady(any(Instant.class))).thenReturn(mock(SyncQueueItem.class), mock(SyncQueueItem.class));
 
-        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, dispatch, pauses::add);
-        scheduler.tickOnce();
-        scheduler.tickOnce();
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, dispatch);
         scheduler.tickOnce();
 
-        assertThat(pauses).containsExactly(2L, 2L);
-        verify(queue).recordDispatched(eq("fn"), any(Instant.class));
+        verify(queue).recordDispatched(eq(item), any(Instant.class));
         verify(dispatch).accept(task);
+        verify(queue, never()).awaitWork(anyLong());
     }
 
     @Test
-    void tickOnce_whenWorkCannotAdvance_usesGrowingBackoff() {
+    void tickOnce_whenWorkCannotAdvance_parksUntilSignalOrRecheck() {
         InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
         SyncQueueService queue = mock(SyncQueueService.class);
         @SuppressWarnings("unchecked")
         Consumer<InvocationTask> dispatch = mock(Consumer.class);
-        List<Long> pauses = new ArrayList<>();
+        List<Long> waits = new ArrayList<>();
 
         when(queue.findReadyMatching(any(Instant.class), any())).thenReturn(null);
-        when(queue.peekReady(any(Instant.class))).thenReturn(mock(SyncQueueItem.class));
+        doAnswer(invocation -> waits.add(invocation.getArgument(0))).when(queue).awaitWork(anyLong());
 
-        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, dispatch, pauses::add);
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, dispatch);
 
-        scheduler.tickOnce();
         scheduler.tickOnce();
         scheduler.tickOnce();
 
-        assertThat(pauses).containsExactly(2L, 4L, 8L);
-        verify(queue, never()).awaitWork(anyLong());
+        assertThat(waits).hasSize(2).allSatisfy(wait -> assertThat(wait).isBetween(1L, 5L));
         verifyNoInteractions(dispatch);
     }
+
+    @Test
+    void start_registersSlotReleaseListenerOnce() {
+        InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
+        SyncQueueService queue = mock(SyncQueueService.class);
+        @SuppressWarnings("unchecked")
+        Consumer<InvocationTask> dispatch = mock(Consumer.class);
+        when(enqueuer.addDispatchSlotListener(any())).thenReturn(true);
+
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, dispatch);
+        scheduler.start();
+        scheduler.stop();
+        scheduler.start();
+        scheduler.stop();
+
+        verify(enqueuer, times(1)).addDispatchSlotListener(any());
+    }
 }
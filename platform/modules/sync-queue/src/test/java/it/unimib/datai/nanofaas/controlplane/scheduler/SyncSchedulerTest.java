@@ -12,12 +12,18 @@ import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueMetrics;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueRejectedException;
 import it.unimib.datai.nanofaas.controlplane.sync.SyncQueueService;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -49,6 +55,37 @@ class SyncSchedulerTest {
         assertEquals(1, dispatchCount.get());
     }
 
+    @Test
+    void holdsItemWhileFunctionActivatesThenDispatches() {
+        InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        when(enqueuer.hasAvailableSlot("fn")).thenReturn(true);
+        when(enqueuer.tryAcquireSlot("fn")).thenReturn(true);
+
+        ExecutionStore store = new ExecutionStore();
+        SyncQueueService queue = queue(store);
+
+        InvocationTask task = new InvocationTask("e1", "fn", spec, new InvocationRequest("one", Map.of()), null, null, Instant.now(), 1);
+        store.put(new ExecutionRecord("e1", task));
+        queue.enqueueOrThrow(task);
+
+        CompletableFuture<Void> activation = new CompletableFuture<>();
+        AtomicInteger dispatchCount = new AtomicInteger();
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, (t) -> dispatchCount.incrementAndGet(),
+                name -> activation.isDone() ? CompletableFuture.completedFuture(null) : activation);
+
+        scheduler.tickOnce();
+
+        assertEquals(0, dispatchCount.get());
+        assertEquals(1, queue.queuedItems());
+
+        activation.complete(null);
+        scheduler.tickOnce();
+
+        assertEquals(1, dispatchCount.get());
+        assertEquals(0, queue.queuedItems());
+    }
+
     @Test
     void leavesItemQueuedWhenSlotAcquisitionFailsAfterSelection() {
         InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
@@ -199,7 +236,7 @@ class SyncSchedulerTest {
     }
 
     @Test
-    void eventuallySelectsReadyTaskBeyondFirstScanWindow() {
+    void selectsReadyTaskBehindDeepBlockedBacklogInOneTick() {
         InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
         FunctionSpec blockedSpec = new FunctionSpec("blocked", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
         FunctionSpec readySpec = new FunctionSpec("ready", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
@@ -208,8 +245,9 @@ class SyncSchedulerTest {
         when(enqueuer.tryAcquireSlot("ready")).thenReturn(true);
 
         ExecutionStore store = new ExecutionStore();
-        SyncQueueService queue = queue(store);
-        for (int i = 0; i < SyncQueueService.POLL_READY_MATCHING_SCAN_LIMIT; i++) {
+        SyncQueueService queue = queue(store, 200);
+        int blockedBacklog = 150;
+        for (int i = 0; i < blockedBacklog; i++) {
             InvocationTask blocked = new InvocationTask("blocked-" + i, "blocked", blockedSpec, new InvocationRequest("blocked", Map.of()), null, null, Instant.now(), 1);
             store.put(new ExecutionRecord(blocked.executionId(), blocked));
             queue.enqueueOrThrow(blocked);
@@ -224,13 +262,138 @@ class SyncSchedulerTest {
             dispatchCount.incrementAndGet();
         });
 
+        scheduler.tickOnce();
+
+        assertEquals(1, dispatchCount.get());
+        assertEquals(blockedBacklog, queue.queuedItems());
+        verify(enqueuer).hasAvailableSlot("blocked");
+    }
+
+    @Test
+    void readyFunctionsTakeTurnsInRoundRobinOrder() {
+        InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
+        when(enqueuer.hasAvailableSlot(org.mockito.ArgumentMatchers.anyString())).thenReturn(true);
+        when(enqueuer.tryAcquireSlot(org.mockito.ArgumentMatchers.anyString())).thenReturn(true);
+
+        ExecutionStore store = new ExecutionStore();
+        SyncQueueService queue = queue(store);
+        for (String function : List.of("a", "a", "a", "b", "b", "c")) {
+            FunctionSpec spec = new FunctionSpec(function, "image", null, Map.of(), null, 1000, 3, 3, 3, null, ExecutionMode.LOCAL, null, null, null);
+            InvocationTask task = new InvocationTask(function + "-" + queue.queuedItems(), function, spec, new InvocationRequest("x", Map.of()), null, null, Instant.now(), 1);
+            store.put(new ExecutionRecord(task.executionId(), task));
+            queue.enqueueOrThrow(task);
+        }
+
+        List<String> order = new ArrayList<>();
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, (t) -> order.add(t.functionName()));
+        for (int i = 0; i < 6; i++) {
+            scheduler.tickOnce();
+        }
+
+        assertEquals(List.of("a", "b", "c", "a", "b", "a"), order);
+    }
+
+    @Test
+    void slotReleaseMakesParkedFunctionDispatchableOnNextTick() {
+        InvocationEnqueuer enqueuer = mock(InvocationEnqueuer.class);
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        when(enqueuer.hasAvailableSlot("fn")).thenReturn(false, true);
+        when(enqueuer.tryAcquireSlot("fn")).thenReturn(true);
+
+        ExecutionStore store = new ExecutionStore();
+        SyncQueueService queue = queue(store);
+        InvocationTask task = new InvocationTask("e1", "fn", spec, new InvocationRequest("one", Map.of()), null, null, Instant.now(), 1);
+        store.put(new ExecutionRecord("e1", task));
+        queue.enqueueOrThrow(task);
+
+        AtomicInteger dispatchCount = new AtomicInteger();
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, (t) -> dispatchCount.incrementAndGet());
+
         scheduler.tickOnce();
         assertEquals(0, dispatchCount.get());
 
+        queue.onDispatchSlotReleased("fn");
         scheduler.tickOnce();
 
         assertEquals(1, dispatchCount.get());
-        assertEquals(SyncQueueService.POLL_READY_MATCHING_SCAN_LIMIT, queue.queuedItems());
+        assertEquals(0, queue.queuedItems());
+    }
+
+    @Test
+    void runningScheduler_dispatchesAsSoonAsSlotIsReleased() {
+        SlotEnqueuer enqueuer = new SlotEnqueuer(1);
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        ExecutionStore store = new ExecutionStore();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SyncQueueService queue = queue(store, 100, registry);
+        List<String> dispatched = new CopyOnWriteArrayList<>();
+        SyncScheduler scheduler = new SyncScheduler(enqueuer, queue, t -> dispatched.add(t.executionId()));
+        scheduler.start();
+        try {
+            InvocationTask first = new InvocationTask("e1", "fn", spec, new InvocationRequest("one", Map.of()), null, null, Instant.now(), 1);
+            InvocationTask second = new InvocationTask("e2", "fn", spec, new InvocationRequest("two", Map.of()), null, null, Instant.now(), 1);
+            store.put(new ExecutionRecord("e1", first));
+            store.put(new ExecutionRecord("e2", second));
+            queue.enqueueOrThrow(first);
+            queue.enqueueOrThrow(second);
+
+            Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> dispatched.equals(List.of("e1")));
+            enqueuer.releaseDispatchSlot("fn");
+
+            Awaitility.await().atMost(Duration.ofSeconds(2)).until(() -> dispatched.equals(List.of("e1", "e2")));
+            assertEquals(1, registry.get("sync_queue_slot_to_dispatch_seconds").timer().count());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    /** Enqueuer with a real slot counter that reports releases like the async-queue module does. */
+    private static final class SlotEnqueuer implements InvocationEnqueuer {
+        private final AtomicInteger free;
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+        private SlotEnqueuer(int slots) {
+            this.free = new AtomicInteger(slots);
+        }
+
+        @Override
+        public boolean enqueue(InvocationTask task) {
+            return false;
+        }
+
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+
+        @Override
+        public boolean hasAvailableSlot(String functionName) {
+            return free.get() > 0;
+        }
+
+        @Override
+        public boolean tryAcquireSlot(String functionName) {
+            int current;
+            do {
+                current = free.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!free.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        @Override
+        public void releaseDispatchSlot(String functionName) {
+            free.incrementAndGet();
+            listeners.forEach(listener -> listener.accept(functionName));
+        }
+
+        @Override
+        public boolean addDispatchSlotListener(Consumer<String> listener) {
+            listeners.add(listener);
+            return true;
+        }
     }
 
     private static SyncQueueService queue(ExecutionStore store) {
@@ -238,10 +401,14 @@ class SyncSchedulerTest {
     }
 
     private static SyncQueueService queue(ExecutionStore store, int maxDepth) {
+        return queue(store, maxDepth, new SimpleMeterRegistry());
+    }
+
+    private static SyncQueueService queue(ExecutionStore store, int maxDepth, SimpleMeterRegistry registry) {
         SyncQueueProperties props = new SyncQueueProperties(
                 true, false, maxDepth, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3
         );
-        SyncQueueMetrics metrics = new SyncQueueMetrics(new SimpleMeterRegistry());
+        SyncQueueMetrics metrics = new SyncQueueMetrics(registry);
         SyncQueueConfigSource configSource = SyncQueueConfigSource.fixed(props.runtimeDefaults());
         return new SyncQueueService(props, store, metrics, configSource);
     }
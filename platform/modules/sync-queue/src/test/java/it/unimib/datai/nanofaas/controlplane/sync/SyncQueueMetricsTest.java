@@ -14,12 +14,16 @@ class SyncQueueMetricsTest {
         metrics.admitted("echo");
         metrics.rejected("echo");
         metrics.timedOut("echo");
+        metrics.expiredInQueue("echo");
+        metrics.servedWithinDeadline("echo");
         metrics.recordWait("echo", 10);
 
         assertThat(registry.find("sync_queue_depth").tag("function", "echo").gauge()).isNotNull();
         assertThat(registry.find("sync_queue_admitted_total").tag("function", "echo").counter()).isNotNull();
         assertThat(registry.find("sync_queue_rejected_total").tag("function", "echo").counter()).isNotNull();
         assertThat(registry.find("sync_queue_timedout_total").tag("function", "echo").counter()).isNotNull();
+        assertThat(registry.find("sync_queue_expired_in_queue_total").tag("function", "echo").counter()).isNotNull();
+        assertThat(registry.find("sync_queue_served_within_deadline_total").tag("function", "echo").counter()).isNotNull();
         assertThat(registry.find("sync_queue_wait_seconds").tag("function", "echo").timer()).isNotNull();
 
         metrics.removeFunctionState("echo");
@@ -28,6 +32,8 @@ class SyncQueueMetricsTest {
         assertThat(registry.find("sync_queue_admitted_total").tag("function", "echo").counter()).isNull();
         assertThat(registry.find("sync_queue_rejected_total").tag("function", "echo").counter()).isNull();
         assertThat(registry.find("sync_queue_timedout_total").tag("function", "echo").counter()).isNull();
+        assertThat(registry.find("sync_queue_expired_in_queue_total").tag("function", "echo").counter()).isNull();
+        assertThat(registry.find("sync_queue_served_within_deadline_total").tag("function", "echo").counter()).isNull();
         assertThat(registry.find("sync_queue_wait_seconds").tag("function", "echo").timer()).isNull();
         assertThat(registry.find("sync_queue_depth").gauge()).isNotNull();
         assertThat(registry.find("sync_queue_wait_seconds").timer()).isNotNull();
@@ -3,9 +3,11 @@ package it.unimib.datai.nanofaas.controlplane.sync;
 import it.unimib.datai.nanofaas.common.model.ExecutionMode;
 import it.unimib.datai.nanofaas.common.model.FunctionSpec;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.controlplane.config.SyncQueueProperties;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionRecord;
 import it.unimib.datai.nanofaas.controlplane.execution.ExecutionStore;
+import it.unimib.datai.nanofaas.controlplane.scaling.ScalingSignals;
 import it.unimib.datai.nanofaas.controlplane.scheduler.InvocationTask;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
@@ -21,6 +24,9 @@ import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class SyncQueueServiceTest {
 
@@ -105,9 +111,9 @@ class SyncQueueServiceTest {
     }
 
     @Test
-    void pollReadyMatchingDoesNotSelectMatchBeyondScanLimitOnFirstCall() {
+    void pollReadyMatchingSelectsReadyLaneBehindDeepBlockedBacklog() {
         SyncQueueProperties props = new SyncQueueProperties(
-                true, false, 100, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3
+                true, false, 200, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3
         );
         ExecutionStore store = new ExecutionStore();
         WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(30), 3);
@@ -115,7 +121,8 @@ class SyncQueueServiceTest {
         SyncQueueService service = createService(props, store, estimator, metrics, Clock.systemUTC());
 
         FunctionSpec blockedSpec = new FunctionSpec("blocked", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
-        for (int i = 0; i < SyncQueueService.POLL_READY_MATCHING_SCAN_LIMIT; i++) {
+        int blockedBacklog = 150;
+        for (int i = 0; i < blockedBacklog; i++) {
             InvocationTask task = new InvocationTask("blocked-" + i, "blocked", blockedSpec, new InvocationRequest("blocked", Map.of()), null, null, Instant.now(), 1);
             store.put(new ExecutionRecord(task.executionId(), task));
             service.enqueueOrThrow(task);
@@ -128,8 +135,92 @@ class SyncQueueServiceTest {
 
         SyncQueueItem selected = service.pollReadyMatching(Instant.now(), task -> task.functionName().equals("ready"));
 
-        assertEquals(null, selected);
-        assertEquals(SyncQueueService.POLL_READY_MATCHING_SCAN_LIMIT + 1, service.queuedItems());
+        assertEquals(ready, selected.task());
+        assertEquals(blockedBacklog, service.queuedItems());
+    }
+
+    @Test
+    void parkedLaneIsSkippedUntilUnparked() {
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, 10, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3
+        );
+        ExecutionStore store = new ExecutionStore();
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(30), 3);
+        SyncQueueMetrics metrics = new SyncQueueMetrics(new SimpleMeterRegistry());
+        SyncQueueService service = createService(props, store, estimator, metrics, Clock.systemUTC());
+
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        InvocationTask task = new InvocationTask("e1", "fn", spec, new InvocationRequest("one", Map.of()), null, null, Instant.now(), 1);
+        store.put(new ExecutionRecord("e1", task));
+        service.enqueueOrThrow(task);
+
+        assertEquals(null, service.findReadyMatching(Instant.now(), candidate -> false));
+        assertEquals(null, service.findReadyMatching(Instant.now(), candidate -> true));
+        assertEquals(task, service.peekReady(Instant.now()).task());
+
+        assertTrue(service.unparkBlockedLanes());
+
+        assertEquals(task, service.pollReady(Instant.now()).task());
+        assertEquals(0, service.queuedItems());
+    }
+
+    @Test
+    void findReadyMatching_reportsParkedLanesAsBacklog() {
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, 10, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3
+        );
+        ExecutionStore store = new ExecutionStore();
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(30), 3);
+        SyncQueueMetrics metrics = new SyncQueueMetrics(new SimpleMeterRegistry());
+        ScalingSignals signals = mock(ScalingSignals.class);
+        SyncQueueService service = new SyncQueueService(props, store, estimator, metrics, Clock.systemUTC(),
+                SyncQueueConfigSource.fixed(props.runtimeDefaults()), signals);
+
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        InvocationTask task = new InvocationTask("e1", "fn", spec, new InvocationRequest("one", Map.of()), null, null, Instant.now(), 1);
+        store.put(new ExecutionRecord("e1", task));
+        service.enqueueOrThrow(task);
+
+        assertEquals(null, service.findReadyMatching(Instant.now(), candidate -> false));
+        // Already parked: not tested again, so not reported again.
+        assertEquals(null, service.findReadyMatching(Instant.now(), candidate -> false));
+
+        verify(signals, times(1)).backlogWaiting("fn");
+    }
+
+    @Test
+    void awaitWork_unblocksWhenParkedLaneGetsSlotRelease() throws Exception {
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, 10, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3
+        );
+        ExecutionStore store = new ExecutionStore();
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(30), 3);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SyncQueueMetrics metrics = new SyncQueueMetrics(registry);
+        SyncQueueService service = createService(props, store, estimator, metrics, Clock.systemUTC());
+
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        InvocationTask task = new InvocationTask("e1", "fn", spec, new InvocationRequest("one", Map.of()), null, null, Instant.now(), 1);
+        store.put(new ExecutionRecord("e1", task));
+        service.enqueueOrThrow(task);
+        assertEquals(null, service.findReadyMatching(Instant.now(), candidate -> false));
+
+        CountDownLatch done = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            service.awaitWork(2_000);
+            done.countDown();
+        });
+        waiter.start();
+        Thread.sleep(50);
+        service.onDispatchSlotReleased("other");
+        assertEquals(1, done.getCount());
+
+        service.onDispatchSlotReleased("fn");
+
+        assertTrue(done.await(500, TimeUnit.MILLISECONDS));
+        waiter.join(500);
+        assertTrue(service.removeReady(service.findReadyMatching(Instant.now(), candidate -> true), Instant.now()));
+        assertEquals(1, registry.get("sync_queue_slot_to_dispatch_seconds").timer().count());
     }
 
     @Test
@@ -233,4 +324,111 @@ class SyncQueueServiceTest {
         assertEquals(SyncQueueRejectReason.DEPTH, ex.reason());
         assertEquals(1.0, registry.get("sync_queue_rejected_total").tag("function", "fn").counter().count());
     }
+
+    @Test
+    void edfOrdering_dispatchesEarliestCallerDeadlineFirst() {
+        Instant t0 = Instant.parse("2026-02-01T00:00:00Z");
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, 10, Duration.ofSeconds(2), Duration.ofSeconds(30), 2, Duration.ofSeconds(30), 3,
+                null, null, SyncQueueOrdering.EDF
+        );
+        ExecutionStore store = new ExecutionStore();
+        SyncQueueService service = createService(props, store, new WaitEstimator(Duration.ofSeconds(30), 3),
+                new SyncQueueMetrics(new SimpleMeterRegistry()), Clock.fixed(t0, ZoneOffset.UTC));
+
+        service.enqueueOrThrow(queuedTask(store, "relaxed"), Duration.ofSeconds(5));
+        service.enqueueOrThrow(queuedTask(store, "urgent"), Duration.ofSeconds(1));
+        service.enqueueOrThrow(queuedTask(store, "no-deadline"));
+        service.enqueueOrThrow(queuedTask(store, "soon"), Duration.ofSeconds(3));
+
+        assertEquals("urgent", service.pollReady(t0).task().executionId());
+        assertEquals("soon", service.pollReady(t0).task().executionId());
+        assertEquals("relaxed", service.pollReady(t0).task().executionId());
+        assertEquals("no-deadline", service.pollReady(t0).task().executionId());
+    }
+
+    @Test
+    void dropsHeadWhoseRemainingBudgetIsShorterThanMedianServiceTime() {
+        Instant t0 = Instant.parse("2026-02-01T00:00:00Z");
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, 10, Duration.ofSeconds(2), Duration.ofSeconds(30), 2, Duration.ofSeconds(30), 3
+        );
+        ExecutionStore store = new ExecutionStore();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SyncQueueService service = createService(props, store, new WaitEstimator(Duration.ofSeconds(30), 3),
+                new SyncQueueMetrics(registry), Clock.fixed(t0, ZoneOffset.UTC));
+        for (int i = 0; i < 3; i++) {
+            service.enqueueOrThrow(queuedTask(store, "warm-" + i), Duration.ofSeconds(1));
+            SyncQueueItem item = service.pollReady(t0);
+            // Dispatched 400ms before the (fixed) clock reads its completion.
+            service.recordDispatched(item, t0.minusMillis(400));
+            store.getOrNull(item.task().executionId()).completion().complete(InvocationResult.success("ok"));
+        }
+
+        InvocationTask hopeless = queuedTask(store, "hopeless");
+        service.enqueueOrThrow(hopeless, Duration.ofMillis(300));
+        service.enqueueOrThrow(queuedTask(store, "feasible"), Duration.ofSeconds(1));
+
+        assertEquals("feasible", service.pollReady(t0).task().executionId());
+        InvocationResult dropped = store.getOrNull("hopeless").completion().join();
+        assertEquals("QUEUE_TIMEOUT", dropped.error().code());
+        assertEquals(1.0, registry.get("sync_queue_expired_in_queue_total").tag("function", "fn").counter().count());
+        assertEquals(null, registry.find("sync_queue_timedout_total").tag("function", "fn").counter());
+        assertEquals(3.0, registry.get("sync_queue_served_within_deadline_total").tag("function", "fn").counter().count());
+    }
+
+    @Test
+    void edfOrdering_peekReadyTimesOutItemsBehindTheHead() {
+        Instant t0 = Instant.parse("2026-02-01T00:00:00Z");
+        MutableClock clock = new MutableClock(t0);
+        SyncQueueProperties props = new SyncQueueProperties(
+                true, false, 10, Duration.ofSeconds(2), Duration.ofSeconds(2), 2, Duration.ofSeconds(30), 3,
+                null, null, SyncQueueOrdering.EDF
+        );
+        ExecutionStore store = new ExecutionStore();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SyncQueueService service = createService(props, store, new WaitEstimator(Duration.ofSeconds(30), 3),
+                new SyncQueueMetrics(registry), clock);
+
+        service.enqueueOrThrow(queuedTask(store, "old"), Duration.ofSeconds(10));
+        clock.now = t0.plusMillis(1500);
+        service.enqueueOrThrow(queuedTask(store, "urgent"), Duration.ofSeconds(1));
+
+        SyncQueueItem head = service.peekReady(t0.plusMillis(2200));
+
+        assertEquals("urgent", head.task().executionId());
+        assertEquals(1, service.queuedItems());
+        assertEquals("QUEUE_TIMEOUT", store.getOrNull("old").completion().join().error().code());
+        assertEquals(1.0, registry.get("sync_queue_timedout_total").tag("function", "fn").counter().count());
+    }
+
+    private static InvocationTask queuedTask(ExecutionStore store, String executionId) {
+        FunctionSpec spec = new FunctionSpec("fn", "image", null, Map.of(), null, 1000, 1, 1, 3, null, ExecutionMode.LOCAL, null, null, null);
+        InvocationTask task = new InvocationTask(executionId, "fn", spec, new InvocationRequest(executionId, Map.of()), null, null, Instant.now(), 1);
+        store.put(new ExecutionRecord(executionId, task));
+        return task;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
 }
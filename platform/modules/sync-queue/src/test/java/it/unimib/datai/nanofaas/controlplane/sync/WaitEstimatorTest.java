@@ -4,9 +4,11 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -49,29 +51,6 @@ class WaitEstimatorTest {
         assertEquals(7.5, est, 0.01);
     }
 
-    @Test
-    void estimateWaitSeconds_prunesPerFunctionDequeOnlyOncePerEvaluation() {
-        TrackingDeque globalEvents = new TrackingDeque();
-        TrackingDeque functionEvents = new TrackingDeque();
-        Instant now = Instant.parse("2026-02-01T00:00:10Z");
-        functionEvents.addLast(now.minusSeconds(9));
-        functionEvents.addLast(now.minusSeconds(8));
-        functionEvents.addLast(now.minusSeconds(7));
-
-        WaitEstimator estimator = new WaitEstimator(
-                Duration.ofSeconds(10),
-                3,
-                globalEvents,
-                Map.of("fn", functionEvents)
-        );
-
-        double est = estimator.estimateWaitSeconds("fn", 6, now);
-
-        assertEquals(20.0, est, 0.01);
-        assertEquals(1, functionEvents.peekFirstCount);
-        assertTrue(functionEvents.pollFirstCount <= 1);
-    }
-
     @Test
     void removeFunctionState_clearsPerFunctionEvents() {
         WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(10), 3);
@@ -88,20 +67,97 @@ class WaitEstimatorTest {
         assertEquals(20.0, estimator.estimateWaitSeconds("fn", 8, now), 0.01);
     }
 
-    private static final class TrackingDeque extends ArrayDeque<Instant> {
-        private int peekFirstCount;
-        private int pollFirstCount;
+    @Test
+    void dispatchesOlderThanTheWindowNoLongerCount() {
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(10), 3);
+        Instant start = Instant.parse("2026-02-01T00:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            estimator.recordDispatch("fn", start);
+        }
+        estimator.recordDispatch("fn", start.plusSeconds(12));
+        estimator.recordDispatch("fn", start.plusSeconds(13));
+
+        double est = estimator.estimateWaitSeconds("fn", 4, start.plusSeconds(14));
+
+        assertEquals(20.0, est, 0.01);
+    }
+
+    @Test
+    void reusesRingSlotsAcrossManyWindows() {
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(4), 1);
+        Instant start = Instant.parse("2026-02-01T00:00:00Z");
+        for (int second = 0; second < 100; second++) {
+            estimator.recordDispatch("fn", start.plusSeconds(second));
+            estimator.recordDispatch("fn", start.plusSeconds(second));
+        }
+
+        double est = estimator.estimateWaitSeconds("fn", 4, start.plusSeconds(99));
+
+        assertEquals(2.0, est, 0.01);
+    }
+
+    @Test
+    void ewmaWeighsRecentBucketsMoreThanSlidingWindow() {
+        Duration window = Duration.ofSeconds(10);
+        WaitEstimator sliding = new WaitEstimator(window, Duration.ofSeconds(1), 3, WaitEstimatorMode.SLIDING_WINDOW);
+        WaitEstimator ewma = new WaitEstimator(window, Duration.ofSeconds(1), 3, WaitEstimatorMode.EWMA);
+        Instant now = Instant.parse("2026-02-01T00:00:10Z");
+        for (WaitEstimator estimator : new WaitEstimator[]{sliding, ewma}) {
+            for (int i = 0; i < 20; i++) {
+                estimator.recordDispatch("fn", now.minusSeconds(8));
+            }
+            estimator.recordDispatch("fn", now.minusSeconds(1));
+            estimator.recordDispatch("fn", now.minusSeconds(1));
+        }
+
+        double slidingEst = sliding.estimateWaitSeconds("fn", 22, now);
+        double ewmaEst = ewma.estimateWaitSeconds("fn", 22, now);
 
-        @Override
-        public Instant peekFirst() {
-            peekFirstCount++;
-            return super.peekFirst();
+        assertEquals(10.0, slidingEst, 0.01);
+        assertTrue(ewmaEst > slidingEst, "ewma should react to the recent slowdown: " + ewmaEst);
+    }
+
+    @Test
+    void ewmaReturnsSteadyRateUnderConstantLoad() {
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(10), Duration.ofSeconds(1), 3, WaitEstimatorMode.EWMA);
+        Instant start = Instant.parse("2026-02-01T00:00:00Z");
+        for (int second = 0; second < 20; second++) {
+            for (int i = 0; i < 5; i++) {
+                estimator.recordDispatch("fn", start.plusSeconds(second));
+            }
         }
 
-        @Override
-        public Instant pollFirst() {
-            pollFirstCount++;
-            return super.pollFirst();
+        double est = estimator.estimateWaitSeconds("fn", 10, start.plusSeconds(20));
+
+        assertEquals(2.0, est, 0.01);
+    }
+
+    @Test
+    void concurrentRecordsWithinOneBucketAreAllCounted() throws Exception {
+        WaitEstimator estimator = new WaitEstimator(Duration.ofSeconds(10), 1);
+        Instant now = Instant.parse("2026-02-01T00:00:05Z");
+        estimator.recordDispatch("fn", now);
+        int threads = 4;
+        int perThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        estimator.recordDispatch("fn", now);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
         }
+
+        double est = estimator.estimateWaitSeconds("fn", 40_001, now);
+
+        assertEquals(10.0, est, 0.01);
     }
 }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpServer;
 import it.unimib.datai.nanofaas.common.runtime.FunctionHandler;
+import it.unimib.datai.nanofaas.sdk.lite.callback.CallbackBatcher;
 import it.unimib.datai.nanofaas.sdk.lite.callback.CallbackClient;
 import it.unimib.datai.nanofaas.sdk.lite.handler.HealthHandler;
 import it.unimib.datai.nanofaas.sdk.lite.handler.InvokeHandler;
@@ -14,17 +15,23 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.time.Duration;
 import java.util.concurrent.Executors;
 
 public final class NanofaasRuntime {
     private static final Logger log = LoggerFactory.getLogger(NanofaasRuntime.class);
 
+    private static final Duration CALLBACK_DRAIN_TIMEOUT = Duration.ofSeconds(5);
+
     private final HttpServer server;
+    /** {@code null} unless callbacks are batched. */
+    private final CallbackBatcher callbacks;
     private final int port;
     private final String functionName;
 
-    private NanofaasRuntime(HttpServer server, int port, String functionName) {
+    private NanofaasRuntime(HttpServer server, CallbackBatcher callbacks, int port, String functionName) {
         this.server = server;
+        this.callbacks = callbacks;
         this.port = port;
         this.functionName = functionName;
     }
@@ -40,6 +47,9 @@ public final class NanofaasRuntime {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             log.info("Shutting down nanofaas-lite runtime for function '{}'", functionName);
             server.stop(5);
+            if (callbacks != null) {
+                callbacks.close(CALLBACK_DRAIN_TIMEOUT);
+            }
         }));
 
         server.start();
@@ -59,6 +69,9 @@ public final class NanofaasRuntime {
      */
     public void stop() {
         server.stop(0);
+        if (callbacks != null) {
+            callbacks.close(Duration.ZERO);
+        }
     }
 
     public int getPort() {
@@ -110,20 +123,44 @@ public final class NanofaasRuntime {
 
             
                         CallbackClient callbackClient = new CallbackClient(objectMapper, callbackUrl);
+            // Batching is opt-in: CALLBACK_BATCH_SIZE above 1 coalesces callbacks on
+            // CALLBACK_FLUSHER_COUNT flushers; otherwise each execution is called back on its own.
+            int callbackBatchSize = envInt("CALLBACK_BATCH_SIZE", 1);
+            CallbackBatcher callbacks = callbackBatchSize > 1
+                    ? new CallbackBatcher(callbackClient, envInt("CALLBACK_FLUSHER_COUNT", 2),
+                            callbackBatchSize, Duration.ofMillis(envInt("CALLBACK_LINGER_MS", 5)))
+                    : null;
             
             RuntimeMetrics metrics = new RuntimeMetrics(effectiveName);
 
             try {
                 HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
                 server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
-                server.createContext("/invoke", new InvokeHandler(handler, callbackClient, metrics, objectMapper, effectiveName));
+                InvokeHandler invokeHandler = callbacks != null
+                        ? new InvokeHandler(handler, callbacks, metrics, objectMapper, effectiveName)
+                        : new InvokeHandler(handler, callbackClient, metrics, objectMapper, effectiveName);
+                server.createContext("/invoke", invokeHandler);
+                server.createContext("/invoke-batch", invokeHandler::handleBatch);
                 server.createContext("/health", new HealthHandler());
                 server.createContext("/metrics", new MetricsHandler(metrics.getRegistry()));
 
-                return new NanofaasRuntime(server, port, effectiveName);
+                return new NanofaasRuntime(server, callbacks, port, effectiveName);
             } catch (IOException e) {
                 throw new RuntimeException("Failed to create HTTP server on port " + port, e);
             }
         }
+
+        private static int envInt(String name, int defaultValue) {
+            String value = System.getenv(name);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value.strip());
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid {}='{}', using {}", name, value, defaultValue);
+                return defaultValue;
+            }
+        }
     }
 }
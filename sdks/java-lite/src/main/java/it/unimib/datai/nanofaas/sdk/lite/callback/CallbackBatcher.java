@@ -0,0 +1,139 @@
+// Parallel implementation exists in function-sdk-java (CallbackBatcher, same buffering and
+// caller-runs policy). Keep them in sync when modifying.
+package it.unimib.datai.nanofaas.sdk.lite.callback;
+
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces completion callbacks into {@code :complete-batch} requests.
+ *
+ * <p>Each flusher takes the oldest pending result, waits at most {@code linger} for more until
+ * the batch holds {@code maxBatchSize}, and hands it to {@link CallbackClient#sendBatch}. When
+ * the buffer is full the submitting thread sends a batch itself, so nothing is dropped.</p>
+ */
+public final class CallbackBatcher {
+    private static final Logger log = LoggerFactory.getLogger(CallbackBatcher.class);
+    private static final int MIN_BUFFER_CAPACITY = 1024;
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final CallbackClient callbackClient;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<ExecutionCompletionBatch.Item> pending;
+    private final List<Thread> flushers;
+    private volatile boolean running = true;
+
+    public CallbackBatcher(CallbackClient callbackClient, int flusherCount, int maxBatchSize, Duration linger) {
+        this(callbackClient, flusherCount, maxBatchSize, linger,
+                Math.max(MIN_BUFFER_CAPACITY, maxBatchSize * flusherCount * 4));
+    }
+
+    // Visible for testing
+    CallbackBatcher(CallbackClient callbackClient, int flusherCount, int maxBatchSize, Duration linger,
+                    int bufferCapacity) {
+        this.callbackClient = callbackClient;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = Math.max(0, linger.toNanos());
+        this.pending = new ArrayBlockingQueue<>(bufferCapacity);
+        this.flushers = new ArrayList<>(flusherCount);
+        for (int i = 0; i < Math.max(1, flusherCount); i++) {
+            flushers.add(Thread.ofVirtual().name("callback-batcher-", i).start(this::flushLoop));
+        }
+    }
+
+    public void submit(String executionId, InvocationResult result,
+                       String traceId, String dispatchAttempt) {
+        submit(new ExecutionCompletionBatch.Item(executionId, traceId, parseAttempt(dispatchAttempt), result));
+    }
+
+    void submit(ExecutionCompletionBatch.Item completion) {
+        if (running && pending.offer(completion)) {
+            return;
+        }
+        List<ExecutionCompletionBatch.Item> batch = new ArrayList<>(maxBatchSize);
+        batch.add(completion);
+        pending.drainTo(batch, maxBatchSize - 1);
+        log.debug("Callback buffer full, sending {} callbacks from the invoke thread", batch.size());
+        send(batch);
+    }
+
+    /** Stops the flushers once the buffer is empty, waiting at most {@code timeout}. */
+    public void close(Duration timeout) {
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (Thread flusher : flushers) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis > 0) {
+                    flusher.join(remainingMillis);
+                }
+                flusher.interrupt();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            flushers.forEach(Thread::interrupt);
+        }
+    }
+
+    private void flushLoop() {
+        List<ExecutionCompletionBatch.Item> batch = new ArrayList<>(maxBatchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                ExecutionCompletionBatch.Item first = pending.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (pending.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    ExecutionCompletionBatch.Item next = remaining > 0
+                            ? pending.poll(remaining, TimeUnit.NANOSECONDS)
+                            : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Unexpected failure sending {} callbacks", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<ExecutionCompletionBatch.Item> batch) {
+        if (!callbackClient.sendBatch(List.copyOf(batch))) {
+            log.warn("Dropping {} callbacks after failed delivery", batch.size());
+        }
+    }
+
+    private static Integer parseAttempt(String dispatchAttempt) {
+        if (dispatchAttempt == null || dispatchAttempt.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(dispatchAttempt.strip());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -3,6 +3,7 @@
 // logic in sync when modifying.
 package it.unimib.datai.nanofaas.sdk.lite.callback;
 
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -13,6 +14,7 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.List;
 
 public final class CallbackClient {
     private static final Logger log = LoggerFactory.getLogger(CallbackClient.class);
@@ -22,6 +24,7 @@ public final class CallbackClient {
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
     private final String baseUrl;
+    private volatile boolean batchEndpointAvailable = true;
 
     public CallbackClient(ObjectMapper objectMapper, String baseUrl) {
         this.objectMapper = objectMapper;
@@ -76,6 +79,70 @@ public final class CallbackClient {
         return false;
     }
 
+    /**
+     * Sends {@code completions} in one {@code :complete-batch} request, retrying the whole batch.
+     * Falls back to one callback per execution, from then on, when the control plane has no
+     * batch endpoint (404/405) or the callback URL names a single execution.
+     */
+    public boolean sendBatch(List<ExecutionCompletionBatch.Item> completions) {
+        if (completions.isEmpty()) {
+            return true;
+        }
+        if (completions.size() == 1 || !batchEndpointAvailable || baseUrl == null || baseUrl.endsWith(":complete")) {
+            return sendEach(completions);
+        }
+
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            try {
+                HttpRequest request = HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + ":complete-batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                objectMapper.writeValueAsBytes(new ExecutionCompletionBatch(completions))))
+                        .build();
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 404 || response.statusCode() == 405) {
+                    log.info("Control plane has no batch callback endpoint, sending callbacks one by one");
+                    batchEndpointAvailable = false;
+                    return sendEach(completions);
+                }
+                if (response.statusCode() >= 400) {
+                    throw new RuntimeException("Batch callback returned HTTP " + response.statusCode());
+                }
+                log.debug("Batch callback sent for {} executions (attempt {})", completions.size(), attempt + 1);
+                return true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.warn("Batch callback interrupted");
+                return false;
+            } catch (Exception ex) {
+                log.warn("Batch callback for {} executions failed (attempt {}): {}",
+                        completions.size(), attempt + 1, ex.getMessage());
+                if (attempt < MAX_RETRIES - 1) {
+                    try {
+                        Thread.sleep(RETRY_DELAYS_MS[attempt]);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        log.warn("Batch callback retry interrupted");
+                        return false;
+                    }
+                }
+            }
+        }
+
+        log.error("All {} batch callback attempts failed for {} executions", MAX_RETRIES, completions.size());
+        return false;
+    }
+
+    private boolean sendEach(List<ExecutionCompletionBatch.Item> completions) {
+        boolean delivered = true;
+        for (ExecutionCompletionBatch.Item item : completions) {
+            String dispatchAttempt = item.attempt() == null ? null : String.valueOf(item.attempt());
+            delivered &= sendResult(item.executionId(), item.result(), item.traceId(), dispatchAttempt);
+        }
+        return delivered;
+    }
+
     private void doSend(String executionId, InvocationResult result, String traceId, String dispatchAttempt) throws Exception {
         String effectiveTraceId = (traceId != null && !traceId.isBlank())
                 ? traceId
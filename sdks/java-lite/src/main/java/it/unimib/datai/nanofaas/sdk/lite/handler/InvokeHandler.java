@@ -3,10 +3,13 @@ package it.unimib.datai.nanofaas.sdk.lite.handler;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.common.runtime.FunctionHandler;
 import it.unimib.datai.nanofaas.sdk.lite.FunctionContext;
+import it.unimib.datai.nanofaas.sdk.lite.callback.CallbackBatcher;
 import it.unimib.datai.nanofaas.sdk.lite.callback.CallbackClient;
 import it.unimib.datai.nanofaas.sdk.lite.metrics.RuntimeMetrics;
 import org.slf4j.Logger;
@@ -14,20 +17,42 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Serves {@code /invoke} and {@code /invoke-batch}.
+ *
+ * <p>When the request carries {@code X-Completion-Mode: response} the control plane completes
+ * executions from the response, so successful results skip the callback and the header is echoed
+ * back. Errors are always called back.</p>
+ *
+ * <p>Callbacks are sent one request per execution on a virtual thread, or, when the handler is
+ * given a {@link CallbackBatcher}, coalesced into bulk requests. The batcher is owned by the
+ * caller, which closes it on shutdown.</p>
+ */
 public final class InvokeHandler implements HttpHandler {
     private static final Logger log = LoggerFactory.getLogger(InvokeHandler.class);
+    private static final String COMPLETION_MODE_HEADER = "X-Completion-Mode";
+    private static final String RESPONSE_COMPLETES = "response";
     private static final Instant CONTAINER_START = Instant.now();
     private static final AtomicBoolean FIRST_INVOCATION = new AtomicBoolean(true);
 
     private static final ExecutorService CALLBACK_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final ExecutorService BATCH_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
 
     private final FunctionHandler functionHandler;
+    /** {@code null} when callbacks are batched. */
     private final CallbackClient callbackClient;
+    /** {@code null} when every callback is sent on its own. */
+    private final CallbackBatcher callbacks;
     private final RuntimeMetrics metrics;
     private final ObjectMapper objectMapper;
     private final String functionName;
@@ -35,8 +60,19 @@ public final class InvokeHandler implements HttpHandler {
 
     public InvokeHandler(FunctionHandler functionHandler, CallbackClient callbackClient,
                          RuntimeMetrics metrics, ObjectMapper objectMapper, String functionName) {
+        this(functionHandler, callbackClient, null, metrics, objectMapper, functionName);
+    }
+
+    public InvokeHandler(FunctionHandler functionHandler, CallbackBatcher callbacks,
+                         RuntimeMetrics metrics, ObjectMapper objectMapper, String functionName) {
+        this(functionHandler, null, callbacks, metrics, objectMapper, functionName);
+    }
+
+    private InvokeHandler(FunctionHandler functionHandler, CallbackClient callbackClient, CallbackBatcher callbacks,
+                          RuntimeMetrics metrics, ObjectMapper objectMapper, String functionName) {
         this.functionHandler = functionHandler;
         this.callbackClient = callbackClient;
+        this.callbacks = callbacks;
         this.metrics = metrics;
         this.objectMapper = objectMapper;
         this.functionName = functionName;
@@ -54,6 +90,7 @@ public final class InvokeHandler implements HttpHandler {
         String headerExecutionId = exchange.getRequestHeaders().getFirst("X-Execution-Id");
         String traceId = exchange.getRequestHeaders().getFirst("X-Trace-Id");
         String dispatchAttempt = exchange.getRequestHeaders().getFirst("X-Dispatch-Attempt");
+        boolean responseCompletes = responseCompletes(exchange);
 
         String effectiveExecutionId = (headerExecutionId != null && !headerExecutionId.isBlank())
                 ? headerExecutionId
@@ -82,12 +119,13 @@ public final class InvokeHandler implements HttpHandler {
             double durationSec = (System.nanoTime() - startNanos) / 1_000_000_000.0;
             metrics.observeDuration(functionName, durationSec);
 
-            // Fire-and-forget: callback must not block the response to the control plane
-            final String cbExecId = effectiveExecutionId;
-            final String cbTraceId = traceId;
-            final String cbDispatchAttempt = dispatchAttempt;
-            final InvocationResult cbResult = InvocationResult.success(output);
-            CALLBACK_EXECUTOR.submit(() -> callbackClient.sendResult(cbExecId, cbResult, cbTraceId, cbDispatchAttempt));
+            if (responseCompletes) {
+                metrics.recordCallbackSkipped(functionName);
+                exchange.getResponseHeaders().set(COMPLETION_MODE_HEADER, RESPONSE_COMPLETES);
+            } else {
+                // Fire-and-forget: callback must not block the response to the control plane
+                callBack(effectiveExecutionId, InvocationResult.success(output), traceId, dispatchAttempt);
+            }
 
             if (isColdStart) {
                 long initDurationMs = Instant.now().toEpochMilli() - CONTAINER_START.toEpochMilli();
@@ -103,11 +141,8 @@ public final class InvokeHandler implements HttpHandler {
             double durationSec = (System.nanoTime() - startNanos) / 1_000_000_000.0;
             metrics.observeDuration(functionName, durationSec);
 
-            final String cbExecId = effectiveExecutionId;
-            final String cbTraceId = traceId;
-            final String cbDispatchAttempt = dispatchAttempt;
-            final InvocationResult cbResult = InvocationResult.error("HANDLER_ERROR", ex.getMessage());
-            CALLBACK_EXECUTOR.submit(() -> callbackClient.sendResult(cbExecId, cbResult, cbTraceId, cbDispatchAttempt));
+            callBack(effectiveExecutionId, InvocationResult.error("HANDLER_ERROR", ex.getMessage()),
+                    traceId, dispatchAttempt);
 
             sendJson(exchange, 500, Map.of("error", ex.getMessage() != null ? ex.getMessage() : "Internal error"));
         } finally {
@@ -116,6 +151,108 @@ public final class InvokeHandler implements HttpHandler {
         }
     }
 
+    /**
+     * Handles {@code POST /invoke-batch}: every item runs concurrently on its own virtual thread,
+     * is metered and called back like a single {@code /invoke}, and gets its result in the reply.
+     */
+    public void handleBatch(HttpExchange exchange) throws IOException {
+        if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(405, -1);
+            exchange.close();
+            return;
+        }
+
+        InvocationBatchRequest batch;
+        try {
+            batch = objectMapper.readValue(exchange.getRequestBody(), InvocationBatchRequest.class);
+        } catch (Exception ex) {
+            sendJson(exchange, 400, Map.of("error", "Invalid batch request: " + ex.getMessage()));
+            return;
+        }
+        List<InvocationBatchRequest.Item> items = batch.items() == null ? List.of() : batch.items();
+        boolean responseCompletes = responseCompletes(exchange);
+
+        boolean isColdStart = FIRST_INVOCATION.compareAndSet(true, false);
+        if (isColdStart) {
+            metrics.recordColdStart(functionName);
+        }
+
+        List<Callable<InvocationBatchResponse.Item>> invocations = new ArrayList<>(items.size());
+        for (InvocationBatchRequest.Item item : items) {
+            invocations.add(() -> invokeItem(item, responseCompletes));
+        }
+        List<InvocationBatchResponse.Item> results = new ArrayList<>(items.size());
+        try {
+            for (Future<InvocationBatchResponse.Item> future : BATCH_EXECUTOR.invokeAll(invocations)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            sendJson(exchange, 500, Map.of("error", "Interrupted"));
+            return;
+        } catch (ExecutionException ex) {
+            sendJson(exchange, 500, Map.of("error", String.valueOf(ex.getCause())));
+            return;
+        }
+
+        if (isColdStart) {
+            long initDurationMs = Instant.now().toEpochMilli() - CONTAINER_START.toEpochMilli();
+            exchange.getResponseHeaders().set("X-Cold-Start", "true");
+            exchange.getResponseHeaders().set("X-Init-Duration-Ms", String.valueOf(initDurationMs));
+        }
+        if (responseCompletes) {
+            exchange.getResponseHeaders().set(COMPLETION_MODE_HEADER, RESPONSE_COMPLETES);
+        }
+        sendJson(exchange, 200, new InvocationBatchResponse(results));
+    }
+
+    private InvocationBatchResponse.Item invokeItem(InvocationBatchRequest.Item item, boolean responseCompletes) {
+        String executionId = (item.executionId() != null && !item.executionId().isBlank())
+                ? item.executionId()
+                : envExecutionId;
+        if (executionId == null || executionId.isBlank()) {
+            return new InvocationBatchResponse.Item(item.executionId(),
+                    InvocationResult.error("HANDLER_ERROR", "Execution ID not configured"));
+        }
+        String dispatchAttempt = item.attempt() == null ? null : String.valueOf(item.attempt());
+
+        metrics.incInFlight(functionName);
+        long startNanos = System.nanoTime();
+        FunctionContext.set(executionId, item.traceId());
+        InvocationResult result;
+        try {
+            result = InvocationResult.success(functionHandler.handle(item.request()));
+        } catch (Exception ex) {
+            log.error("Handler error for execution {}: {}", executionId, ex.getMessage(), ex);
+            metrics.recordError(functionName);
+            result = InvocationResult.error("HANDLER_ERROR", ex.getMessage());
+        } finally {
+            metrics.recordInvocation(functionName);
+            metrics.observeDuration(functionName, (System.nanoTime() - startNanos) / 1_000_000_000.0);
+            metrics.decInFlight(functionName);
+            FunctionContext.clear();
+        }
+
+        if (responseCompletes && result.success()) {
+            metrics.recordCallbackSkipped(functionName);
+        } else {
+            callBack(executionId, result, item.traceId(), dispatchAttempt);
+        }
+        return new InvocationBatchResponse.Item(executionId, result);
+    }
+
+    private void callBack(String executionId, InvocationResult result, String traceId, String dispatchAttempt) {
+        if (callbacks != null) {
+            callbacks.submit(executionId, result, traceId, dispatchAttempt);
+        } else {
+            CALLBACK_EXECUTOR.submit(() -> callbackClient.sendResult(executionId, result, traceId, dispatchAttempt));
+        }
+    }
+
+    private static boolean responseCompletes(HttpExchange exchange) {
+        return RESPONSE_COMPLETES.equalsIgnoreCase(exchange.getRequestHeaders().getFirst(COMPLETION_MODE_HEADER));
+    }
+
     private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
         byte[] bytes = objectMapper.writeValueAsBytes(body);
         exchange.getResponseHeaders().set("Content-Type", "application/json");
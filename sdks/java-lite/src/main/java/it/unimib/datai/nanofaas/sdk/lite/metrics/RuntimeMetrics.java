@@ -10,6 +10,7 @@ public final class RuntimeMetrics {
     private final Counter invocationsTotal;
     private final Counter errorsTotal;
     private final Counter coldStarts;
+    private final Counter callbacksSkipped;
     private final Histogram invocationDuration;
     private final Gauge inFlight;
 
@@ -34,6 +35,12 @@ public final class RuntimeMetrics {
                 .labelNames("function")
                 .register(registry);
 
+        this.callbacksSkipped = Counter.builder()
+                .name("nanofaas_callbacks_skipped_total")
+                .help("Completion callbacks not sent because the invoke response completed the execution")
+                .labelNames("function")
+                .register(registry);
+
         this.invocationDuration = Histogram.builder()
                 .name("nanofaas_invocation_duration_seconds")
                 .help("Invocation duration in seconds")
@@ -51,6 +58,7 @@ public final class RuntimeMetrics {
         invocationsTotal.labelValues(functionName);
         errorsTotal.labelValues(functionName);
         coldStarts.labelValues(functionName);
+        callbacksSkipped.labelValues(functionName);
     }
 
     public PrometheusRegistry getRegistry() {
@@ -69,6 +77,10 @@ public final class RuntimeMetrics {
         coldStarts.labelValues(function).inc();
     }
 
+    public void recordCallbackSkipped(String function) {
+        callbacksSkipped.labelValues(function).inc();
+    }
+
     public void observeDuration(String function, double seconds) {
         invocationDuration.labelValues(function).observe(seconds);
     }
@@ -2,13 +2,16 @@ package it.unimib.datai.nanofaas.sdk.lite.callback;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpServer;
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -86,6 +89,64 @@ class CallbackClientTest {
         assertFalse(result);
     }
 
+    @Test
+    void sendBatchPostsAllCompletionsInOneRequest() throws IOException {
+        List<String> paths = new CopyOnWriteArrayList<>();
+        AtomicReference<ExecutionCompletionBatch> received = new AtomicReference<>();
+
+        mockServer = HttpServer.create(new InetSocketAddress(0), 0);
+        mockServer.createContext("/", exchange -> {
+            paths.add(exchange.getRequestURI().getPath());
+            received.set(objectMapper.readValue(exchange.getRequestBody(), ExecutionCompletionBatch.class));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        mockServer.start();
+
+        String baseUrl = "http://localhost:" + mockServer.getAddress().getPort() + "/v1/internal/executions";
+        CallbackClient client = new CallbackClient(objectMapper, baseUrl);
+
+        boolean result = client.sendBatch(List.of(
+                new ExecutionCompletionBatch.Item("exec-1", "trace-1", 2, InvocationResult.success("a")),
+                new ExecutionCompletionBatch.Item("exec-2", null, null, InvocationResult.error("E", "boom"))));
+
+        assertTrue(result);
+        assertEquals(List.of("/v1/internal/executions:complete-batch"), paths);
+        assertEquals(2, received.get().completions().size());
+        assertEquals("exec-1", received.get().completions().get(0).executionId());
+        assertEquals(2, received.get().completions().get(0).attempt());
+    }
+
+    @Test
+    void sendBatchFallsBackToSingleCallbacksWhenEndpointIsMissing() throws IOException {
+        List<String> paths = new CopyOnWriteArrayList<>();
+
+        mockServer = HttpServer.create(new InetSocketAddress(0), 0);
+        mockServer.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            paths.add(path);
+            exchange.sendResponseHeaders(path.endsWith(":complete-batch") ? 404 : 204, -1);
+            exchange.close();
+        });
+        mockServer.start();
+
+        String baseUrl = "http://localhost:" + mockServer.getAddress().getPort() + "/v1/internal/executions";
+        CallbackClient client = new CallbackClient(objectMapper, baseUrl);
+        List<ExecutionCompletionBatch.Item> batch = List.of(
+                new ExecutionCompletionBatch.Item("exec-1", null, null, InvocationResult.success("a")),
+                new ExecutionCompletionBatch.Item("exec-2", null, null, InvocationResult.success("b")));
+
+        assertTrue(client.sendBatch(batch));
+        assertTrue(client.sendBatch(batch));
+
+        assertEquals(List.of(
+                "/v1/internal/executions:complete-batch",
+                "/v1/internal/executions/exec-1:complete",
+                "/v1/internal/executions/exec-2:complete",
+                "/v1/internal/executions/exec-1:complete",
+                "/v1/internal/executions/exec-2:complete"), paths);
+    }
+
     // Need import for Map
     private static final java.util.Map<String, Object> EMPTY_MAP = java.util.Map.of();
 }
@@ -3,6 +3,8 @@ package it.unimib.datai.nanofaas.sdk.lite.handler;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpServer;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.runtime.FunctionHandler;
 import it.unimib.datai.nanofaas.sdk.lite.callback.CallbackClient;
@@ -17,6 +19,7 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +58,7 @@ class InvokeHandlerTest {
 
         server = HttpServer.create(new InetSocketAddress(0), 0);
         server.createContext("/invoke", invokeHandler);
+        server.createContext("/invoke-batch", invokeHandler::handleBatch);
         server.start();
         port = server.getAddress().getPort();
     }
@@ -115,6 +119,98 @@ class InvokeHandlerTest {
         }
     }
 
+    @Test
+    void withoutBatcher_sendsEachCallbackToItsExecutionEndpoint() throws Exception {
+        ArrayBlockingQueue<String> callbackPaths = new ArrayBlockingQueue<>(1);
+        HttpServer callbackServer = HttpServer.create(new InetSocketAddress(0), 0);
+        callbackServer.createContext("/", exchange -> {
+            callbackPaths.offer(exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        callbackServer.start();
+        try {
+            String callbackUrl = "http://localhost:" + callbackServer.getAddress().getPort() + "/v1/internal/executions";
+            startServer(req -> Map.of("ok", true), new CallbackClient(objectMapper, callbackUrl));
+
+            String body = objectMapper.writeValueAsString(new InvocationRequest(Map.of(), null));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + "/invoke"))
+                    .header("Content-Type", "application/json")
+                    .header("X-Execution-Id", "exec-direct")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+
+            assertEquals(200, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals("/v1/internal/executions/exec-direct:complete", callbackPaths.poll(2, TimeUnit.SECONDS));
+        } finally {
+            callbackServer.stop(0);
+        }
+    }
+
+    @Test
+    void responseCompletesMode_skipsCallbackAndEchoesHeader() throws Exception {
+        ArrayBlockingQueue<String> callbacks = new ArrayBlockingQueue<>(1);
+        HttpServer callbackServer = HttpServer.create(new InetSocketAddress(0), 0);
+        callbackServer.createContext("/", exchange -> {
+            callbacks.offer(exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        callbackServer.start();
+        try {
+            String callbackUrl = "http://localhost:" + callbackServer.getAddress().getPort();
+            startServer(req -> Map.of("ok", true), new CallbackClient(objectMapper, callbackUrl));
+
+            String body = objectMapper.writeValueAsString(new InvocationRequest(Map.of(), null));
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create("http://localhost:" + port + "/invoke"))
+                    .header("Content-Type", "application/json")
+                    .header("X-Execution-Id", "exec-response")
+                    .header("X-Completion-Mode", "response")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertEquals("response", response.headers().firstValue("X-Completion-Mode").orElse(null));
+            assertNull(callbacks.poll(300, TimeUnit.MILLISECONDS));
+        } finally {
+            callbackServer.stop(0);
+        }
+    }
+
+    @Test
+    void batchInvocation_returnsOneResultPerExecution() throws Exception {
+        startServer(req -> {
+            if ("fail".equals(req.input())) {
+                throw new IllegalStateException("bad input");
+            }
+            return Map.of("echo", req.input());
+        });
+
+        String body = objectMapper.writeValueAsString(new InvocationBatchRequest(List.of(
+                new InvocationBatchRequest.Item("exec-1", "trace-1", 1, new InvocationRequest("hi", null)),
+                new InvocationBatchRequest.Item("exec-2", null, 1, new InvocationRequest("fail", null)))));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/invoke-batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        InvocationBatchResponse reply = objectMapper.readValue(response.body(), InvocationBatchResponse.class);
+        assertEquals(2, reply.results().size());
+        assertEquals("exec-1", reply.results().get(0).executionId());
+        assertEquals(Map.of("echo", "hi"), reply.results().get(0).result().output());
+        assertEquals("exec-2", reply.results().get(1).executionId());
+        assertFalse(reply.results().get(1).result().success());
+        assertEquals("HANDLER_ERROR", reply.results().get(1).result().error().code());
+    }
+
     @Test
     void coldStartHeaders() throws Exception {
         startServer(req -> Map.of("ok", true));
@@ -20,6 +20,7 @@ class RuntimeMetricsTest {
         metrics.recordColdStart("my-fn");
         metrics.observeDuration("my-fn", 0.05);
         metrics.incInFlight("my-fn");
+        metrics.recordCallbackSkipped("my-fn");
 
         String output = scrape(metrics);
 
@@ -28,6 +29,7 @@ class RuntimeMetricsTest {
         assertTrue(output.contains("nanofaas_cold_starts_total"));
         assertTrue(output.contains("nanofaas_invocation_duration_seconds"));
         assertTrue(output.contains("nanofaas_in_flight"));
+        assertTrue(output.contains("nanofaas_callbacks_skipped_total"));
     }
 
     @Test
@@ -1,10 +1,19 @@
 package it.unimib.datai.nanofaas.sdk.autoconfigure;
 
 import it.unimib.datai.nanofaas.sdk.runtime.RuntimeSettings;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http2.Http2Protocol;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
 
 /**
  * Auto-configures the Java SDK runtime inside a Spring Boot application.
@@ -13,6 +22,10 @@ import org.springframework.context.annotation.ComponentScan;
  * registering the runtime controllers, filters, clients, or settings. The runtime is driven by
  * environment variables provided by the control plane or the one-shot launcher, so the
  * configuration centralizes that startup contract in one place.</p>
+ *
+ * <p>The embedded Tomcat also accepts cleartext HTTP/2 (h2c), both prior-knowledge and via
+ * upgrade, so a control plane with {@code nanofaas.http-client.h2c} enabled can multiplex
+ * invocations over a few connections. Set {@code nanofaas.runtime.h2c=false} to serve HTTP/1.1 only.</p>
  */
 @AutoConfiguration
 @ComponentScan("it.unimib.datai.nanofaas.sdk.runtime")
@@ -26,4 +39,22 @@ public class NanofaasAutoConfiguration {
             @Value("${FUNCTION_HANDLER:}") String functionHandler) {
         return new RuntimeSettings(executionId, traceId, callbackUrl, functionHandler);
     }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass({TomcatServletWebServerFactory.class, Http2Protocol.class})
+    @ConditionalOnProperty(name = "nanofaas.runtime.h2c", havingValue = "true", matchIfMissing = true)
+    static class H2cConfiguration {
+
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> nanofaasH2cCustomizer() {
+            return factory -> factory.addConnectorCustomizers(H2cConfiguration::addHttp2);
+        }
+
+        private static void addHttp2(Connector connector) {
+            // server.http2.enabled may already have registered it.
+            if (Arrays.stream(connector.findUpgradeProtocols()).noneMatch(Http2Protocol.class::isInstance)) {
+                connector.addUpgradeProtocol(new Http2Protocol());
+            }
+        }
+    }
 }
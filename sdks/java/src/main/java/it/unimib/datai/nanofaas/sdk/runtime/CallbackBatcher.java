@@ -0,0 +1,135 @@
+package it.unimib.datai.nanofaas.sdk.runtime;
+
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces completion callbacks into {@code :complete-batch} requests.
+ *
+ * <p>Each flusher thread takes the oldest pending result, waits at most {@code linger} for more
+ * until the batch holds {@code maxBatchSize}, and hands the batch to {@link CallbackClient#sendBatch},
+ * which retries it as a whole. A burst of completions therefore costs one request per batch
+ * instead of one per execution.</p>
+ *
+ * <p>Nothing is dropped: when the buffer is full the submitting thread sends a batch itself, so a
+ * control plane that cannot keep up slows the invoke path down instead of losing results.</p>
+ */
+final class CallbackBatcher {
+    private static final Logger log = LoggerFactory.getLogger(CallbackBatcher.class);
+    private static final int MIN_BUFFER_CAPACITY = 1024;
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final CallbackClient callbackClient;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<ExecutionCompletionBatch.Item> pending;
+    private final List<Thread> flushers;
+    private final LongAdder batchesSent = new LongAdder();
+    private volatile boolean running = true;
+
+    CallbackBatcher(CallbackClient callbackClient, int flusherCount, int maxBatchSize, Duration linger) {
+        this(callbackClient, flusherCount, maxBatchSize, linger,
+                Math.max(MIN_BUFFER_CAPACITY, maxBatchSize * flusherCount * 4));
+    }
+
+    CallbackBatcher(CallbackClient callbackClient, int flusherCount, int maxBatchSize, Duration linger,
+                    int bufferCapacity) {
+        this.callbackClient = callbackClient;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = Math.max(0, linger.toNanos());
+        this.pending = new ArrayBlockingQueue<>(bufferCapacity);
+        this.flushers = new ArrayList<>(flusherCount);
+        for (int i = 0; i < Math.max(1, flusherCount); i++) {
+            Thread thread = new Thread(this::flushLoop, "callback-batcher-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);  // daemon: JVM can exit even if callbacks are in-flight
+            flushers.add(thread);
+            thread.start();
+        }
+    }
+
+    void submit(ExecutionCompletionBatch.Item completion) {
+        if (running && pending.offer(completion)) {
+            return;
+        }
+        List<ExecutionCompletionBatch.Item> batch = new ArrayList<>(maxBatchSize);
+        batch.add(completion);
+        pending.drainTo(batch, maxBatchSize - 1);
+        log.debug("Callback buffer full, sending {} callbacks from the invoke thread", batch.size());
+        send(batch);
+    }
+
+    long batchesSent() {
+        return batchesSent.sum();
+    }
+
+    /** Stops the flushers once the buffer is empty, waiting at most {@code timeout}. */
+    void close(Duration timeout) {
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (Thread flusher : flushers) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis > 0) {
+                    flusher.join(remainingMillis);
+                }
+                flusher.interrupt();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            flushers.forEach(Thread::interrupt);
+        }
+    }
+
+    private void flushLoop() {
+        List<ExecutionCompletionBatch.Item> batch = new ArrayList<>(maxBatchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                ExecutionCompletionBatch.Item first = pending.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (pending.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    ExecutionCompletionBatch.Item next = remaining > 0
+                            ? pending.poll(remaining, TimeUnit.NANOSECONDS)
+                            : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Unexpected failure sending {} callbacks", batch.size(), ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<ExecutionCompletionBatch.Item> batch) {
+        batchesSent.increment();
+        if (!callbackClient.sendBatch(List.copyOf(batch))) {
+            log.warn("Dropping {} callbacks after failed delivery", batch.size());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package it.unimib.datai.nanofaas.sdk.runtime;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatusCode;
@@ -11,6 +12,8 @@ import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
 
+import java.util.List;
+
 /**
  * Delivers invoke results back to the control plane.
  *
@@ -18,6 +21,10 @@ import org.springframework.web.client.RestClientResponseException;
  * keeps the retry policy and URL construction explicit here so the runtime can finish the request
  * lifecycle only after the control plane has a chance to receive the outcome.</p>
  *
+ * <p>{@link #sendBatch} delivers several results in one {@code :complete-batch} request with the
+ * same retry policy per batch. A control plane without that endpoint answers 404/405; the client
+ * then remembers it and sends one callback per execution from then on.</p>
+ *
  * <p>Parallel implementation exists in {@code function-sdk-java-lite} with the same retry logic
  * but a different HTTP stack. Keep retry constants and URL-building logic in sync when modifying.</p>
  */
@@ -30,6 +37,7 @@ public class CallbackClient {
     private final RestClient restClient;
     private final RuntimeSettings runtimeSettings;
     private final ObjectMapper objectMapper;
+    private volatile boolean batchEndpointAvailable = true;
 
     public CallbackClient(RestClient restClient, RuntimeSettings runtimeSettings, ObjectMapper objectMapper) {
         this.restClient = restClient;
@@ -60,6 +68,80 @@ public class CallbackClient {
     }
 
     public boolean sendResult(String executionId, CallbackPayload payload, String traceId, String dispatchAttempt) {
+        return send(executionId, payload, traceId, dispatchAttempt);
+    }
+
+    /**
+     * Sends {@code completions} in one {@code :complete-batch} request, retrying the whole batch.
+     * Returns {@code true} only if every result was delivered.
+     */
+    public boolean sendBatch(List<ExecutionCompletionBatch.Item> completions) {
+        if (completions.isEmpty()) {
+            return true;
+        }
+        if (completions.size() == 1 || !batchEndpointAvailable) {
+            return sendEach(completions);
+        }
+        String baseUrl = runtimeSettings.callbackUrl();
+        if (baseUrl == null || baseUrl.isBlank()) {
+            log.warn("CALLBACK_URL not configured, skipping callbacks for {} executions", completions.size());
+            return false;
+        }
+
+        for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+            try {
+                restClient.post()
+                        .uri(callbackBase() + ":complete-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(serializePayload(new ExecutionCompletionBatch(completions)))
+                        .retrieve()
+                        .toBodilessEntity();
+                log.debug("Batch callback sent for {} executions (attempt {})", completions.size(), attempt + 1);
+                return true;
+            } catch (RestClientException ex) {
+                if (isMissingEndpoint(ex)) {
+                    log.info("Control plane has no batch callback endpoint, sending callbacks one by one");
+                    batchEndpointAvailable = false;
+                    return sendEach(completions);
+                }
+                log.warn("Batch callback for {} executions failed (attempt {}): {}",
+                        completions.size(), attempt + 1, ex.getMessage());
+                if (isPermanentClientFailure(ex)) {
+                    log.error("Permanent batch callback failure with status {}",
+                            ((RestClientResponseException) ex).getStatusCode());
+                    return false;
+                }
+                if (attempt < MAX_RETRIES - 1) {
+                    try {
+                        sleepBeforeRetry(attempt);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        log.warn("Batch callback retry interrupted");
+                        return false;
+                    }
+                }
+            }
+        }
+
+        log.error("All {} batch callback attempts failed for {} executions", MAX_RETRIES, completions.size());
+        return false;
+    }
+
+    private boolean sendEach(List<ExecutionCompletionBatch.Item> completions) {
+        boolean delivered = true;
+        for (ExecutionCompletionBatch.Item item : completions) {
+            String dispatchAttempt = item.attempt() == null ? null : String.valueOf(item.attempt());
+            delivered &= send(item.executionId(), item.result(), item.traceId(), dispatchAttempt);
+        }
+        return delivered;
+    }
+
+    private static boolean isMissingEndpoint(RestClientException ex) {
+        return ex instanceof RestClientResponseException responseException
+                && (responseException.getStatusCode().value() == 404 || responseException.getStatusCode().value() == 405);
+    }
+
+    private boolean send(String executionId, Object payload, String traceId, String dispatchAttempt) {
         String baseUrl = runtimeSettings.callbackUrl();
         if (baseUrl == null || baseUrl.isBlank()) {
             log.warn("CALLBACK_URL not configured, skipping callback for execution {}", executionId);
@@ -99,7 +181,7 @@ public class CallbackClient {
         return false;
     }
 
-    private void doSendPayload(String executionId, CallbackPayload payload, String traceId, String dispatchAttempt) {
+    private void doSendPayload(String executionId, Object payload, String traceId, String dispatchAttempt) {
         String effectiveTraceId = (traceId != null && !traceId.isBlank())
                 ? traceId
                 : runtimeSettings.traceId();
@@ -121,7 +203,7 @@ public class CallbackClient {
                 .toBodilessEntity();
     }
 
-    private byte[] serializePayload(CallbackPayload payload) {
+    private byte[] serializePayload(Object payload) {
         try {
             return objectMapper.writeValueAsBytes(payload);
         } catch (JsonProcessingException ex) {
@@ -130,6 +212,10 @@ public class CallbackClient {
     }
 
     private String callbackUrl(String executionId) {
+        return callbackBase() + "/" + executionId + ":complete";
+    }
+
+    private String callbackBase() {
         String base = runtimeSettings.callbackUrl().strip();
         while (base.endsWith("/")) {
             base = base.substring(0, base.length() - 1);
@@ -143,6 +229,6 @@ public class CallbackClient {
                 base = base.substring(0, slashIdx);
             }
         }
-        return base + "/" + executionId + ":complete";
+        return base;
     }
 }
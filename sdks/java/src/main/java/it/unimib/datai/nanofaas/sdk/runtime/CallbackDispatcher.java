@@ -1,17 +1,24 @@
 package it.unimib.datai.nanofaas.sdk.runtime;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Asynchronously hands callback delivery off to a bounded worker pool.
@@ -19,6 +26,16 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <p>The dispatcher exists so the invoke path can return while callback delivery is still being
  * attempted, but it keeps the queue and worker count bounded so callback pressure cannot grow
  * without limit inside the function container.</p>
+ *
+ * <p>By default every callback is its own request on the bounded pool of
+ * {@code nanofaas.callback.worker-count} threads. With {@code nanofaas.callback.batch-size} above 1
+ * callbacks go through a {@link CallbackBatcher} instead: results completed within
+ * {@code nanofaas.callback.linger-ms} of each other share one {@code :complete-batch} request, sent
+ * by {@code nanofaas.callback.flusher-count} threads, and a full buffer is flushed by the caller
+ * instead of dropping. The worker pool is not created then.</p>
+ *
+ * <p>Callbacks the invoke path decides not to send, because the control plane already took the
+ * result from the response, are only counted ({@code nanofaas_callbacks_skipped_total}).</p>
  */
 @Component
 public class CallbackDispatcher {
@@ -28,13 +45,55 @@ public class CallbackDispatcher {
     private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
 
     private final CallbackClient callbackClient;
+    /** {@code null} when callbacks are batched. */
     private final ThreadPoolExecutor executor;
+    /** {@code null} when every callback is sent on its own. */
+    private final CallbackBatcher batcher;
+    private final LongAdder skipped = new LongAdder();
 
     @Autowired
     public CallbackDispatcher(
             CallbackClient callbackClient,
-            @Value("${nanofaas.callback.worker-count:2}") int workerCount) {
-        this(callbackClient, new ThreadPoolExecutor(
+            @Value("${nanofaas.callback.worker-count:2}") int workerCount,
+            @Value("${nanofaas.callback.batch-size:1}") int batchSize,
+            @Value("${nanofaas.callback.linger-ms:5}") long lingerMs,
+            @Value("${nanofaas.callback.flusher-count:2}") int flusherCount,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(callbackClient,
+                batchSize > 1 ? null : newExecutor(workerCount),
+                batchSize > 1 ? new CallbackBatcher(callbackClient, flusherCount, batchSize, Duration.ofMillis(lingerMs)) : null);
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("nanofaas.callbacks.skipped", skipped, LongAdder::sum)
+                    .description("Completion callbacks not sent because the invoke response completed the execution")
+                    .register(registry);
+            if (batcher != null) {
+                FunctionCounter.builder("nanofaas.callback.batches", batcher, CallbackBatcher::batchesSent)
+                        .description("Callback requests sent, each carrying one or more completions")
+                        .register(registry);
+            }
+        });
+    }
+
+    public CallbackDispatcher(CallbackClient callbackClient, int workerCount) {
+        this(callbackClient, newExecutor(workerCount), null);
+    }
+
+    CallbackDispatcher(CallbackClient callbackClient, ThreadPoolExecutor executor) {
+        this(callbackClient, executor, null);
+    }
+
+    CallbackDispatcher(CallbackClient callbackClient, CallbackBatcher batcher) {
+        this(callbackClient, null, batcher);
+    }
+
+    private CallbackDispatcher(CallbackClient callbackClient, ThreadPoolExecutor executor, CallbackBatcher batcher) {
+        this.callbackClient = callbackClient;
+        this.executor = executor;
+        this.batcher = batcher;
+    }
+
+    private static ThreadPoolExecutor newExecutor(int workerCount) {
+        return new ThreadPoolExecutor(
                 workerCount,
                 workerCount,
                 0L,
@@ -46,12 +105,7 @@ public class CallbackDispatcher {
                     thread.setDaemon(true);  // daemon: JVM can exit even if callbacks are in-flight
                     return thread;
                 },
-                new ThreadPoolExecutor.AbortPolicy()));
-    }
-
-    CallbackDispatcher(CallbackClient callbackClient, ThreadPoolExecutor executor) {
-        this.callbackClient = callbackClient;
-        this.executor = executor;
+                new ThreadPoolExecutor.AbortPolicy());
     }
 
     public boolean submit(String executionId, CallbackPayload payload, String traceId) {
@@ -59,6 +113,11 @@ public class CallbackDispatcher {
     }
 
     public boolean submit(String executionId, CallbackPayload payload, String traceId, String dispatchAttempt) {
+        if (batcher != null) {
+            batcher.submit(new ExecutionCompletionBatch.Item(executionId, traceId, parseAttempt(dispatchAttempt),
+                    new InvocationResult(payload.success(), payload.output(), payload.error())));
+            return true;
+        }
         try {
             executor.execute(() -> callbackClient.sendResult(executionId, payload, traceId, dispatchAttempt));
             return true;
@@ -68,8 +127,33 @@ public class CallbackDispatcher {
         }
     }
 
+    /** Records that the callback for {@code executionId} was left out on purpose. */
+    public void skip(String executionId) {
+        skipped.increment();
+        log.debug("Skipping callback for execution {}: completed by the invoke response", executionId);
+    }
+
+    public long skippedCount() {
+        return skipped.sum();
+    }
+
+    private static Integer parseAttempt(String dispatchAttempt) {
+        if (dispatchAttempt == null || dispatchAttempt.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(dispatchAttempt.strip());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
     @PreDestroy
     void shutdown() {
+        if (batcher != null) {
+            batcher.close(Duration.ofSeconds(SHUTDOWN_TIMEOUT_SECONDS));
+            return;
+        }
         executor.shutdown();
         try {
             if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
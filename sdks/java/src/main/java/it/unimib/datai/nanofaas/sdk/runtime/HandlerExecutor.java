@@ -6,6 +6,8 @@ import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 /**
@@ -43,6 +45,22 @@ public class HandlerExecutor {
         }
     }
 
+    /**
+     * Runs independent invocations concurrently and waits for all of them. Each call applies its
+     * own timeout (see {@link #execute}) and must report its failures through its result.
+     */
+    public <T> List<T> executeAll(List<Callable<T>> invocations) throws InterruptedException {
+        List<T> results = new ArrayList<>(invocations.size());
+        for (Future<T> future : executor.invokeAll(invocations)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Batch invocation failed unexpectedly", ex.getCause());
+            }
+        }
+        return results;
+    }
+
     @PreDestroy
     void shutdown() {
         executor.shutdownNow();
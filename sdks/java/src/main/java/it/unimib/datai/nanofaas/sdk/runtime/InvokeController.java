@@ -1,14 +1,20 @@
 package it.unimib.datai.nanofaas.sdk.runtime;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import it.unimib.datai.nanofaas.common.runtime.FunctionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -18,11 +24,21 @@ import java.util.concurrent.TimeoutException;
  * trace context, rejects requests that arrive without an execution identifier, tracks cold-start
  * state, dispatches the active handler, and posts the result back to the control plane as a
  * callback.</p>
+ *
+ * <p>{@code /invoke-batch} carries several executions (each with its own execution id, trace id
+ * and dispatch attempt) for functions that opt into micro-batching. The items run concurrently
+ * and every item gets its own callback, exactly like a single {@code /invoke}.</p>
+ *
+ * <p>When the dispatcher sends {@code X-Completion-Mode: response} it completes executions from
+ * the response body, so successful results are not called back and the header is echoed to
+ * acknowledge that. Errors keep their callback, which carries the precise error code.</p>
  */
 @RestController
 public class InvokeController {
     private static final Logger log = LoggerFactory.getLogger(InvokeController.class);
     private static final String DEFAULT_HANDLER_ERROR_MESSAGE = "Handler execution failed";
+    static final String COMPLETION_MODE_HEADER = "X-Completion-Mode";
+    static final String RESPONSE_COMPLETES = "response";
 
     private final CallbackDispatcher callbackDispatcher;
     private final HandlerRegistry handlerRegistry;
@@ -51,7 +67,8 @@ public class InvokeController {
             @RequestBody InvocationRequest request,
             @RequestHeader(value = "X-Execution-Id", required = false) String headerExecutionId,
             @RequestHeader(value = "X-Trace-Id", required = false) String traceId,
-            @RequestHeader(value = "X-Dispatch-Attempt", required = false) String dispatchAttempt) {
+            @RequestHeader(value = "X-Dispatch-Attempt", required = false) String dispatchAttempt,
+            @RequestHeader(value = COMPLETION_MODE_HEADER, required = false) String completionMode) {
 
         InvocationRuntimeContext runtimeContext = runtimeContextResolver.resolve(headerExecutionId, traceId);
         String effectiveExecutionId = runtimeContext.executionId();
@@ -70,13 +87,17 @@ public class InvokeController {
             Object rawOutput = handlerExecutor.execute(handler, request);
             JsonNode output = outputNormalizer.toJsonNode(rawOutput);
 
-            callbackDispatcher.submit(
-                    effectiveExecutionId,
-                    CallbackPayload.success(output),
-                    runtimeContext.traceId(),
-                    dispatchAttempt);
-
             ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok();
+            if (responseCompletes(completionMode)) {
+                callbackDispatcher.skip(effectiveExecutionId);
+                responseBuilder.header(COMPLETION_MODE_HEADER, RESPONSE_COMPLETES);
+            } else {
+                callbackDispatcher.submit(
+                        effectiveExecutionId,
+                        CallbackPayload.success(output),
+                        runtimeContext.traceId(),
+                        dispatchAttempt);
+            }
             if (isColdStart) {
                 responseBuilder.header("X-Cold-Start", "true");
                 responseBuilder.header("X-Init-Duration-Ms", String.valueOf(coldStartTracker.initDurationMs()));
@@ -115,6 +136,73 @@ public class InvokeController {
         }
     }
 
+    @PostMapping("/invoke-batch")
+    public ResponseEntity<Object> invokeBatch(
+            @RequestBody InvocationBatchRequest batch,
+            @RequestHeader(value = COMPLETION_MODE_HEADER, required = false) String completionMode)
+            throws InterruptedException {
+        List<InvocationBatchRequest.Item> items = batch.items() == null ? List.of() : batch.items();
+        boolean responseCompletes = responseCompletes(completionMode);
+
+        boolean isColdStart = coldStartTracker.firstInvocation();
+        coldStartTracker.markFirstRequestArrival();
+
+        List<Callable<InvocationBatchResponse.Item>> invocations = new ArrayList<>(items.size());
+        for (InvocationBatchRequest.Item item : items) {
+            invocations.add(() -> invokeItem(item, responseCompletes));
+        }
+        List<InvocationBatchResponse.Item> results = handlerExecutor.executeAll(invocations);
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok();
+        if (responseCompletes) {
+            responseBuilder.header(COMPLETION_MODE_HEADER, RESPONSE_COMPLETES);
+        }
+        if (isColdStart) {
+            responseBuilder.header("X-Cold-Start", "true");
+            responseBuilder.header("X-Init-Duration-Ms", String.valueOf(coldStartTracker.initDurationMs()));
+        }
+        return responseBuilder.body(new InvocationBatchResponse(results));
+    }
+
+    public ResponseEntity<Object> invokeBatch(InvocationBatchRequest batch) throws InterruptedException {
+        return invokeBatch(batch, null);
+    }
+
+    private InvocationBatchResponse.Item invokeItem(InvocationBatchRequest.Item item, boolean responseCompletes) {
+        InvocationRuntimeContext runtimeContext = runtimeContextResolver.resolve(item.executionId(), item.traceId());
+        String executionId = runtimeContext.executionId();
+        if (executionId == null || executionId.isBlank()) {
+            return new InvocationBatchResponse.Item(item.executionId(),
+                    InvocationResult.error("HANDLER_ERROR", "Execution ID not configured"));
+        }
+        String dispatchAttempt = item.attempt() == null ? null : String.valueOf(item.attempt());
+
+        CallbackPayload payload;
+        try {
+            FunctionHandler handler = handlerRegistry.resolve();
+            JsonNode output = outputNormalizer.toJsonNode(handlerExecutor.execute(handler, item.request()));
+            payload = CallbackPayload.success(output);
+        } catch (OutputSerializationException ex) {
+            log.error("Handler output serialization failed for execution {}: {}", executionId, ex.getMessage(), ex);
+            payload = CallbackPayload.error("OUTPUT_SERIALIZATION_ERROR", ex.getMessage());
+        } catch (TimeoutException ex) {
+            log.error("Handler timed out for execution {}", executionId);
+            payload = CallbackPayload.error("HANDLER_TIMEOUT", "Handler exceeded configured timeout");
+        } catch (Exception ex) {
+            String errorMessage = handlerErrorMessage(ex);
+            log.error("Handler error for execution {}: {}", executionId, errorMessage, ex);
+            payload = CallbackPayload.error("HANDLER_ERROR", errorMessage);
+        }
+
+        if (responseCompletes && payload.success()) {
+            callbackDispatcher.skip(executionId);
+        } else {
+            callbackDispatcher.submit(executionId, payload, runtimeContext.traceId(), dispatchAttempt);
+        }
+        return new InvocationBatchResponse.Item(executionId,
+                new InvocationResult(payload.success(), payload.output(), payload.error()));
+    }
+
     public ResponseEntity<Object> invoke(
             InvocationRequest request,
             String headerExecutionId,
@@ -122,6 +210,18 @@ public class InvokeController {
         return invoke(request, headerExecutionId, traceId, null);
     }
 
+    public ResponseEntity<Object> invoke(
+            InvocationRequest request,
+            String headerExecutionId,
+            String traceId,
+            String dispatchAttempt) {
+        return invoke(request, headerExecutionId, traceId, dispatchAttempt, null);
+    }
+
+    private static boolean responseCompletes(String completionMode) {
+        return RESPONSE_COMPLETES.equalsIgnoreCase(completionMode);
+    }
+
     private static String handlerErrorMessage(Exception ex) {
         String message = ex.getMessage();
         return (message == null || message.isBlank()) ? DEFAULT_HANDLER_ERROR_MESSAGE : message;
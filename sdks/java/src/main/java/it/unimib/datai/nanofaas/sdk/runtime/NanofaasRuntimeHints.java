@@ -1,6 +1,8 @@
 package it.unimib.datai.nanofaas.sdk.runtime;
 
 import it.unimib.datai.nanofaas.common.model.ErrorInfo;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchResponse;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import org.springframework.aot.hint.MemberCategory;
 import org.springframework.aot.hint.RuntimeHints;
 import org.springframework.aot.hint.RuntimeHintsRegistrar;
@@ -18,5 +20,21 @@ public class NanofaasRuntimeHints implements RuntimeHintsRegistrar {
                 MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
                 MemberCategory.INVOKE_PUBLIC_METHODS
         );
+        // /invoke-batch returns these through ResponseEntity<Object>, which AOT cannot infer.
+        hints.reflection().registerType(
+                InvocationBatchResponse.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS
+        );
+        hints.reflection().registerType(
+                InvocationBatchResponse.Item.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS
+        );
+        hints.reflection().registerType(
+                InvocationResult.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS
+        );
     }
 }
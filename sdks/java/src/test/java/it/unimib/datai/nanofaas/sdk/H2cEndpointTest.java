@@ -0,0 +1,44 @@
+package it.unimib.datai.nanofaas.sdk;
+
+import it.unimib.datai.nanofaas.sdk.runtime.HandlerRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = H2cEndpointTest.TestApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class H2cEndpointTest {
+
+    @SpringBootApplication
+    static class TestApp {
+    }
+
+    @MockBean
+    HandlerRegistry handlerRegistry;
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void runtime_acceptsHttp2PriorKnowledge() throws Exception {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .protocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE))
+                .build();
+
+        try (Response response = client.newCall(new Request.Builder()
+                .url("http://localhost:" + port + "/health")
+                .build()).execute()) {
+            assertThat(response.code()).isEqualTo(200);
+            assertThat(response.protocol()).isEqualTo(Protocol.H2_PRIOR_KNOWLEDGE);
+        }
+    }
+}
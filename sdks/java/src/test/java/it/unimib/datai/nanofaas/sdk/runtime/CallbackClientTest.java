@@ -1,6 +1,8 @@
 package it.unimib.datai.nanofaas.sdk.runtime;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
+import it.unimib.datai.nanofaas.common.model.InvocationResult;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.web.client.RestClient;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -371,6 +374,61 @@ class CallbackClientTest {
         assertFalse(body.contains("NativeLikeOutput"));
     }
 
+    @Test
+    void sendBatch_postsAllCompletionsInOneRequest() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(204));
+
+        boolean ok = client.sendBatch(List.of(
+                new ExecutionCompletionBatch.Item("exec-1", "trace-1", 2, InvocationResult.success("one")),
+                new ExecutionCompletionBatch.Item("exec-2", null, null, InvocationResult.error("HANDLER_ERROR", "boom"))));
+
+        assertTrue(ok);
+        RecordedRequest req = server.takeRequest();
+        assertEquals("/v1/executions:complete-batch", req.getPath());
+        String body = req.getBody().readUtf8();
+        assertTrue(body.contains("\"executionId\":\"exec-1\",\"traceId\":\"trace-1\",\"attempt\":2"));
+        assertTrue(body.contains("\"code\":\"HANDLER_ERROR\""));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void sendBatch_retriesTheWholeBatch() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(204));
+
+        boolean ok = client.sendBatch(List.of(
+                new ExecutionCompletionBatch.Item("exec-1", null, 1, InvocationResult.success("one")),
+                new ExecutionCompletionBatch.Item("exec-2", null, 1, InvocationResult.success("two"))));
+
+        assertTrue(ok);
+        assertEquals(2, server.getRequestCount());
+        assertEquals("/v1/executions:complete-batch", server.takeRequest().getPath());
+        assertEquals("/v1/executions:complete-batch", server.takeRequest().getPath());
+    }
+
+    @Test
+    void sendBatch_withoutBatchEndpoint_fallsBackToSingleCallbacksFromThenOn() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        server.enqueue(new MockResponse().setResponseCode(204));
+        List<ExecutionCompletionBatch.Item> batch = List.of(
+                new ExecutionCompletionBatch.Item("exec-1", null, 3, InvocationResult.success("one")),
+                new ExecutionCompletionBatch.Item("exec-2", null, null, InvocationResult.success("two")));
+
+        assertTrue(client.sendBatch(batch));
+        assertTrue(client.sendBatch(batch));
+
+        assertEquals("/v1/executions:complete-batch", server.takeRequest().getPath());
+        RecordedRequest first = server.takeRequest();
+        assertEquals("/v1/executions/exec-1:complete", first.getPath());
+        assertEquals("3", first.getHeader("X-Dispatch-Attempt"));
+        assertEquals("/v1/executions/exec-2:complete", server.takeRequest().getPath());
+        assertEquals("/v1/executions/exec-1:complete", server.takeRequest().getPath());
+        assertEquals(5, server.getRequestCount());
+    }
+
     /** Removes retry delays for fast test execution. */
     private static class FastCallbackClient extends CallbackClient {
         FastCallbackClient(RestClient restClient, RuntimeSettings settings, ObjectMapper mapper) {
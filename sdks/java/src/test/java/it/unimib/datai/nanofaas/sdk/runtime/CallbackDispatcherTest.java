@@ -1,8 +1,17 @@
 package it.unimib.datai.nanofaas.sdk.runtime;
 
 import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import it.unimib.datai.nanofaas.common.model.ExecutionCompletionBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -12,9 +21,11 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -150,4 +161,72 @@ class CallbackDispatcherTest {
         shutdownTask.get(2, TimeUnit.SECONDS);
         verify(callbackClient).sendResult(eq("exec-1"), any(CallbackPayload.class), eq("trace-1"), isNull());
     }
+
+    @Test
+    void skip_countsWithoutCallingBack() {
+        CallbackClient callbackClient = mock(CallbackClient.class);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dispatcher = new CallbackDispatcher(callbackClient, 1, 1, 5, 1, new StaticListableBeanFactory(
+                Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+
+        dispatcher.skip("exec-1");
+        dispatcher.skip("exec-2");
+
+        assertEquals(2, dispatcher.skippedCount());
+        assertEquals(2.0, registry.get("nanofaas.callbacks.skipped").functionCounter().count());
+        verifyNoInteractions(callbackClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchedSubmit_coalescesCallbacksIntoOneBatch() {
+        CallbackClient callbackClient = mock(CallbackClient.class);
+        when(callbackClient.sendBatch(anyList())).thenReturn(true);
+        CallbackBatcher batcher = new CallbackBatcher(callbackClient, 1, 3, Duration.ofSeconds(2));
+        dispatcher = new CallbackDispatcher(callbackClient, batcher);
+
+        assertTrue(dispatcher.submit("exec-1", CallbackPayload.success(TextNode.valueOf("one")), "trace-1", "2"));
+        assertTrue(dispatcher.submit("exec-2", CallbackPayload.error("HANDLER_ERROR", "boom"), null, null));
+        assertTrue(dispatcher.submit("exec-3", CallbackPayload.success(TextNode.valueOf("three")), null, "x"));
+
+        ArgumentCaptor<List<ExecutionCompletionBatch.Item>> captor = ArgumentCaptor.forClass(List.class);
+        verify(callbackClient, timeout(2000)).sendBatch(captor.capture());
+        List<ExecutionCompletionBatch.Item> batch = captor.getValue();
+        assertEquals(List.of("exec-1", "exec-2", "exec-3"),
+                batch.stream().map(ExecutionCompletionBatch.Item::executionId).toList());
+        assertEquals(2, batch.get(0).attempt());
+        assertEquals("trace-1", batch.get(0).traceId());
+        assertFalse(batch.get(1).result().success());
+        assertNull(batch.get(2).attempt());
+        assertEquals(1, batcher.batchesSent());
+        verify(callbackClient, never()).sendResult(anyString(), any(CallbackPayload.class), any(), any());
+    }
+
+    @Test
+    void batchedSubmit_whenBufferIsFull_sendsFromCallerInsteadOfDropping() throws Exception {
+        CallbackClient callbackClient = mock(CallbackClient.class);
+        CountDownLatch flusherBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        AtomicInteger sentByCaller = new AtomicInteger();
+        when(callbackClient.sendBatch(anyList())).thenAnswer(invocation -> {
+            if (Thread.currentThread() == caller) {
+                sentByCaller.addAndGet(invocation.<List<?>>getArgument(0).size());
+                return true;
+            }
+            flusherBusy.countDown();
+            assertTrue(release.await(2, TimeUnit.SECONDS));
+            return true;
+        });
+        CallbackBatcher batcher = new CallbackBatcher(callbackClient, 1, 4, Duration.ZERO, 1);
+        dispatcher = new CallbackDispatcher(callbackClient, batcher);
+
+        assertTrue(dispatcher.submit("exec-1", CallbackPayload.success(TextNode.valueOf("one")), null));
+        assertTrue(flusherBusy.await(2, TimeUnit.SECONDS));
+        assertTrue(dispatcher.submit("exec-2", CallbackPayload.success(TextNode.valueOf("two")), null));
+        assertTrue(dispatcher.submit("exec-3", CallbackPayload.success(TextNode.valueOf("three")), null));
+
+        release.countDown();
+        assertEquals(2, sentByCaller.get());
+    }
 }
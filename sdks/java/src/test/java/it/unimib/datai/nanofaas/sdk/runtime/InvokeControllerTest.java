@@ -1,6 +1,8 @@
 package it.unimib.datai.nanofaas.sdk.runtime;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchRequest;
+import it.unimib.datai.nanofaas.common.model.InvocationBatchResponse;
 import it.unimib.datai.nanofaas.common.model.InvocationRequest;
 import it.unimib.datai.nanofaas.common.runtime.FunctionHandler;
 import okhttp3.mockwebserver.MockResponse;
@@ -268,4 +270,84 @@ class InvokeControllerTest {
         verify(coldStartTracker, times(2)).firstInvocation();
         verify(coldStartTracker).initDurationMs();
     }
+
+    @Test
+    void invokeBatch_runsEachItemAndCallsBackPerExecution() throws Exception {
+        when(handler.handle(any())).thenAnswer(inv -> {
+            InvocationRequest request = inv.getArgument(0);
+            if ("fail".equals(request.input())) {
+                throw new IllegalStateException("bad input");
+            }
+            return Map.of("echo", request.input());
+        });
+        when(runtimeContextResolver.resolve(eq("exec-1"), any()))
+                .thenReturn(new InvocationRuntimeContext("exec-1", "trace-1"));
+        when(runtimeContextResolver.resolve(eq("exec-2"), any()))
+                .thenReturn(new InvocationRuntimeContext("exec-2", null));
+
+        ResponseEntity<Object> response = controller.invokeBatch(new InvocationBatchRequest(List.of(
+                new InvocationBatchRequest.Item("exec-1", "trace-1", 2, new InvocationRequest("hi", null)),
+                new InvocationBatchRequest.Item("exec-2", null, 1, new InvocationRequest("fail", null)))));
+
+        assertEquals(200, response.getStatusCode().value());
+        InvocationBatchResponse body = (InvocationBatchResponse) response.getBody();
+        assertEquals(2, body.results().size());
+        assertEquals("exec-1", body.results().get(0).executionId());
+        assertTrue(body.results().get(0).result().success());
+        assertEquals("hi", ((JsonNode) body.results().get(0).result().output()).get("echo").asText());
+        assertEquals("exec-2", body.results().get(1).executionId());
+        assertEquals("HANDLER_ERROR", body.results().get(1).result().error().code());
+        verify(callbackDispatcher).submit(eq("exec-1"), argThat(CallbackPayload::success), eq("trace-1"), eq("2"));
+        verify(callbackDispatcher).submit(eq("exec-2"), argThat(payload -> !payload.success()), isNull(), eq("1"));
+    }
+
+    @Test
+    void invoke_responseCompletesMode_skipsSuccessCallbackAndAcknowledges() {
+        when(handler.handle(any())).thenReturn(Map.of("result", "hello"));
+
+        ResponseEntity<Object> response = controller.invoke(
+                new InvocationRequest("input", null), "exec-1", "trace-1", "1", "response");
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("response", response.getHeaders().getFirst("X-Completion-Mode"));
+        verify(callbackDispatcher).skip("env-exec-id");
+        verify(callbackDispatcher, never()).submit(anyString(), any(CallbackPayload.class), any(), any());
+    }
+
+    @Test
+    void invoke_responseCompletesMode_stillCallsBackErrors() {
+        when(handler.handle(any())).thenThrow(new IllegalStateException("boom"));
+
+        ResponseEntity<Object> response = controller.invoke(
+                new InvocationRequest("input", null), "exec-1", "trace-1", "1", "response");
+
+        assertEquals(500, response.getStatusCode().value());
+        assertNull(response.getHeaders().getFirst("X-Completion-Mode"));
+        verify(callbackDispatcher).submit(eq("env-exec-id"), argThat(payload -> !payload.success()), any(), eq("1"));
+        verify(callbackDispatcher, never()).skip(anyString());
+    }
+
+    @Test
+    void invokeBatch_responseCompletesMode_callsBackOnlyFailedItems() throws Exception {
+        when(handler.handle(any())).thenAnswer(inv -> {
+            InvocationRequest request = inv.getArgument(0);
+            if ("fail".equals(request.input())) {
+                throw new IllegalStateException("bad input");
+            }
+            return "ok";
+        });
+        when(runtimeContextResolver.resolve(eq("exec-1"), any()))
+                .thenReturn(new InvocationRuntimeContext("exec-1", null));
+        when(runtimeContextResolver.resolve(eq("exec-2"), any()))
+                .thenReturn(new InvocationRuntimeContext("exec-2", null));
+
+        ResponseEntity<Object> response = controller.invokeBatch(new InvocationBatchRequest(List.of(
+                new InvocationBatchRequest.Item("exec-1", null, 1, new InvocationRequest("hi", null)),
+                new InvocationBatchRequest.Item("exec-2", null, 1, new InvocationRequest("fail", null)))), "response");
+
+        assertEquals("response", response.getHeaders().getFirst("X-Completion-Mode"));
+        verify(callbackDispatcher).skip("exec-1");
+        verify(callbackDispatcher, never()).submit(eq("exec-1"), any(CallbackPayload.class), any(), any());
+        verify(callbackDispatcher).submit(eq("exec-2"), argThat(payload -> !payload.success()), isNull(), eq("1"));
+    }
 }